@@ -22,7 +22,18 @@
  */
 package org.neomatrix369.apiworld;
 
-import org.neomatrix369.apiworld.util.Utils;
+import org.apache.commons.io.IOUtils;
+import org.neomatrix369.apiworld.cache.CacheMode;
+import org.neomatrix369.apiworld.cache.CachedResponse;
+import org.neomatrix369.apiworld.cache.ResponseCache;
+import org.neomatrix369.apiworld.cache.SingleFlight;
+import org.neomatrix369.apiworld.exception.HttpStatusException;
+import org.neomatrix369.apiworld.ratelimit.RateLimiter;
+import org.neomatrix369.apiworld.resilience.ProviderIsolation;
+import org.neomatrix369.apiworld.resilience.ResiliencePolicy;
+import org.neomatrix369.apiworld.transport.DefaultHttpTransport;
+import org.neomatrix369.apiworld.transport.HttpTransport;
+import org.neomatrix369.apiworld.transport.TransferMeter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,11 +41,14 @@ import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.ProtocolException;
+import java.net.URI;
 import java.net.URL;
-import java.util.ArrayList;
+import java.nio.charset.Charset;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
@@ -50,11 +64,33 @@ public class APIReader {
     private static final String MSG_READING_COMPLETED = ">>> Reading completed...";
     private static final String MSG_CONNECTING_TO_URL = ">>> Connecting to URL: <%s>, this may take a moment.";
     private static final String MSG_READING_RESULTS_RETURNED = ">>> Reading results returned, this may take a moment...";
+    private static final String MSG_READING_FROM_CACHE = ">>> Reading cached results for URL: <%s>";
+    private static final String MSG_NOT_MODIFIED = ">>> Cached results for URL: <%s> not modified, reusing them";
+
+    private static final int DRAIN_BUFFER_SIZE = 512;
+    private static final boolean IDEMPOTENT = true;
+    private static final boolean NOT_IDEMPOTENT = false;
+
+    private static final String ETAG = "ETag";
+    private static final String LAST_MODIFIED = "Last-Modified";
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
 
     private static final Logger logger = LoggerFactory.getLogger(APIReader.class);
     private URL url;
 
     private Map<String, String> headers = new HashMap<String, String>();
+    private HttpTransport transport = new DefaultHttpTransport();
+    private Executor executor = ExecutionMode.PLATFORM_THREADS.executor();
+    private ResponseCache responseCache;
+    private CacheMode cacheMode = CacheMode.DEFAULT;
+    private TransferMeter transferMeter;
+    private ResiliencePolicy resiliencePolicy;
+    private ProviderIsolation providerIsolation;
+    private RateLimiter rateLimiter;
+    private SingleFlight singleFlight;
+    private String rateLimitKey;
 
     public APIReader(UriBuilder uriBuilder) {
         constructUrl(uriBuilder.getFinalURL());
@@ -74,6 +110,133 @@ public class APIReader {
         return this;
     }
 
+    /**
+     * Sets the transport used to open connections, i.e. a
+     * {@link org.neomatrix369.apiworld.transport.PooledHttpTransport} shared
+     * between readers to keep connections to the same provider alive.
+     *
+     * @param transport HttpTransport
+     */
+    public APIReader setTransport(HttpTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Sets the executor the asynchronous <code>execute...Async</code> calls run on,
+     * by default the bounded pool of {@link ExecutionMode#PLATFORM_THREADS}.
+     *
+     * @param executor Executor
+     */
+    public APIReader setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Runs the asynchronous <code>execute...Async</code> calls on the shared
+     * executor of the mode, i.e. {@link ExecutionMode#VIRTUAL_THREADS} so that
+     * many calls blocked on I/O do not each hold a platform thread.
+     *
+     * @param executionMode ExecutionMode
+     */
+    public APIReader setExecutionMode(ExecutionMode executionMode) {
+        return setExecutor(executionMode.executor());
+    }
+
+    /**
+     * Sets the cache GET responses are served from while fresh, usually shared
+     * between readers. No responses are cached unless a cache is set.
+     *
+     * @param responseCache ResponseCache
+     */
+    public APIReader setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+        return this;
+    }
+
+    /**
+     * Sets how the requests of this reader use the response cache, i.e. to
+     * bypass it for a call which must see the latest data.
+     *
+     * @param cacheMode CacheMode
+     */
+    public APIReader setCacheMode(CacheMode cacheMode) {
+        this.cacheMode = cacheMode;
+        return this;
+    }
+
+    /**
+     * Sets the meter the raw and decoded sizes of the response bodies are
+     * counted on, usually shared between readers.
+     *
+     * @param transferMeter TransferMeter
+     */
+    public APIReader setTransferMeter(TransferMeter transferMeter) {
+        this.transferMeter = transferMeter;
+        return this;
+    }
+
+    /**
+     * Sets the timeouts and retries requests are made with. Without a policy
+     * requests are attempted once, with no timeouts.
+     *
+     * @param resiliencePolicy ResiliencePolicy
+     */
+    public APIReader setResiliencePolicy(ResiliencePolicy resiliencePolicy) {
+        this.resiliencePolicy = resiliencePolicy;
+        return this;
+    }
+
+    /**
+     * Sets the circuit breakers and bulkheads every attempt to reach the
+     * provider goes through, usually shared between readers.
+     *
+     * @param providerIsolation ProviderIsolation
+     */
+    public APIReader setProviderIsolation(ProviderIsolation providerIsolation) {
+        this.providerIsolation = providerIsolation;
+        return this;
+    }
+
+    /**
+     * Sets the rate limiter every attempt takes a token from, under the quota
+     * of the provider of the URL.
+     *
+     * @param rateLimiter RateLimiter
+     */
+    public APIReader setRateLimiter(RateLimiter rateLimiter) {
+        return setRateLimiter(rateLimiter, RateLimiter.keyFor(url));
+    }
+
+    /**
+     * Sets the rate limiter every attempt takes a token from, under the given
+     * quota, i.e. one per API key (see {@link RateLimiter#keyFor(URL, String)}).
+     *
+     * @param rateLimiter  RateLimiter
+     * @param rateLimitKey String
+     */
+    public APIReader setRateLimiter(RateLimiter rateLimiter, String rateLimitKey) {
+        this.rateLimiter = rateLimiter;
+        this.rateLimitKey = rateLimitKey;
+        return this;
+    }
+
+    /**
+     * Sets the single flight identical concurrent GETs (same final URL and
+     * request properties) share one call through, usually shared between
+     * readers. Only GETs whose response is read in full anyway are shared:
+     * those returning a String or bytes, and those going through the cache. A
+     * GET with its own handler and no cache streams its own response, and GETs
+     * bypassing the cache are never shared.
+     *
+     * @param singleFlight SingleFlight
+     */
+    public APIReader setSingleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+        return this;
+    }
+
     public String executeGetUrl() throws IOException {
         return executeGetUrl(null);
     }
@@ -83,21 +246,218 @@ public class APIReader {
     }
 
     public String executePostUrl(String urlParameters) throws IOException {
-        HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
-        preparePostUrl(urlConnection);
+        return executePostUrl(urlParameters, this::getResponse);
+    }
 
-        // TODO: work with null
-        // urlConnection.setRequestProperty("Content-Length", "" +
-        // Integer.toString(urlParameters.getBytes().length));
+    public String executeGetUrl(Map<String, String> requestProperties) throws IOException {
+        return executeBufferedGet(requestProperties, this::getResponse);
+    }
 
-        setUrlParameters(urlConnection, urlParameters);
-        return fireRequest(urlConnection);
+    /**
+     * Fires a POST request and streams the response body to the handler as it
+     * arrives, instead of first reading all of it into a String.
+     *
+     * @param urlParameters   String
+     * @param responseHandler ResponseHandler
+     * @return T whatever the handler returns
+     */
+    public <T> T executePostUrl(final String urlParameters, final ResponseHandler<T> responseHandler)
+            throws IOException {
+        return execute(NOT_IDEMPOTENT, (urlConnection, deadlineNanos) -> {
+            preparePostUrl(urlConnection);
+
+            // TODO: work with null
+            // urlConnection.setRequestProperty("Content-Length", "" +
+            // Integer.toString(urlParameters.getBytes().length));
+
+            setUrlParameters(urlConnection, urlParameters);
+            return fireRequest(urlConnection, deadlineNanos, responseHandler);
+        });
     }
 
-    public String executeGetUrl(Map<String, String> requestProperties) throws IOException {
-        HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
-        prepareGetRequest(urlConnection, requestProperties);
-        return fireRequest(urlConnection);
+    /**
+     * Fires a GET request and streams the response body to the handler as it
+     * arrives, instead of first reading all of it into a String.
+     *
+     * @param requestProperties Map
+     * @param responseHandler   ResponseHandler
+     * @return T whatever the handler returns
+     */
+    public <T> T executeGetUrl(Map<String, String> requestProperties, ResponseHandler<T> responseHandler)
+            throws IOException {
+        if (responseCache == null) {
+            return fireGetRequest(requestProperties, responseHandler);
+        }
+        return executeBufferedGet(requestProperties, responseHandler);
+    }
+
+    /**
+     * Fires a GET request whose body is read in full before the handler gets
+     * it, so that it can be cached and shared with identical concurrent GETs.
+     */
+    private <T> T executeBufferedGet(Map<String, String> requestProperties, ResponseHandler<T> responseHandler)
+            throws IOException {
+        if (cacheMode == CacheMode.BYPASS || (responseCache == null && singleFlight == null)) {
+            return fireGetRequest(requestProperties, responseHandler);
+        }
+
+        final String requestKey = ResponseCache.keyFor(url.toString(), requestProperties);
+        CachedResponse response = responseCache == null ? null : responseCache.get(requestKey);
+        if (response == null) {
+            response = coalesced(requestKey, () -> fetchResponse(requestKey, requestProperties));
+        } else {
+            logger.info(String.format(MSG_READING_FROM_CACHE, url));
+        }
+        return handle(responseHandler, new ByteArrayInputStream(response.getBody()), response.getCharset());
+    }
+
+    private CachedResponse fetchResponse(String requestKey, Map<String, String> requestProperties)
+            throws IOException {
+        if (responseCache == null) {
+            return execute(IDEMPOTENT, (urlConnection, deadlineNanos) -> {
+                prepareGetRequest(urlConnection, requestProperties);
+                return fireRequest(urlConnection, deadlineNanos, (body, charset) -> new CachedResponse(
+                        IOUtils.toByteArray(body), declaredCharsetOf(urlConnection), 0, false));
+            });
+        }
+        return fetchIntoCache(requestKey, requestProperties, responseCache.getForRevalidation(requestKey));
+    }
+
+    private CachedResponse coalesced(String requestKey, SingleFlight.Call<CachedResponse> call) throws IOException {
+        return singleFlight == null ? call.call() : singleFlight.execute(requestKey, call);
+    }
+
+    private <T> T fireGetRequest(final Map<String, String> requestProperties,
+                                 final ResponseHandler<T> responseHandler) throws IOException {
+        return execute(IDEMPOTENT, (urlConnection, deadlineNanos) -> {
+            prepareGetRequest(urlConnection, requestProperties);
+            return fireRequest(urlConnection, deadlineNanos, responseHandler);
+        });
+    }
+
+    /**
+     * Fetches the response into the cache. When an expired response with
+     * validators is cached, the request is made conditional and a 304 Not
+     * Modified refreshes the cached response instead of downloading it again.
+     */
+    private CachedResponse fetchIntoCache(final String cacheKey, final Map<String, String> requestProperties,
+                                          final CachedResponse staleResponse) throws IOException {
+        return execute(IDEMPOTENT, (urlConnection, deadlineNanos) -> {
+            prepareGetRequest(urlConnection, requestProperties);
+            if (staleResponse != null) {
+                setConditionalRequestProperties(urlConnection, staleResponse);
+            }
+
+            return fireRequest(urlConnection, deadlineNanos, (body, charset) -> {
+                if (staleResponse != null && urlConnection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    logger.info(String.format(MSG_NOT_MODIFIED, url));
+                    drain(body);
+                    return responseCache.revalidated(cacheKey, url.toString(), staleResponse);
+                }
+                return responseCache.put(cacheKey, url.toString(), IOUtils.toByteArray(body),
+                        declaredCharsetOf(urlConnection), cacheMode == CacheMode.PIN,
+                        urlConnection.getHeaderField(ETAG), urlConnection.getHeaderField(LAST_MODIFIED));
+            });
+        });
+    }
+
+    /**
+     * Opens a connection for every attempt the resilience policy makes, with
+     * the timeouts it gives, or for a single attempt when there is no policy.
+     * Each attempt goes through the rate limiter and the provider isolation, if any.
+     */
+    private <T> T execute(boolean idempotent, final ConnectionRequest<T> request) throws IOException {
+        if (resiliencePolicy == null) {
+            return throttled(() -> isolated(() -> request.execute(transport.open(url), ResiliencePolicy.NO_DEADLINE)));
+        }
+        return resiliencePolicy.execute(idempotent, (connectTimeoutMillis, readTimeoutMillis, deadlineNanos) ->
+                throttled(() -> isolated(() -> {
+                    HttpURLConnection urlConnection = transport.open(url);
+                    urlConnection.setConnectTimeout(connectTimeoutMillis);
+                    urlConnection.setReadTimeout(readTimeoutMillis);
+                    return request.execute(urlConnection, deadlineNanos);
+                })));
+    }
+
+    private <T> T throttled(Request<T> request) throws IOException {
+        if (rateLimiter != null) {
+            rateLimiter.acquire(rateLimitKey);
+        }
+        return request.execute();
+    }
+
+    private <T> T isolated(ProviderIsolation.Call<T> call) throws IOException {
+        return providerIsolation == null ? call.call() : providerIsolation.execute(url, call);
+    }
+
+    private void setConditionalRequestProperties(HttpURLConnection urlConnection, CachedResponse staleResponse) {
+        if (staleResponse.getEntityTag() != null) {
+            urlConnection.setRequestProperty(IF_NONE_MATCH, staleResponse.getEntityTag());
+        }
+        if (staleResponse.getLastModified() != null) {
+            urlConnection.setRequestProperty(IF_MODIFIED_SINCE, staleResponse.getLastModified());
+        }
+    }
+
+    public CompletableFuture<String> executeGetAsync() {
+        return executeGetAsync(null);
+    }
+
+    public CompletableFuture<String> executeGetAsync(final Map<String, String> requestProperties) {
+        return executeAsync(() -> executeBufferedGet(requestProperties, this::getResponse));
+    }
+
+    public <T> CompletableFuture<T> executeGetAsync(final Map<String, String> requestProperties,
+                                                    final ResponseHandler<T> responseHandler) {
+        return executeAsync(() -> executeGetUrl(requestProperties, responseHandler));
+    }
+
+    public CompletableFuture<String> executePostAsync() {
+        return executePostAsync(null);
+    }
+
+    public CompletableFuture<String> executePostAsync(final String urlParameters) {
+        return executePostAsync(urlParameters, this::getResponse);
+    }
+
+    public <T> CompletableFuture<T> executePostAsync(final String urlParameters,
+                                                     final ResponseHandler<T> responseHandler) {
+        return executeAsync(() -> executePostUrl(urlParameters, responseHandler));
+    }
+
+    /**
+     * Same as {@link #executeGetAsync(Map)} but completes with the raw bytes of
+     * the response body, untouched by any line or delimiter handling.
+     */
+    public CompletableFuture<byte[]> executeGetBytesAsync(final Map<String, String> requestProperties) {
+        return executeAsync(() -> executeBufferedGet(requestProperties, ResponseHandlers.bytes()));
+    }
+
+    /**
+     * Same as {@link #executePostAsync(String)} but completes with the raw bytes
+     * of the response body, untouched by any line or delimiter handling.
+     */
+    public CompletableFuture<byte[]> executePostBytesAsync(final String urlParameters) {
+        return executePostAsync(urlParameters, ResponseHandlers.bytes());
+    }
+
+    private <T> CompletableFuture<T> executeAsync(final Request<T> request) {
+        final CompletableFuture<T> futureResponse = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    futureResponse.complete(request.execute());
+                } catch (IOException | RuntimeException exception) {
+                    futureResponse.completeExceptionally(exception);
+                } catch (Error error) {
+                    futureResponse.completeExceptionally(error);
+                    throw error;
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            futureResponse.completeExceptionally(exception);
+        }
+        return futureResponse;
     }
 
     private void preparePostUrl(HttpURLConnection urlConnection) throws ProtocolException {
@@ -112,6 +472,7 @@ public class APIReader {
         requestProperties.put("charset", "utf-8");
         requestProperties.putAll(headers);
         setRequestProperties(urlConnection, requestProperties);
+        acceptCompressedResponses(urlConnection);
     }
 
     private void setUrlParameters(HttpURLConnection urlConnection, String urlParameters) throws IOException {
@@ -123,6 +484,16 @@ public class APIReader {
     private void prepareGetRequest(HttpURLConnection urlConnection, Map<String, String> requestProperties) throws ProtocolException {
         urlConnection.setRequestMethod("GET");
         setRequestProperties(urlConnection, requestProperties);
+        acceptCompressedResponses(urlConnection);
+    }
+
+    /**
+     * Asks for a compressed response unless the caller has chosen an Accept-Encoding.
+     */
+    private void acceptCompressedResponses(HttpURLConnection urlConnection) {
+        if (urlConnection.getRequestProperty(ACCEPT_ENCODING) == null) {
+            urlConnection.setRequestProperty(ACCEPT_ENCODING, ContentDecoding.ACCEPTED_ENCODINGS);
+        }
     }
 
     private void setRequestProperties(HttpURLConnection urlConnection, Map<String, String> requestProperties) {
@@ -135,23 +506,87 @@ public class APIReader {
 
     private void constructUrl(String url) {
         try {
-            this.url = new URL(url);
-        } catch (MalformedURLException e) {
+            this.url = URI.create(url).toURL();
+        } catch (MalformedURLException | IllegalArgumentException e) {
             logger.error(String.format(MSG_INPUT_URL_STRING, url));
             logger.error(String.format(MSG_ERROR_DUE_TO, e.getMessage()));
             throw new IllegalArgumentException("Final URL does not exist.");
         }
     }
 
-    private String fireRequest(HttpURLConnection urlConnection) throws IOException {
+    private <T> T fireRequest(HttpURLConnection urlConnection, long deadlineNanos,
+                              ResponseHandler<T> responseHandler) throws IOException {
+        ResponseBodyInputStream rawBody = null;
+        ResponseBodyInputStream decodedBody = null;
+        boolean responseHandled = false;
         try {
             logger.info(String.format(MSG_CONNECTING_TO_URL, url));
-            return getResponse(new InputStreamReader(urlConnection.getInputStream()));
+            int responseCode = urlConnection.getResponseCode();
+            if (responseCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                throw new HttpStatusException(responseCode, url.toString());
+            }
+            rawBody = new ResponseBodyInputStream(urlConnection.getInputStream(), deadlineNanos);
+            decodedBody = new ResponseBodyInputStream(
+                    ContentDecoding.decode(rawBody, urlConnection.getContentEncoding()));
+            T response = handle(responseHandler, decodedBody, declaredCharsetOf(urlConnection));
+            if (decodedBody.isFullyRead()) {
+                // a decompressor may stop short of the end of the raw body
+                drain(rawBody);
+            }
+            responseHandled = true;
+            return response;
         } catch (IOException ioException) {
             showMessageDueToIOException(url.toString(), ioException);
             throw ioException;
         } finally {
-            urlConnection.disconnect();
+            boolean reusable = responseHandled && rawBody.isFullyRead();
+            recordTransfer(rawBody, decodedBody);
+            observeRateLimit(urlConnection);
+            closeQuietly(decodedBody != null ? decodedBody : rawBody);
+            transport.release(urlConnection, reusable);
+        }
+    }
+
+    private static <T> T handle(ResponseHandler<T> responseHandler, InputStream body, Charset declaredCharset)
+            throws IOException {
+        return responseHandler.handle(body, declaredCharset == null ? ContentDecoding.DEFAULT_CHARSET : declaredCharset,
+                declaredCharset != null);
+    }
+
+    private static Charset declaredCharsetOf(HttpURLConnection urlConnection) {
+        return ContentDecoding.declaredCharsetOf(urlConnection.getContentType());
+    }
+
+    private void drain(InputStream responseBody) throws IOException {
+        byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+        while (responseBody.read(buffer) != -1) {
+            // reading what is left of the body to the end keeps the connection reusable
+        }
+    }
+
+    /**
+     * Lets the rate limiter adapt to the rate limit headers of the response,
+     * read before the connection is released.
+     */
+    private void observeRateLimit(HttpURLConnection urlConnection) {
+        if (rateLimiter != null) {
+            rateLimiter.onResponse(rateLimitKey, urlConnection::getHeaderField);
+        }
+    }
+
+    private void recordTransfer(ResponseBodyInputStream rawBody, ResponseBodyInputStream decodedBody) {
+        if (transferMeter != null && rawBody != null) {
+            transferMeter.record(url, rawBody.getBytesRead(), decodedBody == null ? 0 : decodedBody.getBytesRead());
+        }
+    }
+
+    private void closeQuietly(InputStream responseBody) {
+        if (responseBody != null) {
+            try {
+                responseBody.close();
+            } catch (IOException ioException) {
+                logger.warn(String.format(MSG_ERROR_DUE_TO, ioException.getMessage()));
+            }
         }
     }
 
@@ -168,37 +603,17 @@ public class APIReader {
         return new PrintWriter(outputStream);
     }
 
-    private String getResponse(InputStreamReader isr) throws IOException {
-        return dropDelimitersFromResponse(readResponse(isr).toString());
-    }
-
-    private String dropDelimitersFromResponse(String result) {
-        while (result.startsWith(Utils.OPENING_BOX_BRACKET) && result.endsWith(Utils.CLOSING_BOX_BRACKET)) {
-            result = Utils.dropStartAndEndDelimiters(result);
-        }
-        return result;
-    }
-
-    private List<String> readResponse(InputStreamReader inputStreamReader) throws IOException {
-        BufferedReader httpResponse = null;
-        List<String> response = new ArrayList<String>();
+    private String getResponse(InputStream inputStream, Charset charset) throws IOException {
+        Reader httpResponse = new InputStreamReader(inputStream, charset);
         try {
-            httpResponse = new BufferedReader(inputStreamReader);
             logger.info(MSG_READING_RESULTS_RETURNED);
-
-            String inputLine;
-            while ((inputLine = httpResponse.readLine()) != null) {
-                response.add(inputLine);
-            }
-
+            String response = ResponseAssembler.assemble(httpResponse);
             logger.info(MSG_READING_COMPLETED);
+            return response;
         } finally {
-            if (httpResponse != null) {
-                httpResponse.close();
-            }
+            httpResponse.close();
             logger.info(">>> Connection closed!");
         }
-        return response;
     }
 
     private void showMessageDueToIOException(String urlText, IOException ioe) {
@@ -206,4 +621,12 @@ public class APIReader {
         logger.error(String.format(MSG_ERROR_DUE_TO, ioe.getMessage()));
     }
 
+    private interface Request<T> {
+        T execute() throws IOException;
+    }
+
+    private interface ConnectionRequest<T> {
+        T execute(HttpURLConnection urlConnection, long deadlineNanos) throws IOException;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Undoes the <code>Content-Encoding</code> of a response body as it is read,
+ * and works out the charset it is to be decoded with from its <code>Content-Type</code>.
+ *
+ * @author Mani Sarkar
+ */
+final class ContentDecoding {
+
+    static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+    static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final String DEFLATE = "deflate";
+    private static final String CHARSET_PARAMETER = "charset=";
+    private static final int BUFFER_SIZE = 8192;
+    private static final int ZLIB_HEADER_SIZE = 2;
+    private static final int ZLIB_DEFLATE_METHOD = 8;
+
+    /**
+     * Hide Utility Class Constructor - Utility classes should not have a public
+     * or default constructor.
+     */
+    private ContentDecoding() {
+    }
+
+    /**
+     * Wraps the raw body in a stream decompressing it while it is read. A
+     * compressed body that turns out to be empty, as with 204, 304 and HEAD
+     * responses still labelled with their encoding, is left as it is.
+     *
+     * @param rawBody         InputStream as received
+     * @param contentEncoding String the Content-Encoding response header, may be null
+     * @return InputStream the decoded body, the raw body itself when it is not compressed
+     */
+    static InputStream decode(InputStream rawBody, String contentEncoding) throws IOException {
+        if (contentEncoding == null) {
+            return rawBody;
+        }
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ENGLISH);
+        boolean gzipped = GZIP.equals(encoding) || X_GZIP.equals(encoding);
+        if (!gzipped && !DEFLATE.equals(encoding)) {
+            return rawBody;
+        }
+        PushbackInputStream body = new PushbackInputStream(rawBody, ZLIB_HEADER_SIZE);
+        int firstByte = body.read();
+        if (firstByte < 0) {
+            // the decompressors fail on an empty body, reading the header they expect
+            return body;
+        }
+        body.unread(firstByte);
+        return gzipped ? new GZIPInputStream(body, BUFFER_SIZE) : inflate(body);
+    }
+
+    /**
+     * Reads the charset parameter of a Content-Type, i.e. "text/xml; charset=ISO-8859-1".
+     * Bodies without one are read as {@link #DEFAULT_CHARSET}, unless their
+     * format declares the encoding itself.
+     *
+     * @param contentType String the Content-Type response header, may be null
+     * @return Charset, null when none or an unknown one is given
+     */
+    static Charset declaredCharsetOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int charsetStart = contentType.toLowerCase(Locale.ENGLISH).indexOf(CHARSET_PARAMETER);
+        if (charsetStart < 0) {
+            return null;
+        }
+        charsetStart += CHARSET_PARAMETER.length();
+        int charsetEnd = contentType.indexOf(';', charsetStart);
+        String charsetName = (charsetEnd < 0 ? contentType.substring(charsetStart)
+                : contentType.substring(charsetStart, charsetEnd)).trim().replace("\"", "");
+        try {
+            return Charset.forName(charsetName);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * "deflate" is meant to be zlib wrapped, but some servers send raw deflate data,
+     * so peek at the first two bytes to tell them apart.
+     */
+    private static InputStream inflate(PushbackInputStream body) throws IOException {
+        byte[] header = new byte[ZLIB_HEADER_SIZE];
+        int headerLength = 0;
+        while (headerLength < ZLIB_HEADER_SIZE) {
+            int read = body.read(header, headerLength, ZLIB_HEADER_SIZE - headerLength);
+            if (read < 0) {
+                break;
+            }
+            headerLength += read;
+        }
+        body.unread(header, 0, headerLength);
+
+        boolean zlibWrapped = headerLength == ZLIB_HEADER_SIZE
+                && (header[0] & 0x0f) == ZLIB_DEFLATE_METHOD
+                && (((header[0] & 0xff) << 8) | (header[1] & 0xff)) % 31 == 0;
+        final Inflater inflater = new Inflater(!zlibWrapped);
+        return new InflaterInputStream(body, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // not ended by InflaterInputStream as it was handed in
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * How the asynchronous calls of an {@link APIReader} are run, see
+ * {@link APIReader#setExecutionMode(ExecutionMode)}.
+ * <p/>
+ * Calls block on <code>HttpURLConnection</code> I/O, so on platform threads
+ * every call in flight holds an OS thread. On virtual threads a blocked call
+ * only holds a small heap object, which lets tens of thousands of calls be in
+ * flight at once.
+ *
+ * @author Mani Sarkar
+ */
+public enum ExecutionMode {
+
+    /**
+     * A shared, bounded pool of daemon platform threads, the default. When
+     * all threads are busy and the queue is full a call runs on the thread
+     * submitting it, which slows callers down instead of piling up threads.
+     */
+    PLATFORM_THREADS {
+        @Override
+        public ExecutorService executor() {
+            return PlatformThreadsHolder.EXECUTOR;
+        }
+    },
+
+    /**
+     * A new virtual thread per call, unbounded: callers fanning out to many
+     * providers should bound the calls in flight themselves.
+     */
+    VIRTUAL_THREADS {
+        @Override
+        public ExecutorService executor() {
+            return VirtualThreadsHolder.EXECUTOR;
+        }
+    };
+
+    /**
+     * Maximum number of platform threads running calls at the same time.
+     */
+    public static final int PLATFORM_THREADS_MAX = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+    /**
+     * Maximum number of calls waiting for a platform thread.
+     */
+    public static final int PLATFORM_THREADS_QUEUED_CALLS = 64 * PLATFORM_THREADS_MAX;
+    private static final long PLATFORM_THREADS_KEEP_ALIVE_SECONDS = 60;
+
+    /**
+     * Returns the executor calls in this mode run on, shared by all readers
+     * using the mode. It is never shut down.
+     *
+     * @return ExecutorService
+     */
+    public abstract ExecutorService executor();
+
+    private static final class PlatformThreadsHolder {
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+        private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(PLATFORM_THREADS_MAX,
+                PLATFORM_THREADS_MAX, PLATFORM_THREADS_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(PLATFORM_THREADS_QUEUED_CALLS), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "apireader-async-" + THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        static {
+            EXECUTOR.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    private static final class VirtualThreadsHolder {
+        private static final ExecutorService EXECUTOR = Executors
+                .newThreadPerTaskExecutor(Thread.ofVirtual().name("apireader-virtual-", 1).factory());
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Assembles a response body into a single String in one pass over its chars.
+ * <p/>
+ * A JSON body, i.e. one whose first non-whitespace char opens an object or an
+ * array, is kept verbatim, so pretty-printed JSON stays valid JSON. The lines of
+ * any other body are joined with ", " (the form APIReader has always returned)
+ * by rewriting line terminators while copying, so no per-line Strings, no
+ * intermediate list and no delimiter stripping afterwards. A trailing line
+ * terminator of such a body is dropped.
+ */
+final class ResponseAssembler {
+
+    static final String LINE_SEPARATOR = ", ";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final boolean joinLines;
+    private char[] response = new char[0];
+    private int responseLength;
+    private boolean lineEnded;
+    private boolean skipLineFeed;
+
+    private ResponseAssembler(boolean joinLines) {
+        this.joinLines = joinLines;
+    }
+
+    static String assemble(Reader reader) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        // the whitespace read before the body shows whether it is JSON
+        ResponseAssembler leadingWhitespace = new ResponseAssembler(false);
+        ResponseAssembler assembler = null;
+
+        int length;
+        while ((length = reader.read(buffer)) != -1) {
+            if (assembler == null) {
+                int firstChar = firstNonWhitespace(buffer, length);
+                if (firstChar == length) {
+                    leadingWhitespace.copy(buffer, length);
+                    continue;
+                }
+                assembler = new ResponseAssembler(!isJsonStart(buffer[firstChar]));
+                assembler.copy(leadingWhitespace.response, leadingWhitespace.responseLength);
+            }
+            assembler.copy(buffer, length);
+        }
+        if (assembler == null) {
+            assembler = new ResponseAssembler(true);
+            assembler.copy(leadingWhitespace.response, leadingWhitespace.responseLength);
+        }
+        return new String(assembler.response, 0, assembler.responseLength);
+    }
+
+    private static int firstNonWhitespace(char[] chars, int length) {
+        int index = 0;
+        while (index < length && Character.isWhitespace(chars[index])) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isJsonStart(char eachChar) {
+        return eachChar == '{' || eachChar == '[';
+    }
+
+    private void copy(char[] buffer, int length) {
+        if (!joinLines) {
+            response = ensureCapacity(response, responseLength + length);
+            responseLength = append(buffer, 0, length, response, responseLength);
+            return;
+        }
+        // worst case every char is a line terminator turned into a separator
+        response = ensureCapacity(response, responseLength + length * LINE_SEPARATOR.length());
+        int runStart = 0;
+        for (int index = 0; index < length; index++) {
+            char eachChar = buffer[index];
+            if (eachChar == '\r' || eachChar == '\n') {
+                responseLength = append(buffer, runStart, index - runStart, response, responseLength);
+                runStart = index + 1;
+                if (!(eachChar == '\n' && skipLineFeed)) {
+                    if (lineEnded) {
+                        responseLength = appendLineSeparator(response, responseLength);
+                    }
+                    lineEnded = true;
+                }
+                skipLineFeed = eachChar == '\r';
+            } else if (lineEnded || skipLineFeed) {
+                if (lineEnded) {
+                    responseLength = appendLineSeparator(response, responseLength);
+                    lineEnded = false;
+                }
+                skipLineFeed = false;
+            }
+        }
+        responseLength = append(buffer, runStart, length - runStart, response, responseLength);
+    }
+
+    private static int append(char[] source, int offset, int length, char[] target, int targetLength) {
+        System.arraycopy(source, offset, target, targetLength, length);
+        return targetLength + length;
+    }
+
+    private static int appendLineSeparator(char[] target, int targetLength) {
+        target[targetLength] = ',';
+        target[targetLength + 1] = ' ';
+        return targetLength + LINE_SEPARATOR.length();
+    }
+
+    private static char[] ensureCapacity(char[] chars, int minimumCapacity) {
+        if (minimumCapacity <= chars.length) {
+            return chars;
+        }
+        return Arrays.copyOf(chars, Math.max(minimumCapacity, chars.length * 2));
+    }
+
+}
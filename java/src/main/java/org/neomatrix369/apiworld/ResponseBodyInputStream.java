@@ -0,0 +1,107 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+import org.neomatrix369.apiworld.exception.DeadlineExceededException;
+import org.neomatrix369.apiworld.resilience.ResiliencePolicy;
+
+/**
+ * Response body stream which remembers whether it has been read to the end,
+ * i.e. whether the connection it came from can be kept alive, and how many
+ * bytes have been read from it. Given a deadline, it fails any read made
+ * after the deadline has passed. Reads made by an interrupted thread fail
+ * too, so that cancelling a call running on an executor stops it reading.
+ */
+class ResponseBodyInputStream extends FilterInputStream {
+
+    private static final int END_OF_STREAM = -1;
+    private static final String MSG_DEADLINE_PASSED = "Deadline passed after reading %d bytes of the response body";
+    private static final String MSG_INTERRUPTED = "Interrupted after reading %d bytes of the response body";
+
+    private final long deadlineNanos;
+    private boolean fullyRead;
+    private long bytesRead;
+
+    ResponseBodyInputStream(InputStream inputStream) {
+        this(inputStream, ResiliencePolicy.NO_DEADLINE);
+    }
+
+    /**
+     * @param deadlineNanos long the {@link System#nanoTime()} after which reads fail,
+     *                      {@link ResiliencePolicy#NO_DEADLINE} for none
+     */
+    ResponseBodyInputStream(InputStream inputStream, long deadlineNanos) {
+        super(inputStream);
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkCanRead();
+        int result = super.read();
+        if (result != END_OF_STREAM) {
+            bytesRead++;
+        }
+        return track(result);
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        checkCanRead();
+        int result = super.read(buffer, offset, length);
+        if (result > 0) {
+            bytesRead += result;
+        }
+        return track(result);
+    }
+
+    boolean isFullyRead() {
+        return fullyRead;
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    private void checkCanRead() throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException(String.format(MSG_INTERRUPTED, bytesRead));
+        }
+        if (deadlineNanos != ResiliencePolicy.NO_DEADLINE && !fullyRead && System.nanoTime() - deadlineNanos > 0) {
+            throw new DeadlineExceededException(String.format(MSG_DEADLINE_PASSED, bytesRead));
+        }
+    }
+
+    private int track(int result) {
+        if (result == END_OF_STREAM) {
+            fullyRead = true;
+        }
+        return result;
+    }
+
+}
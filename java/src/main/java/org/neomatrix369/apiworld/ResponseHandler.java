@@ -0,0 +1,61 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Consumes the body of a response as it arrives from the connection, so it can
+ * be parsed incrementally instead of being held in memory as a whole.
+ * <p/>
+ * The body stream is closed by {@link APIReader} once the handler returns; a
+ * connection can only be kept alive when the handler has read the body to the end.
+ *
+ * @author Mani Sarkar
+ */
+public interface ResponseHandler<T> {
+
+    /**
+     * @param body    InputStream of the response body
+     * @param charset Charset the body is encoded with
+     * @return T the result of handling the body
+     * @throws IOException when reading the body fails
+     */
+    T handle(InputStream body, Charset charset) throws IOException;
+
+    /**
+     * Called instead of {@link #handle(InputStream, Charset)}, telling whether
+     * the response declared its charset or it is the default. Handlers of
+     * formats which declare their own encoding, i.e. XML, override this to
+     * read the encoding from the body when the response did not declare one.
+     *
+     * @param charsetDeclared boolean whether the Content-Type of the response
+     *                        named the charset
+     */
+    default T handle(InputStream body, Charset charset, boolean charsetDeclared) throws IOException {
+        return handle(body, charset);
+    }
+
+}
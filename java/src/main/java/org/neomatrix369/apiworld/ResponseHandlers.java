@@ -0,0 +1,74 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+/**
+ * Util class ResponseHandlers, ready made {@link ResponseHandler}s.
+ *
+ * @author Mani Sarkar
+ */
+public final class ResponseHandlers {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Hide Utility Class Constructor - Utility classes should not have a public
+     * or default constructor.
+     */
+    private ResponseHandlers() {
+    }
+
+    /**
+     * Reads the raw bytes of the body, untouched by any line or delimiter handling.
+     *
+     * @return ResponseHandler
+     */
+    public static ResponseHandler<byte[]> bytes() {
+        return (body, charset) -> IOUtils.toByteArray(body);
+    }
+
+    /**
+     * Decodes the body and passes it on to the listener in chunks of at most
+     * 8192 chars, keeping the memory used per response bounded.
+     *
+     * @param chunkListener ChunkListener
+     * @return ResponseHandler
+     */
+    public static ResponseHandler<Void> chunks(final ChunkListener chunkListener) {
+        return (body, charset) -> {
+            Reader reader = new InputStreamReader(body, charset);
+            char[] chunk = new char[CHUNK_SIZE];
+            int length;
+            while ((length = reader.read(chunk)) != -1) {
+                chunkListener.onChunk(chunk, length);
+            }
+            return null;
+        };
+    }
+
+}
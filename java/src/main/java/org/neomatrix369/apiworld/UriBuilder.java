@@ -22,27 +22,23 @@
  */
 package org.neomatrix369.apiworld;
 
-import org.apache.commons.lang3.StringUtils;
 import org.neomatrix369.apiworld.exception.APIKeyNotAssignedException;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
 
-import static java.lang.String.format;
 import static org.apache.commons.lang3.StringUtils.isBlank;
-import static org.neomatrix369.apiworld.util.Utils.dropTrailingSeparator;
 
 /**
  * @author Mani Sarkar
  */
 public class UriBuilder {
 
-    private static final String PARAM_SEPARATOR = "&";
-    private static final String PARAM_START = "?";
+    static final String PARAM_SEPARATOR = "&";
+    static final String VALUE_SEPARATOR = "=";
 
-    private static final String VALUE_SEPARATOR = "=";
-    private static final String TWO_TOKENS = "%s%s";
-    private static final String THREE_TOKENS = "%s%s%s";
+    private static final String PARAM_START = "?";
+    private static final int INITIAL_URL_CAPACITY = 128;
 
     private final String baseURL;
     private String apiKey;
@@ -60,14 +56,36 @@ public class UriBuilder {
     }
 
     public APIConnection build() throws APIKeyNotAssignedException {
-        buildFinalURLWithCommandString();
-        buildFinalURLWithTheAPIKey();
-        buildFinalURLWithParametersToken();
+        this.finalURL = buildFixedPart().toString();
         return new APIConnection(finalURL);
     }
 
-    private void buildFinalURLWithTheAPIKey() throws APIKeyNotAssignedException {
-        this.finalURL = format(TWO_TOKENS, finalURL, getValidatedAPIKey(apiKey));
+    /**
+     * Compiles the URL built so far into an immutable, thread-safe template
+     * which only needs the values of the given parameters to expand into a
+     * final URL. Use it when the same endpoint is called over and over with
+     * different parameter values.
+     *
+     * @param parameterNames String... names of the parameters which vary per call
+     * @return UriTemplate
+     */
+    public UriTemplate compile(String... parameterNames) throws APIKeyNotAssignedException {
+        return new UriTemplate(buildFixedPart().toString(), parameterNames);
+    }
+
+    private StringBuilder buildFixedPart() throws APIKeyNotAssignedException {
+        StringBuilder url = new StringBuilder(INITIAL_URL_CAPACITY);
+        appendCommandString(url);
+        appendAPIKey(url);
+        appendParameters(url);
+        return url;
+    }
+
+    private void appendAPIKey(StringBuilder url) throws APIKeyNotAssignedException {
+        String validatedAPIKey = getValidatedAPIKey(apiKey);
+        if (validatedAPIKey != null) {
+            url.append(validatedAPIKey);
+        }
     }
 
     private String getValidatedAPIKey(String apiKey) throws APIKeyNotAssignedException {
@@ -77,29 +95,23 @@ public class UriBuilder {
         return apiKey;
     }
 
-    private void buildFinalURLWithParametersToken() {
-        if (!urlParameters.isEmpty()) {
-            String urlParameterTokens = "";
-            for (Map.Entry<String, String> eachKeyValuePair : urlParameters.entrySet()) {
-                if (eachKeyValuePair.getKey() != null && eachKeyValuePair.getValue() != null) {
-                    String eachToken = format(THREE_TOKENS, eachKeyValuePair.getKey(), VALUE_SEPARATOR,
-                            eachKeyValuePair.getValue());
-                    urlParameterTokens = format(THREE_TOKENS, urlParameterTokens, eachToken, PARAM_SEPARATOR);
-                }
+    private void appendParameters(StringBuilder url) {
+        for (Map.Entry<String, String> eachKeyValuePair : urlParameters.entrySet()) {
+            if (eachKeyValuePair.getKey() != null && eachKeyValuePair.getValue() != null) {
+                url.append(PARAM_SEPARATOR).append(eachKeyValuePair.getKey()).append(VALUE_SEPARATOR)
+                        .append(eachKeyValuePair.getValue());
             }
-            urlParameterTokens = dropTrailingSeparator(urlParameterTokens, PARAM_SEPARATOR);
-            this.finalURL = format(THREE_TOKENS, finalURL, PARAM_SEPARATOR, urlParameterTokens);
         }
     }
 
-    private void buildFinalURLWithCommandString() {
-        this.finalURL = baseURL;
+    private void appendCommandString(StringBuilder url) {
+        url.append(baseURL);
         if ((commandString != null) && (!commandString.isEmpty())) {
-            if (!finalURL.endsWith("/")) {
-                this.finalURL = format(TWO_TOKENS, finalURL, "/");
+            if (!baseURL.endsWith("/")) {
+                url.append('/');
             }
 
-            this.finalURL = format(THREE_TOKENS, finalURL, commandString, paramStart);
+            url.append(commandString).append(paramStart);
         }
     }
 
@@ -123,7 +135,7 @@ public class UriBuilder {
     }
 
     public UriBuilder setAPIKey(String apiKey, String apiKeyValue) {
-        this.apiKey = format(THREE_TOKENS, apiKey, VALUE_SEPARATOR, apiKeyValue);
+        this.apiKey = apiKey + VALUE_SEPARATOR + apiKeyValue;
         apiKeyIsRequired = true;
         return this;
     }
@@ -0,0 +1,131 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import org.neomatrix369.apiworld.util.PercentEncoder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, thread-safe URL template compiled by {@link UriBuilder#compile(String...)}.
+ * <p/>
+ * The base URL, command, API key and fixed parameters are assembled once; each
+ * expansion only appends the values of the variable parameters to a buffer
+ * sized up front, without any String formatting or intermediate Strings.
+ *
+ * @author Mani Sarkar
+ */
+public final class UriTemplate {
+
+    private static final String MSG_WRONG_NUMBER_OF_VALUES = "Expected %d parameter values but got %d";
+
+    private final String fixedPart;
+    private final List<String> parameterNames;
+    private final String[] parameterPrefixes;
+    private final int fixedLength;
+
+    UriTemplate(String fixedPart, String... parameterNames) {
+        this.fixedPart = fixedPart;
+        this.parameterNames = Collections.unmodifiableList(Arrays.asList(parameterNames.clone()));
+        this.parameterPrefixes = new String[parameterNames.length];
+
+        int length = fixedPart.length();
+        for (int index = 0; index < parameterNames.length; index++) {
+            if (parameterNames[index] == null) {
+                throw new IllegalArgumentException("parameter names have to be non null");
+            }
+            parameterPrefixes[index] = UriBuilder.PARAM_SEPARATOR + parameterNames[index] + UriBuilder.VALUE_SEPARATOR;
+            length += parameterPrefixes[index].length();
+        }
+        this.fixedLength = length;
+    }
+
+    /**
+     * Expands the template into a final URL. Values are taken in the order the
+     * parameter names were given when compiling, are expected to be URL encoded
+     * already and parameters with a null value are left out, the same as
+     * {@link UriBuilder#addUrlParameter(String, String)} does.
+     *
+     * @param values String... one value per parameter name
+     * @return String the final URL
+     */
+    public String expand(String... values) {
+        return expand((PercentEncoder) null, values);
+    }
+
+    /**
+     * Expands the template like {@link #expand(String...)}, percent-encoding
+     * the raw values straight into the URL buffer on the way.
+     *
+     * @param encoder PercentEncoder
+     * @param values  String... one raw value per parameter name
+     * @return String the final URL
+     */
+    public String expand(PercentEncoder encoder, String... values) {
+        if (values.length != parameterPrefixes.length) {
+            throw new IllegalArgumentException(
+                    String.format(MSG_WRONG_NUMBER_OF_VALUES, parameterPrefixes.length, values.length));
+        }
+
+        int length = fixedLength;
+        for (String eachValue : values) {
+            if (eachValue != null) {
+                length += eachValue.length();
+            }
+        }
+
+        StringBuilder finalURL = new StringBuilder(length).append(fixedPart);
+        for (int index = 0; index < values.length; index++) {
+            if (values[index] != null) {
+                finalURL.append(parameterPrefixes[index]);
+                if (encoder == null) {
+                    finalURL.append(values[index]);
+                } else {
+                    encoder.encodeTo(values[index], finalURL);
+                }
+            }
+        }
+        return finalURL.toString();
+    }
+
+    /**
+     * Gets the parameterNames attribute.
+     *
+     * @return List
+     */
+    public List<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder template = new StringBuilder(fixedPart);
+        for (int index = 0; index < parameterPrefixes.length; index++) {
+            template.append(parameterPrefixes[index]).append('{').append(parameterNames.get(index)).append('}');
+        }
+        return template.toString();
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.cache;
+
+/**
+ * Immutable snapshot of the counters of a {@link ResponseCache}.
+ *
+ * @author Mani Sarkar
+ */
+public final class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int entries;
+    private final long sizeInBytes;
+    private final long revalidations;
+    private final long bytesSaved;
+
+    public CacheStats(long hits, long misses, long evictions, int entries, long sizeInBytes) {
+        this(hits, misses, evictions, entries, sizeInBytes, 0, 0);
+    }
+
+    public CacheStats(long hits, long misses, long evictions, int entries, long sizeInBytes, long revalidations,
+                      long bytesSaved) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = entries;
+        this.sizeInBytes = sizeInBytes;
+        this.revalidations = revalidations;
+        this.bytesSaved = bytesSaved;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Number of entries dropped to keep the cache within its size bound.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * Number of expired responses confirmed unchanged by a 304 Not Modified.
+     */
+    public long getRevalidations() {
+        return revalidations;
+    }
+
+    /**
+     * Number of body bytes not downloaded again thanks to revalidations.
+     */
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "[hits: %d; misses: %d; evictions: %d; entries: %d; size: %d bytes; revalidations: %d; saved: %d bytes]",
+                hits, misses, evictions, entries, sizeInBytes, revalidations, bytesSaved);
+    }
+
+}
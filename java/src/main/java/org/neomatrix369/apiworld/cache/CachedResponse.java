@@ -0,0 +1,118 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.cache;
+
+import java.nio.charset.Charset;
+
+/**
+ * Immutable response body held by a {@link ResponseCache}.
+ *
+ * @author Mani Sarkar
+ */
+public final class CachedResponse {
+
+    private final byte[] body;
+    private final Charset charset;
+    private final long expiresAt;
+    private final boolean pinned;
+    private final String entityTag;
+    private final String lastModified;
+
+    public CachedResponse(byte[] body, Charset charset, long expiresAt, boolean pinned) {
+        this(body, charset, expiresAt, pinned, null, null);
+    }
+
+    public CachedResponse(byte[] body, Charset charset, long expiresAt, boolean pinned, String entityTag,
+                          String lastModified) {
+        this.body = body;
+        this.charset = charset;
+        this.expiresAt = expiresAt;
+        this.pinned = pinned;
+        this.entityTag = entityTag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Gets the body attribute, shared and not to be modified.
+     *
+     * @return byte[]
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Gets the charset attribute, the charset the response declared.
+     *
+     * @return Charset, null when the response did not declare one
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isPinned() {
+        return pinned;
+    }
+
+    /**
+     * Gets the entityTag attribute, the ETag response header.
+     *
+     * @return String, null when the response had no ETag
+     */
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    /**
+     * Gets the lastModified attribute, the Last-Modified response header.
+     *
+     * @return String, null when the response had no Last-Modified date
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Whether the response can be revalidated with a conditional request once it expires.
+     */
+    public boolean hasValidators() {
+        return entityTag != null || lastModified != null;
+    }
+
+    CachedResponse refreshedUntil(long newExpiresAt) {
+        return new CachedResponse(body, charset, newExpiresAt, pinned, entityTag, lastModified);
+    }
+
+    public boolean isFresh(long now) {
+        return now < expiresAt;
+    }
+
+    public int size() {
+        return body.length;
+    }
+
+}
@@ -0,0 +1,505 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Response cache kept on local disk so it survives restarts, used as the tier
+ * below a {@link ResponseCache} (see {@link ResponseCache#setDiskCache(DiskResponseCache)}).
+ * <p/>
+ * Responses are appended to segment files, which are never modified in place.
+ * A memory-mapped index, an open addressing hash table, maps each key to the
+ * segment, offset and expiry of its latest record; overwritten and expired
+ * records are reclaimed by {@link #compact()}.
+ * <p/>
+ * The directory can be shared between processes on the same machine: every
+ * operation holds a lock on the directory, shared for reads and exclusive for
+ * writes. Within a process use a single instance per directory.
+ *
+ * @author Mani Sarkar
+ */
+public class DiskResponseCache implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskResponseCache.class);
+
+    public static final int DEFAULT_INDEX_CAPACITY = 1024;
+    public static final long DEFAULT_MAX_SEGMENT_SIZE_IN_BYTES = 64L * 1024 * 1024;
+
+    private static final String INDEX_FILE = "index.map";
+    private static final String LOCK_FILE = "cache.lock";
+    private static final String SEGMENT_FILE_PREFIX = "segment-";
+    private static final String SEGMENT_FILE_SUFFIX = ".log";
+
+    private static final int MAGIC = 0x41504943;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int USED_SLOTS_OFFSET = 12;
+    private static final int ACTIVE_SEGMENT_OFFSET = 16;
+
+    // each slot holds: long keyHash, long offset, long expiresAt, int segment, int length
+    private static final int SLOT_SIZE = 32;
+    private static final int KEY_HASH_OFFSET = 0;
+    private static final int RECORD_OFFSET_OFFSET = 8;
+    private static final int EXPIRES_AT_OFFSET = 16;
+    private static final int SEGMENT_OFFSET = 24;
+    private static final int LENGTH_OFFSET = 28;
+
+    private static final long EMPTY = 0;
+    private static final long TOMBSTONE = -1;
+    private static final int NULL_STRING = -1;
+
+    private final File directory;
+    private final long maxSegmentSizeInBytes;
+    private final RandomAccessFile lockFile;
+    private final RandomAccessFile indexFile;
+    private MappedByteBuffer index;
+
+    public DiskResponseCache(File directory) throws IOException {
+        this(directory, DEFAULT_INDEX_CAPACITY, DEFAULT_MAX_SEGMENT_SIZE_IN_BYTES);
+    }
+
+    /**
+     * @param directory             File where the index and segments are kept, created if missing
+     * @param indexCapacity         int initial number of index slots, the index grows when needed
+     * @param maxSegmentSizeInBytes long size after which a new segment file is started
+     */
+    public DiskResponseCache(File directory, int indexCapacity, long maxSegmentSizeInBytes) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create cache directory: " + directory);
+        }
+        this.directory = directory;
+        this.maxSegmentSizeInBytes = maxSegmentSizeInBytes;
+        this.lockFile = new RandomAccessFile(new File(directory, LOCK_FILE), "rw");
+        this.indexFile = new RandomAccessFile(new File(directory, INDEX_FILE), "rw");
+
+        try (FileLock ignored = lock(false)) {
+            if (indexFile.length() == 0) {
+                map(HEADER_SIZE + (long) indexCapacity * SLOT_SIZE);
+                index.putInt(MAGIC_OFFSET, MAGIC);
+                index.putInt(VERSION_OFFSET, VERSION);
+                index.putInt(CAPACITY_OFFSET, indexCapacity);
+            } else {
+                map(indexFile.length());
+                if (index.getInt(MAGIC_OFFSET) != MAGIC || index.getInt(VERSION_OFFSET) != VERSION) {
+                    throw new IOException("Not a response cache index: " + new File(directory, INDEX_FILE));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the latest response cached for the key, fresh or not, null when
+     * there is none.
+     *
+     * @param key String
+     * @return CachedResponse
+     */
+    public synchronized CachedResponse get(String key) throws IOException {
+        try (FileLock ignored = lock(true)) {
+            int slot = findSlot(hash(key));
+            if (slot < 0) {
+                return null;
+            }
+            byte[] record = readRecord(slotInt(slot, SEGMENT_OFFSET), slotLong(slot, RECORD_OFFSET_OFFSET),
+                    slotInt(slot, LENGTH_OFFSET));
+            return record == null ? null : decode(key, record, slotLong(slot, EXPIRES_AT_OFFSET));
+        }
+    }
+
+    public synchronized void put(String key, CachedResponse cachedResponse) throws IOException {
+        byte[] record = encode(key, cachedResponse);
+        try (FileLock ignored = lock(false)) {
+            int segment = index.getInt(ACTIVE_SEGMENT_OFFSET);
+            long offset = segmentSize(segment);
+            if (offset > 0 && offset + record.length > maxSegmentSizeInBytes) {
+                segment++;
+                offset = 0;
+                index.putInt(ACTIVE_SEGMENT_OFFSET, segment);
+            }
+            writeRecord(segment, offset, record);
+            putSlot(hash(key), segment, offset, record.length, cachedResponse.getExpiresAt());
+        }
+    }
+
+    /**
+     * Changes the expiry of the cached response without rewriting it, i.e.
+     * after it was revalidated.
+     *
+     * @param key       String
+     * @param expiresAt long
+     */
+    public synchronized void updateExpiry(String key, long expiresAt) throws IOException {
+        try (FileLock ignored = lock(false)) {
+            int slot = findSlot(hash(key));
+            if (slot >= 0) {
+                index.putLong(slotPosition(slot) + EXPIRES_AT_OFFSET, expiresAt);
+            }
+        }
+    }
+
+    public synchronized void invalidate(String key) throws IOException {
+        try (FileLock ignored = lock(false)) {
+            int slot = findSlot(hash(key));
+            if (slot >= 0) {
+                index.putLong(slotPosition(slot) + KEY_HASH_OFFSET, TOMBSTONE);
+            }
+        }
+    }
+
+    public synchronized void clear() throws IOException {
+        try (FileLock ignored = lock(false)) {
+            int activeSegment = index.getInt(ACTIVE_SEGMENT_OFFSET);
+            clearSlots();
+            index.putInt(ACTIVE_SEGMENT_OFFSET, activeSegment + 1);
+            deleteSegmentsBefore(activeSegment + 1);
+        }
+    }
+
+    /**
+     * Copies the latest record of every response still worth keeping, fresh or
+     * revalidatable, into a new segment and deletes the older segments.
+     */
+    public synchronized void compact() throws IOException {
+        try (FileLock ignored = lock(false)) {
+            long now = System.currentTimeMillis();
+            int compactedSegment = index.getInt(ACTIVE_SEGMENT_OFFSET) + 1;
+            long offset = 0;
+            List<long[]> liveSlots = new ArrayList<>();
+            for (long[] eachSlot : liveSlots()) {
+                byte[] record = readRecord((int) eachSlot[3], eachSlot[1], (int) eachSlot[4]);
+                if (record == null || (eachSlot[2] <= now && !hasValidators(record))) {
+                    continue;
+                }
+                writeRecord(compactedSegment, offset, record);
+                liveSlots.add(new long[]{eachSlot[0], offset, eachSlot[2], compactedSegment, record.length});
+                offset += record.length;
+            }
+
+            clearSlots();
+            for (long[] eachSlot : liveSlots) {
+                putSlot(eachSlot[0], (int) eachSlot[3], eachSlot[1], (int) eachSlot[4], eachSlot[2]);
+            }
+            index.putInt(ACTIVE_SEGMENT_OFFSET, compactedSegment);
+            deleteSegmentsBefore(compactedSegment);
+        }
+    }
+
+    /**
+     * Runs {@link #compact()} in the background at a fixed rate. A failed
+     * compaction is logged and retried at the next run.
+     *
+     * @param scheduler ScheduledExecutorService
+     * @param period    long
+     * @param unit      TimeUnit
+     * @return ScheduledFuture to cancel the compaction with
+     */
+    public ScheduledFuture<?> scheduleCompaction(ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+        return scheduler.scheduleAtFixedRate(() -> {
+            try {
+                compact();
+            } catch (IOException | RuntimeException exception) {
+                // thrown out of the task it would cancel every later compaction
+                logger.error("Compaction of {} failed: {}", directory, exception.getMessage());
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Total size of the segment files, including records not yet reclaimed by compaction.
+     */
+    public synchronized long getSizeInBytes() {
+        long sizeInBytes = 0;
+        File[] segmentFiles = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_FILE_PREFIX));
+        if (segmentFiles != null) {
+            for (File eachSegmentFile : segmentFiles) {
+                sizeInBytes += eachSegmentFile.length();
+            }
+        }
+        return sizeInBytes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        index.force();
+        indexFile.close();
+        lockFile.close();
+    }
+
+    private FileLock lock(boolean shared) throws IOException {
+        FileLock fileLock = lockFile.getChannel().lock(0, Long.MAX_VALUE, shared);
+        if (index != null && index.capacity() != indexFile.length()) {
+            // another process has grown the index
+            map(indexFile.length());
+        }
+        return fileLock;
+    }
+
+    private void map(long size) throws IOException {
+        index = indexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private int capacity() {
+        return index.getInt(CAPACITY_OFFSET);
+    }
+
+    private int slotPosition(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private long slotLong(int slot, int offset) {
+        return index.getLong(slotPosition(slot) + offset);
+    }
+
+    private int slotInt(int slot, int offset) {
+        return index.getInt(slotPosition(slot) + offset);
+    }
+
+    private int findSlot(long keyHash) {
+        int capacity = capacity();
+        for (int probe = 0, slot = slotFor(keyHash, capacity); probe < capacity; probe++, slot = (slot + 1) % capacity) {
+            long slotHash = slotLong(slot, KEY_HASH_OFFSET);
+            if (slotHash == keyHash) {
+                return slot;
+            }
+            if (slotHash == EMPTY) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private void putSlot(long keyHash, int segment, long offset, int length, long expiresAt) throws IOException {
+        int slot = findSlot(keyHash);
+        if (slot < 0) {
+            if (index.getInt(USED_SLOTS_OFFSET) + 1 > capacity() * 3 / 4) {
+                rehash();
+            }
+            slot = freeSlot(keyHash);
+            index.putInt(USED_SLOTS_OFFSET, index.getInt(USED_SLOTS_OFFSET) + 1);
+        }
+        int position = slotPosition(slot);
+        index.putLong(position + KEY_HASH_OFFSET, keyHash);
+        index.putLong(position + RECORD_OFFSET_OFFSET, offset);
+        index.putLong(position + EXPIRES_AT_OFFSET, expiresAt);
+        index.putInt(position + SEGMENT_OFFSET, segment);
+        index.putInt(position + LENGTH_OFFSET, length);
+    }
+
+    private int freeSlot(long keyHash) {
+        int capacity = capacity();
+        int slot = slotFor(keyHash, capacity);
+        while (slotLong(slot, KEY_HASH_OFFSET) != EMPTY) {
+            slot = (slot + 1) % capacity;
+        }
+        return slot;
+    }
+
+    /**
+     * Drops tombstones, doubling the capacity when more than half of it is live.
+     */
+    private void rehash() throws IOException {
+        List<long[]> liveSlots = liveSlots();
+        int capacity = capacity();
+        int newCapacity = liveSlots.size() + 1 > capacity / 2 ? capacity * 2 : capacity;
+        if (newCapacity != capacity) {
+            map(HEADER_SIZE + (long) newCapacity * SLOT_SIZE);
+            index.putInt(CAPACITY_OFFSET, newCapacity);
+        }
+        clearSlots();
+        for (long[] eachSlot : liveSlots) {
+            putSlot(eachSlot[0], (int) eachSlot[3], eachSlot[1], (int) eachSlot[4], eachSlot[2]);
+        }
+    }
+
+    private List<long[]> liveSlots() {
+        List<long[]> liveSlots = new ArrayList<>();
+        for (int slot = 0; slot < capacity(); slot++) {
+            long keyHash = slotLong(slot, KEY_HASH_OFFSET);
+            if (keyHash != EMPTY && keyHash != TOMBSTONE) {
+                liveSlots.add(new long[]{keyHash, slotLong(slot, RECORD_OFFSET_OFFSET),
+                        slotLong(slot, EXPIRES_AT_OFFSET), slotInt(slot, SEGMENT_OFFSET), slotInt(slot, LENGTH_OFFSET)});
+            }
+        }
+        return liveSlots;
+    }
+
+    private void clearSlots() {
+        byte[] emptySlot = new byte[SLOT_SIZE];
+        for (int slot = 0; slot < capacity(); slot++) {
+            index.position(slotPosition(slot));
+            index.put(emptySlot);
+        }
+        index.putInt(USED_SLOTS_OFFSET, 0);
+    }
+
+    private static int slotFor(long keyHash, int capacity) {
+        return (int) ((keyHash ^ (keyHash >>> 32)) & Integer.MAX_VALUE) % capacity;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the key, never {@link #EMPTY} or {@link #TOMBSTONE}.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == EMPTY || hash == TOMBSTONE ? hash + 2 : hash;
+    }
+
+    private File segmentFile(int segment) {
+        return new File(directory, SEGMENT_FILE_PREFIX + segment + SEGMENT_FILE_SUFFIX);
+    }
+
+    private long segmentSize(int segment) {
+        return segmentFile(segment).length();
+    }
+
+    private void writeRecord(int segment, long offset, byte[] record) throws IOException {
+        try (FileChannel segmentChannel = FileChannel.open(segmentFile(segment).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                position += segmentChannel.write(buffer, position);
+            }
+        }
+    }
+
+    private byte[] readRecord(int segment, long offset, int length) throws IOException {
+        try (FileChannel segmentChannel = FileChannel.open(segmentFile(segment).toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                int read = segmentChannel.read(buffer, position);
+                if (read < 0) {
+                    return null;
+                }
+                position += read;
+            }
+            return buffer.array();
+        } catch (NoSuchFileException noSuchFileException) {
+            return null;
+        }
+    }
+
+    private void deleteSegmentsBefore(int segment) {
+        File[] segmentFiles = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_FILE_PREFIX));
+        if (segmentFiles != null) {
+            for (File eachSegmentFile : segmentFiles) {
+                String name = eachSegmentFile.getName();
+                int eachSegment = Integer.parseInt(
+                        name.substring(SEGMENT_FILE_PREFIX.length(), name.length() - SEGMENT_FILE_SUFFIX.length()));
+                if (eachSegment < segment) {
+                    eachSegmentFile.delete();
+                }
+            }
+        }
+    }
+
+    private static byte[] encode(String key, CachedResponse cachedResponse) throws IOException {
+        ByteArrayOutputStream record = new ByteArrayOutputStream(cachedResponse.size() + key.length() + 64);
+        DataOutputStream output = new DataOutputStream(record);
+        writeString(output, key);
+        writeString(output, cachedResponse.getCharset() == null ? null : cachedResponse.getCharset().name());
+        output.writeBoolean(cachedResponse.isPinned());
+        writeString(output, cachedResponse.getEntityTag());
+        writeString(output, cachedResponse.getLastModified());
+        output.writeInt(cachedResponse.getBody().length);
+        output.write(cachedResponse.getBody());
+        return record.toByteArray();
+    }
+
+    private static CachedResponse decode(String key, byte[] record, long expiresAt) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(record));
+        if (!key.equals(readString(input))) {
+            // another key with the same hash
+            return null;
+        }
+        String charsetName = readString(input);
+        Charset charset = charsetName == null ? null : Charset.forName(charsetName);
+        boolean pinned = input.readBoolean();
+        String entityTag = readString(input);
+        String lastModified = readString(input);
+        byte[] body = new byte[input.readInt()];
+        input.readFully(body);
+        return new CachedResponse(body, charset, expiresAt, pinned, entityTag, lastModified);
+    }
+
+    private static boolean hasValidators(byte[] record) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(record));
+        readString(input);
+        readString(input);
+        input.readBoolean();
+        return readString(input) != null || readString(input) != null;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,332 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory cache of GET response bodies, bounded by their total size in
+ * bytes and evicting the least recently used entries first.
+ * <p/>
+ * Entries are keyed by the final URL plus the request properties sent with
+ * it (see {@link #keyFor(String, Map)}) and live for a time to live which can
+ * be set per endpoint, i.e. per URL prefix, falling back to a default.
+ * Pinned entries are skipped by eviction until they expire, so the cache can
+ * grow beyond its bound when more than that is pinned.
+ * <p/>
+ * Expired entries carrying an ETag or Last-Modified validator are kept (until
+ * evicted) so they can be revalidated with a conditional request, see
+ * {@link #getForRevalidation(String)} and {@link #revalidated(String, String, CachedResponse)}.
+ * <p/>
+ * With a {@link DiskResponseCache} set, responses are also written to disk and
+ * memory misses are looked up there, so a restarted process warms up from disk.
+ *
+ * @author Mani Sarkar
+ */
+public class ResponseCache {
+
+    public static final long DEFAULT_TIME_TO_LIVE_MILLIS = 60000;
+
+    private static final String HEADER_SEPARATOR = "\n";
+    private static final String HEADER_VALUE_SEPARATOR = ": ";
+    private static final String MSG_DISK_CACHE_ERROR = ">>> Disk cache error, carrying on without it: %s";
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    private final long maxSizeInBytes;
+    private final long defaultTimeToLiveMillis;
+    private final NavigableMap<String, Long> timeToLiveByEndpoint = new ConcurrentSkipListMap<>();
+
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeInBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long revalidations;
+    private long bytesSaved;
+    private volatile DiskResponseCache diskCache;
+
+    public ResponseCache(long maxSizeInBytes) {
+        this(maxSizeInBytes, DEFAULT_TIME_TO_LIVE_MILLIS);
+    }
+
+    public ResponseCache(long maxSizeInBytes, long defaultTimeToLiveMillis) {
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.defaultTimeToLiveMillis = defaultTimeToLiveMillis;
+    }
+
+    /**
+     * Sets the time to live of the responses of all URLs starting with the
+     * given prefix, the longest matching prefix wins.
+     *
+     * @param endpointPrefix    String i.e. "http://www.muzu.tv/api/artist/"
+     * @param timeToLiveMillis long
+     */
+    public ResponseCache setTimeToLive(String endpointPrefix, long timeToLiveMillis) {
+        timeToLiveByEndpoint.put(endpointPrefix, timeToLiveMillis);
+        return this;
+    }
+
+    /**
+     * Sets the disk tier below this cache, usually one per process and cache directory.
+     *
+     * @param diskCache DiskResponseCache
+     */
+    public ResponseCache setDiskCache(DiskResponseCache diskCache) {
+        this.diskCache = diskCache;
+        return this;
+    }
+
+    /**
+     * Builds the key for a URL and the request properties sent with it,
+     * independent of the order the properties were set in.
+     *
+     * @param url               String
+     * @param requestProperties Map, may be null
+     * @return String
+     */
+    public static String keyFor(String url, Map<String, String> requestProperties) {
+        if (requestProperties == null || requestProperties.isEmpty()) {
+            return url;
+        }
+
+        StringBuilder key = new StringBuilder(url);
+        for (Map.Entry<String, String> eachProperty : new TreeMap<>(requestProperties).entrySet()) {
+            key.append(HEADER_SEPARATOR).append(eachProperty.getKey()).append(HEADER_VALUE_SEPARATOR)
+                    .append(eachProperty.getValue());
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the cached response for the key while it is fresh, null otherwise.
+     *
+     * @param key String
+     * @return CachedResponse
+     */
+    public CachedResponse get(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            CachedResponse cachedResponse = entries.get(key);
+            if (cachedResponse != null && cachedResponse.isFresh(now)) {
+                hits++;
+                return cachedResponse;
+            }
+        }
+
+        CachedResponse diskResponse = readFromDisk(key);
+        synchronized (this) {
+            if (diskResponse != null && diskResponse.isFresh(now)) {
+                hits++;
+                keepInMemory(key, diskResponse, now);
+                return diskResponse;
+            }
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Returns the cached response for the key when it has expired but can be
+     * revalidated with a conditional request, null otherwise.
+     *
+     * @param key String
+     * @return CachedResponse
+     */
+    public CachedResponse getForRevalidation(String key) {
+        CachedResponse cachedResponse;
+        synchronized (this) {
+            cachedResponse = entries.get(key);
+        }
+        if (cachedResponse == null) {
+            cachedResponse = readFromDisk(key);
+        }
+        if (cachedResponse != null && cachedResponse.hasValidators()
+                && !cachedResponse.isFresh(System.currentTimeMillis())) {
+            return cachedResponse;
+        }
+        return null;
+    }
+
+    /**
+     * Caches a response body, evicting the least recently used entries when the
+     * cache grows beyond its size bound. Bodies larger than the bound are only
+     * kept on disk, when there is a disk tier.
+     *
+     * @param key     String see {@link #keyFor(String, Map)}
+     * @param url     String the final URL, used to look up the time to live
+     * @param body    byte[]
+     * @param charset Charset the response declared for the body, null when none
+     * @param pinned  boolean whether the entry is exempt from eviction
+     * @return CachedResponse the response as cached
+     */
+    public CachedResponse put(String key, String url, byte[] body, Charset charset, boolean pinned) {
+        return put(key, url, body, charset, pinned, null, null);
+    }
+
+    /**
+     * Caches a response body together with its validators, see
+     * {@link #put(String, String, byte[], Charset, boolean)}.
+     *
+     * @param entityTag    String the ETag response header, may be null
+     * @param lastModified String the Last-Modified response header, may be null
+     */
+    public CachedResponse put(String key, String url, byte[] body, Charset charset, boolean pinned,
+                              String entityTag, String lastModified) {
+        long now = System.currentTimeMillis();
+        CachedResponse cachedResponse = new CachedResponse(body, charset, now + timeToLiveFor(url), pinned,
+                entityTag, lastModified);
+        synchronized (this) {
+            keepInMemory(key, cachedResponse, now);
+        }
+        onDisk(disk -> disk.put(key, cachedResponse));
+        return cachedResponse;
+    }
+
+    /**
+     * Records that the server confirmed an expired response is unchanged (304
+     * Not Modified) and makes it fresh for another time to live.
+     *
+     * @param key            String
+     * @param url            String the final URL, used to look up the time to live
+     * @param staleResponse  CachedResponse as returned by {@link #getForRevalidation(String)}
+     * @return CachedResponse the refreshed response
+     */
+    public CachedResponse revalidated(String key, String url, CachedResponse staleResponse) {
+        long now = System.currentTimeMillis();
+        CachedResponse refreshedResponse = staleResponse.refreshedUntil(now + timeToLiveFor(url));
+        synchronized (this) {
+            // the stale response may come from disk or have been evicted meanwhile
+            keepInMemory(key, refreshedResponse, now);
+            revalidations++;
+            bytesSaved += staleResponse.size();
+        }
+        onDisk(disk -> disk.updateExpiry(key, refreshedResponse.getExpiresAt()));
+        return refreshedResponse;
+    }
+
+    public void invalidate(String key) {
+        synchronized (this) {
+            removeFromMemory(key);
+        }
+        onDisk(disk -> disk.invalidate(key));
+    }
+
+    public void clear() {
+        synchronized (this) {
+            entries.clear();
+            sizeInBytes = 0;
+        }
+        onDisk(disk -> disk.clear());
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, entries.size(), sizeInBytes, revalidations, bytesSaved);
+    }
+
+    long timeToLiveFor(String url) {
+        for (Map.Entry<String, Long> eachEndpoint : timeToLiveByEndpoint.headMap(url, true).descendingMap()
+                .entrySet()) {
+            if (url.startsWith(eachEndpoint.getKey())) {
+                return eachEndpoint.getValue();
+            }
+        }
+        return defaultTimeToLiveMillis;
+    }
+
+    private void keepInMemory(String key, CachedResponse cachedResponse, long now) {
+        if (cachedResponse.size() <= maxSizeInBytes) {
+            replace(key, cachedResponse);
+            evictToFit(now);
+        } else {
+            removeFromMemory(key);
+        }
+    }
+
+    private CachedResponse readFromDisk(String key) {
+        DiskResponseCache currentDiskCache = diskCache;
+        if (currentDiskCache == null) {
+            return null;
+        }
+        try {
+            return currentDiskCache.get(key);
+        } catch (IOException ioException) {
+            logger.warn(String.format(MSG_DISK_CACHE_ERROR, ioException.getMessage()));
+            return null;
+        }
+    }
+
+    private void onDisk(DiskOperation diskOperation) {
+        DiskResponseCache currentDiskCache = diskCache;
+        if (currentDiskCache != null) {
+            try {
+                diskOperation.apply(currentDiskCache);
+            } catch (IOException ioException) {
+                logger.warn(String.format(MSG_DISK_CACHE_ERROR, ioException.getMessage()));
+            }
+        }
+    }
+
+    private void removeFromMemory(String key) {
+        CachedResponse cachedResponse = entries.remove(key);
+        if (cachedResponse != null) {
+            sizeInBytes -= cachedResponse.size();
+        }
+    }
+
+    private void replace(String key, CachedResponse cachedResponse) {
+        CachedResponse previousResponse = entries.put(key, cachedResponse);
+        if (previousResponse != null) {
+            sizeInBytes -= previousResponse.size();
+        }
+        sizeInBytes += cachedResponse.size();
+    }
+
+    private void evictToFit(long now) {
+        Iterator<CachedResponse> leastRecentlyUsed = entries.values().iterator();
+        while (sizeInBytes > maxSizeInBytes && leastRecentlyUsed.hasNext()) {
+            CachedResponse cachedResponse = leastRecentlyUsed.next();
+            if (cachedResponse.isPinned() && cachedResponse.isFresh(now)) {
+                continue;
+            }
+            leastRecentlyUsed.remove();
+            sizeInBytes -= cachedResponse.size();
+            evictions++;
+        }
+    }
+
+    private interface DiskOperation {
+        void apply(DiskResponseCache diskCache) throws IOException;
+    }
+
+}
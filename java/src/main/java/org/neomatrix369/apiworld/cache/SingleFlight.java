@@ -0,0 +1,201 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.cache;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces identical concurrent calls: the first caller for a key makes the
+ * call and the callers arriving while it is in flight wait for and share its
+ * result, or its failure, instead of making the same call again.
+ * <p/>
+ * A caller makes its own call instead of waiting when the flight already has
+ * the maximum number of followers, when the flight takes longer than the
+ * maximum wait, or when the call in flight was interrupted, i.e. cancelled by
+ * its caller, which says nothing about the call itself. Results are shared
+ * between threads so must be immutable.
+ *
+ * @author Mani Sarkar
+ */
+public class SingleFlight {
+
+    public static final int DEFAULT_MAX_FOLLOWERS = 100;
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 60000;
+
+    // what a follower gets when it has to make its own call, null being a valid result
+    private static final Object OWN_CALL = new Object();
+
+    private final int maxFollowers;
+    private final long maxWaitMillis;
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public SingleFlight() {
+        this(DEFAULT_MAX_FOLLOWERS, DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * @param maxFollowers  int callers allowed to wait for a flight
+     * @param maxWaitMillis long longest a caller waits for a flight before making its own call
+     */
+    public SingleFlight(int maxFollowers, long maxWaitMillis) {
+        this.maxFollowers = maxFollowers;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Makes the call, or waits for the identical call already in flight.
+     *
+     * @param key  String identifying identical calls, i.e. see {@link ResponseCache#keyFor}
+     * @param call Call
+     * @return T the result of the call
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Call<T> call) throws IOException {
+        Flight newFlight = new Flight();
+        Flight flight = flights.putIfAbsent(key, newFlight);
+        if (flight == null) {
+            return lead(key, newFlight, call);
+        }
+
+        if (flight.followers.incrementAndGet() > maxFollowers) {
+            overflowed.increment();
+            executed.increment();
+            return call.call();
+        }
+        Object result = follow(flight);
+        if (result == OWN_CALL) {
+            overflowed.increment();
+            executed.increment();
+            return call.call();
+        }
+        coalesced.increment();
+        return (T) result;
+    }
+
+    /**
+     * Number of calls made.
+     */
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    /**
+     * Number of callers served by a call of another caller.
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Number of callers which made their own call because of the maximum
+     * number of followers, the maximum wait or an interrupted call in flight.
+     */
+    public long getOverflowed() {
+        return overflowed.sum();
+    }
+
+    /**
+     * Number of callers currently waiting for a flight.
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    private <T> T lead(String key, Flight flight, Call<T> call) throws IOException {
+        executed.increment();
+        Throwable failure = null;
+        T result = null;
+        try {
+            result = call.call();
+            return result;
+        } catch (IOException | RuntimeException | Error exception) {
+            failure = exception;
+            throw exception;
+        } finally {
+            // whatever happened, the followers must not be left waiting
+            flights.remove(key, flight);
+            if (failure == null) {
+                flight.result.complete(result);
+            } else {
+                flight.result.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * @return Object the result of the flight, {@link #OWN_CALL} when it took
+     *         longer than the maximum wait or its caller was interrupted
+     */
+    private Object follow(Flight flight) throws IOException {
+        waiting.incrementAndGet();
+        try {
+            return flight.result.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException timeoutException) {
+            return OWN_CALL;
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an identical call");
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            if (cause instanceof InterruptedIOException && !(cause instanceof SocketTimeoutException)) {
+                return OWN_CALL;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * A call which can be shared.
+     */
+    public interface Call<T> {
+        T call() throws IOException;
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger followers = new AtomicInteger();
+    }
+
+}
@@ -0,0 +1,322 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+
+import org.neomatrix369.apiworld.ResponseHandler;
+import org.neomatrix369.apiworld.exception.JsonBindingException;
+
+/**
+ * Binds fields of a JSON object into a caller-defined result object while the
+ * JSON is being parsed, without building a DOM or an intermediate String.
+ * <p/>
+ * Fields are addressed by their path from the root object, nested object
+ * fields separated by dots, i.e. <code>photos.page</code>. Fields that are not
+ * bound are skipped. Once every bound field has been read the rest of the
+ * body is not parsed at all, unless {@link #readToEnd()} is set: stopping
+ * early saves parsing large bodies but the connection cannot be kept alive.
+ * <pre>
+ * ResponseHandler&lt;Photos&gt; handler = JsonBinding.of(Photos::new)
+ *         .bindString("stat", Photos::setStat)
+ *         .bindLong("photos.total", Photos::setTotal)
+ *         .bindEach("photos.photo", JsonBinding.of(Photo::new).bindString("title", Photo::setTitle), Photos::add)
+ *         .handler();
+ * </pre>
+ * A binding is immutable once configured and can be shared between threads.
+ *
+ * @author Mani Sarkar
+ */
+public final class JsonBinding<T> {
+
+    private static final String PATH_SEPARATOR = ".";
+
+    private final Supplier<T> factory;
+    private final Map<String, FieldBinder<T>> binders = new LinkedHashMap<>();
+    private final Set<String> parentPaths = new HashSet<>();
+    private boolean readToEnd;
+
+    private JsonBinding(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @param factory Supplier creating an empty result object per response
+     * @return JsonBinding
+     */
+    public static <T> JsonBinding<T> of(Supplier<T> factory) {
+        return new JsonBinding<>(factory);
+    }
+
+    /**
+     * Binds a string field. Numbers and booleans are bound as their JSON text,
+     * null as null.
+     */
+    public JsonBinding<T> bindString(String path, BiConsumer<T, String> setter) {
+        return bind(path, (target, parser, event) -> setter.accept(target, scalarOf(path, parser, event)));
+    }
+
+    /**
+     * Binds an integral number field, also accepting a number in a string as
+     * some providers send them. null is not bound.
+     */
+    public JsonBinding<T> bindLong(String path, BiConsumer<T, Long> setter) {
+        return bind(path, (target, parser, event) -> {
+            BigDecimal number = numberOf(path, parser, event);
+            if (number != null) {
+                try {
+                    setter.accept(target, number.longValueExact());
+                } catch (ArithmeticException exception) {
+                    throw new JsonBindingException("Not an integral number at " + path + ": " + number);
+                }
+            }
+        });
+    }
+
+    /**
+     * Binds a number field, also accepting a number in a string. null is not bound.
+     */
+    public JsonBinding<T> bindDouble(String path, BiConsumer<T, Double> setter) {
+        return bind(path, (target, parser, event) -> {
+            BigDecimal number = numberOf(path, parser, event);
+            if (number != null) {
+                setter.accept(target, number.doubleValue());
+            }
+        });
+    }
+
+    /**
+     * Binds a boolean field, also accepting "true" and "false" strings and the
+     * 1 and 0 Flickr uses. null is not bound.
+     */
+    public JsonBinding<T> bindBoolean(String path, BiConsumer<T, Boolean> setter) {
+        return bind(path, (target, parser, event) -> {
+            String value = scalarOf(path, parser, event);
+            if ("true".equals(value) || "1".equals(value)) {
+                setter.accept(target, Boolean.TRUE);
+            } else if ("false".equals(value) || "0".equals(value)) {
+                setter.accept(target, Boolean.FALSE);
+            } else if (value != null) {
+                throw new JsonBindingException("Not a boolean at " + path + ": " + value);
+            }
+        });
+    }
+
+    /**
+     * Binds every object in an array field with the element binding, handing
+     * each element to the adder as soon as it has been read. Elements which
+     * are not objects are skipped.
+     */
+    public <E> JsonBinding<T> bindEach(String path, final JsonBinding<E> elementBinding, BiConsumer<T, E> adder) {
+        return bind(path, (target, parser, event) -> {
+            if (event == Event.VALUE_NULL) {
+                return;
+            }
+            if (event != Event.START_ARRAY) {
+                throw new JsonBindingException("Not an array at " + path + ": " + event);
+            }
+            Event elementEvent;
+            while ((elementEvent = nextEvent(parser)) != Event.END_ARRAY) {
+                if (elementEvent == Event.START_OBJECT) {
+                    adder.accept(target, elementBinding.readObject(parser, false));
+                } else {
+                    skipValue(parser, elementEvent);
+                }
+            }
+        });
+    }
+
+    /**
+     * Parses the whole body even after every bound field has been read, so
+     * that the connection can be kept alive.
+     */
+    public JsonBinding<T> readToEnd() {
+        this.readToEnd = true;
+        return this;
+    }
+
+    /**
+     * @return ResponseHandler binding the body of a response, see
+     *         {@link org.neomatrix369.apiworld.APIReader#executeGetUrl(java.util.Map, ResponseHandler)}
+     */
+    public ResponseHandler<T> handler() {
+        return this::read;
+    }
+
+    /**
+     * @return ResponseHandler binding the body of a JSONP response, the
+     *         callback wrapper stripped while reading, see {@link JsonpReader}
+     */
+    public ResponseHandler<T> jsonpHandler() {
+        return (body, charset) -> read(new JsonpReader(new InputStreamReader(body, charset)));
+    }
+
+    public T read(InputStream body, Charset charset) throws IOException {
+        return read(new InputStreamReader(body, charset));
+    }
+
+    /**
+     * Binds the JSON object read from the reader, which is not closed.
+     *
+     * @param reader Reader
+     * @return T the bound result object
+     * @throws JsonBindingException when the JSON is malformed, is not an
+     *                              object or a field has an unexpected type
+     * @throws IOException          as thrown by the reader, i.e. on a timeout
+     */
+    public T read(Reader reader) throws IOException {
+        try {
+            JsonParser parser = Json.createParser(reader);
+            Event event = nextEvent(parser);
+            if (event != Event.START_OBJECT) {
+                throw new JsonBindingException("Not a JSON object: starts with " + event);
+            }
+            return readObject(parser, !readToEnd);
+        } catch (JsonException exception) {
+            if (exception.getCause() instanceof IOException) {
+                // the parser wraps the failures of the reader too, they are no malformed JSON
+                throw (IOException) exception.getCause();
+            }
+            throw new JsonBindingException(exception.getMessage(), exception);
+        }
+    }
+
+    private T readObject(JsonParser parser, boolean stopEarly) throws JsonBindingException {
+        T target = factory.get();
+        readFields(parser, "", target, new HashSet<String>(), stopEarly);
+        return target;
+    }
+
+    /**
+     * Reads the fields of the current object up to its end.
+     *
+     * @return true when it stopped before the end because every bound field was read
+     */
+    private boolean readFields(JsonParser parser, String prefix, T target, Set<String> boundPaths,
+                               boolean stopEarly) throws JsonBindingException {
+        while (nextEvent(parser) != Event.END_OBJECT) {
+            String path = prefix + parser.getString();
+            Event valueEvent = nextEvent(parser);
+            FieldBinder<T> binder = binders.get(path);
+            if (binder != null) {
+                binder.bind(target, parser, valueEvent);
+                boundPaths.add(path);
+                if (stopEarly && boundPaths.size() == binders.size()) {
+                    return true;
+                }
+            } else if (valueEvent == Event.START_OBJECT && parentPaths.contains(path)) {
+                if (readFields(parser, path + PATH_SEPARATOR, target, boundPaths, stopEarly)) {
+                    return true;
+                }
+            } else {
+                skipValue(parser, valueEvent);
+            }
+        }
+        return false;
+    }
+
+    private JsonBinding<T> bind(String path, FieldBinder<T> binder) {
+        binders.put(path, binder);
+        int separator = path.indexOf(PATH_SEPARATOR);
+        while (separator != -1) {
+            parentPaths.add(path.substring(0, separator));
+            separator = path.indexOf(PATH_SEPARATOR, separator + 1);
+        }
+        return this;
+    }
+
+    private static String scalarOf(String path, JsonParser parser, Event event) throws JsonBindingException {
+        switch (event) {
+            case VALUE_STRING:
+            case VALUE_NUMBER:
+                return parser.getString();
+            case VALUE_TRUE:
+                return "true";
+            case VALUE_FALSE:
+                return "false";
+            case VALUE_NULL:
+                return null;
+            default:
+                skipValue(parser, event);
+                throw new JsonBindingException("Not a scalar at " + path + ": " + event);
+        }
+    }
+
+    private static BigDecimal numberOf(String path, JsonParser parser, Event event) throws JsonBindingException {
+        if (event == Event.VALUE_NUMBER) {
+            return parser.getBigDecimal();
+        }
+        String value = scalarOf(path, parser, event);
+        try {
+            return value == null ? null : new BigDecimal(value.trim());
+        } catch (NumberFormatException exception) {
+            throw new JsonBindingException("Not a number at " + path + ": " + value);
+        }
+    }
+
+    private static Event nextEvent(JsonParser parser) throws JsonBindingException {
+        if (!parser.hasNext()) {
+            throw new JsonBindingException("Unexpected end of JSON");
+        }
+        return parser.next();
+    }
+
+    /**
+     * Skips the value which started with the event, nested objects and arrays included.
+     */
+    private static void skipValue(JsonParser parser, Event event) throws JsonBindingException {
+        if (event != Event.START_OBJECT && event != Event.START_ARRAY) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            Event nested = nextEvent(parser);
+            if (nested == Event.START_OBJECT || nested == Event.START_ARRAY) {
+                depth++;
+            } else if (nested == Event.END_OBJECT || nested == Event.END_ARRAY) {
+                depth--;
+            }
+        }
+    }
+
+    private interface FieldBinder<T> {
+        void bind(T target, JsonParser parser, Event event) throws JsonBindingException;
+    }
+
+}
@@ -0,0 +1,176 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.json;
+
+import org.neomatrix369.apiworld.exception.JsonBindingException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Strips the callback wrapper of a JSONP response, i.e.
+ * <code>jsonFlickrApi({...})</code>, while the response is being read, so that
+ * the JSON inside can be handed straight to a parser without copying the body
+ * into a String first. Responses that are plain JSON are passed through.
+ * <p/>
+ * Characters are passed on as they arrive; only the closing parenthesis and
+ * whatever whitespace or semicolon follows it are held back until the end of
+ * the response tells whether they close the callback.
+ *
+ * @author Mani Sarkar
+ */
+public class JsonpReader extends Reader {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int NONE = -2;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder heldBack = new StringBuilder();
+
+    private int position;
+    private int limit;
+    private int pushedBack = NONE;
+    private int releaseIndex = -1;
+    private boolean started;
+    private boolean wrapped;
+    private boolean ended;
+
+    public JsonpReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Whether the response had a callback wrapper, known once reading started.
+     */
+    public boolean isWrapped() {
+        return wrapped;
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!started) {
+            skipCallback();
+            started = true;
+        }
+        int count = 0;
+        while (count < length) {
+            // hand over what has arrived instead of blocking for a full buffer
+            if (count > 0 && position == limit && pushedBack == NONE && releaseIndex == -1) {
+                break;
+            }
+            int nextChar = nextChar();
+            if (nextChar == -1) {
+                break;
+            }
+            chars[offset + count++] = (char) nextChar;
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void skipCallback() throws IOException {
+        int firstChar = readRaw();
+        while (firstChar != -1 && (Character.isWhitespace(firstChar) || firstChar == '\uFEFF')) {
+            firstChar = readRaw();
+        }
+        if (firstChar == '{' || firstChar == '[') {
+            pushedBack = firstChar;
+            return;
+        }
+        int callbackChar = firstChar;
+        while (callbackChar != '(') {
+            if (callbackChar == -1 || !isCallbackChar(callbackChar)) {
+                throw new JsonBindingException("Not a JSON or JSONP response");
+            }
+            callbackChar = readRaw();
+        }
+        wrapped = true;
+    }
+
+    private boolean isCallbackChar(int character) {
+        return Character.isJavaIdentifierPart(character) || character == '.' || character == '/'
+                || character == '*' || Character.isWhitespace(character);
+    }
+
+    private int nextChar() throws IOException {
+        while (true) {
+            if (releaseIndex != -1) {
+                if (releaseIndex < heldBack.length()) {
+                    return heldBack.charAt(releaseIndex++);
+                }
+                heldBack.setLength(0);
+                releaseIndex = -1;
+            }
+            if (ended) {
+                return -1;
+            }
+            int character = pushedBack != NONE ? pushedBack : readRaw();
+            pushedBack = NONE;
+            if (!wrapped) {
+                ended = character == -1;
+                return character;
+            }
+            if (character == -1) {
+                if (heldBack.length() == 0) {
+                    throw new JsonBindingException("Unterminated JSONP response, the callback is not closed");
+                }
+                heldBack.setLength(0);
+                ended = true;
+                return -1;
+            }
+            if (heldBack.length() == 0) {
+                if (character != ')') {
+                    return character;
+                }
+                heldBack.append(')');
+            } else if (character == ';' || Character.isWhitespace(character)) {
+                heldBack.append((char) character);
+            } else {
+                // the held back parenthesis was part of the JSON after all
+                pushedBack = character;
+                releaseIndex = 0;
+            }
+        }
+    }
+
+    private int readRaw() throws IOException {
+        if (position == limit) {
+            int read = in.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                return -1;
+            }
+            position = 0;
+            limit = read;
+        }
+        return buffer[position++];
+    }
+
+}
@@ -0,0 +1,154 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.projection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+
+import org.neomatrix369.apiworld.exception.JsonBindingException;
+import org.neomatrix369.apiworld.json.JsonpReader;
+
+/**
+ * JSON projection on the javax.json streaming parser. Keys are only read in
+ * objects on the way to a projected field; anything else is stepped over
+ * event by event without asking the parser for its text.
+ */
+final class JsonProjection extends Projection {
+
+    private static final String FIELD_SEPARATOR = ".";
+    private static final String ARRAY_ELEMENTS = "[]";
+
+    private final boolean singleValued;
+
+    JsonProjection(String[] paths) {
+        super(paths, FIELD_SEPARATOR);
+        boolean anyArray = false;
+        for (String each : paths) {
+            anyArray |= each.contains(ARRAY_ELEMENTS);
+        }
+        this.singleValued = !anyArray;
+    }
+
+    @Override
+    public ProjectedResponse read(InputStream body, Charset charset) throws IOException {
+        ProjectedResponse response = new ProjectedResponse();
+        try {
+            JsonParser parser = Json.createParser(new JsonpReader(new InputStreamReader(body, charset)));
+            if (!parser.hasNext()) {
+                throw new JsonBindingException("Empty JSON response");
+            }
+            readValue(parser, parser.next(), "", response, new HashSet<String>());
+        } catch (JsonException exception) {
+            if (exception.getCause() instanceof IOException) {
+                // the parser wraps the failures of the reader too, they are no malformed JSON
+                throw (IOException) exception.getCause();
+            }
+            throw new JsonBindingException(exception.getMessage(), exception);
+        } catch (StopProjecting done) {
+            // every projected field has been read
+        }
+        return response;
+    }
+
+    private void readValue(JsonParser parser, Event event, String path, ProjectedResponse response,
+                           Set<String> projectedPaths) throws JsonBindingException, StopProjecting {
+        if (event == Event.START_OBJECT && (path.isEmpty() || isParent(path))) {
+            while (next(parser) != Event.END_OBJECT) {
+                String fieldPath = path.isEmpty() ? parser.getString() : path + FIELD_SEPARATOR + parser.getString();
+                readValue(parser, next(parser), fieldPath, response, projectedPaths);
+            }
+        } else if (event == Event.START_ARRAY && (isParent(path + ARRAY_ELEMENTS) || isProjected(path + ARRAY_ELEMENTS))) {
+            Event elementEvent;
+            while ((elementEvent = next(parser)) != Event.END_ARRAY) {
+                readValue(parser, elementEvent, path + ARRAY_ELEMENTS, response, projectedPaths);
+            }
+        } else if (event == Event.START_OBJECT || event == Event.START_ARRAY) {
+            skip(parser);
+        } else if (isProjected(path)) {
+            project(parser, event, path, response);
+            projectedPaths.add(path);
+            if (singleValued && projectedPaths.size() == getPaths().size()) {
+                throw new StopProjecting();
+            }
+        }
+    }
+
+    private void project(JsonParser parser, Event event, String path, ProjectedResponse response) {
+        switch (event) {
+            case VALUE_STRING:
+            case VALUE_NUMBER:
+                response.add(path, parser.getString(), false);
+                break;
+            case VALUE_TRUE:
+                response.add(path, "true", false);
+                break;
+            case VALUE_FALSE:
+                response.add(path, "false", false);
+                break;
+            default:
+                response.add(path, "", true);
+                break;
+        }
+    }
+
+    private static Event next(JsonParser parser) throws JsonBindingException {
+        if (!parser.hasNext()) {
+            throw new JsonBindingException("Unexpected end of JSON");
+        }
+        return parser.next();
+    }
+
+    private static void skip(JsonParser parser) throws JsonBindingException {
+        int depth = 1;
+        while (depth > 0) {
+            Event event = next(parser);
+            if (event == Event.START_OBJECT || event == Event.START_ARRAY) {
+                depth++;
+            } else if (event == Event.END_OBJECT || event == Event.END_ARRAY) {
+                depth--;
+            }
+        }
+    }
+
+    private static final class StopProjecting extends Exception {
+
+        /**
+         * Generated serialVersionUID.
+         */
+        private static final long serialVersionUID = 5187392641238845703L;
+
+        StopProjecting() {
+            super(null, null, false, false);
+        }
+    }
+
+}
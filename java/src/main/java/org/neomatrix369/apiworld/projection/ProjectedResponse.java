@@ -0,0 +1,105 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.projection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fields projected from a response, by the path they were declared with.
+ * All values share a single buffer holding just the projected text.
+ *
+ * @author Mani Sarkar
+ */
+public final class ProjectedResponse {
+
+    private final StringBuilder text = new StringBuilder();
+    private final Map<String, List<ProjectedValue>> values = new HashMap<>();
+
+    /**
+     * @param path String as declared in the {@link Projection}
+     * @return ProjectedValue the first value found at the path, null when there is none
+     */
+    public ProjectedValue get(String path) {
+        List<ProjectedValue> all = values.get(path);
+        return all == null ? null : all.get(0);
+    }
+
+    /**
+     * @param path String as declared in the {@link Projection}
+     * @return List of every value found at the path in document order
+     */
+    public List<ProjectedValue> getAll(String path) {
+        List<ProjectedValue> all = values.get(path);
+        return all == null ? Collections.<ProjectedValue>emptyList() : Collections.unmodifiableList(all);
+    }
+
+    public boolean contains(String path) {
+        return values.containsKey(path);
+    }
+
+    /**
+     * Number of chars held for all projected values.
+     */
+    public int getProjectedLength() {
+        return text.length();
+    }
+
+    int startValue() {
+        return text.length();
+    }
+
+    StringBuilder text() {
+        return text;
+    }
+
+    void endValue(String path, int start, boolean isNull) {
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        add(path, new ProjectedValue(text, start, end, isNull));
+    }
+
+    void add(String path, String value, boolean isNull) {
+        int start = startValue();
+        text.append(value);
+        add(path, new ProjectedValue(text, start, text.length(), isNull));
+    }
+
+    private void add(String path, ProjectedValue value) {
+        List<ProjectedValue> all = values.get(path);
+        if (all == null) {
+            all = new ArrayList<>(1);
+            values.put(path, all);
+        }
+        all.add(value);
+    }
+
+}
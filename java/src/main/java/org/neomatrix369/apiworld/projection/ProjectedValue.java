@@ -0,0 +1,120 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.projection;
+
+/**
+ * A projected field of a response, a view over the text the parser read
+ * rather than a String of its own. Nothing is decoded until one of the
+ * <code>as...</code> methods is called.
+ * <p/>
+ * JSON strings are viewed without their quotes, JSON numbers and literals as
+ * they appear in the response.
+ *
+ * @author Mani Sarkar
+ */
+public final class ProjectedValue implements CharSequence {
+
+    private final CharSequence text;
+    private final int start;
+    private final int end;
+    private final boolean isNull;
+
+    ProjectedValue(CharSequence text, int start, int end, boolean isNull) {
+        this.text = text;
+        this.start = start;
+        this.end = end;
+        this.isNull = isNull;
+    }
+
+    /**
+     * Whether the value was a JSON null.
+     */
+    public boolean isNull() {
+        return isNull;
+    }
+
+    /**
+     * @return String the value, null for a JSON null
+     */
+    public String asString() {
+        return isNull ? null : toString();
+    }
+
+    /**
+     * @return long the value parsed without copying it
+     * @throws NumberFormatException when the value is not an integral number
+     */
+    public long asLong() {
+        return Long.parseLong(text, start, end, 10);
+    }
+
+    public double asDouble() {
+        return Double.parseDouble(toString());
+    }
+
+    /**
+     * @return boolean true for <code>true</code> and the <code>1</code> some providers use
+     */
+    public boolean asBoolean() {
+        return contentEquals("true") || contentEquals("1");
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length());
+        }
+        return text.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        if (from < 0 || to > length() || from > to) {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + length());
+        }
+        return new ProjectedValue(text, start + from, start + to, false);
+    }
+
+    public boolean contentEquals(CharSequence other) {
+        if (other.length() != length()) {
+            return false;
+        }
+        for (int index = 0; index < other.length(); index++) {
+            if (text.charAt(start + index) != other.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return text.subSequence(start, end).toString();
+    }
+
+}
@@ -0,0 +1,138 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.projection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.neomatrix369.apiworld.ResponseHandler;
+
+/**
+ * Declares the fields a caller needs from a response. The response is parsed
+ * as a stream of tokens and everything outside the declared paths is skipped
+ * at the token level: no Strings are created for the subtrees that were not
+ * asked for, and the projected fields are returned as {@link ProjectedValue}
+ * views decoded only on access.
+ * <pre>
+ * Projection photoIds = Projection.json("stat", "photos.photo[].id");
+ * ProjectedResponse photos = apiReader.executeGetUrl(null, photoIds.handler());
+ *
+ * Projection titles = Projection.xml("rss/channel/item/title", "artist/@vanityname");
+ * </pre>
+ * A projection is immutable and can be shared between threads.
+ *
+ * @author Mani Sarkar
+ */
+public abstract class Projection {
+
+    private final Set<String> paths;
+    private final Set<String> parentPaths = new HashSet<>();
+
+    Projection(String[] paths, String separator) {
+        this.paths = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(paths)));
+        for (String each : paths) {
+            int end = each.lastIndexOf(separator);
+            while (end > 0) {
+                parentPaths.add(each.substring(0, end));
+                end = each.lastIndexOf(separator, end - 1);
+            }
+        }
+    }
+
+    /**
+     * Projects fields of a JSON (or JSONP) response. Paths separate the fields
+     * of nested objects with dots and mark the elements of an array with
+     * <code>[]</code>, i.e. <code>results[].from_user_name</code>. Only
+     * scalar values are projected.
+     *
+     * @param paths String... of the fields needed
+     * @return Projection
+     */
+    public static Projection json(String... paths) {
+        return new JsonProjection(paths);
+    }
+
+    /**
+     * Projects the text of elements or the value of attributes of an XML
+     * response. Paths separate nested elements with slashes and start at the
+     * root element, <code>@</code> marks an attribute, i.e.
+     * <code>rss/channel/item/guid</code> or <code>artist/@vanityname</code>.
+     * Repeated elements yield one value each.
+     *
+     * @param paths String... of the elements and attributes needed
+     * @return Projection
+     */
+    public static Projection xml(String... paths) {
+        return new XmlProjection(paths);
+    }
+
+    public Set<String> getPaths() {
+        return paths;
+    }
+
+    public ResponseHandler<ProjectedResponse> handler() {
+        return new ResponseHandler<ProjectedResponse>() {
+            @Override
+            public ProjectedResponse handle(InputStream body, Charset charset) throws IOException {
+                return read(body, charset);
+            }
+
+            @Override
+            public ProjectedResponse handle(InputStream body, Charset charset, boolean charsetDeclared)
+                    throws IOException {
+                return read(body, charset, charsetDeclared);
+            }
+        };
+    }
+
+    /**
+     * @param body    InputStream of the response
+     * @param charset Charset the body is encoded with
+     * @return ProjectedResponse holding just the declared fields
+     * @throws IOException when reading or parsing the body fails
+     */
+    public abstract ProjectedResponse read(InputStream body, Charset charset) throws IOException;
+
+    /**
+     * Reads a response which may not have declared its charset, see
+     * {@link ResponseHandler#handle(InputStream, Charset, boolean)}.
+     */
+    ProjectedResponse read(InputStream body, Charset charset, boolean charsetDeclared) throws IOException {
+        return read(body, charset);
+    }
+
+    boolean isProjected(String path) {
+        return paths.contains(path);
+    }
+
+    boolean isParent(String path) {
+        return parentPaths.contains(path);
+    }
+
+}
@@ -0,0 +1,156 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.projection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.neomatrix369.apiworld.exception.InvalidResponseException;
+
+/**
+ * XML projection on a StAX pull parser. Elements outside the projected paths
+ * are stepped over without asking for their names or text; projected text is
+ * copied from the parser's buffer straight into the shared buffer of the
+ * {@link ProjectedResponse}.
+ */
+final class XmlProjection extends Projection {
+
+    private static final String ELEMENT_SEPARATOR = "/";
+    private static final String ATTRIBUTE_MARKER = "@";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    XmlProjection(String[] paths) {
+        super(paths, ELEMENT_SEPARATOR);
+    }
+
+    @Override
+    public ProjectedResponse read(InputStream body, Charset charset) throws IOException {
+        return read(body, charset, true);
+    }
+
+    /**
+     * Without a charset declared by the response the encoding is read from
+     * the XML declaration or byte order mark of the body, UTF-8 when it has
+     * neither.
+     */
+    @Override
+    ProjectedResponse read(InputStream body, Charset charset, boolean charsetDeclared) throws IOException {
+        ProjectedResponse response = new ProjectedResponse();
+        XMLStreamReader reader = null;
+        try {
+            reader = charsetDeclared ? XML_INPUT_FACTORY.createXMLStreamReader(body, charset.name())
+                    : XML_INPUT_FACTORY.createXMLStreamReader(body);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    readElement(reader, reader.getLocalName(), response);
+                }
+            }
+            return response;
+        } catch (XMLStreamException exception) {
+            if (exception.getCause() instanceof IOException) {
+                // a failure reading the body, not a malformed one
+                throw (IOException) exception.getCause();
+            }
+            throw new InvalidResponseException("Malformed XML response: " + exception.getMessage(), exception);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException exception) {
+                    // nothing left to read
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the element the reader is on up to and including its end.
+     */
+    private void readElement(XMLStreamReader reader, String path, ProjectedResponse response)
+            throws XMLStreamException {
+        boolean projected = isProjected(path);
+        if (!projected && !isParent(path)) {
+            skip(reader);
+            return;
+        }
+        for (int index = 0; index < reader.getAttributeCount(); index++) {
+            String attributePath = path + ELEMENT_SEPARATOR + ATTRIBUTE_MARKER + reader.getAttributeLocalName(index);
+            if (isProjected(attributePath)) {
+                response.add(attributePath, reader.getAttributeValue(index), false);
+            }
+        }
+
+        int start = response.startValue();
+        while (true) {
+            switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                if (projected) {
+                    // nested elements are not part of the projected text
+                    response.endValue(path, start, false);
+                    projected = false;
+                }
+                readElement(reader, path + ELEMENT_SEPARATOR + reader.getLocalName(), response);
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                if (projected) {
+                    response.text().append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                }
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                if (projected) {
+                    response.endValue(path, start, false);
+                }
+                return;
+            default:
+                break;
+            }
+        }
+    }
+
+    private static void skip(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.ratelimit;
+
+import org.neomatrix369.apiworld.exception.RateLimitExceededException;
+import org.neomatrix369.apiworld.resilience.ProviderIsolation;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Keeps requests within the quota of each provider, or of each API key of a
+ * provider, with a {@link TokenBucket} per quota key. Usually one is shared by
+ * all readers.
+ * <p/>
+ * Requests either wait for a token, up to a maximum wait, or fail at once.
+ * The buckets adapt to what providers say in their responses: a
+ * <code>Retry-After</code> header, or <code>X-RateLimit-Remaining</code> of 0,
+ * pauses the bucket; otherwise the remaining requests are spread evenly up to
+ * <code>X-RateLimit-Reset</code>.
+ *
+ * @author Mani Sarkar
+ */
+public class RateLimiter {
+
+    public enum Mode {
+        BLOCKING, FAIL_FAST
+    }
+
+    public static final double DEFAULT_PERMITS_PER_SECOND = 5;
+    public static final int DEFAULT_BURST = 5;
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 30000;
+
+    static final String RETRY_AFTER = "Retry-After";
+    static final String RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+    static final String RATE_LIMIT_RESET = "X-RateLimit-Reset";
+
+    private static final String MSG_RATE_LIMIT_EXCEEDED = "Request quota of %s exceeded, retry after %d ms";
+    // reset values larger than this are epoch seconds, smaller ones seconds from now
+    private static final long EPOCH_SECONDS_THRESHOLD = 1000000000L;
+
+    private final Mode mode;
+    private final long maxWaitNanos;
+    private final double defaultPermitsPerSecond;
+    private final int defaultBurst;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter() {
+        this(Mode.BLOCKING, DEFAULT_MAX_WAIT_MILLIS, DEFAULT_PERMITS_PER_SECOND, DEFAULT_BURST);
+    }
+
+    /**
+     * @param mode                    Mode whether requests wait for a token or fail at once
+     * @param maxWaitMillis           long longest a blocking request waits for a token
+     * @param defaultPermitsPerSecond double rate of the quota keys not given one with {@link #setQuota}
+     * @param defaultBurst            int burst of the quota keys not given one with {@link #setQuota}
+     */
+    public RateLimiter(Mode mode, long maxWaitMillis, double defaultPermitsPerSecond, int defaultBurst) {
+        this.mode = mode;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.defaultPermitsPerSecond = defaultPermitsPerSecond;
+        this.defaultBurst = defaultBurst;
+    }
+
+    /**
+     * Quota key of a provider, "protocol://host:port".
+     */
+    public static String keyFor(URL url) {
+        return ProviderIsolation.providerOf(url);
+    }
+
+    /**
+     * Quota key of an API key of a provider.
+     */
+    public static String keyFor(URL url, String apiKey) {
+        return keyFor(url) + "#" + apiKey;
+    }
+
+    public RateLimiter setQuota(String key, double permitsPerSecond, int burst) {
+        buckets.put(key, new TokenBucket(permitsPerSecond, burst));
+        return this;
+    }
+
+    /**
+     * Takes a token of the quota, waiting for one in blocking mode.
+     *
+     * @param key String
+     * @throws RateLimitExceededException when no token is available, in time
+     */
+    public void acquire(String key) throws IOException {
+        TokenBucket bucket = bucketFor(key);
+        long waitedNanos = 0;
+        while (true) {
+            long waitNanos = bucket.tryAcquire();
+            if (waitNanos == 0) {
+                return;
+            }
+            if (mode == Mode.FAIL_FAST || waitedNanos + waitNanos > maxWaitNanos) {
+                throw new RateLimitExceededException(String.format(MSG_RATE_LIMIT_EXCEEDED, key,
+                        TimeUnit.NANOSECONDS.toMillis(waitNanos)), TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            }
+            LockSupport.parkNanos(waitNanos);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the request quota of " + key);
+            }
+            waitedNanos += waitNanos;
+        }
+    }
+
+    /**
+     * Adapts the quota to the rate limit headers of a response.
+     *
+     * @param key     String
+     * @param headers Function looking up a response header, i.e. <code>urlConnection::getHeaderField</code>
+     */
+    public void onResponse(String key, Function<String, String> headers) {
+        TokenBucket bucket = bucketFor(key);
+        long retryAfterMillis = retryAfterMillis(headers.apply(RETRY_AFTER));
+        if (retryAfterMillis > 0) {
+            bucket.pause(TimeUnit.MILLISECONDS.toNanos(retryAfterMillis));
+            return;
+        }
+
+        long remaining = parseLong(headers.apply(RATE_LIMIT_REMAINING));
+        long resetMillis = resetMillis(headers.apply(RATE_LIMIT_RESET));
+        if (remaining < 0 || resetMillis <= 0) {
+            return;
+        }
+        if (remaining == 0) {
+            bucket.pause(TimeUnit.MILLISECONDS.toNanos(resetMillis));
+        } else {
+            bucket.setRate(remaining * 1000.0 / resetMillis);
+        }
+    }
+
+    public TokenBucket getBucket(String key) {
+        return bucketFor(key);
+    }
+
+    private TokenBucket bucketFor(String key) {
+        return buckets.computeIfAbsent(key, newKey -> new TokenBucket(defaultPermitsPerSecond, defaultBurst));
+    }
+
+    /**
+     * Retry-After is either a number of seconds or an HTTP date.
+     */
+    static long retryAfterMillis(String retryAfter) {
+        if (retryAfter == null) {
+            return 0;
+        }
+        long seconds = parseLong(retryAfter);
+        if (seconds >= 0) {
+            return TimeUnit.SECONDS.toMillis(seconds);
+        }
+        try {
+            ZonedDateTime retryAt = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return retryAt.toInstant().toEpochMilli() - System.currentTimeMillis();
+        } catch (DateTimeParseException dateTimeParseException) {
+            return 0;
+        }
+    }
+
+    private static long resetMillis(String reset) {
+        long seconds = parseLong(reset);
+        if (seconds < 0) {
+            return 0;
+        }
+        if (seconds > EPOCH_SECONDS_THRESHOLD) {
+            return TimeUnit.SECONDS.toMillis(seconds) - System.currentTimeMillis();
+        }
+        return TimeUnit.SECONDS.toMillis(seconds);
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException numberFormatException) {
+            return -1;
+        }
+    }
+
+}
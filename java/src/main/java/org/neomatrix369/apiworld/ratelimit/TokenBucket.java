@@ -0,0 +1,105 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, kept as the single time at which the bucket would be
+ * full again (the generic cell rate algorithm) so that taking a token is one
+ * compare-and-set.
+ * <p/>
+ * Tokens are added at a steady rate, up to a burst. The rate can be changed
+ * and the bucket emptied for a while, i.e. when the provider says how many
+ * requests are left or when to come back.
+ *
+ * @author Mani Sarkar
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final int burst;
+    private final AtomicLong emissionIntervalNanos;
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * @param permitsPerSecond double steady rate
+     * @param burst            int tokens that can be taken at once after a quiet period
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.burst = Math.max(1, burst);
+        this.emissionIntervalNanos = new AtomicLong(intervalOf(permitsPerSecond));
+        this.theoreticalArrivalTime = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes a token if there is one.
+     *
+     * @return long 0 when a token was taken, otherwise the nanoseconds until there is one
+     */
+    public long tryAcquire() {
+        while (true) {
+            long emissionInterval = emissionIntervalNanos.get();
+            long tolerance = emissionInterval * (burst - 1);
+            long now = System.nanoTime();
+            long arrivalTime = theoreticalArrivalTime.get();
+            long start = Math.max(arrivalTime, now);
+            if (start - now > tolerance) {
+                return start - tolerance - now;
+            }
+            if (theoreticalArrivalTime.compareAndSet(arrivalTime, start + emissionInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Empties the bucket, refusing tokens until the given time has passed.
+     *
+     * @param pauseNanos long
+     */
+    public void pause(long pauseNanos) {
+        long emissionInterval = emissionIntervalNanos.get();
+        long resumeAt = System.nanoTime() + pauseNanos + emissionInterval * (burst - 1);
+        theoreticalArrivalTime.accumulateAndGet(resumeAt, Math::max);
+    }
+
+    public void setRate(double permitsPerSecond) {
+        emissionIntervalNanos.set(intervalOf(permitsPerSecond));
+    }
+
+    public double getRate() {
+        return (double) NANOS_PER_SECOND / emissionIntervalNanos.get();
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    private static long intervalOf(double permitsPerSecond) {
+        return Math.max(1, (long) (NANOS_PER_SECOND / permitsPerSecond));
+    }
+
+}
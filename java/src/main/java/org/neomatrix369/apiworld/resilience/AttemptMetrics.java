@@ -0,0 +1,109 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.resilience;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the attempts made under a {@link ResiliencePolicy} and their latency.
+ *
+ * @author Mani Sarkar
+ */
+public class AttemptMetrics {
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriesDenied = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+    void recordAttempt(long latencyNanos, IOException failure) {
+        attempts.increment();
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulate(latencyNanos);
+        if (failure != null) {
+            failures.increment();
+            if (failure instanceof SocketTimeoutException) {
+                timeouts.increment();
+            }
+        }
+    }
+
+    void recordRetry() {
+        retries.increment();
+    }
+
+    void recordRetryDenied() {
+        retriesDenied.increment();
+    }
+
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Number of attempts which failed with a connect or read timeout.
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Number of retries not made because the retry budget was exhausted.
+     */
+    public long getRetriesDenied() {
+        return retriesDenied.sum();
+    }
+
+    public double getMeanLatencyMillis() {
+        long attemptCount = attempts.sum();
+        return attemptCount == 0 ? 0 : (double) totalLatencyNanos.sum() / attemptCount / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxLatencyMillis() {
+        return (double) maxLatencyNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "[attempts: %d; failures: %d; timeouts: %d; retries: %d; denied: %d; mean: %.1f ms; max: %.1f ms]",
+                getAttempts(), getFailures(), getTimeouts(), getRetries(), getRetriesDenied(), getMeanLatencyMillis(),
+                getMaxLatencyMillis());
+    }
+
+}
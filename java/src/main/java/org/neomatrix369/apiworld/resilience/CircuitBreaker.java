@@ -0,0 +1,211 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops calls to a provider which keeps failing or answering slowly, so they
+ * fail fast instead of holding threads and sockets.
+ * <p/>
+ * The outcomes of the last calls are kept in a sliding window. Once enough
+ * calls are recorded and the rate of failed or of slow calls reaches its
+ * threshold, the circuit opens and refuses calls. After a while it turns half
+ * open and lets a few trial calls through: if they fare well it closes again,
+ * otherwise it opens again.
+ *
+ * @author Mani Sarkar
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    public static final int DEFAULT_WINDOW_SIZE = 20;
+    public static final int DEFAULT_MINIMUM_CALLS = 10;
+    public static final int DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+    public static final int DEFAULT_SLOW_CALL_RATE_THRESHOLD = 80;
+    public static final long DEFAULT_SLOW_CALL_DURATION_MILLIS = 10000;
+    public static final long DEFAULT_OPEN_DURATION_MILLIS = 30000;
+    public static final int DEFAULT_HALF_OPEN_CALLS = 3;
+
+    private static final int FAILED = 1;
+    private static final int SLOW = 2;
+    private static final int PERCENT = 100;
+
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+    private int minimumCalls = DEFAULT_MINIMUM_CALLS;
+    private int failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+    private int slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+    private long slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_CALL_DURATION_MILLIS);
+    private long openDurationNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_OPEN_DURATION_MILLIS);
+    private int halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+
+    private State state = State.CLOSED;
+    private byte[] outcomes = new byte[windowSize];
+    private int nextOutcome;
+    private int recordedCalls;
+    private int failedCalls;
+    private int slowCalls;
+    private long openedAt;
+    private int halfOpenPermits;
+
+    /**
+     * @param windowSize   int number of most recent calls the rates are worked out over
+     * @param minimumCalls int number of calls to record before the circuit can open
+     */
+    public CircuitBreaker setWindow(int windowSize, int minimumCalls) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        reset();
+        return this;
+    }
+
+    /**
+     * @param failureRateThreshold int percentage of failed calls opening the circuit
+     */
+    public CircuitBreaker setFailureRateThreshold(int failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    /**
+     * @param slowCallRateThreshold  int percentage of slow calls opening the circuit
+     * @param slowCallDurationMillis long duration from which a call counts as slow
+     */
+    public CircuitBreaker setSlowCallRateThreshold(int slowCallRateThreshold, long slowCallDurationMillis) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(slowCallDurationMillis);
+        return this;
+    }
+
+    /**
+     * @param openDurationMillis long time the circuit stays open before letting trial calls through
+     * @param halfOpenCalls      int number of trial calls deciding whether the circuit closes again
+     */
+    public CircuitBreaker setOpenDuration(long openDurationMillis, int halfOpenCalls) {
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.halfOpenCalls = halfOpenCalls;
+        return this;
+    }
+
+    /**
+     * Asks whether a call may be made; a call which is let through must be
+     * followed by {@link #onSuccess(long)} or {@link #onFailure(long)}.
+     *
+     * @return boolean false when the circuit is open
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (halfOpenPermits > 0) {
+                    halfOpenPermits--;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess(long durationNanos) {
+        record(durationNanos >= slowCallDurationNanos ? SLOW : 0);
+    }
+
+    public synchronized void onFailure(long durationNanos) {
+        record(FAILED | (durationNanos >= slowCallDurationNanos ? SLOW : 0));
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Percentage of failed calls in the window.
+     */
+    public synchronized int getFailureRate() {
+        return recordedCalls == 0 ? 0 : failedCalls * PERCENT / recordedCalls;
+    }
+
+    /**
+     * Percentage of slow calls in the window.
+     */
+    public synchronized int getSlowCallRate() {
+        return recordedCalls == 0 ? 0 : slowCalls * PERCENT / recordedCalls;
+    }
+
+    private void record(int outcome) {
+        if (state == State.OPEN) {
+            // a call let through before the circuit opened
+            return;
+        }
+        if (recordedCalls == outcomes.length) {
+            forget(outcomes[nextOutcome]);
+        } else {
+            recordedCalls++;
+        }
+        outcomes[nextOutcome] = (byte) outcome;
+        nextOutcome = (nextOutcome + 1) % outcomes.length;
+        failedCalls += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+
+        int callsToDecideOn = Math.min(outcomes.length, state == State.HALF_OPEN ? halfOpenCalls : minimumCalls);
+        if (recordedCalls >= callsToDecideOn) {
+            if (getFailureRate() >= failureRateThreshold || getSlowCallRate() >= slowCallRateThreshold) {
+                transitionTo(State.OPEN);
+            } else if (state == State.HALF_OPEN) {
+                transitionTo(State.CLOSED);
+            }
+        }
+    }
+
+    private void forget(int outcome) {
+        failedCalls -= outcome & FAILED;
+        slowCalls -= (outcome & SLOW) >> 1;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        reset();
+        if (newState == State.OPEN) {
+            openedAt = System.nanoTime();
+        } else if (newState == State.HALF_OPEN) {
+            halfOpenPermits = halfOpenCalls;
+        }
+    }
+
+    private void reset() {
+        outcomes = new byte[windowSize];
+        nextOutcome = 0;
+        recordedCalls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+    }
+
+}
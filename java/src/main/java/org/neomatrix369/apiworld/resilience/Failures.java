@@ -0,0 +1,78 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.resilience;
+
+import org.neomatrix369.apiworld.exception.HttpStatusException;
+import org.neomatrix369.apiworld.exception.InvalidResponseException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+
+/**
+ * Util class Failures, tells the failures which may go away, i.e. connect and
+ * read failures, timeouts and the HTTP statuses 408, 429 and 5xx, from those
+ * down to the request or to the response body, which fail the same way every
+ * time. Shared by {@link ResiliencePolicy} and {@link ProviderIsolation} so
+ * that what is retried is also what counts against a provider.
+ *
+ * @author Mani Sarkar
+ */
+final class Failures {
+
+    private static final int HTTP_REQUEST_TIMEOUT = 408;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR = 500;
+
+    /**
+     * Hide Utility Class Constructor - Utility classes should not have a public
+     * or default constructor.
+     */
+    private Failures() {
+    }
+
+    /**
+     * Whether a failure may go away on its own: a transient status, or an I/O
+     * failure connecting or reading other than an interrupted, i.e. cancelled,
+     * call. Client error statuses and bodies which cannot be parsed are not.
+     *
+     * @param ioException IOException
+     * @return boolean
+     */
+    static boolean isTransient(IOException ioException) {
+        if (ioException instanceof HttpStatusException) {
+            return isTransientStatus(((HttpStatusException) ioException).getResponseCode());
+        }
+        if (ioException instanceof FileNotFoundException || ioException instanceof InvalidResponseException) {
+            return false;
+        }
+        return !(ioException instanceof InterruptedIOException) || ioException instanceof SocketTimeoutException;
+    }
+
+    static boolean isTransientStatus(int responseCode) {
+        return responseCode == HTTP_REQUEST_TIMEOUT || responseCode == HTTP_TOO_MANY_REQUESTS
+                || responseCode >= HTTP_SERVER_ERROR;
+    }
+
+}
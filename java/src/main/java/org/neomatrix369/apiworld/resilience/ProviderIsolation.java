@@ -0,0 +1,171 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.resilience;
+
+import org.neomatrix369.apiworld.exception.BulkheadFullException;
+import org.neomatrix369.apiworld.exception.CircuitOpenException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a {@link CircuitBreaker} and a {@link Bulkhead} per provider, i.e. per
+ * "protocol://host:port", so a degraded provider fails fast without starving
+ * calls to the healthy ones. Usually one is shared by all readers.
+ *
+ * @author Mani Sarkar
+ */
+public class ProviderIsolation {
+
+    public static final int DEFAULT_MAX_CONCURRENT_CALLS = 10;
+
+    private static final String MSG_CIRCUIT_OPEN = "Circuit breaker of %s is open";
+    private static final String MSG_BULKHEAD_FULL = "%s already has %d calls in flight";
+
+    private final Supplier<CircuitBreaker> circuitBreakerFactory;
+    private final int maxConcurrentCalls;
+    private final long maxWaitMillis;
+    private final ConcurrentMap<String, Provider> providers = new ConcurrentHashMap<>();
+
+    public ProviderIsolation() {
+        this(CircuitBreaker::new, DEFAULT_MAX_CONCURRENT_CALLS, 0);
+    }
+
+    /**
+     * @param circuitBreakerFactory Supplier creating the circuit breaker of each provider
+     * @param maxConcurrentCalls    int calls allowed in flight per provider
+     * @param maxWaitMillis         long time to wait for a call to finish when all are in flight, 0 to fail at once
+     */
+    public ProviderIsolation(Supplier<CircuitBreaker> circuitBreakerFactory, int maxConcurrentCalls,
+                             long maxWaitMillis) {
+        this.circuitBreakerFactory = circuitBreakerFactory;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public static String providerOf(URL url) {
+        int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        return url.getProtocol() + "://" + url.getHost() + ":" + port;
+    }
+
+    /**
+     * Makes a call to the provider of the URL, unless its circuit is open or
+     * it already has as many calls in flight as allowed.
+     *
+     * @param url  URL called
+     * @param call Call
+     * @return T whatever the call returns
+     * @throws CircuitOpenException   when the circuit breaker of the provider is open
+     * @throws BulkheadFullException  when the provider has too many calls in flight
+     */
+    public <T> T execute(URL url, Call<T> call) throws IOException {
+        Provider provider = providerFor(url);
+        if (!acquire(provider.bulkhead)) {
+            throw new BulkheadFullException(String.format(MSG_BULKHEAD_FULL, provider.name, maxConcurrentCalls));
+        }
+        try {
+            if (!provider.circuitBreaker.tryAcquirePermission()) {
+                throw new CircuitOpenException(String.format(MSG_CIRCUIT_OPEN, provider.name));
+            }
+
+            long startedAt = System.nanoTime();
+            // anything thrown but a healthy failure counts, errors included, so a half-open permit is never lost
+            boolean failed = true;
+            try {
+                T result = call.call();
+                failed = false;
+                return result;
+            } catch (IOException ioException) {
+                failed = isFailure(ioException);
+                throw ioException;
+            } finally {
+                if (failed) {
+                    provider.circuitBreaker.onFailure(System.nanoTime() - startedAt);
+                } else {
+                    provider.circuitBreaker.onSuccess(System.nanoTime() - startedAt);
+                }
+            }
+        } finally {
+            provider.bulkhead.release();
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker(URL url) {
+        return providerFor(url).circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead(URL url) {
+        return providerFor(url).bulkhead;
+    }
+
+    /**
+     * Whether a failed call counts against the health of the provider, by
+     * default the failures {@link ResiliencePolicy} retries, see
+     * {@link Failures#isTransient(IOException)}. Client error statuses and
+     * bodies which cannot be parsed are answered by healthy providers too.
+     *
+     * @param ioException IOException
+     * @return boolean
+     */
+    protected boolean isFailure(IOException ioException) {
+        return Failures.isTransient(ioException);
+    }
+
+    private Provider providerFor(URL url) {
+        return providers.computeIfAbsent(providerOf(url), name -> new Provider(name, circuitBreakerFactory.get(),
+                new Bulkhead(maxConcurrentCalls, maxWaitMillis)));
+    }
+
+    private static boolean acquire(Bulkhead bulkhead) throws InterruptedIOException {
+        try {
+            return bulkhead.tryAcquire();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a call to finish");
+        }
+    }
+
+    /**
+     * A call to a provider.
+     */
+    public interface Call<T> {
+        T call() throws IOException;
+    }
+
+    private static final class Provider {
+        private final String name;
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+
+        private Provider(String name, CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+            this.name = name;
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+        }
+    }
+
+}
@@ -0,0 +1,265 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.resilience;
+
+import org.neomatrix369.apiworld.exception.BulkheadFullException;
+import org.neomatrix369.apiworld.exception.CircuitOpenException;
+import org.neomatrix369.apiworld.exception.DeadlineExceededException;
+import org.neomatrix369.apiworld.exception.RateLimitExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timeouts and retries applied to the requests of an
+ * {@link org.neomatrix369.apiworld.APIReader}, usually shared between readers
+ * so they also share its {@link RetryBudget} and {@link AttemptMetrics}.
+ * <p/>
+ * Failed attempts are retried with exponential backoff and full jitter, as
+ * long as the retry budget and the deadline allow it. Only idempotent
+ * requests (GETs) are retried unless told otherwise. A retry runs the
+ * response handler again from the start of the new response.
+ * <p/>
+ * Timeouts of 0 mean no timeout, as for {@link java.net.URLConnection}. The
+ * deadline caps the connect and read timeout of every attempt, and is handed
+ * to the attempt so that a body still trickling in when the deadline passes is
+ * cut off at its next read. The read timeout, which applies to each read on
+ * its own, only bounds how long a single stalled read may block.
+ * <p/>
+ * Only failures which may go away are retried: connect and read failures such
+ * as timeouts and resets, and the HTTP statuses 408, 429 and 5xx. Other client
+ * errors, i.e. 400, 401, 403 and 404, and response bodies which cannot be
+ * parsed fail straight away.
+ *
+ * @author Mani Sarkar
+ */
+public class ResiliencePolicy {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_BASE_BACKOFF_MILLIS = 100;
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 5000;
+    /**
+     * The deadline handed to attempts when there is none.
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final String MSG_RETRYING = ">>> Attempt %d failed due to: %s, retrying in %d ms";
+    private static final String MSG_DEADLINE_EXCEEDED = "Deadline of %d ms exceeded after %d attempt(s)";
+
+    private static final Logger logger = LoggerFactory.getLogger(ResiliencePolicy.class);
+
+    private int connectTimeoutMillis;
+    private int readTimeoutMillis;
+    private long deadlineMillis;
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private long baseBackoffMillis = DEFAULT_BASE_BACKOFF_MILLIS;
+    private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+    private boolean retryNonIdempotent;
+    private RetryBudget retryBudget = new RetryBudget();
+    private final AttemptMetrics metrics = new AttemptMetrics();
+
+    public ResiliencePolicy setConnectTimeout(int connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        return this;
+    }
+
+    public ResiliencePolicy setReadTimeout(int readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * Sets the time a request may take in total, including all its attempts and
+     * the backoff between them.
+     *
+     * @param deadlineMillis long, 0 for no deadline
+     */
+    public ResiliencePolicy setDeadline(long deadlineMillis) {
+        this.deadlineMillis = deadlineMillis;
+        return this;
+    }
+
+    /**
+     * @param maxAttempts int the first attempt included, 1 for no retries
+     */
+    public ResiliencePolicy setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Sets the backoff before the first retry, doubling with every retry up to
+     * the maximum. The actual wait is picked at random below it.
+     *
+     * @param baseBackoffMillis long
+     * @param maxBackoffMillis  long
+     */
+    public ResiliencePolicy setBackoff(long baseBackoffMillis, long maxBackoffMillis) {
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        return this;
+    }
+
+    /**
+     * Allows retrying requests which are not idempotent, i.e. POSTs which are
+     * known to be safe to repeat.
+     */
+    public ResiliencePolicy setRetryNonIdempotent(boolean retryNonIdempotent) {
+        this.retryNonIdempotent = retryNonIdempotent;
+        return this;
+    }
+
+    /**
+     * Sets the budget retries are drawn from, i.e. one shared by all policies
+     * of the process.
+     *
+     * @param retryBudget RetryBudget
+     */
+    public ResiliencePolicy setRetryBudget(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+        return this;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    public AttemptMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Makes the attempts of a request until one succeeds or no retry is allowed.
+     *
+     * @param idempotent boolean whether the request can safely be repeated
+     * @param attempt    Attempt making a single attempt with the given timeouts
+     * @return T whatever the successful attempt returns
+     * @throws IOException the failure of the last attempt, or a {@link DeadlineExceededException}
+     *                     when the deadline leaves no time for another attempt
+     */
+    public <T> T execute(boolean idempotent, Attempt<T> attempt) throws IOException {
+        long startedAt = System.nanoTime();
+        long deadlineNanos = deadlineMillis <= 0 ? NO_DEADLINE : startedAt + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        retryBudget.recordRequest();
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            long remainingMillis = remainingMillis(startedAt);
+            if (remainingMillis <= 0) {
+                throw new DeadlineExceededException(String.format(MSG_DEADLINE_EXCEEDED, deadlineMillis, attemptNumber - 1));
+            }
+
+            long attemptStartedAt = System.nanoTime();
+            try {
+                T result = attempt.run(capTimeout(connectTimeoutMillis, remainingMillis),
+                        capTimeout(readTimeoutMillis, remainingMillis), deadlineNanos);
+                metrics.recordAttempt(System.nanoTime() - attemptStartedAt, null);
+                return result;
+            } catch (IOException ioException) {
+                metrics.recordAttempt(System.nanoTime() - attemptStartedAt, ioException);
+                if (!shouldRetry(idempotent, attemptNumber, ioException)) {
+                    throw ioException;
+                }
+                long backoffMillis = backoffMillis(attemptNumber);
+                if (remainingMillis(startedAt) <= backoffMillis) {
+                    throw new DeadlineExceededException(
+                            String.format(MSG_DEADLINE_EXCEEDED, deadlineMillis, attemptNumber), ioException);
+                }
+                if (!retryBudget.tryAcquireRetry()) {
+                    metrics.recordRetryDenied();
+                    throw ioException;
+                }
+                metrics.recordRetry();
+                logger.warn(String.format(MSG_RETRYING, attemptNumber, ioException.getMessage(), backoffMillis));
+                sleep(backoffMillis);
+            }
+        }
+    }
+
+    /**
+     * Whether a failure is worth retrying: a connect or read failure or a 408,
+     * 429 or 5xx status, see {@link Failures#isTransient(IOException)}, but not
+     * a call refused by {@link ProviderIsolation} or by a rate limiter, which
+     * are meant to fail fast, nor a request out of time.
+     *
+     * @param ioException IOException
+     * @return boolean
+     */
+    protected boolean isRetryable(IOException ioException) {
+        if (ioException instanceof CircuitOpenException || ioException instanceof BulkheadFullException
+                || ioException instanceof RateLimitExceededException
+                || ioException instanceof DeadlineExceededException) {
+            return false;
+        }
+        return Failures.isTransient(ioException);
+    }
+
+    private boolean shouldRetry(boolean idempotent, int attemptNumber, IOException ioException) {
+        return attemptNumber < maxAttempts && (idempotent || retryNonIdempotent) && isRetryable(ioException);
+    }
+
+    private long remainingMillis(long startedAt) {
+        if (deadlineMillis <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return deadlineMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    private static int capTimeout(int timeoutMillis, long remainingMillis) {
+        if (remainingMillis == Long.MAX_VALUE) {
+            return timeoutMillis;
+        }
+        int cappedMillis = (int) Math.min(remainingMillis, Integer.MAX_VALUE);
+        return timeoutMillis == 0 ? cappedMillis : Math.min(timeoutMillis, cappedMillis);
+    }
+
+    private long backoffMillis(int attemptNumber) {
+        long ceilingMillis = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attemptNumber - 1, 30));
+        return ceilingMillis <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceilingMillis + 1);
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off before a retry");
+        }
+    }
+
+    /**
+     * A single attempt at a request.
+     */
+    public interface Attempt<T> {
+        /**
+         * @param connectTimeoutMillis int
+         * @param readTimeoutMillis    int
+         * @param deadlineNanos        long the {@link System#nanoTime()} by which the request has to be
+         *                             over, reading of the body included, or {@link #NO_DEADLINE}
+         */
+        T run(int connectTimeoutMillis, int readTimeoutMillis, long deadlineNanos) throws IOException;
+    }
+
+}
@@ -0,0 +1,95 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries at a ratio of the requests made, so that when a provider is
+ * down retries cannot multiply the load on it.
+ * <p/>
+ * Every request deposits a fraction of a retry and every retry withdraws a
+ * whole one. The balance starts at, and is capped to, a reserve which allows
+ * a few retries when there is little traffic.
+ *
+ * @author Mani Sarkar
+ */
+public class RetryBudget {
+
+    public static final double DEFAULT_RETRY_RATIO = 0.2;
+    public static final int DEFAULT_RESERVE = 10;
+
+    private static final long RETRY_COST = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public RetryBudget() {
+        this(DEFAULT_RETRY_RATIO, DEFAULT_RESERVE);
+    }
+
+    /**
+     * @param retryRatio double retries allowed per request, i.e. 0.2 for one retry every five requests
+     * @param reserve    int retries allowed regardless of the number of requests
+     */
+    public RetryBudget(double retryRatio, int reserve) {
+        this.depositPerRequest = (long) (retryRatio * RETRY_COST);
+        this.maxBalance = reserve * RETRY_COST;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void recordRequest() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + depositPerRequest)));
+    }
+
+    /**
+     * Withdraws a retry from the budget.
+     *
+     * @return boolean false when the budget is exhausted and the request must not be retried
+     */
+    public boolean tryAcquireRetry() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < RETRY_COST) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - RETRY_COST));
+        return true;
+    }
+
+    /**
+     * Number of retries currently available.
+     */
+    public double getAvailableRetries() {
+        return (double) balance.get() / RETRY_COST;
+    }
+
+}
@@ -0,0 +1,55 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.transport;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Hands out the connections used by {@link org.neomatrix369.apiworld.APIReader}
+ * and takes them back once a request has completed.
+ *
+ * @author Mani Sarkar
+ */
+public interface HttpTransport {
+
+    /**
+     * Opens (or leases) a connection to the given URL.
+     *
+     * @param url URL
+     * @return HttpURLConnection
+     * @throws IOException when no connection can be opened
+     */
+    HttpURLConnection open(URL url) throws IOException;
+
+    /**
+     * Gives a connection back to the transport.
+     *
+     * @param connection HttpURLConnection
+     * @param reusable   true when the response body was read to the end and the
+     *                   underlying socket can be kept alive
+     */
+    void release(HttpURLConnection connection, boolean reusable);
+
+}
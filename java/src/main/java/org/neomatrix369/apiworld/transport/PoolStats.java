@@ -0,0 +1,96 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.transport;
+
+/**
+ * Immutable snapshot of the state of a {@link PooledHttpTransport}, either for
+ * a single route or for the whole pool. Idle sockets are kept by the JDK, the
+ * snapshot only counts the connections handed back to it.
+ *
+ * @author Mani Sarkar
+ */
+public final class PoolStats {
+
+    private final int leased;
+    private final int pending;
+    private final int max;
+    private final long keptAlive;
+    private final long disconnected;
+
+    public PoolStats(int leased, int pending, int max, long keptAlive, long disconnected) {
+        this.leased = leased;
+        this.pending = pending;
+        this.max = max;
+        this.keptAlive = keptAlive;
+        this.disconnected = disconnected;
+    }
+
+    /**
+     * Number of connections currently handed out to callers.
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * Number of callers blocked waiting for a connection.
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Maximum number of connections that can be leased at the same time.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Number of released connections whose socket was left to the keep-alive
+     * cache of the JDK.
+     */
+    public long getKeptAlive() {
+        return keptAlive;
+    }
+
+    /**
+     * Number of released connections that were disconnected, because the
+     * response was not read to the end or the server closed the connection.
+     */
+    public long getDisconnected() {
+        return disconnected;
+    }
+
+    PoolStats add(PoolStats other) {
+        return new PoolStats(leased + other.leased, pending + other.pending, max + other.max,
+                keptAlive + other.keptAlive, disconnected + other.disconnected);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[leased: %d; pending: %d; max: %d; kept alive: %d; disconnected: %d]",
+                leased, pending, max, keptAlive, disconnected);
+    }
+
+}
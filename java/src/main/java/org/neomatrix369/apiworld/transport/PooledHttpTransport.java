@@ -0,0 +1,201 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.transport;
+
+import org.neomatrix369.apiworld.exception.ConnectionPoolTimeoutException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keep-alive transport with a bounded number of connections per route
+ * (scheme, host and port).
+ * <p/>
+ * Connections whose response has been read to the end are not disconnected,
+ * their stream is closed instead so the JDK keeps the socket alive and hands
+ * it to the next request for the same route, saving the TCP and TLS
+ * handshakes. This transport caps the number of connections leased per
+ * route, makes callers wait (up to the lease timeout) when a route is
+ * saturated and disconnects connections the server asked to close with
+ * <code>Connection: close</code>.
+ * <p/>
+ * The idle sockets themselves are owned by the keep-alive cache of the JDK,
+ * which this transport cannot see into: it closes them once the
+ * <code>Keep-Alive: timeout=n</code> of the server (or 5 seconds) has passed
+ * and keeps at most <code>http.maxConnections</code> (default 5) of them per
+ * route. That system property should be at least as large as the maximum
+ * number of connections per route, and <code>http.keepAlive</code> must not be
+ * false.
+ *
+ * @author Mani Sarkar
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 5;
+    public static final long DEFAULT_LEASE_TIMEOUT_MILLIS = 10000;
+
+    private static final String CONNECTION_HEADER = "Connection";
+    private static final String CLOSE_TOKEN = "close";
+    private static final String ROUTE_FORMAT = "%s://%s:%d";
+    private static final String MSG_LEASE_TIMED_OUT = "Timed out after %d ms waiting for a connection to %s";
+    private static final String MSG_LEASE_INTERRUPTED = "Interrupted while waiting for a connection to %s";
+
+    private final int maxConnectionsPerRoute;
+    private final long leaseTimeoutMillis;
+
+    private final ConcurrentMap<String, RoutePool> routes = new ConcurrentHashMap<>();
+    private final Map<HttpURLConnection, RoutePool> leases =
+            Collections.synchronizedMap(new IdentityHashMap<HttpURLConnection, RoutePool>());
+
+    public PooledHttpTransport() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_ROUTE, DEFAULT_LEASE_TIMEOUT_MILLIS);
+    }
+
+    public PooledHttpTransport(int maxConnectionsPerRoute, long leaseTimeoutMillis) {
+        if (maxConnectionsPerRoute < 1) {
+            throw new IllegalArgumentException("max connections per route has to be at least 1");
+        }
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+    }
+
+    @Override
+    public HttpURLConnection open(URL url) throws IOException {
+        RoutePool pool = poolFor(routeOf(url));
+        pool.lease(leaseTimeoutMillis);
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            leases.put(connection, pool);
+            return connection;
+        } catch (IOException | RuntimeException exception) {
+            pool.release(false);
+            throw exception;
+        }
+    }
+
+    @Override
+    public void release(HttpURLConnection connection, boolean reusable) {
+        RoutePool pool = leases.remove(connection);
+        if (pool == null) {
+            connection.disconnect();
+            return;
+        }
+
+        boolean keptAlive = false;
+        try {
+            keptAlive = reusable && isKeptAlive(connection);
+            if (!keptAlive) {
+                connection.disconnect();
+            }
+        } finally {
+            pool.release(keptAlive);
+        }
+    }
+
+    public PoolStats getStats() {
+        PoolStats total = new PoolStats(0, 0, 0, 0, 0);
+        for (RoutePool pool : routes.values()) {
+            total = total.add(pool.stats());
+        }
+        return total;
+    }
+
+    public PoolStats getStats(URL url) {
+        RoutePool pool = routes.get(routeOf(url));
+        return pool == null ? new PoolStats(0, 0, maxConnectionsPerRoute, 0, 0) : pool.stats();
+    }
+
+    private RoutePool poolFor(String route) {
+        RoutePool pool = routes.get(route);
+        if (pool == null) {
+            RoutePool newPool = new RoutePool(route);
+            pool = routes.putIfAbsent(route, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
+    private String routeOf(URL url) {
+        int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        return String.format(ROUTE_FORMAT, url.getProtocol(), url.getHost(), port);
+    }
+
+    private boolean isKeptAlive(HttpURLConnection connection) {
+        return !CLOSE_TOKEN.equalsIgnoreCase(connection.getHeaderField(CONNECTION_HEADER));
+    }
+
+    private final class RoutePool {
+        private final String route;
+        private final Semaphore permits = new Semaphore(maxConnectionsPerRoute, true);
+        private int leased;
+        private long keptAlive;
+        private long disconnected;
+
+        RoutePool(String route) {
+            this.route = route;
+        }
+
+        void lease(long timeoutMillis) throws IOException {
+            try {
+                if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new ConnectionPoolTimeoutException(String.format(MSG_LEASE_TIMED_OUT, timeoutMillis, route));
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(String.format(MSG_LEASE_INTERRUPTED, route));
+            }
+
+            synchronized (this) {
+                leased++;
+            }
+        }
+
+        void release(boolean socketKeptAlive) {
+            synchronized (this) {
+                leased--;
+                if (socketKeptAlive) {
+                    keptAlive++;
+                } else {
+                    disconnected++;
+                }
+            }
+            permits.release();
+        }
+
+        synchronized PoolStats stats() {
+            return new PoolStats(leased, permits.getQueueLength(), maxConnectionsPerRoute, keptAlive, disconnected);
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.transport;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts, per endpoint, the bytes received on the wire against the bytes they
+ * decoded to, to see how much compression saves.
+ * <p/>
+ * An endpoint is a URL without its query, i.e. "http://www.muzu.tv/api/browse".
+ * Usually one meter is shared by all readers.
+ *
+ * @author Mani Sarkar
+ */
+public class TransferMeter {
+
+    private final ConcurrentMap<String, Counters> countersByEndpoint = new ConcurrentHashMap<>();
+
+    public static String endpointOf(URL url) {
+        return url.getProtocol() + "://" + url.getAuthority() + url.getPath();
+    }
+
+    /**
+     * Records a response body.
+     *
+     * @param url          URL the response came from
+     * @param rawBytes     long bytes read from the wire
+     * @param decodedBytes long bytes after decompression
+     */
+    public void record(URL url, long rawBytes, long decodedBytes) {
+        Counters counters = countersByEndpoint.computeIfAbsent(endpointOf(url), endpoint -> new Counters());
+        counters.responses.increment();
+        counters.rawBytes.add(rawBytes);
+        counters.decodedBytes.add(decodedBytes);
+    }
+
+    /**
+     * @param url URL of the endpoint, its query is ignored
+     * @return TransferStats of the endpoint, all zero when nothing was received from it
+     */
+    public TransferStats getStats(URL url) {
+        Counters counters = countersByEndpoint.get(endpointOf(url));
+        return counters == null ? new TransferStats(0, 0, 0) : counters.snapshot();
+    }
+
+    /**
+     * @return TransferStats summed over all endpoints
+     */
+    public TransferStats getStats() {
+        long responses = 0;
+        long rawBytes = 0;
+        long decodedBytes = 0;
+        for (Counters eachCounters : countersByEndpoint.values()) {
+            responses += eachCounters.responses.sum();
+            rawBytes += eachCounters.rawBytes.sum();
+            decodedBytes += eachCounters.decodedBytes.sum();
+        }
+        return new TransferStats(responses, rawBytes, decodedBytes);
+    }
+
+    /**
+     * @return Map of endpoint to its TransferStats, sorted by endpoint
+     */
+    public Map<String, TransferStats> getStatsByEndpoint() {
+        Map<String, TransferStats> statsByEndpoint = new TreeMap<>();
+        for (Map.Entry<String, Counters> eachEndpoint : countersByEndpoint.entrySet()) {
+            statsByEndpoint.put(eachEndpoint.getKey(), eachEndpoint.getValue().snapshot());
+        }
+        return statsByEndpoint;
+    }
+
+    private static final class Counters {
+        private final LongAdder responses = new LongAdder();
+        private final LongAdder rawBytes = new LongAdder();
+        private final LongAdder decodedBytes = new LongAdder();
+
+        private TransferStats snapshot() {
+            return new TransferStats(responses.sum(), rawBytes.sum(), decodedBytes.sum());
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.transport;
+
+/**
+ * Immutable snapshot of a {@link TransferMeter}, either for a single endpoint
+ * or for all of them.
+ *
+ * @author Mani Sarkar
+ */
+public final class TransferStats {
+
+    private final long responses;
+    private final long rawBytes;
+    private final long decodedBytes;
+
+    public TransferStats(long responses, long rawBytes, long decodedBytes) {
+        this.responses = responses;
+        this.rawBytes = rawBytes;
+        this.decodedBytes = decodedBytes;
+    }
+
+    public long getResponses() {
+        return responses;
+    }
+
+    /**
+     * Number of body bytes received on the wire, compressed or not.
+     */
+    public long getRawBytes() {
+        return rawBytes;
+    }
+
+    /**
+     * Number of body bytes after decompression.
+     */
+    public long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    /**
+     * Decoded bytes per raw byte, 1 when nothing was received.
+     */
+    public double getCompressionRatio() {
+        return rawBytes == 0 ? 1 : (double) decodedBytes / rawBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[responses: %d; raw: %d bytes; decoded: %d bytes; ratio: %.2f]",
+                responses, rawBytes, decodedBytes, getCompressionRatio());
+    }
+
+}
@@ -0,0 +1,219 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Percent-encoder for URL parameters, a drop-in for
+ * <code>URLEncoder.encode(token, "UTF-8")</code> without the charset lookup
+ * and temporary buffers it needs per call.
+ * <p/>
+ * Tokens which need no escaping (the common case for ids, numbers and plain
+ * words) are returned as they are. Tokens can also be encoded straight into a
+ * caller supplied {@link StringBuilder} or {@link ByteBuffer}. Characters
+ * outside ASCII are encoded as UTF-8; a lone surrogate is encoded as '?', the
+ * same as <code>URLEncoder</code> does.
+ *
+ * @author Mani Sarkar
+ */
+public enum PercentEncoder {
+
+    /**
+     * application/x-www-form-urlencoded, byte-identical to
+     * <code>URLEncoder.encode(token, "UTF-8")</code>: letters, digits and
+     * <code>.-*_</code> are kept and space becomes '+'.
+     */
+    FORM(".-*_", true),
+
+    /**
+     * RFC 3986, safe in both path segments and query strings: only the
+     * unreserved letters, digits and <code>-._~</code> are kept, space becomes "%20".
+     */
+    RFC_3986("-._~", false);
+
+    private static final int ASCII_LIMIT = 0x80;
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final char REPLACEMENT_CHARACTER = '?';
+
+    private final boolean[] safeCharacters = new boolean[ASCII_LIMIT];
+    private final boolean spaceAsPlus;
+
+    private PercentEncoder(String safePunctuation, boolean spaceAsPlus) {
+        for (char eachChar = 'a'; eachChar <= 'z'; eachChar++) {
+            safeCharacters[eachChar] = true;
+            safeCharacters[Character.toUpperCase(eachChar)] = true;
+        }
+        for (char eachChar = '0'; eachChar <= '9'; eachChar++) {
+            safeCharacters[eachChar] = true;
+        }
+        for (char eachChar : safePunctuation.toCharArray()) {
+            safeCharacters[eachChar] = true;
+        }
+        this.spaceAsPlus = spaceAsPlus;
+    }
+
+    /**
+     * Encodes the token, returning the very same String when nothing needs escaping.
+     *
+     * @param token String
+     * @return String
+     */
+    public String encode(String token) {
+        int firstUnsafe = indexOfFirstUnsafe(token);
+        if (firstUnsafe == token.length()) {
+            return token;
+        }
+
+        StringBuilder encodedToken = new StringBuilder(token.length() + 16);
+        encodedToken.append(token, 0, firstUnsafe);
+        encodeFrom(token, firstUnsafe, encodedToken);
+        return encodedToken.toString();
+    }
+
+    /**
+     * Appends the encoded token to the target.
+     *
+     * @param token  CharSequence
+     * @param target StringBuilder
+     * @return StringBuilder the target
+     */
+    public StringBuilder encodeTo(CharSequence token, StringBuilder target) {
+        int firstUnsafe = indexOfFirstUnsafe(token);
+        target.append(token, 0, firstUnsafe);
+        if (firstUnsafe < token.length()) {
+            encodeFrom(token, firstUnsafe, target);
+        }
+        return target;
+    }
+
+    /**
+     * Puts the encoded token into the target as US-ASCII bytes.
+     *
+     * @param token  CharSequence
+     * @param target ByteBuffer
+     * @return ByteBuffer the target
+     * @throws java.nio.BufferOverflowException when the target has no room left
+     */
+    public ByteBuffer encodeTo(CharSequence token, ByteBuffer target) {
+        int length = token.length();
+        for (int index = 0; index < length; index++) {
+            char eachChar = token.charAt(index);
+            if (eachChar < ASCII_LIMIT && safeCharacters[eachChar]) {
+                target.put((byte) eachChar);
+            } else if (eachChar == ' ' && spaceAsPlus) {
+                target.put((byte) '+');
+            } else {
+                int codePoint = codePointAt(token, index);
+                if (Character.isSupplementaryCodePoint(codePoint)) {
+                    index++;
+                }
+                putUtf8(codePoint, target);
+            }
+        }
+        return target;
+    }
+
+    private int indexOfFirstUnsafe(CharSequence token) {
+        int length = token.length();
+        for (int index = 0; index < length; index++) {
+            char eachChar = token.charAt(index);
+            if (eachChar >= ASCII_LIMIT || !safeCharacters[eachChar]) {
+                return index;
+            }
+        }
+        return length;
+    }
+
+    private void encodeFrom(CharSequence token, int start, StringBuilder target) {
+        int length = token.length();
+        for (int index = start; index < length; index++) {
+            char eachChar = token.charAt(index);
+            if (eachChar < ASCII_LIMIT && safeCharacters[eachChar]) {
+                target.append(eachChar);
+            } else if (eachChar == ' ' && spaceAsPlus) {
+                target.append('+');
+            } else {
+                int codePoint = codePointAt(token, index);
+                if (Character.isSupplementaryCodePoint(codePoint)) {
+                    index++;
+                }
+                appendUtf8(codePoint, target);
+            }
+        }
+    }
+
+    private static int codePointAt(CharSequence token, int index) {
+        char eachChar = token.charAt(index);
+        if (Character.isHighSurrogate(eachChar) && index + 1 < token.length()
+                && Character.isLowSurrogate(token.charAt(index + 1))) {
+            return Character.toCodePoint(eachChar, token.charAt(index + 1));
+        }
+        return Character.isSurrogate(eachChar) ? REPLACEMENT_CHARACTER : eachChar;
+    }
+
+    private static void appendUtf8(int codePoint, StringBuilder target) {
+        if (codePoint < 0x80) {
+            appendEscaped(codePoint, target);
+        } else if (codePoint < 0x800) {
+            appendEscaped(0xC0 | (codePoint >> 6), target);
+            appendEscaped(0x80 | (codePoint & 0x3F), target);
+        } else if (codePoint < 0x10000) {
+            appendEscaped(0xE0 | (codePoint >> 12), target);
+            appendEscaped(0x80 | ((codePoint >> 6) & 0x3F), target);
+            appendEscaped(0x80 | (codePoint & 0x3F), target);
+        } else {
+            appendEscaped(0xF0 | (codePoint >> 18), target);
+            appendEscaped(0x80 | ((codePoint >> 12) & 0x3F), target);
+            appendEscaped(0x80 | ((codePoint >> 6) & 0x3F), target);
+            appendEscaped(0x80 | (codePoint & 0x3F), target);
+        }
+    }
+
+    private static void appendEscaped(int utf8Byte, StringBuilder target) {
+        target.append('%').append(HEX_DIGITS[utf8Byte >> 4]).append(HEX_DIGITS[utf8Byte & 0xF]);
+    }
+
+    private static void putUtf8(int codePoint, ByteBuffer target) {
+        if (codePoint < 0x80) {
+            putEscaped(codePoint, target);
+        } else if (codePoint < 0x800) {
+            putEscaped(0xC0 | (codePoint >> 6), target);
+            putEscaped(0x80 | (codePoint & 0x3F), target);
+        } else if (codePoint < 0x10000) {
+            putEscaped(0xE0 | (codePoint >> 12), target);
+            putEscaped(0x80 | ((codePoint >> 6) & 0x3F), target);
+            putEscaped(0x80 | (codePoint & 0x3F), target);
+        } else {
+            putEscaped(0xF0 | (codePoint >> 18), target);
+            putEscaped(0x80 | ((codePoint >> 12) & 0x3F), target);
+            putEscaped(0x80 | ((codePoint >> 6) & 0x3F), target);
+            putEscaped(0x80 | (codePoint & 0x3F), target);
+        }
+    }
+
+    private static void putEscaped(int utf8Byte, ByteBuffer target) {
+        target.put((byte) '%').put((byte) HEX_DIGITS[utf8Byte >> 4]).put((byte) HEX_DIGITS[utf8Byte & 0xF]);
+    }
+
+}
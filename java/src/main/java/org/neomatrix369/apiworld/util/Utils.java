@@ -29,7 +29,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.net.URLEncoder;
 import java.util.Properties;
 
 /**
@@ -42,8 +41,6 @@ public final class Utils {
     public static final String OPENING_BOX_BRACKET = "[";
     public static final String CLOSING_BOX_BRACKET = "]";
 
-    private static final String INVALID_TOKEN_WARNING = "Invalid token.";
-    private static final String UTF_8 = "UTF-8";
     private static final String THE_TOKEN_CANNOT_BE_NULL_MSG = "The token cannot be null.";
     private static final Logger logger = LoggerFactory.getLogger(Utils.class);
 
@@ -66,7 +63,8 @@ public final class Utils {
     }
 
     /**
-     * Converts the token to the application/x-www-form-urlencoded MIME format.
+     * Converts the token to the application/x-www-form-urlencoded MIME format,
+     * see {@link PercentEncoder#FORM}.
      *
      * @param token String
      * @return String
@@ -77,15 +75,7 @@ public final class Utils {
             throw new IllegalArgumentException(THE_TOKEN_CANNOT_BE_NULL_MSG);
         }
 
-        String encodedToken = token;
-
-        try {
-            encodedToken = URLEncoder.encode(token, UTF_8);
-        } catch (UnsupportedEncodingException uee) {
-            logger.warn(INVALID_TOKEN_WARNING);
-        }
-
-        return encodedToken;
+        return PercentEncoder.FORM.encode(token);
     }
 
     public static boolean isAValidJSONText(String resultAsString) {
@@ -25,13 +25,11 @@ package org.neomatrix369.examples.flickr;
 import java.io.IOException;
 import java.io.StringReader;
 
-import javax.json.Json;
-import javax.json.JsonObject;
-import javax.json.JsonReader;
-
 import org.neomatrix369.apiworld.APIReader;
 import org.neomatrix369.apiworld.UriBuilder;
 import org.neomatrix369.apiworld.exception.APIKeyNotAssignedException;
+import org.neomatrix369.apiworld.json.JsonBinding;
+import org.neomatrix369.apiworld.json.JsonpReader;
 import org.neomatrix369.apiworld.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,6 +47,10 @@ public class BaseFlickr {
 
     private static final Logger logger = LoggerFactory.getLogger(BaseFlickr.class);
 
+    // stops parsing as soon as stat has been read
+    private static final JsonBinding<Status> STATUS = JsonBinding.of(Status::new).bindString("stat",
+	    (status, stat) -> status.stat = stat);
+
     private String baseURL = "http://api.flickr.com/services/rest";
     protected APIReader apiReader;
 
@@ -56,6 +58,18 @@ public class BaseFlickr {
 	return apiReader.executeGetUrl();
     }
 
+    /**
+     * Binds the response into a typed result, stripping the jsonFlickrApi(...)
+     * wrapper while it is read from the connection.
+     * 
+     * @param binding
+     * @return the bound result
+     * @throws IOException
+     */
+    public <T> T executeUrl(JsonBinding<T> binding) throws IOException {
+	return apiReader.executeGetUrl(null, binding.jsonpHandler());
+    }
+
     protected APIReader buildAPIReadyToExecute(String apiKey, String apiCommand, String paramStart,
 	    String[] arrayURLParamCodes, String... params) {
 	UriBuilder uriBuilder = new UriBuilder(baseURL).setCommand(apiCommand).setParamStart(paramStart)
@@ -76,9 +90,12 @@ public class BaseFlickr {
     }
 
     public boolean isSuccessfulResponse(String response) {
-	JsonReader jsonReader = Json.createReader(new StringReader(extractJson(response)));
-	JsonObject json = jsonReader.readObject();
-	return json.getString("stat").equals("ok");
+	try {
+	    return "ok".equals(STATUS.read(new JsonpReader(new StringReader(response))).stat);
+	} catch (IOException e) {
+	    logger.error("response: " + response);
+	    throw new IllegalStateException(e.getMessage(), e);
+	}
     }
 
     public String extractJson(String flickrResponse) {
@@ -94,4 +111,8 @@ public class BaseFlickr {
 	}
 	return flickrResponse.substring(beginIndex, endIndex);
     }
+
+    private static class Status {
+	private String stat;
+    }
 }
\ No newline at end of file
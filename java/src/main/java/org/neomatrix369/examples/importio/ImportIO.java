@@ -22,15 +22,13 @@
  */
 package org.neomatrix369.examples.importio;
 
+import java.io.IOException;
 import java.io.StringReader;
 
-import javax.json.Json;
-import javax.json.JsonObject;
-import javax.json.JsonReader;
-
 import org.neomatrix369.apiworld.APIReader;
 import org.neomatrix369.apiworld.UriBuilder;
 import org.neomatrix369.apiworld.exception.APIKeyNotAssignedException;
+import org.neomatrix369.apiworld.json.JsonBinding;
 import org.neomatrix369.apiworld.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +37,10 @@ public class ImportIO {
 
     private static final Logger logger = LoggerFactory.getLogger(ImportIO.class);
 
+    // stops parsing as soon as status has been read
+    private static final JsonBinding<Status> STATUS = JsonBinding.of(Status::new).bindString("status",
+	    (status, value) -> status.status = value);
+
     private String baseURL = "https://api.import.io/auth/";
     protected APIReader apiReader;
 
@@ -63,8 +65,14 @@ public class ImportIO {
 
     public static boolean isSuccessfulResponse(String response) {
 	logger.info("response: " + response);
-	JsonReader jsonReader = Json.createReader(new StringReader(response));
-	JsonObject json = jsonReader.readObject();
-	return json.getString("status").equals("OK");
+	try {
+	    return "OK".equals(STATUS.read(new StringReader(response)).status);
+	} catch (IOException e) {
+	    throw new IllegalStateException(e.getMessage(), e);
+	}
+    }
+
+    private static class Status {
+	private String status;
     }
 }
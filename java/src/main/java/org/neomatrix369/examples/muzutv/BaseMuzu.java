@@ -31,6 +31,8 @@ import org.neomatrix369.apiworld.UriBuilder;
 import org.neomatrix369.apiworld.exception.APIKeyNotAssignedException;
 import org.neomatrix369.apiworld.util.Utils;
 import org.neomatrix369.examples.muzutv.data.Format;
+import org.neomatrix369.examples.muzutv.feed.MuzuFeedParser;
+import org.neomatrix369.examples.muzutv.feed.MuzuRecordListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -76,6 +78,18 @@ public abstract class BaseMuzu {
 	return apiReader.executeGetUrl();
     }
 
+    /**
+     * Streams the videos and artists of the response to the listener as they
+     * are read from the connection, see {@link MuzuFeedParser}.
+     * 
+     * @param listener
+     * @return the number of records read
+     * @throws IOException
+     */
+    public int executeUrl(MuzuRecordListener listener) throws IOException {
+	return apiReader.executeGetUrl(null, MuzuFeedParser.handler(listener));
+    }
+
     protected void buildAPIReadyToExecute(String apiKeyValue, Map<String, String> parameters) {
 	UriBuilder uriBuilder = new UriBuilder(BASE_URL).setCommand(apiCommand()).setAPIKey(API_KEY, apiKeyValue);
 
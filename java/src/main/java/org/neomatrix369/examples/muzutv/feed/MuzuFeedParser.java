@@ -0,0 +1,231 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.muzutv.feed;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.neomatrix369.apiworld.ResponseHandler;
+import org.neomatrix369.apiworld.exception.InvalidResponseException;
+
+/**
+ * Reads Muzu RSS and XML responses with a StAX pull parser, handing each
+ * video and artist to a {@link MuzuRecordListener} as soon as its element has
+ * been read. Only the record being read is held in memory, so a feed of 1000
+ * videos is processed in constant memory and the listener starts working
+ * before the body has finished downloading.
+ * <p/>
+ * Errors returned by Muzu, an <code>error</code> element in XML or an
+ * <code>Error</code> item in RSS, are thrown as IOExceptions.
+ * <p/>
+ * When the response does not declare a charset, the encoding is read from the
+ * XML declaration or byte order mark of the body.
+ */
+public final class MuzuFeedParser {
+
+    private static final String RSS_ITEM = "item";
+    private static final String XML_VIDEO = "video";
+    private static final String XML_ARTIST = "artist";
+    private static final String XML_ERROR = "error";
+    private static final String RSS_ERROR_TITLE = "Error";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+	XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+	XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    private MuzuFeedParser() {
+	// Hide utility class constructor
+    }
+
+    /**
+     * @param listener MuzuRecordListener
+     * @return ResponseHandler returning the number of records read
+     */
+    public static ResponseHandler<Integer> handler(final MuzuRecordListener listener) {
+	return new ResponseHandler<Integer>() {
+	    @Override
+	    public Integer handle(InputStream body, Charset charset) throws IOException {
+		return parse(body, charset, listener);
+	    }
+
+	    @Override
+	    public Integer handle(InputStream body, Charset charset, boolean charsetDeclared) throws IOException {
+		return parse(body, charsetDeclared ? charset : null, listener);
+	    }
+	};
+    }
+
+    /**
+     * @param body
+     * @param charset Charset the body is encoded with, null to read it from the body
+     * @param listener
+     * @return the number of records read
+     * @throws IOException
+     */
+    public static int parse(InputStream body, Charset charset, MuzuRecordListener listener) throws IOException {
+	XMLStreamReader reader = null;
+	try {
+	    reader = charset == null ? XML_INPUT_FACTORY.createXMLStreamReader(body)
+		    : XML_INPUT_FACTORY.createXMLStreamReader(body, charset.name());
+	    return new RecordReader(reader, listener).read();
+	} catch (XMLStreamException e) {
+	    if (e.getCause() instanceof IOException) {
+		// a failure reading the body, not a malformed one
+		throw (IOException) e.getCause();
+	    }
+	    throw new InvalidResponseException("Malformed Muzu response: " + e.getMessage(), e);
+	} finally {
+	    if (reader != null) {
+		try {
+		    reader.close();
+		} catch (XMLStreamException e) {
+		    // nothing left to read
+		}
+	    }
+	}
+    }
+
+    private static final class RecordReader {
+
+	private final XMLStreamReader reader;
+	private final MuzuRecordListener listener;
+	private final StringBuilder text = new StringBuilder();
+
+	private int depth;
+	private int recordDepth = -1;
+	private Map<String, String> record;
+	private Map<String, String> pendingArtist;
+	private int records;
+
+	RecordReader(XMLStreamReader reader, MuzuRecordListener listener) {
+	    this.reader = reader;
+	    this.listener = listener;
+	}
+
+	int read() throws XMLStreamException, IOException {
+	    while (reader.hasNext()) {
+		switch (reader.next()) {
+		case XMLStreamConstants.START_ELEMENT:
+		    startElement(reader.getLocalName());
+		    break;
+		case XMLStreamConstants.CHARACTERS:
+		case XMLStreamConstants.CDATA:
+		    if (fieldsBeingRead() != null) {
+			text.append(reader.getText());
+		    }
+		    break;
+		case XMLStreamConstants.END_ELEMENT:
+		    endElement(reader.getLocalName());
+		    break;
+		default:
+		    break;
+		}
+	    }
+	    return records;
+	}
+
+	private void startElement(String name) throws XMLStreamException, IOException {
+	    depth++;
+	    text.setLength(0);
+	    if (depth == 1 && XML_ERROR.equals(name)) {
+		String code = reader.getAttributeValue(null, "code");
+		throw new InvalidResponseException(String.format("Muzu error %s: %s", code, reader.getElementText().trim()));
+	    }
+	    if (depth == 1 && XML_ARTIST.equals(name)) {
+		pendingArtist = attributesOf("");
+	    } else if (recordDepth == -1 && (RSS_ITEM.equals(name) || XML_VIDEO.equals(name))) {
+		emitPendingArtist();
+		recordDepth = depth;
+		record = attributesOf("");
+	    } else if (fieldsBeingRead() != null) {
+		putAllAbsent(fieldsBeingRead(), attributesOf(name + "."));
+	    }
+	}
+
+	private void endElement(String name) throws IOException {
+	    Map<String, String> fields = fieldsBeingRead();
+	    String value = text.toString().trim();
+	    text.setLength(0);
+	    if (depth == recordDepth) {
+		emitRecord();
+	    } else if (depth == 1) {
+		emitPendingArtist();
+	    } else if (fields != null && !value.isEmpty() && !fields.containsKey(name)) {
+		fields.put(name, value);
+	    }
+	    depth--;
+	}
+
+	private Map<String, String> fieldsBeingRead() {
+	    return record != null ? record : pendingArtist;
+	}
+
+	private void emitRecord() throws IOException {
+	    VideoRecord video = new VideoRecord(record);
+	    record = null;
+	    recordDepth = -1;
+	    if (RSS_ERROR_TITLE.equals(video.getTitle()) && video.getId() == null) {
+		throw new InvalidResponseException("Muzu error: " + video.getDescription());
+	    }
+	    records++;
+	    listener.onVideo(video);
+	}
+
+	private void emitPendingArtist() throws IOException {
+	    if (pendingArtist != null) {
+		ArtistRecord artist = new ArtistRecord(pendingArtist);
+		pendingArtist = null;
+		records++;
+		listener.onArtist(artist);
+	    }
+	}
+
+	private Map<String, String> attributesOf(String prefix) {
+	    Map<String, String> attributes = new LinkedHashMap<String, String>();
+	    for (int index = 0; index < reader.getAttributeCount(); index++) {
+		attributes.put(prefix + reader.getAttributeLocalName(index), reader.getAttributeValue(index));
+	    }
+	    return attributes;
+	}
+
+	private void putAllAbsent(Map<String, String> fields, Map<String, String> values) {
+	    for (Map.Entry<String, String> each : values.entrySet()) {
+		if (!fields.containsKey(each.getKey())) {
+		    fields.put(each.getKey(), each.getValue());
+		}
+	    }
+	}
+    }
+
+}
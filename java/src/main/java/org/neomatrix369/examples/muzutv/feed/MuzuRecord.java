@@ -0,0 +1,67 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.muzutv.feed;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A record read from a Muzu response. Besides the typed getters of the
+ * subclasses every field is available by name: attributes of the record
+ * element by their name, text of nested elements by the element name and
+ * attributes of nested elements as <code>element.attribute</code>, i.e.
+ * <code>thumbnail.url</code>.
+ */
+public abstract class MuzuRecord {
+
+    private final Map<String, String> fields;
+
+    protected MuzuRecord(Map<String, String> fields) {
+	this.fields = Collections.unmodifiableMap(new LinkedHashMap<String, String>(fields));
+    }
+
+    public String get(String field) {
+	return fields.get(field);
+    }
+
+    public Map<String, String> getFields() {
+	return fields;
+    }
+
+    protected String firstOf(String... candidateFields) {
+	for (String each : candidateFields) {
+	    String value = fields.get(each);
+	    if (value != null) {
+		return value;
+	    }
+	}
+	return null;
+    }
+
+    @Override
+    public String toString() {
+	return getClass().getSimpleName() + fields;
+    }
+
+}
@@ -0,0 +1,125 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.polling;
+
+/**
+ * A snapshot of how a polling job has been doing. The lag of a run is how
+ * late it started compared to when it was due, its latency how long it took.
+ */
+public final class PollingJobMetrics {
+
+    private final String name;
+    private final long intervalMillis;
+    private final long runs;
+    private final long failures;
+    private final long skippedRuns;
+    private final long coalescedRuns;
+    private final long lastLatencyMillis;
+    private final long maxLatencyMillis;
+    private final long totalLatencyMillis;
+    private final long lastLagMillis;
+    private final long maxLagMillis;
+    private final String lastFailure;
+
+    public PollingJobMetrics(String name, long intervalMillis, long runs, long failures, long skippedRuns,
+	    long coalescedRuns, long lastLatencyMillis, long maxLatencyMillis, long totalLatencyMillis,
+	    long lastLagMillis, long maxLagMillis, String lastFailure) {
+	this.name = name;
+	this.intervalMillis = intervalMillis;
+	this.runs = runs;
+	this.failures = failures;
+	this.skippedRuns = skippedRuns;
+	this.coalescedRuns = coalescedRuns;
+	this.lastLatencyMillis = lastLatencyMillis;
+	this.maxLatencyMillis = maxLatencyMillis;
+	this.totalLatencyMillis = totalLatencyMillis;
+	this.lastLagMillis = lastLagMillis;
+	this.maxLagMillis = maxLagMillis;
+	this.lastFailure = lastFailure;
+    }
+
+    public String getName() {
+	return name;
+    }
+
+    public long getIntervalMillis() {
+	return intervalMillis;
+    }
+
+    /**
+     * The runs completed, failed ones included.
+     */
+    public long getRuns() {
+	return runs;
+    }
+
+    public long getFailures() {
+	return failures;
+    }
+
+    public long getSkippedRuns() {
+	return skippedRuns;
+    }
+
+    /**
+     * The runs that were due while the job was running and were folded into
+     * a single run after it.
+     */
+    public long getCoalescedRuns() {
+	return coalescedRuns;
+    }
+
+    public long getLastLatencyMillis() {
+	return lastLatencyMillis;
+    }
+
+    public long getMaxLatencyMillis() {
+	return maxLatencyMillis;
+    }
+
+    public long getAverageLatencyMillis() {
+	return runs == 0 ? 0 : totalLatencyMillis / runs;
+    }
+
+    public long getLastLagMillis() {
+	return lastLagMillis;
+    }
+
+    public long getMaxLagMillis() {
+	return maxLagMillis;
+    }
+
+    /**
+     * The message of the last failure, null when the job never failed.
+     */
+    public String getLastFailure() {
+	return lastFailure;
+    }
+
+    @Override
+    public String toString() {
+	return String.format("%s: %d runs, %d failures, %d skipped, %d coalesced, latency %d/%d ms, lag %d/%d ms",
+		name, runs, failures, skippedRuns, coalescedRuns, getAverageLatencyMillis(), maxLatencyMillis,
+		lastLagMillis, maxLagMillis);
+    }
+}
@@ -0,0 +1,306 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.polling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs many polling jobs, i.e. one per search term and provider, each at its
+ * own interval.
+ * <p/>
+ * A single ticker thread decides when jobs are due and hands the runs to a
+ * bounded pool of workers, so a slow job neither delays the others nor, as
+ * with <code>java.util.Timer</code>, every later run. A job never runs twice
+ * at once: a run due while the previous one is still going is skipped or
+ * coalesced, see {@link OverrunPolicy}. Jobs are due at fixed rate plus a
+ * random jitter, so that jobs with the same interval do not all poll at the
+ * same moment. Failures are logged and counted, they never stop the
+ * scheduler.
+ */
+public class PollingScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PollingScheduler.class);
+
+    public static final int DEFAULT_WORKERS = Runtime.getRuntime().availableProcessors();
+    public static final double DEFAULT_JITTER = 0.1;
+    private static final int QUEUED_RUNS_PER_WORKER = 16;
+
+    private final ScheduledExecutorService ticker;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, PollingJob> jobs = new ConcurrentHashMap<String, PollingJob>();
+    private final Random random = new Random();
+
+    public PollingScheduler() {
+	this(DEFAULT_WORKERS);
+    }
+
+    public PollingScheduler(int numberOfWorkers) {
+	if (numberOfWorkers <= 0) {
+	    throw new IllegalArgumentException("There must be at least one worker");
+	}
+	this.ticker = new ScheduledThreadPoolExecutor(1, threadsNamed("polling-ticker-"));
+	((ScheduledThreadPoolExecutor) ticker).setRemoveOnCancelPolicy(true);
+	this.workers = new ThreadPoolExecutor(numberOfWorkers, numberOfWorkers, 0, TimeUnit.MILLISECONDS,
+		new ArrayBlockingQueue<Runnable>(numberOfWorkers * QUEUED_RUNS_PER_WORKER), threadsNamed("polling-worker-"));
+    }
+
+    /**
+     * Schedules a job skipping overrunning runs, with the default jitter.
+     */
+    public PollingScheduler schedule(String name, long intervalMillis, PollingTask task) {
+	return schedule(name, intervalMillis, DEFAULT_JITTER, OverrunPolicy.SKIP, task);
+    }
+
+    /**
+     * Schedules a job, its first run is due within a jittered interval.
+     * 
+     * @param jitter
+     *            the fraction of the interval, from 0 to 1, by which each run
+     *            is randomly delayed
+     */
+    public PollingScheduler schedule(String name, long intervalMillis, double jitter, OverrunPolicy overrunPolicy,
+	    PollingTask task) {
+	if (intervalMillis <= 0) {
+	    throw new IllegalArgumentException("The interval must be positive: " + intervalMillis);
+	}
+	if (jitter < 0 || jitter > 1) {
+	    throw new IllegalArgumentException("The jitter must be between 0 and 1: " + jitter);
+	}
+	PollingJob job = new PollingJob(name, intervalMillis, jitter, overrunPolicy, task);
+	if (jobs.putIfAbsent(name, job) != null) {
+	    throw new IllegalArgumentException("A job is already scheduled as " + name);
+	}
+	job.scheduleTick(System.currentTimeMillis());
+	return this;
+    }
+
+    /**
+     * Stops scheduling the job, a run in progress is left to complete.
+     */
+    public boolean cancel(String name) {
+	PollingJob job = jobs.remove(name);
+	if (job == null) {
+	    return false;
+	}
+	job.cancel();
+	return true;
+    }
+
+    public PollingJobMetrics getMetrics(String name) {
+	PollingJob job = jobs.get(name);
+	return job == null ? null : job.metrics();
+    }
+
+    public List<PollingJobMetrics> getMetrics() {
+	List<PollingJobMetrics> metrics = new ArrayList<PollingJobMetrics>();
+	for (PollingJob each : jobs.values()) {
+	    metrics.add(each.metrics());
+	}
+	return metrics;
+    }
+
+    /**
+     * Stops scheduling runs and waits for those in progress to complete.
+     */
+    public void shutdown(long timeoutMillis) throws InterruptedException {
+	ticker.shutdownNow();
+	workers.shutdown();
+	workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static ThreadFactory threadsNamed(final String prefix) {
+	final AtomicInteger threadCounter = new AtomicInteger();
+	return new ThreadFactory() {
+	    @Override
+	    public Thread newThread(Runnable runnable) {
+		return new Thread(runnable, prefix + threadCounter.incrementAndGet());
+	    }
+	};
+    }
+
+    private final class PollingJob {
+
+	private final String name;
+	private final long intervalMillis;
+	private final double jitter;
+	private final OverrunPolicy overrunPolicy;
+	private final PollingTask task;
+
+	// guarded by this
+	private ScheduledFuture<?> nextTick;
+	private boolean cancelled;
+	private boolean running;
+	private boolean pending;
+	private long pendingSince;
+	private long runs;
+	private long failures;
+	private long skippedRuns;
+	private long coalescedRuns;
+	private long lastLatencyMillis;
+	private long maxLatencyMillis;
+	private long totalLatencyMillis;
+	private long lastLagMillis;
+	private long maxLagMillis;
+	private String lastFailure;
+
+	PollingJob(String name, long intervalMillis, double jitter, OverrunPolicy overrunPolicy, PollingTask task) {
+	    this.name = name;
+	    this.intervalMillis = intervalMillis;
+	    this.jitter = jitter;
+	    this.overrunPolicy = overrunPolicy;
+	    this.task = task;
+	}
+
+	/**
+	 * Schedules the tick of a run due at the given time, plus jitter.
+	 * Runs stay at fixed rate, the jitter of a run does not move the next.
+	 */
+	synchronized void scheduleTick(final long dueAt) {
+	    if (cancelled) {
+		return;
+	    }
+	    final long jitteredDueAt = dueAt + (long) (random.nextDouble() * jitter * intervalMillis);
+	    try {
+		nextTick = ticker.schedule(new Runnable() {
+		    @Override
+		    public void run() {
+			try {
+			    tick(jitteredDueAt);
+			} finally {
+			    // after a pause the missed runs are not caught up in a burst
+			    scheduleTick(Math.max(dueAt + intervalMillis, System.currentTimeMillis()));
+			}
+		    }
+		}, Math.max(0, jitteredDueAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+	    } catch (RejectedExecutionException ex) {
+		// the scheduler is shutting down
+		cancelled = true;
+	    }
+	}
+
+	synchronized void cancel() {
+	    cancelled = true;
+	    if (nextTick != null) {
+		nextTick.cancel(false);
+	    }
+	}
+
+	private void tick(final long dueAt) {
+	    synchronized (this) {
+		if (running) {
+		    if (overrunPolicy == OverrunPolicy.COALESCE) {
+			if (!pending) {
+			    pending = true;
+			    pendingSince = dueAt;
+			}
+			coalescedRuns++;
+		    } else {
+			skippedRuns++;
+		    }
+		    return;
+		}
+		running = true;
+	    }
+	    try {
+		workers.execute(new Runnable() {
+		    @Override
+		    public void run() {
+			runFrom(dueAt);
+		    }
+		});
+	    } catch (RejectedExecutionException ex) {
+		synchronized (this) {
+		    running = false;
+		    skippedRuns++;
+		}
+		logger.warn("No worker free to poll {}, run skipped", name);
+	    }
+	}
+
+	private void runFrom(long dueAt) {
+	    long runDueAt = dueAt;
+	    try {
+		while (true) {
+		    long startedAt = System.currentTimeMillis();
+		    String failure = null;
+		    try {
+			task.poll();
+		    } catch (Exception ex) {
+			failure = ex.getMessage() == null ? ex.getClass().getName() : ex.getMessage();
+			logger.error("Error while polling {}: {}", name, failure);
+		    }
+		    long latencyMillis = System.currentTimeMillis() - startedAt;
+		    synchronized (this) {
+			record(Math.max(0, startedAt - runDueAt), latencyMillis, failure);
+			if (!pending || cancelled) {
+			    return;
+			}
+			pending = false;
+			runDueAt = pendingSince;
+		    }
+		}
+	    } finally {
+		// even an error thrown by the task must not leave the job running forever
+		synchronized (this) {
+		    pending = false;
+		    running = false;
+		}
+	    }
+	}
+
+	// guarded by this
+	private void record(long lagMillis, long latencyMillis, String failure) {
+	    runs++;
+	    lastLagMillis = lagMillis;
+	    maxLagMillis = Math.max(maxLagMillis, lagMillis);
+	    lastLatencyMillis = latencyMillis;
+	    maxLatencyMillis = Math.max(maxLatencyMillis, latencyMillis);
+	    totalLatencyMillis += latencyMillis;
+	    if (failure != null) {
+		failures++;
+		lastFailure = failure;
+	    }
+	}
+
+	synchronized PollingJobMetrics metrics() {
+	    return new PollingJobMetrics(name, intervalMillis, runs, failures, skippedRuns, coalescedRuns,
+		    lastLatencyMillis, maxLatencyMillis, totalLatencyMillis, lastLagMillis, maxLagMillis, lastFailure);
+	}
+    }
+}
@@ -22,9 +22,10 @@
  */
 package org.neomatrix369.examples.twitter.search;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.io.IOException;
 
+import org.neomatrix369.examples.polling.PollingScheduler;
+import org.neomatrix369.examples.polling.PollingTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,42 +36,57 @@ public final class FetchTweetsPeriodically {
     private static final String SERVER_STARTUP_MESSAGE = "Started fetching tweets every hour!%n";
     private static final int SECONDS_IN_AN_HOUR = 3600;
     private static final int MILLISECONDS_IN_A_SECOND = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30000;
     private final TwitterInterfaceEngine twitterSearch = new TwitterInterfaceEngine();
+    private final TweetsDataStorage tweetsStorage = new TweetsDataStorage();
+    private final TweetPoller tweetPoller = new TweetPoller(twitterSearch, tweetsStorage);
+    private final PollingScheduler pollingScheduler = new PollingScheduler();
     private static final String SOME_FIXED_TERM = "openjdk";
 
-    private FetchTweetsPeriodically(int seconds) {
-	final Timer timer;
-	timer = new Timer();
-	timer.schedule(new FetchTweetsPeriodicallyTask(), 0, seconds * MILLISECONDS_IN_A_SECOND);
+    private FetchTweetsPeriodically(int seconds, String... terms) {
+	for (String eachTerm : terms) {
+	    pollingScheduler.schedule(eachTerm, seconds * (long) MILLISECONDS_IN_A_SECOND, new FetchTweetsTask(eachTerm));
+	}
+	Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "fetch-tweets-shutdown"));
+    }
+
+    /**
+     * Lets the polls in progress finish, then forces the saved tweets to disk.
+     */
+    private void shutdown() {
+	try {
+	    pollingScheduler.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	}
+	try {
+	    tweetsStorage.close();
+	} catch (IOException e) {
+	    logger.error("Error while closing the tweets storage: " + e.getMessage());
+	}
     }
 
-    final class FetchTweetsPeriodicallyTask extends TimerTask {
-	public void run() {
-	    String returnedTweets;
-	    try {
-		returnedTweets = twitterSearch.searchTweets(SOME_FIXED_TERM);
-		// this is only to show that the system is receiving feeds, not
-		// initial requirements
-		// TODO: can be removed before production-ising
-		logger.info(returnedTweets + "%n");
-		saveThe(returnedTweets);
-	    } catch (Exception e) {
-		logger.error(e.getMessage());
-	    }
+    final class FetchTweetsTask implements PollingTask {
+	private final String term;
+
+	FetchTweetsTask(String term) {
+	    this.term = term;
+	}
+
+	public void poll() throws Exception {
+	    // only the tweets newer than those of the last run are fetched
+	    // and saved
+	    tweetPoller.poll(term);
 	}
     }
 
     public static void main(String args[]) {
-	new FetchTweetsPeriodically(SECONDS_IN_AN_HOUR);
+	// each search term given is polled on its own, openjdk when none is
+	new FetchTweetsPeriodically(SECONDS_IN_AN_HOUR, args.length == 0 ? new String[] { SOME_FIXED_TERM } : args);
 	// change this value ^^^^ to another lower value i.e. 10 and re-run the
 	// program
 	// to see what it does for a shorted duration
 
 	logger.info(SERVER_STARTUP_MESSAGE);
     }
-
-    private void saveThe(String receivedTweets) {
-	TweetsDataStorage tweetsStorage = new TweetsDataStorage();
-	tweetsStorage.saveTweetMessage(receivedTweets);
-    }
 }
\ No newline at end of file
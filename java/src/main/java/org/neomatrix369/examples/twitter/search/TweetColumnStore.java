@@ -0,0 +1,379 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.twitter.search;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.json.JSONObject;
+
+/**
+ * Columnar copy of stored tweets for scans no index can answer, such as
+ * arbitrary substrings. Each column, i.e. text or from_user_name, has a data
+ * file with the case-folded UTF-8 bytes of every value back to back and an
+ * offsets file with the offset and length of the value of every row. Both are
+ * memory-mapped for scanning, the data file in windows of
+ * {@link #DEFAULT_DATA_WINDOW_SIZE_IN_BYTES} so that it can grow past the 2 GB
+ * a single mapping can hold. Windows overlap by {@link #MAX_VALUE_SIZE_IN_BYTES},
+ * longer values are cut to that length, so that every value lies within one
+ * window. The offsets of up to {@link #MAX_ROWS} rows fit in one mapping.
+ * <p/>
+ * A scan splits the rows into ranges searched in parallel on the common
+ * fork/join pool; matching works on the mapped bytes directly and allocates
+ * nothing per row. The store can always be rebuilt from the {@link TweetLog},
+ * so it is not forced to disk.
+ */
+public class TweetColumnStore implements Closeable {
+
+    public static final long DEFAULT_DATA_WINDOW_SIZE_IN_BYTES = 1L << 30;
+    public static final int MAX_VALUE_SIZE_IN_BYTES = 1 << 20;
+
+    private static final String DATA_FILE_SUFFIX = ".col";
+    private static final String OFFSETS_FILE_SUFFIX = ".off";
+    // each row: long offset, int length (-1 when the tweet does not have the field)
+    private static final int OFFSET_ENTRY_SIZE = 12;
+    private static final int MISSING = -1;
+    private static final int ROWS_PER_SCAN_TASK = 4096;
+
+    public static final int MAX_ROWS = Integer.MAX_VALUE / OFFSET_ENTRY_SIZE;
+
+    private final Map<String, Column> columns = new LinkedHashMap<String, Column>();
+    private int rows;
+
+    public TweetColumnStore(File directory, String... columnNames) throws IOException {
+	this(directory, DEFAULT_DATA_WINDOW_SIZE_IN_BYTES, columnNames);
+    }
+
+    public TweetColumnStore(File directory, long dataWindowSizeInBytes, String... columnNames) throws IOException {
+	if (dataWindowSizeInBytes <= 0 || dataWindowSizeInBytes + MAX_VALUE_SIZE_IN_BYTES > Integer.MAX_VALUE) {
+	    throw new IllegalArgumentException("Data window size out of range: " + dataWindowSizeInBytes);
+	}
+	if (!directory.isDirectory() && !directory.mkdirs()) {
+	    throw new IOException("Cannot create column store directory: " + directory);
+	}
+	rows = Integer.MAX_VALUE;
+	for (String each : columnNames) {
+	    Column column = new Column(new File(directory, each + DATA_FILE_SUFFIX), new File(directory, each
+		    + OFFSETS_FILE_SUFFIX), dataWindowSizeInBytes);
+	    columns.put(each, column);
+	    rows = Math.min(rows, column.rows());
+	}
+	if (columnNames.length == 0) {
+	    rows = 0;
+	}
+	// columns left uneven by a crash are cut back to the rows they all have
+	for (Column each : columns.values()) {
+	    each.truncate(rows);
+	}
+    }
+
+    /**
+     * Appends a row per tweet, fields missing from a tweet are left empty.
+     * 
+     * @throws IOException
+     *             also when the store would hold more than {@link #MAX_ROWS} rows
+     */
+    public synchronized void append(List<JSONObject> tweets) throws IOException {
+	if (tweets.isEmpty()) {
+	    return;
+	}
+	if (tweets.size() > MAX_ROWS - rows) {
+	    throw new IOException(String.format("Column store is full: %d rows, %d more do not fit", rows,
+		    tweets.size()));
+	}
+	for (Map.Entry<String, Column> each : columns.entrySet()) {
+	    each.getValue().append(tweets, each.getKey());
+	}
+	rows += tweets.size();
+    }
+
+    public synchronized int rowCount() {
+	return rows;
+    }
+
+    /**
+     * Whether any row has the term anywhere in the column, ignoring case.
+     */
+    public boolean contains(String columnName, String term) throws IOException {
+	return contains(columnName, term, null);
+    }
+
+    /**
+     * Whether any of the rows has the term anywhere in the column, ignoring
+     * case. Only those rows are read, all of them when rows is null.
+     */
+    public synchronized boolean contains(String columnName, String term, final BitSet rows) throws IOException {
+	final Column column = columnOf(columnName);
+	if (rows != null && rows.isEmpty()) {
+	    return false;
+	}
+	final Matcher matcher = new Matcher(term);
+	final ByteBuffer[] data = column.mappedData();
+	final ByteBuffer offsets = column.mappedOffsets();
+	return IntStream.range(0, taskCount()).parallel()
+		.anyMatch(task -> column.scan(data, offsets.duplicate(), matcher, rows, rangeStart(task),
+			rangeEnd(task), null));
+    }
+
+    /**
+     * Returns the rows with the term anywhere in the column, ignoring case.
+     * Rows are numbered in the order tweets were appended.
+     */
+    public synchronized BitSet scan(String columnName, String term) throws IOException {
+	final Column column = columnOf(columnName);
+	final Matcher matcher = new Matcher(term);
+	final ByteBuffer[] data = column.mappedData();
+	final ByteBuffer offsets = column.mappedOffsets();
+	return IntStream.range(0, taskCount()).parallel().mapToObj(task -> {
+	    BitSet matches = new BitSet();
+	    column.scan(data, offsets.duplicate(), matcher, null, rangeStart(task), rangeEnd(task), matches);
+	    return matches;
+	}).reduce(new BitSet(), (all, some) -> {
+	    all.or(some);
+	    return all;
+	});
+    }
+
+    public synchronized void clear() throws IOException {
+	for (Column each : columns.values()) {
+	    each.truncate(0);
+	}
+	rows = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+	for (Column each : columns.values()) {
+	    each.close();
+	}
+    }
+
+    private Column columnOf(String columnName) {
+	Column column = columns.get(columnName);
+	if (column == null) {
+	    throw new IllegalArgumentException("No such column: " + columnName);
+	}
+	return column;
+    }
+
+    private int taskCount() {
+	return (rows + ROWS_PER_SCAN_TASK - 1) / ROWS_PER_SCAN_TASK;
+    }
+
+    private static int rangeStart(int task) {
+	return task * ROWS_PER_SCAN_TASK;
+    }
+
+    private int rangeEnd(int task) {
+	return Math.min(rows, (task + 1) * ROWS_PER_SCAN_TASK);
+    }
+
+    private static byte[] foldedBytesOf(String value) {
+	return value.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Boyer-Moore-Horspool search for a case-folded term. The values are
+     * folded when written, ASCII bytes are folded again on comparison so that
+     * the matcher also copes with unfolded data.
+     */
+    private static final class Matcher {
+
+	private final byte[] pattern;
+	private final int[] shifts = new int[256];
+
+	Matcher(String term) {
+	    this.pattern = foldedBytesOf(term);
+	    Arrays.fill(shifts, pattern.length);
+	    for (int index = 0; index < pattern.length - 1; index++) {
+		shifts[pattern[index] & 0xff] = pattern.length - 1 - index;
+	    }
+	}
+
+	boolean matches(ByteBuffer data, int start, int length) {
+	    int last = pattern.length - 1;
+	    int position = 0;
+	    while (position + last < length) {
+		int index = last;
+		while (index >= 0 && fold(data.get(start + position + index)) == pattern[index]) {
+		    index--;
+		}
+		if (index < 0) {
+		    return true;
+		}
+		position += shifts[fold(data.get(start + position + last)) & 0xff];
+	    }
+	    return false;
+	}
+
+	private static byte fold(byte value) {
+	    return value >= 'A' && value <= 'Z' ? (byte) (value + ('a' - 'A')) : value;
+	}
+    }
+
+    private static final class Column {
+
+	private final FileChannel data;
+	private final FileChannel offsets;
+	private final long dataWindowSize;
+	private MappedByteBuffer[] mappedData;
+	private long mappedDataSize = -1;
+	private MappedByteBuffer mappedOffsets;
+
+	Column(File dataFile, File offsetsFile, long dataWindowSize) throws IOException {
+	    this.dataWindowSize = dataWindowSize;
+	    this.data = FileChannel.open(dataFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+		    StandardOpenOption.WRITE);
+	    this.offsets = FileChannel.open(offsetsFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+		    StandardOpenOption.WRITE);
+	}
+
+	int rows() throws IOException {
+	    return (int) (offsets.size() / OFFSET_ENTRY_SIZE);
+	}
+
+	void append(List<JSONObject> tweets, String field) throws IOException {
+	    long dataEnd = data.size();
+	    ByteBuffer newOffsets = ByteBuffer.allocate(tweets.size() * OFFSET_ENTRY_SIZE);
+	    ByteBuffer[] values = new ByteBuffer[tweets.size()];
+	    long offset = dataEnd;
+	    for (int row = 0; row < tweets.size(); row++) {
+		Object value = tweets.get(row).opt(field);
+		byte[] bytes = value == null || value == JSONObject.NULL ? new byte[0] : foldedBytesOf(String
+			.valueOf(value));
+		if (bytes.length > MAX_VALUE_SIZE_IN_BYTES) {
+		    bytes = Arrays.copyOf(bytes, MAX_VALUE_SIZE_IN_BYTES);
+		}
+		values[row] = ByteBuffer.wrap(bytes);
+		newOffsets.putLong(offset).putInt(value == null || value == JSONObject.NULL ? MISSING : bytes.length);
+		offset += bytes.length;
+	    }
+	    newOffsets.flip();
+	    writeFully(data, values, dataEnd);
+	    writeFully(offsets, new ByteBuffer[] { newOffsets }, offsets.size());
+	}
+
+	void truncate(int rows) throws IOException {
+	    long offsetsSize = (long) rows * OFFSET_ENTRY_SIZE;
+	    long dataSize = 0;
+	    if (rows > 0) {
+		ByteBuffer lastEntry = ByteBuffer.allocate(OFFSET_ENTRY_SIZE);
+		offsets.read(lastEntry, offsetsSize - OFFSET_ENTRY_SIZE);
+		lastEntry.flip();
+		dataSize = lastEntry.getLong() + Math.max(0, lastEntry.getInt());
+	    }
+	    offsets.truncate(offsetsSize);
+	    data.truncate(dataSize);
+	    mappedData = null;
+	    mappedDataSize = -1;
+	    mappedOffsets = null;
+	}
+
+	/**
+	 * Maps the data file in windows, each one extending into the next by
+	 * the longest value. Matching only reads by absolute index, so the
+	 * windows are shared between scan tasks.
+	 */
+	ByteBuffer[] mappedData() throws IOException {
+	    long size = data.size();
+	    if (mappedData == null || mappedDataSize != size) {
+		int windows = (int) Math.max(1, (size + dataWindowSize - 1) / dataWindowSize);
+		mappedData = new MappedByteBuffer[windows];
+		for (int window = 0; window < windows; window++) {
+		    long start = window * dataWindowSize;
+		    long length = Math.min(dataWindowSize + MAX_VALUE_SIZE_IN_BYTES, size - start);
+		    mappedData[window] = data.map(FileChannel.MapMode.READ_ONLY, start, length);
+		}
+		mappedDataSize = size;
+	    }
+	    return mappedData;
+	}
+
+	ByteBuffer mappedOffsets() throws IOException {
+	    if (mappedOffsets == null || mappedOffsets.capacity() != offsets.size()) {
+		mappedOffsets = offsets.map(FileChannel.MapMode.READ_ONLY, 0, offsets.size());
+	    }
+	    return mappedOffsets;
+	}
+
+	/**
+	 * Scans the rows of the range, only those set when there are rows to
+	 * pick from, stopping at the first match when there is nowhere to record
+	 * matches.
+	 */
+	boolean scan(ByteBuffer[] dataWindows, ByteBuffer offsetsView, Matcher matcher, BitSet rows, int fromRow,
+		int toRow, BitSet matches) {
+	    boolean found = false;
+	    for (int row = nextRow(rows, fromRow); row >= 0 && row < toRow; row = nextRow(rows, row + 1)) {
+		int entry = row * OFFSET_ENTRY_SIZE;
+		int length = offsetsView.getInt(entry + 8);
+		if (length == MISSING) {
+		    continue;
+		}
+		long offset = offsetsView.getLong(entry);
+		// an empty value may sit right at the end of the last window
+		int window = (int) Math.min(offset / dataWindowSize, dataWindows.length - 1);
+		if (matcher.matches(dataWindows[window], (int) (offset - window * dataWindowSize), length)) {
+		    found = true;
+		    if (matches == null) {
+			return true;
+		    }
+		    matches.set(row);
+		}
+	    }
+	    return found;
+	}
+
+	private static int nextRow(BitSet rows, int fromRow) {
+	    return rows == null ? fromRow : rows.nextSetBit(fromRow);
+	}
+
+	void close() throws IOException {
+	    data.close();
+	    offsets.close();
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer[] buffers, long position) throws IOException {
+	    channel.position(position);
+	    for (ByteBuffer each : buffers) {
+		while (each.hasRemaining()) {
+		    channel.write(each);
+		}
+	    }
+	}
+    }
+
+}
@@ -0,0 +1,310 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.twitter.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.json.JSONObject;
+
+/**
+ * In-memory inverted index over the fields of stored tweets, built
+ * incrementally as tweets are added. Field values are case-folded and split
+ * into tokens on anything that is not a letter or digit; only the tokens are
+ * kept, not the values.
+ * <p/>
+ * Every distinct token is listed under each of its trigrams, so a term found
+ * anywhere inside a token is looked up through its rarest trigram rather than
+ * checked against every tweet; the trigrams take memory linear in the length
+ * of the distinct tokens. Terms of fewer than three characters are checked
+ * against the distinct tokens.
+ * <p/>
+ * Terms spanning several tokens cannot be answered from the tokens alone,
+ * {@link #candidates(String, String)} narrows them down to the tweets that
+ * have to be checked against the values, i.e. in a {@link TweetColumnStore}.
+ */
+public class TweetIndex {
+
+    private static final int GRAM_SIZE = 3;
+
+    private final Map<String, FieldIndex> fields = new HashMap<String, FieldIndex>();
+    private final String[] indexedFields;
+    private int tweets;
+
+    /**
+     * @param indexedFields the tweet fields to index, i.e. text or from_user_name
+     */
+    public TweetIndex(String... indexedFields) {
+	this.indexedFields = indexedFields.clone();
+	for (String each : indexedFields) {
+	    fields.put(each, new FieldIndex());
+	}
+    }
+
+    /**
+     * Indexes a tweet, fields missing from it are left out.
+     * 
+     * @param tweet
+     * @return the id of the tweet in this index, in the order tweets are added
+     */
+    public synchronized int add(JSONObject tweet) {
+	int tweetId = tweets++;
+	for (String each : indexedFields) {
+	    Object value = tweet.opt(each);
+	    if (value != null && value != JSONObject.NULL) {
+		fields.get(each).add(tweetId, fold(String.valueOf(value)));
+	    }
+	}
+	return tweetId;
+    }
+
+    /**
+     * Whether any tweet has the term anywhere in the field, ignoring case.
+     * 
+     * @param term a single token, see {@link #isSingleToken(String)}
+     */
+    public synchronized boolean contains(String field, String term) {
+	FieldIndex fieldIndex = fieldIndexOf(field);
+	return !fieldIndex.tokensContaining(singleTokenOf(term), true).isEmpty();
+    }
+
+    /**
+     * Returns the ids of the tweets that have the term anywhere in the field,
+     * ignoring case.
+     * 
+     * @param field
+     * @param term a single token, see {@link #isSingleToken(String)}
+     * @return BitSet of tweet ids, see {@link #add(JSONObject)}
+     */
+    public synchronized BitSet find(String field, String term) {
+	FieldIndex fieldIndex = fieldIndexOf(field);
+	return fieldIndex.postingsOf(fieldIndex.tokensContaining(singleTokenOf(term), false));
+    }
+
+    /**
+     * Returns the ids of the tweets that may have the term in the field: those
+     * with every token of the term in place in their tokens. All tweets when
+     * the term has no token.
+     * 
+     * @return BitSet of tweet ids, see {@link #add(JSONObject)}
+     */
+    public synchronized BitSet candidates(String field, String term) {
+	FieldIndex fieldIndex = fieldIndexOf(field);
+	List<String> termTokens = tokensOf(fold(term));
+	if (termTokens.isEmpty()) {
+	    BitSet tweetIds = new BitSet();
+	    tweetIds.set(0, tweets);
+	    return tweetIds;
+	}
+	return fieldIndex.candidates(termTokens);
+    }
+
+    /**
+     * Returns the ids of the tweets with a token in the field starting with
+     * the prefix, ignoring case.
+     */
+    public synchronized BitSet findByPrefix(String field, String prefix) {
+	FieldIndex fieldIndex = fieldIndexOf(field);
+	return fieldIndex.findByTokenPrefix(fold(prefix));
+    }
+
+    public synchronized int size() {
+	return tweets;
+    }
+
+    public synchronized void clear() {
+	for (FieldIndex each : fields.values()) {
+	    each.clear();
+	}
+	tweets = 0;
+    }
+
+    // unknown fields are a programming error rather than a term not found
+    private FieldIndex fieldIndexOf(String field) {
+	FieldIndex fieldIndex = fields.get(field);
+	if (fieldIndex == null) {
+	    throw new IllegalArgumentException("Field is not indexed: " + field);
+	}
+	return fieldIndex;
+    }
+
+    private static String singleTokenOf(String term) {
+	if (!isSingleToken(term)) {
+	    throw new IllegalArgumentException("Term is not a single token, narrow it down with candidates: " + term);
+	}
+	return fold(term);
+    }
+
+    /**
+     * Whether the term is a single token, the lookups the index answers
+     * without checking the values of the tweets.
+     */
+    public static boolean isSingleToken(String term) {
+	String foldedTerm = fold(term);
+	List<String> tokens = tokensOf(foldedTerm);
+	return tokens.size() == 1 && tokens.get(0).equals(foldedTerm);
+    }
+
+    private static String fold(String value) {
+	return value.toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokensOf(String foldedValue) {
+	List<String> tokens = new ArrayList<String>();
+	int start = -1;
+	for (int index = 0; index <= foldedValue.length(); index++) {
+	    boolean tokenChar = index < foldedValue.length() && Character.isLetterOrDigit(foldedValue.charAt(index));
+	    if (tokenChar && start == -1) {
+		start = index;
+	    } else if (!tokenChar && start != -1) {
+		tokens.add(foldedValue.substring(start, index));
+		start = -1;
+	    }
+	}
+	return tokens;
+    }
+
+    private static final class FieldIndex {
+
+	// sorted, so that tokens with a prefix are a range
+	private final TreeMap<String, BitSet> postings = new TreeMap<String, BitSet>();
+	private final Map<String, List<String>> tokensByGram = new HashMap<String, List<String>>();
+
+	void add(int tweetId, String foldedValue) {
+	    for (String token : tokensOf(foldedValue)) {
+		BitSet tweetIds = postings.get(token);
+		if (tweetIds == null) {
+		    tweetIds = new BitSet();
+		    postings.put(token, tweetIds);
+		    addGrams(token);
+		}
+		tweetIds.set(tweetId);
+	    }
+	}
+
+	/**
+	 * Tweets with the first term token at the end of a token, the last one
+	 * at the start of a token and those in between as whole tokens.
+	 */
+	BitSet candidates(List<String> termTokens) {
+	    BitSet tweetIds = null;
+	    int last = termTokens.size() - 1;
+	    for (int index = 0; index <= last && (tweetIds == null || !tweetIds.isEmpty()); index++) {
+		String termToken = termTokens.get(index);
+		BitSet matching;
+		if (index == 0) {
+		    List<String> tokens = tokensContaining(termToken, false);
+		    if (last > 0) {
+			List<String> endingTokens = new ArrayList<String>();
+			for (String each : tokens) {
+			    if (each.endsWith(termToken)) {
+				endingTokens.add(each);
+			    }
+			}
+			tokens = endingTokens;
+		    }
+		    matching = postingsOf(tokens);
+		} else if (index == last) {
+		    matching = findByTokenPrefix(termToken);
+		} else {
+		    BitSet tokenPostings = postings.get(termToken);
+		    matching = tokenPostings == null ? new BitSet() : (BitSet) tokenPostings.clone();
+		}
+		if (tweetIds == null) {
+		    tweetIds = matching;
+		} else {
+		    tweetIds.and(matching);
+		}
+	    }
+	    return tweetIds;
+	}
+
+	BitSet findByTokenPrefix(String foldedPrefix) {
+	    return postingsOf(postings.subMap(foldedPrefix, true, foldedPrefix + Character.MAX_VALUE, false).keySet());
+	}
+
+	/**
+	 * Distinct tokens with the term token inside them, only the first one
+	 * found when any will do.
+	 */
+	List<String> tokensContaining(String termToken, boolean any) {
+	    Collection<String> candidateTokens = postings.keySet();
+	    for (int start = 0; start + GRAM_SIZE <= termToken.length(); start++) {
+		List<String> tokens = tokensByGram.get(termToken.substring(start, start + GRAM_SIZE));
+		if (tokens == null) {
+		    return new ArrayList<String>();
+		}
+		if (tokens.size() < candidateTokens.size()) {
+		    candidateTokens = tokens;
+		}
+	    }
+	    List<String> tokens = new ArrayList<String>();
+	    for (String each : candidateTokens) {
+		if (each.contains(termToken)) {
+		    tokens.add(each);
+		    if (any) {
+			break;
+		    }
+		}
+	    }
+	    return tokens;
+	}
+
+	BitSet postingsOf(Collection<String> tokens) {
+	    BitSet tweetIds = new BitSet();
+	    for (String each : tokens) {
+		tweetIds.or(postings.get(each));
+	    }
+	    return tweetIds;
+	}
+
+	void clear() {
+	    postings.clear();
+	    tokensByGram.clear();
+	}
+
+	private void addGrams(String token) {
+	    Set<String> grams = new HashSet<String>();
+	    for (int start = 0; start + GRAM_SIZE <= token.length(); start++) {
+		String gram = token.substring(start, start + GRAM_SIZE);
+		if (grams.add(gram)) {
+		    List<String> tokens = tokensByGram.get(gram);
+		    if (tokens == null) {
+			tokens = new ArrayList<String>(2);
+			tokensByGram.put(gram, tokens);
+		    }
+		    tokens.add(token);
+		}
+	    }
+	}
+    }
+
+}
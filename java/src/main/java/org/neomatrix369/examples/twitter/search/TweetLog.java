@@ -0,0 +1,581 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.twitter.search;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of tweets on disk. Each tweet is a length-prefixed record
+ * (length, CRC32, JSON in UTF-8) appended to the active segment file; once a
+ * segment is full a new one is started.
+ * <p/>
+ * Tweets are deduplicated by their id, or by their content when they have
+ * none, so saving overlapping search results only appends the new tweets.
+ * Appends are written through to the file system at once but only forced to
+ * disk every {@link #setSyncEveryRecords(int)} records or
+ * {@link #setSyncIntervalMillis(long)}, whichever comes first. The interval is
+ * kept by a background thread shared by all logs, so the last appends are
+ * forced to disk even when no more appends follow.
+ * <p/>
+ * A torn record at the end of the log, left by a crash, is truncated when the
+ * log is opened. Records found dead on opening, duplicates of earlier ones or
+ * damaged, are skipped when reading and dropped from their segment by
+ * {@link #compact()}, which runs in the background once the segment is sealed.
+ * <p/>
+ * A log holds an exclusive lock on its directory until it is closed, opening
+ * the directory again, in this or another process, fails meanwhile.
+ */
+public class TweetLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TweetLog.class);
+
+    public static final long DEFAULT_MAX_SEGMENT_SIZE_IN_BYTES = 16L * 1024 * 1024;
+
+    private static final String SEGMENT_FILE_PREFIX = "segment-";
+    private static final String SEGMENT_FILE_SUFFIX = ".log";
+    private static final String COMPACTION_FILE = "compaction.tmp";
+    private static final String LOCK_FILE = "log.lock";
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+    private static final ScheduledExecutorService MAINTENANCE_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+	    runnable -> {
+		Thread thread = new Thread(runnable, "tweet-log-maintenance");
+		thread.setDaemon(true);
+		return thread;
+	    });
+
+    private final File directory;
+    private final long maxSegmentSizeInBytes;
+    private final Set<String> tweetKeys = new HashSet<String>();
+    private final List<Long> sealedSegments = new ArrayList<Long>();
+    // offsets of the dead records per segment, empty when only its end is damaged
+    private final Map<Long, Set<Long>> deadRecords = new HashMap<Long, Set<Long>>();
+    private final FileChannel lockChannel;
+
+    private int syncEveryRecords = 1000;
+    private long syncIntervalMillis = 1000;
+
+    private long activeSegment;
+    private FileChannel activeChannel;
+    private int unsyncedRecords;
+    private long lastSyncedAt = System.currentTimeMillis();
+    private ScheduledFuture<?> timedSync;
+
+    /**
+     * Receives the tweets of the log one at a time, see {@link TweetLog#forEach(TweetConsumer)}.
+     */
+    public interface TweetConsumer {
+	void accept(JSONObject tweet) throws IOException;
+    }
+
+    public TweetLog(File directory) throws IOException {
+	this(directory, DEFAULT_MAX_SEGMENT_SIZE_IN_BYTES);
+    }
+
+    public TweetLog(File directory, long maxSegmentSizeInBytes) throws IOException {
+	if (!directory.isDirectory() && !directory.mkdirs()) {
+	    throw new IOException("Cannot create tweet log directory: " + directory);
+	}
+	this.directory = directory;
+	this.maxSegmentSizeInBytes = maxSegmentSizeInBytes;
+	this.lockChannel = lockDirectory(directory);
+
+	try {
+	    Files.deleteIfExists(new File(directory, COMPACTION_FILE).toPath());
+	    long[] segments = segmentNumbers();
+	    for (int index = 0; index < segments.length; index++) {
+		boolean last = index == segments.length - 1;
+		long validLength = loadSegment(segments[index], !last);
+		if (last) {
+		    openActiveSegment(segments[index], validLength);
+		} else {
+		    sealedSegments.add(segments[index]);
+		}
+	    }
+	    if (activeChannel == null) {
+		openActiveSegment(0, 0);
+	    }
+	} catch (IOException | RuntimeException e) {
+	    if (activeChannel != null) {
+		activeChannel.close();
+	    }
+	    lockChannel.close();
+	    throw e;
+	}
+	scheduleTimedSync();
+	if (!sealedSegmentsWithDeadRecords().isEmpty()) {
+	    scheduleCompaction();
+	}
+    }
+
+    public TweetLog setSyncEveryRecords(int syncEveryRecords) {
+	this.syncEveryRecords = syncEveryRecords;
+	return this;
+    }
+
+    public synchronized TweetLog setSyncIntervalMillis(long syncIntervalMillis) {
+	this.syncIntervalMillis = syncIntervalMillis;
+	if (activeChannel != null) {
+	    scheduleTimedSync();
+	}
+	return this;
+    }
+
+    /**
+     * Appends the tweets not in the log yet, in a single write.
+     * 
+     * @param tweets
+     * @return the tweets appended, in order
+     * @throws IOException
+     */
+    public synchronized List<JSONObject> append(List<JSONObject> tweets) throws IOException {
+	List<JSONObject> appended = new ArrayList<JSONObject>();
+	List<String> appendedKeys = new ArrayList<String>();
+	List<ByteBuffer> records = new ArrayList<ByteBuffer>();
+	for (JSONObject each : tweets) {
+	    String key = keyOf(each);
+	    if (tweetKeys.add(key)) {
+		appended.add(each);
+		appendedKeys.add(key);
+		records.add(recordOf(each));
+	    }
+	}
+	if (appended.isEmpty()) {
+	    return appended;
+	}
+
+	try {
+	    ByteBuffer[] buffers = records.toArray(new ByteBuffer[records.size()]);
+	    ByteBuffer last = buffers[buffers.length - 1];
+	    while (last.hasRemaining()) {
+		activeChannel.write(buffers);
+	    }
+	} catch (IOException e) {
+	    tweetKeys.removeAll(appendedKeys);
+	    throw e;
+	}
+	unsyncedRecords += appended.size();
+	syncIfDue();
+
+	if (activeChannel.size() >= maxSegmentSizeInBytes) {
+	    roll();
+	}
+	return appended;
+    }
+
+    /**
+     * Whether a tweet with the same id, or the same content when it has no
+     * id, is in the log.
+     */
+    public synchronized boolean contains(JSONObject tweet) {
+	return tweetKeys.contains(keyOf(tweet));
+    }
+
+    public synchronized int size() {
+	return tweetKeys.size();
+    }
+
+    /**
+     * Streams the tweets of the log in the order they were appended, segment
+     * by segment, holding only one record in memory at a time.
+     * 
+     * @param consumer
+     * @throws IOException
+     */
+    public synchronized void forEach(TweetConsumer consumer) throws IOException {
+	for (long each : sealedSegments) {
+	    readLiveRecords(each, consumer);
+	}
+	readLiveRecords(activeSegment, consumer);
+    }
+
+    /**
+     * Forces the appended tweets to disk.
+     */
+    public synchronized void sync() throws IOException {
+	if (unsyncedRecords > 0) {
+	    activeChannel.force(false);
+	    unsyncedRecords = 0;
+	}
+	lastSyncedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Rewrites the sealed segments that hold dead records without them, one
+     * segment at a time, so a segment never grows past its size. Segments
+     * without dead records are left as they are.
+     */
+    public void compact() throws IOException {
+	for (long each : sealedSegmentsWithDeadRecords()) {
+	    compactSegment(each);
+	}
+    }
+
+    public File getDirectory() {
+	return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+	if (timedSync != null) {
+	    timedSync.cancel(false);
+	    timedSync = null;
+	}
+	if (activeChannel != null) {
+	    try {
+		sync();
+		activeChannel.close();
+	    } finally {
+		activeChannel = null;
+		// closing the channel releases the lock
+		lockChannel.close();
+	    }
+	}
+    }
+
+    static String keyOf(JSONObject tweet) {
+	Object id = tweet.opt("id_str");
+	if (id == null || id == JSONObject.NULL) {
+	    id = tweet.opt("id");
+	}
+	if (id != null && id != JSONObject.NULL) {
+	    return "id:" + id;
+	}
+	StringBuilder canonical = new StringBuilder();
+	appendCanonical(tweet, canonical);
+	return "content:" + sha1Of(canonical.toString());
+    }
+
+    // same content, same text: org.json does not keep the order of keys
+    private static void appendCanonical(Object value, StringBuilder canonical) {
+	if (value instanceof JSONObject) {
+	    JSONObject object = (JSONObject) value;
+	    List<String> keys = new ArrayList<String>();
+	    Iterator<?> names = object.keys();
+	    while (names.hasNext()) {
+		keys.add(String.valueOf(names.next()));
+	    }
+	    Collections.sort(keys);
+	    canonical.append('{');
+	    for (String each : keys) {
+		canonical.append(JSONObject.quote(each)).append(':');
+		appendCanonical(object.opt(each), canonical);
+		canonical.append(',');
+	    }
+	    canonical.append('}');
+	} else if (value instanceof JSONArray) {
+	    JSONArray array = (JSONArray) value;
+	    canonical.append('[');
+	    for (int index = 0; index < array.length(); index++) {
+		appendCanonical(array.opt(index), canonical);
+		canonical.append(',');
+	    }
+	    canonical.append(']');
+	} else if (value instanceof String) {
+	    canonical.append(JSONObject.quote((String) value));
+	} else {
+	    canonical.append(value);
+	}
+    }
+
+    private static String sha1Of(String content) {
+	try {
+	    byte[] digest = MessageDigest.getInstance("SHA-1").digest(content.getBytes(StandardCharsets.UTF_8));
+	    StringBuilder hex = new StringBuilder(digest.length * 2);
+	    for (byte each : digest) {
+		hex.append(Character.forDigit((each >> 4) & 0xf, 16)).append(Character.forDigit(each & 0xf, 16));
+	    }
+	    return hex.toString();
+	} catch (NoSuchAlgorithmException e) {
+	    throw new IllegalStateException("SHA-1 is not available", e);
+	}
+    }
+
+    private static ByteBuffer recordOf(JSONObject tweet) {
+	byte[] payload = tweet.toString().getBytes(StandardCharsets.UTF_8);
+	CRC32 crc = new CRC32();
+	crc.update(payload);
+	ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+	record.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+	record.flip();
+	return record;
+    }
+
+    private synchronized void scheduleTimedSync() {
+	if (timedSync != null) {
+	    timedSync.cancel(false);
+	}
+	timedSync = MAINTENANCE_SCHEDULER.scheduleWithFixedDelay(() -> {
+	    try {
+		syncUnlessClosed();
+	    } catch (IOException | RuntimeException e) {
+		logger.error("Timed sync of tweet log {} failed: {}", directory, e.getMessage());
+	    }
+	}, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void syncUnlessClosed() throws IOException {
+	if (activeChannel != null) {
+	    sync();
+	}
+    }
+
+    private void syncIfDue() throws IOException {
+	if (unsyncedRecords >= syncEveryRecords
+		|| System.currentTimeMillis() - lastSyncedAt >= syncIntervalMillis) {
+	    sync();
+	}
+    }
+
+    private void scheduleCompaction() {
+	MAINTENANCE_SCHEDULER.execute(() -> {
+	    try {
+		compact();
+	    } catch (IOException | RuntimeException e) {
+		logger.error("Compaction of tweet log {} failed: {}", directory, e.getMessage());
+	    }
+	});
+    }
+
+    private synchronized List<Long> sealedSegmentsWithDeadRecords() {
+	List<Long> segments = new ArrayList<Long>();
+	for (long each : sealedSegments) {
+	    if (deadRecords.containsKey(each)) {
+		segments.add(each);
+	    }
+	}
+	return segments;
+    }
+
+    private synchronized void compactSegment(long segment) throws IOException {
+	final Set<Long> deadOffsets = deadRecords.get(segment);
+	if (deadOffsets == null || activeChannel == null) {
+	    return;
+	}
+	File compacted = new File(directory, COMPACTION_FILE);
+	try (final FileChannel output = FileChannel.open(compacted.toPath(), StandardOpenOption.CREATE,
+		StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+	    readRecords(segment, (offset, tweet) -> {
+		if (!deadOffsets.contains(offset)) {
+		    ByteBuffer record = recordOf(tweet);
+		    while (record.hasRemaining()) {
+			output.write(record);
+		    }
+		}
+	    });
+	    output.force(false);
+	}
+	Files.move(compacted.toPath(), segmentFile(segment).toPath(), StandardCopyOption.REPLACE_EXISTING,
+		StandardCopyOption.ATOMIC_MOVE);
+	deadRecords.remove(segment);
+	logger.info("Compacted {}, dropping {} dead records", segmentFile(segment), deadOffsets.size());
+    }
+
+    private void roll() throws IOException {
+	sync();
+	activeChannel.close();
+	sealedSegments.add(activeSegment);
+	boolean deadRecordsSealed = deadRecords.containsKey(activeSegment);
+	openActiveSegment(activeSegment + 1, 0);
+	if (deadRecordsSealed) {
+	    scheduleCompaction();
+	}
+    }
+
+    private static FileChannel lockDirectory(File directory) throws IOException {
+	FileChannel channel = FileChannel.open(new File(directory, LOCK_FILE).toPath(), StandardOpenOption.CREATE,
+		StandardOpenOption.WRITE);
+	FileLock lock;
+	try {
+	    lock = channel.tryLock();
+	} catch (OverlappingFileLockException heldInThisProcess) {
+	    lock = null;
+	} catch (IOException e) {
+	    channel.close();
+	    throw e;
+	}
+	if (lock == null) {
+	    channel.close();
+	    throw new IOException("Tweet log is already open: " + directory);
+	}
+	return channel;
+    }
+
+    private void openActiveSegment(long segment, long validLength) throws IOException {
+	activeSegment = segment;
+	activeChannel = FileChannel.open(segmentFile(segment).toPath(), StandardOpenOption.CREATE,
+		StandardOpenOption.WRITE);
+	if (activeChannel.size() > validLength) {
+	    logger.warn("Truncating torn records at the end of {}", segmentFile(segment));
+	    activeChannel.truncate(validLength);
+	}
+	activeChannel.position(validLength);
+    }
+
+    /**
+     * Registers the keys of the records of a segment, taking note of the
+     * records that are dead: duplicates, or damaged ones at the end of a
+     * sealed segment.
+     * 
+     * @return the length of the segment up to its first damaged record
+     */
+    private long loadSegment(final long segment, boolean sealed) throws IOException {
+	long validLength = readRecords(segment, (offset, tweet) -> {
+	    if (!tweetKeys.add(keyOf(tweet))) {
+		deadRecordsOf(segment).add(offset);
+	    }
+	});
+	File file = segmentFile(segment);
+	if (sealed && validLength < file.length()) {
+	    logger.warn("Skipping damaged records at the end of {}", file);
+	    deadRecordsOf(segment);
+	}
+	return validLength;
+    }
+
+    private Set<Long> deadRecordsOf(long segment) {
+	Set<Long> offsets = deadRecords.get(segment);
+	if (offsets == null) {
+	    offsets = new HashSet<Long>();
+	    deadRecords.put(segment, offsets);
+	}
+	return offsets;
+    }
+
+    private void readLiveRecords(long segment, final TweetConsumer consumer) throws IOException {
+	final Set<Long> deadOffsets = deadRecords.get(segment);
+	readRecords(segment, (offset, tweet) -> {
+	    if (deadOffsets == null || !deadOffsets.contains(offset)) {
+		consumer.accept(tweet);
+	    }
+	});
+    }
+
+    /**
+     * Receives the records of a segment with their offset in it.
+     */
+    private interface RecordConsumer {
+	void accept(long offset, JSONObject tweet) throws IOException;
+    }
+
+    /**
+     * Reads the records of a segment up to its first damaged record.
+     * 
+     * @return the length of the segment up to that record
+     */
+    private long readRecords(long segment, RecordConsumer consumer) throws IOException {
+	File file = segmentFile(segment);
+	long validLength = 0;
+	try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+	    while (true) {
+		int length;
+		try {
+		    length = input.readInt();
+		} catch (EOFException endOfSegment) {
+		    break;
+		}
+		if (length < 0 || length > MAX_RECORD_SIZE) {
+		    break;
+		}
+		int expectedCrc = input.readInt();
+		byte[] payload = new byte[length];
+		input.readFully(payload);
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		if ((int) crc.getValue() != expectedCrc) {
+		    break;
+		}
+		JSONObject tweet = new JSONObject(new String(payload, StandardCharsets.UTF_8));
+		long offset = validLength;
+		validLength += RECORD_HEADER_SIZE + length;
+		consumer.accept(offset, tweet);
+	    }
+	} catch (EOFException | JSONException tornRecord) {
+	    // the rest of the segment is unreadable
+	}
+	return validLength;
+    }
+
+    private long[] segmentNumbers() {
+	String[] names = directory.list();
+	List<Long> segments = new ArrayList<Long>();
+	for (String each : names == null ? new String[0] : names) {
+	    if (each.startsWith(SEGMENT_FILE_PREFIX) && each.endsWith(SEGMENT_FILE_SUFFIX)) {
+		try {
+		    segments.add(Long.parseLong(each.substring(SEGMENT_FILE_PREFIX.length(),
+			    each.length() - SEGMENT_FILE_SUFFIX.length())));
+		} catch (NumberFormatException e) {
+		    // not a segment of this log
+		}
+	    }
+	}
+	long[] numbers = new long[segments.size()];
+	for (int index = 0; index < numbers.length; index++) {
+	    numbers[index] = segments.get(index);
+	}
+	Arrays.sort(numbers);
+	return numbers;
+    }
+
+    private File segmentFile(long segment) {
+	return new File(directory, String.format("%s%010d%s", SEGMENT_FILE_PREFIX, segment, SEGMENT_FILE_SUFFIX));
+    }
+
+}
@@ -0,0 +1,230 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.twitter.search;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Polls Twitter for the tweets newer than those already fetched for each
+ * search term. The highest tweet id fetched per term, the since id, is kept
+ * next to the log of the storage so that polling resumes where it stopped
+ * after a restart.
+ * <p/>
+ * A poll pages back through the results with max_id until it reaches the
+ * since id, at most {@link #MAX_PAGES} pages. When a page cannot be fetched
+ * the since id is left as it was, so the next poll fetches the remaining
+ * tweets again. When there are more pages than that, the since id is still
+ * advanced to the newest tweet, so that every poll fetches only new tweets,
+ * and the tweets left out are logged.
+ * <p/>
+ * Search results overlap at their edges, the storage leaves out the tweets
+ * it already has. The since id is only advanced once the tweets have been
+ * saved.
+ */
+public class TweetPoller {
+
+    private static final Logger logger = LoggerFactory.getLogger(TweetPoller.class);
+
+    private static final String SINCE_IDS_FILE = "since-ids.properties";
+    private static final String TWITTER_JSON_RESULTS_TAG = "results";
+    private static final String MAX_ID = "max_id_str";
+    private static final String NEXT_PAGE = "next_page";
+    private static final String ID = "id_str";
+    private static final String NUMERIC_ID = "id";
+
+    /**
+     * The most pages fetched per poll, the search returns up to 1500 tweets in
+     * pages of 100.
+     */
+    public static final int MAX_PAGES = 15;
+
+    private final TwitterInterfaceEngine twitterSearch;
+    private final TweetsDataStorage tweetsStorage;
+    private final Properties sinceIds = new Properties();
+    private boolean loaded;
+
+    public TweetPoller(TwitterInterfaceEngine twitterSearch, TweetsDataStorage tweetsStorage) {
+	this.twitterSearch = twitterSearch;
+	this.tweetsStorage = tweetsStorage;
+    }
+
+    /**
+     * Fetches and saves the tweets for the term newer than the last poll.
+     * 
+     * @return the number of new tweets saved
+     * @throws IOException
+     *             when the tweets or the since ids cannot be saved
+     */
+    public int poll(String term) throws IOException {
+	String sinceId = getSinceId(term);
+	String newestId = sinceId;
+	String maxId = null;
+	boolean reachedSinceId = false;
+	boolean pageFailed = false;
+	JSONArray tweets = new JSONArray();
+	// terms are fetched concurrently, only saving is done one at a time
+	for (int page = 0; page < MAX_PAGES && !reachedSinceId; page++) {
+	    JSONObject response = parse(twitterSearch.searchTweetsBetween(term, sinceId, maxId));
+	    if (response == null) {
+		pageFailed = true;
+		break;
+	    }
+	    newestId = newerOf(newestId, response.optString(MAX_ID, null));
+	    String oldestId = null;
+	    JSONArray results = response.optJSONArray(TWITTER_JSON_RESULTS_TAG);
+	    for (int tweetCounter = 0; results != null && tweetCounter < results.length(); tweetCounter++) {
+		JSONObject tweet = results.optJSONObject(tweetCounter);
+		if (tweet != null) {
+		    tweets.put(tweet);
+		    String id = idOf(tweet);
+		    newestId = newerOf(newestId, id);
+		    if (id != null && (oldestId == null || newerOf(oldestId, id).equals(oldestId))) {
+			oldestId = id;
+		    }
+		}
+	    }
+	    reachedSinceId = !response.has(NEXT_PAGE) || oldestId == null;
+	    if (!reachedSinceId) {
+		maxId = new BigInteger(oldestId).subtract(BigInteger.ONE).toString();
+	    }
+	}
+	if (pageFailed) {
+	    logger.warn("Polled '{}' without reaching since id {}, it is kept for the next poll", term, sinceId);
+	    return saveNewTweets(term, sinceId, sinceId, tweets);
+	}
+	if (!reachedSinceId) {
+	    logger.warn("Polled '{}' up to {} pages, the tweets after since id {} up to id {} are left out",
+		    new Object[] { term, MAX_PAGES, sinceId, maxId });
+	}
+	return saveNewTweets(term, sinceId, newestId, tweets);
+    }
+
+    public synchronized String getSinceId(String term) {
+	loadOnFirstPoll();
+	return sinceIds.getProperty(term);
+    }
+
+    private synchronized int saveNewTweets(String term, String sinceId, String newestId, JSONArray tweets)
+	    throws IOException {
+	int savedTweets = tweets.length() == 0 ? 0 : tweetsStorage.saveTweetMessages(tweets);
+	if (savedTweets < 0) {
+	    throw new IOException(String.format("Could not save the tweets polled for '%s'", term));
+	}
+	if (newestId != null && !newestId.equals(sinceId)) {
+	    sinceIds.setProperty(term, newestId);
+	    storeSinceIds();
+	}
+	logger.info("Polled '{}': {} new tweets", term, savedTweets);
+	return savedTweets;
+    }
+
+    /**
+     * Reads the since ids, once.
+     */
+    private void loadOnFirstPoll() {
+	if (loaded) {
+	    return;
+	}
+	loaded = true;
+	File sinceIdsFile = sinceIdsFile();
+	if (sinceIdsFile.isFile()) {
+	    InputStream input = null;
+	    try {
+		input = new FileInputStream(sinceIdsFile);
+		sinceIds.load(input);
+	    } catch (IOException ex) {
+		logger.error("Error while reading since ids: " + ex.getMessage());
+	    } finally {
+		IOUtils.closeQuietly(input);
+	    }
+	}
+    }
+
+    private void storeSinceIds() throws IOException {
+	File sinceIdsFile = sinceIdsFile();
+	File temporaryFile = new File(sinceIdsFile.getPath() + ".tmp");
+	OutputStream output = new FileOutputStream(temporaryFile);
+	try {
+	    sinceIds.store(output, "Highest tweet id fetched per search term");
+	} finally {
+	    output.close();
+	}
+	Files.move(temporaryFile.toPath(), sinceIdsFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+		StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private File sinceIdsFile() {
+	return new File(tweetsStorage.getLogDirectory(), SINCE_IDS_FILE);
+    }
+
+    private static JSONObject parse(String response) {
+	if (response == null || response.isEmpty()) {
+	    return null;
+	}
+	try {
+	    return new JSONObject(response);
+	} catch (JSONException ex) {
+	    logger.error("Error while parsing tweets: " + ex.getMessage());
+	    return null;
+	}
+    }
+
+    private static String idOf(JSONObject tweet) {
+	Object id = tweet.opt(ID);
+	if (id == null || id == JSONObject.NULL) {
+	    id = tweet.opt(NUMERIC_ID);
+	}
+	if (id == null || id == JSONObject.NULL) {
+	    return null;
+	}
+	String idAsText = String.valueOf(id);
+	return idAsText.matches("[0-9]+") ? idAsText : null;
+    }
+
+    // ids are numeric strings too long for some JSON parsers, compared as such
+    static String newerOf(String someId, String otherId) {
+	if (someId == null || otherId == null) {
+	    return someId == null ? otherId : someId;
+	}
+	if (someId.length() != otherId.length()) {
+	    return someId.length() > otherId.length() ? someId : otherId;
+	}
+	return someId.compareTo(otherId) >= 0 ? someId : otherId;
+    }
+}
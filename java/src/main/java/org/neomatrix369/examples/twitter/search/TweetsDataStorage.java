@@ -22,9 +22,12 @@
  */
 package org.neomatrix369.examples.twitter.search;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,7 +36,17 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-public class TweetsDataStorage {
+/**
+ * Saves tweets to a {@link TweetLog} and searches them through a
+ * {@link TweetIndex} and a {@link TweetColumnStore}: single-token terms are
+ * answered by the index, other terms are narrowed down by the index and
+ * checked against the column store. Both number tweets in the order they
+ * were saved to the log. Saved tweets are only ever streamed from the log,
+ * never held in memory as a whole; the storage has to be closed to force the
+ * last tweets to disk and release the files.
+ * A storage file can only be open in one storage at a time.
+ */
+public class TweetsDataStorage implements Closeable {
     private static final String ERROR_WHILE_INTERATING_THROUGH_TWEETS = "Error while going through tweets: %s. %n";
     private static final String ERROR_WHILE_SAVING_TWEETS = "Error while saving tweets: %s. %n";
     private static final String ERROR_WHILE_LOADING_TWEETS = "Error while loading tweets: %s. %n";
@@ -44,6 +57,11 @@ public class TweetsDataStorage {
     private static final String BY_TO_USERNAME = "to_user_name";
     private static final String BY_TO_USER_ID = "to_user_id";
     private static final String BY_MESSAGE_BODY = "text";
+    private static final String JSON_FILE_EXTENSION = ".json";
+    private static final String LOG_DIRECTORY_EXTENSION = ".log";
+    private static final String COLUMNS_DIRECTORY = "columns";
+    private static final int COLUMN_REBUILD_BATCH_SIZE = 1000;
+    private static final int SAVE_FAILED = -1;
 
     private static final boolean TERM_WAS_FOUND = true;
     private static final boolean TERM_WAS_NOT_FOUND = false;
@@ -52,7 +70,11 @@ public class TweetsDataStorage {
             .getLogger(TweetsDataStorage.class.getName());
 
     private String localStorageFile = "savedTweets.json";
-    private JSONArray tweetMessages;
+    private volatile boolean indexed;
+    private TweetLog tweetLog;
+    private TweetColumnStore tweetColumns;
+    private final TweetIndex tweetIndex = new TweetIndex(BY_MESSAGE_BODY,
+            BY_FROM_USERNAME, BY_TO_USERNAME, BY_FROM_USER_ID, BY_TO_USER_ID);
 
     TweetsDataStorage() {
     }
@@ -82,74 +104,299 @@ public class TweetsDataStorage {
     }
 
     private boolean findTermBy(String usingTerm, String byField) {
-        if (tweetMessages == null) {
-            tweetMessages = loadTweetMessage();
-            if (tweetMessages == null) {
-                return TERM_WAS_NOT_FOUND;
-            }
+        if (!indexed && !indexSavedTweets()) {
+            return TERM_WAS_NOT_FOUND;
         }
 
-        for (int tweetCounter = 0; tweetCounter < tweetMessages.length(); tweetCounter++) {
-            try {
-                JSONObject eachTweet = tweetMessages
-                        .getJSONObject(tweetCounter);
-                if (!eachTweet.has(byField)) {
-                    return TERM_WAS_NOT_FOUND;
-                }
+        if (TweetIndex.isSingleToken(usingTerm)) {
+            return tweetIndex.contains(byField, usingTerm) ? TERM_WAS_FOUND : TERM_WAS_NOT_FOUND;
+        }
 
-                String fieldValueAsString = eachTweet.getString(byField);
-                if (fieldValueAsString.toLowerCase().contains(
-                        usingTerm.toLowerCase())) {
-                    return TERM_WAS_FOUND;
+        // the index narrows the term down, the column store checks the values
+        TweetColumnStore columns = tweetColumns();
+        if (columns == null) {
+            return TERM_WAS_NOT_FOUND;
+        }
+        try {
+            return columns.contains(byField, usingTerm, tweetIndex.candidates(byField, usingTerm)) ? TERM_WAS_FOUND
+                    : TERM_WAS_NOT_FOUND;
+        } catch (IOException ex) {
+            // also when the storage was closed meanwhile
+            COMMON_logger.log(Level.SEVERE,
+                    String.format(ERROR_WHILE_LOADING_TWEETS, ex.getMessage()));
+            return TERM_WAS_NOT_FOUND;
+        }
+    }
+
+    /**
+     * Indexes the saved tweets as they are streamed from the log.
+     *
+     * @return whether the saved tweets could be read
+     */
+    private synchronized boolean indexSavedTweets() {
+        tweetIndex.clear();
+        try {
+            if (!forEachTweetMessage(new TweetLog.TweetConsumer() {
+                @Override
+                public void accept(JSONObject tweet) {
+                    tweetIndex.add(tweet);
                 }
-            } catch (JSONException ex) {
-                COMMON_logger.log(
-                        Level.SEVERE,
-                        String.format(ERROR_WHILE_INTERATING_THROUGH_TWEETS,
-                                ex.getMessage()));
+            })) {
+                return false;
             }
+        } catch (IOException ex) {
+            tweetIndex.clear();
+            COMMON_logger.log(Level.SEVERE,
+                    String.format(ERROR_WHILE_LOADING_TWEETS, ex.getMessage()));
+            return false;
         }
-        return TERM_WAS_NOT_FOUND;
+        indexed = true;
+        return true;
     }
 
+    /**
+     * Appends the tweets of a search result to the log, leaving out those
+     * already saved.
+     */
     public void saveTweetMessage(String receivedTweets) {
-        saveTweetMessage(receivedTweets, localStorageFile);
+        JSONArray receivedTweetMessages = parseTweetMessages(receivedTweets);
+        if (receivedTweetMessages != null) {
+            saveTweetMessages(receivedTweetMessages);
+        }
     }
 
-    private void saveTweetMessage(String receivedTweets, String localFileName) {
+    /**
+     * Appends the tweets to the log, leaving out those already saved.
+     *
+     * @return the number of tweets that were not saved yet, -1 when the
+     *         tweets could not be saved
+     */
+    public synchronized int saveTweetMessages(JSONArray receivedTweetMessages) {
+        TweetLog log = tweetLog();
+        if (log == null) {
+            return SAVE_FAILED;
+        }
+
+        List<JSONObject> newTweets;
+        try {
+            newTweets = log.append(tweetsOf(receivedTweetMessages));
+        } catch (IOException ex) {
+            COMMON_logger.log(Level.SEVERE,
+                    String.format(ERROR_WHILE_SAVING_TWEETS, ex.getMessage()));
+            return SAVE_FAILED;
+        }
+        appendToTweetColumns(newTweets);
+        if (indexed) {
+            for (JSONObject eachTweet : newTweets) {
+                tweetIndex.add(eachTweet);
+            }
+        }
+        return newTweets.size();
+    }
+
+    /**
+     * The tweets are saved once they are in the log, a column store that
+     * cannot take them is dropped and rebuilt from the log when next used.
+     */
+    private void appendToTweetColumns(List<JSONObject> newTweets) {
+        if (tweetColumns == null) {
+            return;
+        }
         try {
-            FileUtils
-                    .writeStringToFile(new File(localFileName), receivedTweets);
+            tweetColumns.append(newTweets);
         } catch (IOException ex) {
             COMMON_logger.log(Level.SEVERE,
                     String.format(ERROR_WHILE_SAVING_TWEETS, ex.getMessage()));
+            closeTweetColumns();
+        }
+    }
+
+    public boolean isSaved(JSONObject tweet) {
+        TweetLog log = tweetLog();
+        return log != null && log.contains(tweet);
+    }
+
+    /**
+     * Streams the saved tweets in the order they were saved, holding only one
+     * of them in memory at a time.
+     *
+     * @return whether there is a log to read the tweets from
+     */
+    public boolean forEachTweetMessage(TweetLog.TweetConsumer consumer) throws IOException {
+        TweetLog log = tweetLog();
+        if (log == null) {
+            return false;
         }
+        log.forEach(consumer);
+        return true;
     }
 
+    /**
+     * Reads back every saved tweet.
+     *
+     * @deprecated holds all saved tweets in memory at once, stream them with
+     *             {@link #forEachTweetMessage(TweetLog.TweetConsumer)} instead
+     */
+    @Deprecated
     public JSONArray loadTweetMessage() {
-        return loadTweetMessage(localStorageFile);
+        final JSONArray savedTweetMessages = new JSONArray();
+        try {
+            boolean logged = forEachTweetMessage(new TweetLog.TweetConsumer() {
+                @Override
+                public void accept(JSONObject tweet) {
+                    savedTweetMessages.put(tweet);
+                }
+            });
+            if (!logged) {
+                return null;
+            }
+        } catch (IOException ex) {
+            COMMON_logger.log(Level.SEVERE,
+                    String.format(ERROR_WHILE_LOADING_TWEETS, ex.getMessage()));
+            return null;
+        }
+        return savedTweetMessages;
     }
 
-    private JSONArray loadTweetMessage(String localFilename) {
-        return loadSavedMessagesFromFile(localFilename);
+    public File getLogDirectory() {
+        return logDirectoryFor(localStorageFile);
     }
 
-    private JSONArray loadSavedMessagesFromFile(String localFile) {
-        JSONArray resultsArray = null;
+    /**
+     * Opens the log on first use, importing the tweets of a file written by
+     * earlier versions when the log is still empty. The column store kept in
+     * the log directory is rebuilt from the log when the two disagree.
+     */
+    private synchronized TweetLog tweetLog() {
+        if (tweetLog == null) {
+            try {
+                tweetLog = new TweetLog(getLogDirectory());
+                File legacyFile = new File(localStorageFile);
+                if (tweetLog.size() == 0 && legacyFile.isFile()) {
+                    JSONArray legacyTweetMessages = loadSavedMessagesFromFile(localStorageFile);
+                    if (legacyTweetMessages != null) {
+                        tweetLog.append(tweetsOf(legacyTweetMessages));
+                    }
+                }
+                tweetColumns = openTweetColumns(tweetLog);
+            } catch (IOException ex) {
+                COMMON_logger.log(Level.SEVERE,
+                        String.format(ERROR_WHILE_LOADING_TWEETS, ex.getMessage()));
+            }
+        }
+        return tweetLog;
+    }
+
+    /**
+     * Returns the column store, opening it again when it was dropped; null
+     * when there is no log or the store cannot be opened.
+     */
+    private synchronized TweetColumnStore tweetColumns() {
+        TweetLog log = tweetLog();
+        if (log != null && tweetColumns == null) {
+            try {
+                tweetColumns = openTweetColumns(log);
+            } catch (IOException ex) {
+                COMMON_logger.log(Level.SEVERE,
+                        String.format(ERROR_WHILE_LOADING_TWEETS, ex.getMessage()));
+            }
+        }
+        return tweetColumns;
+    }
+
+    /**
+     * Creates the column store kept in the log directory.
+     */
+    protected TweetColumnStore createTweetColumns(File directory, String... columnNames) throws IOException {
+        return new TweetColumnStore(directory, columnNames);
+    }
+
+    private TweetColumnStore openTweetColumns(TweetLog log) throws IOException {
+        final TweetColumnStore columns = createTweetColumns(new File(getLogDirectory(), COLUMNS_DIRECTORY),
+                BY_MESSAGE_BODY, BY_FROM_USERNAME, BY_TO_USERNAME, BY_FROM_USER_ID, BY_TO_USER_ID);
         try {
-            String tweetsAsString = FileUtils.readFileToString(new File(
-                    localFile));
+            if (columns.rowCount() != log.size()) {
+                columns.clear();
+                final List<JSONObject> batch = new ArrayList<JSONObject>(COLUMN_REBUILD_BATCH_SIZE);
+                log.forEach(new TweetLog.TweetConsumer() {
+                    @Override
+                    public void accept(JSONObject tweet) throws IOException {
+                        batch.add(tweet);
+                        if (batch.size() == COLUMN_REBUILD_BATCH_SIZE) {
+                            columns.append(batch);
+                            batch.clear();
+                        }
+                    }
+                });
+                columns.append(batch);
+            }
+        } catch (IOException ex) {
+            columns.close();
+            throw ex;
+        }
+        return columns;
+    }
+
+    private void closeTweetColumns() {
+        try {
+            tweetColumns.close();
+        } catch (IOException ex) {
+            COMMON_logger.log(Level.SEVERE,
+                    String.format(ERROR_WHILE_SAVING_TWEETS, ex.getMessage()));
+        } finally {
+            tweetColumns = null;
+        }
+    }
+
+    /**
+     * Forces the saved tweets to disk and releases the log and the column
+     * store. A storage used again after closing opens them again.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        indexed = false;
+        tweetIndex.clear();
+        try {
+            if (tweetColumns != null) {
+                tweetColumns.close();
+            }
+        } finally {
+            tweetColumns = null;
+            if (tweetLog != null) {
+                TweetLog log = tweetLog;
+                tweetLog = null;
+                log.close();
+            }
+        }
+    }
 
+    private static File logDirectoryFor(String localStorageFile) {
+        String name = localStorageFile.endsWith(JSON_FILE_EXTENSION) ? localStorageFile.substring(0,
+                localStorageFile.length() - JSON_FILE_EXTENSION.length()) : localStorageFile;
+        return new File(name + LOG_DIRECTORY_EXTENSION);
+    }
+
+    private List<JSONObject> tweetsOf(JSONArray tweetMessagesToSplit) {
+        List<JSONObject> tweets = new ArrayList<JSONObject>(tweetMessagesToSplit.length());
+        for (int tweetCounter = 0; tweetCounter < tweetMessagesToSplit.length(); tweetCounter++) {
             try {
-                JSONObject jsonObject = new JSONObject(tweetsAsString);
-                resultsArray = jsonObject
-                        .getJSONArray(TWITTER_JSON_RESULTS_TAG);
+                tweets.add(tweetMessagesToSplit.getJSONObject(tweetCounter));
             } catch (JSONException ex) {
                 COMMON_logger.log(
                         Level.SEVERE,
-                        String.format(ERROR_WHILE_PARSING_TWEETS,
+                        String.format(ERROR_WHILE_INTERATING_THROUGH_TWEETS,
                                 ex.getMessage()));
             }
+        }
+        return tweets;
+    }
+
+    private JSONArray loadSavedMessagesFromFile(String localFile) {
+        JSONArray resultsArray = null;
+        try {
+            String tweetsAsString = FileUtils.readFileToString(new File(
+                    localFile));
+            resultsArray = parseTweetMessages(tweetsAsString);
         } catch (IOException ex) {
             COMMON_logger.log(Level.SEVERE,
                     String.format(ERROR_WHILE_LOADING_TWEETS, ex.getMessage()));
@@ -157,6 +404,19 @@ public class TweetsDataStorage {
         return resultsArray;
     }
 
+    private JSONArray parseTweetMessages(String tweetsAsString) {
+        try {
+            JSONObject jsonObject = new JSONObject(tweetsAsString);
+            return jsonObject.getJSONArray(TWITTER_JSON_RESULTS_TAG);
+        } catch (JSONException ex) {
+            COMMON_logger.log(
+                    Level.SEVERE,
+                    String.format(ERROR_WHILE_PARSING_TWEETS,
+                            ex.getMessage()));
+            return null;
+        }
+    }
+
     public boolean verifyIfTheMessagesMatch(String[] tweetMessageRead,
             String[] tweetMessageWritten) {
         String readMessage = Arrays.toString(tweetMessageRead);
@@ -33,6 +33,8 @@ import java.net.URL;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.neomatrix369.apiworld.util.Utils;
+
 public class TwitterInterfaceEngine {
 
     private static final String HTTP_GET_METHOD_TOKEN = "GET";
@@ -43,6 +45,9 @@ public class TwitterInterfaceEngine {
     private static final String ERROR_WHILE_CONVERTING_AN_URL_STRING_INTO_AN_URI = "Error while converting an URL string into an URI: %s. %n";
     private static final String ERROR_WHILE_ACCESSING_THE_HTTP_SERVER = "Error while accessing the http server:%s. %n";
     private static final String TWITTER_SEARCH_API_TEMPLATE = "https://twitter.com/#!/search/%s";
+    private static final String TWITTER_SEARCH_JSON_API_TEMPLATE = "http://search.twitter.com/search.json?q=%s";
+    private static final String SINCE_ID_PARAMETER = "&since_id=";
+    private static final String MAX_ID_PARAMETER = "&max_id=";
 
     private static final Logger COMMON_logger = Logger.getLogger(TwitterInterfaceEngine.class.getName());
 
@@ -63,6 +68,37 @@ public class TwitterInterfaceEngine {
 	return result;
     }
 
+    /**
+     * Searches only for the tweets newer than the given one, all matching
+     * tweets when there is no since id yet.
+     */
+    public String searchTweetsSince(String usingSearchTerms, String sinceId) {
+	return searchTweetsBetween(usingSearchTerms, sinceId, null);
+    }
+
+    /**
+     * Searches for the tweets newer than the since id and no newer than the
+     * max id, either of which may be null, to page back through the results.
+     */
+    public String searchTweetsBetween(String usingSearchTerms, String sinceId, String maxId) {
+	if (sinceId != null && !sinceId.matches("[0-9]+")) {
+	    throw new IllegalArgumentException("Tweet ids are numeric: " + sinceId);
+	}
+	if (maxId != null && !maxId.matches("[0-9]+")) {
+	    throw new IllegalArgumentException("Tweet ids are numeric: " + maxId);
+	}
+	String template = TWITTER_SEARCH_JSON_API_TEMPLATE + (sinceId == null ? "" : SINCE_ID_PARAMETER + sinceId)
+		+ (maxId == null ? "" : MAX_ID_PARAMETER + maxId);
+	String result = "";
+	try {
+	    result = getResponseFromTwitter(template, Utils.urlEncode(usingSearchTerms));
+	} catch (IOException ex) {
+	    COMMON_logger.log(Level.SEVERE,
+		    String.format(ERROR_WHILE_FETCHING_TWEETS_CONNECTING_TO_SERVER, ex.getMessage()));
+	}
+	return result;
+    }
+
     public String getResponseFromTwitter(String usingURL, String usingEncodedTerms) throws IOException {
 	URL url = null;
 	URI usingURI = null;
@@ -0,0 +1,92 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.unifiedsearch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neomatrix369.apiworld.ResultType;
+import org.neomatrix369.apiworld.exception.InvalidResponseException;
+import org.neomatrix369.apiworld.json.JsonBinding;
+import org.neomatrix369.examples.flickr.BaseFlickr;
+
+/**
+ * Searches photos on Flickr, each photo found is a hit linking to its page.
+ */
+public class FlickrSearchProvider extends BaseFlickr implements SearchProvider {
+
+    private static final String NAME = "flickr";
+    private static final String[] URL_PARAM_CODES = { "format", "text" };
+    private static final String PHOTO_PAGE_URL = "http://www.flickr.com/photos/%s/%s";
+
+    static final JsonBinding<Photos> PHOTOS = JsonBinding.of(Photos::new)
+	    .bindString("stat", (photos, stat) -> photos.stat = stat)
+	    .bindString("message", (photos, message) -> photos.message = message)
+	    .bindEach("photos.photo", JsonBinding.of(Photo::new)
+		    .bindString("id", (photo, id) -> photo.id = id)
+		    .bindString("owner", (photo, owner) -> photo.owner = owner)
+		    .bindString("title", (photo, title) -> photo.title = title), Photos::add);
+
+    private final String apiKey;
+
+    public FlickrSearchProvider(String apiKey) {
+	this.apiKey = apiKey;
+    }
+
+    @Override
+    public String getName() {
+	return NAME;
+    }
+
+    @Override
+    public List<SearchHit> search(String query) throws IOException {
+	return buildAPIReadyToExecute(apiKey, "?method=flickr.photos.search", "&", URL_PARAM_CODES,
+		ResultType.JSON.toString(), query).executeGetUrl(null, PHOTOS.jsonpHandler()).hits();
+    }
+
+    static final class Photos {
+	private final List<SearchHit> hits = new ArrayList<SearchHit>();
+	private String stat;
+	private String message;
+
+	private void add(Photo photo) {
+	    String link = photo.owner == null ? null : String.format(PHOTO_PAGE_URL, photo.owner, photo.id);
+	    hits.add(new SearchHit(NAME, photo.title, link, null));
+	}
+
+	List<SearchHit> hits() throws IOException {
+	    if (!"ok".equals(stat)) {
+		throw new InvalidResponseException("Flickr search failed: " + message);
+	    }
+	    return hits;
+	}
+    }
+
+    private static final class Photo {
+	private String id;
+	private String owner;
+	private String title;
+    }
+
+}
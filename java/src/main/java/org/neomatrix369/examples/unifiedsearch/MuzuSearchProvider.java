@@ -0,0 +1,62 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.unifiedsearch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neomatrix369.examples.muzutv.data.Search;
+import org.neomatrix369.examples.muzutv.feed.ArtistRecord;
+import org.neomatrix369.examples.muzutv.feed.MuzuRecordListener;
+import org.neomatrix369.examples.muzutv.feed.VideoRecord;
+
+/**
+ * Searches Muzu TV, requires resources/apiKeys/muzu.properties. Each video
+ * found is a hit, artists are skipped.
+ */
+public class MuzuSearchProvider implements SearchProvider {
+
+    @Override
+    public String getName() {
+	return "muzu";
+    }
+
+    @Override
+    public List<SearchHit> search(String query) throws IOException {
+	final List<SearchHit> hits = new ArrayList<SearchHit>();
+	new Search().withSearchTerm(query).buildUrl().executeUrl(new MuzuRecordListener() {
+	    @Override
+	    public void onArtist(ArtistRecord artist) {
+		// not a hit in itself, its videos are
+	    }
+
+	    @Override
+	    public void onVideo(VideoRecord video) {
+		hits.add(new SearchHit(getName(), video.getTitle(), video.getLink(), video.getDescription()));
+	    }
+	});
+	return hits;
+    }
+
+}
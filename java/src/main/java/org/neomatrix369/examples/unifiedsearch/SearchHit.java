@@ -0,0 +1,72 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.unifiedsearch;
+
+/**
+ * A single item found by a provider, i.e. a Muzu video, a Flickr photo, a
+ * tweet or a web page found through YQL, mapped into the fields all
+ * providers have in common.
+ */
+public final class SearchHit {
+
+    private final String provider;
+    private final String title;
+    private final String link;
+    private final String summary;
+
+    public SearchHit(String provider, String title, String link, String summary) {
+	this.provider = provider;
+	this.title = title;
+	this.link = link;
+	this.summary = summary;
+    }
+
+    public String getProvider() {
+	return provider;
+    }
+
+    public String getTitle() {
+	return title;
+    }
+
+    /**
+     * Where the item can be seen, null when the provider did not return one.
+     */
+    public String getLink() {
+	return link;
+    }
+
+    /**
+     * i.e. the description of a video or the author of a tweet, null when the
+     * provider did not return one.
+     */
+    public String getSummary() {
+	return summary;
+    }
+
+    @Override
+    public String toString() {
+	return String.format("[provider: %s; title: %s; link: %s]", provider, title, link);
+    }
+
+}
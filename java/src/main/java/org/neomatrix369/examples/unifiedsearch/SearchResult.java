@@ -0,0 +1,70 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.unifiedsearch;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The answer of a single provider to a query.
+ */
+public final class SearchResult {
+
+    private final String provider;
+    private final String query;
+    private final List<SearchHit> hits;
+    private final long latencyMillis;
+
+    public SearchResult(String provider, String query, List<SearchHit> hits, long latencyMillis) {
+	this.provider = provider;
+	this.query = query;
+	this.hits = Collections.unmodifiableList(hits);
+	this.latencyMillis = latencyMillis;
+    }
+
+    public String getProvider() {
+	return provider;
+    }
+
+    public String getQuery() {
+	return query;
+    }
+
+    /**
+     * The items found, in the order the provider returned them.
+     */
+    public List<SearchHit> getHits() {
+	return hits;
+    }
+
+    public long getLatencyMillis() {
+	return latencyMillis;
+    }
+
+    @Override
+    public String toString() {
+	return String.format("[provider: %s; query: %s; hits: %d; latency: %d ms]", provider, query, hits.size(),
+		latencyMillis);
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.unifiedsearch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neomatrix369.apiworld.ResultType;
+import org.neomatrix369.apiworld.json.JsonBinding;
+import org.neomatrix369.examples.twitter.BaseTwitter;
+
+/**
+ * Searches tweets, no API key is required. Each tweet found is a hit, its
+ * text the title and its author the summary.
+ */
+public class TwitterSearchProvider extends BaseTwitter implements SearchProvider {
+
+    private static final String NAME = "twitter";
+    private static final String[] URL_PARAM_CODES = { "q" };
+    private static final String TWEET_URL = "http://twitter.com/%s/status/%s";
+
+    static final JsonBinding<List<SearchHit>> TWEETS = JsonBinding.<List<SearchHit>> of(ArrayList::new)
+	    .bindEach("results", JsonBinding.of(Tweet::new)
+		    .bindString("id_str", (tweet, id) -> tweet.id = id)
+		    .bindString("from_user", (tweet, user) -> tweet.user = user)
+		    .bindString("text", (tweet, text) -> tweet.text = text), (hits, tweet) -> hits.add(tweet.toHit()));
+
+    @Override
+    public String getName() {
+	return NAME;
+    }
+
+    @Override
+    public List<SearchHit> search(String query) throws IOException {
+	String apiCommand = String.format("search.%s", ResultType.JSON.toString());
+	return buildAPIReadyToExecute("", apiCommand, "?", URL_PARAM_CODES, query).executeGetUrl(null,
+		TWEETS.handler());
+    }
+
+    private static final class Tweet {
+	private String id;
+	private String user;
+	private String text;
+
+	private SearchHit toHit() {
+	    String link = user == null || id == null ? null : String.format(TWEET_URL, user, id);
+	    return new SearchHit(NAME, text, link, user);
+	}
+    }
+
+}
@@ -0,0 +1,182 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.unifiedsearch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fans a query out to all registered providers in parallel and merges their
+ * answers. Each provider has its own deadline, the search returns as soon as
+ * every provider has answered, failed or run out of time, so it takes about
+ * as long as the slowest provider within its deadline rather than the sum of
+ * all of them. Providers which did not answer in time are cancelled, their
+ * thread interrupted, and reported in the result instead of failing the
+ * whole search, as are providers for which no thread is free.
+ */
+public class UnifiedSearch {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnifiedSearch.class);
+
+    public static final long DEFAULT_DEADLINE_MILLIS = 5000;
+    /**
+     * Maximum number of providers searched at the same time on the default executor.
+     */
+    public static final int DEFAULT_MAX_SEARCHING = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+    /**
+     * Maximum number of providers waiting for a thread of the default executor.
+     */
+    public static final int DEFAULT_QUEUED_SEARCHES = 4 * DEFAULT_MAX_SEARCHING;
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final Map<SearchProvider, Long> deadlines = new LinkedHashMap<SearchProvider, Long>();
+    private final ExecutorService executor;
+
+    /**
+     * Runs the providers on a bounded pool of daemon threads shared by all
+     * searches using it. When all its threads are busy and its queue is full
+     * a provider is reported as failed, rather than run on the calling thread
+     * outside of its deadline.
+     */
+    public UnifiedSearch() {
+	this(DefaultExecutorHolder.EXECUTOR);
+    }
+
+    /**
+     * @param executor
+     *            ExecutorService the providers run on, which should reject
+     *            searches it has no thread for rather than run them on the
+     *            calling thread, i.e. not with a CallerRunsPolicy
+     */
+    public UnifiedSearch(ExecutorService executor) {
+	this.executor = executor;
+    }
+
+    public UnifiedSearch register(SearchProvider provider) {
+	return register(provider, DEFAULT_DEADLINE_MILLIS);
+    }
+
+    public UnifiedSearch register(SearchProvider provider, long deadlineMillis) {
+	if (deadlineMillis <= 0) {
+	    throw new IllegalArgumentException("Deadline must be positive: " + deadlineMillis);
+	}
+	synchronized (deadlines) {
+	    deadlines.put(provider, deadlineMillis);
+	}
+	return this;
+    }
+
+    public UnifiedSearchResult search(final String query) {
+	Map<SearchProvider, Long> providers;
+	synchronized (deadlines) {
+	    providers = new LinkedHashMap<SearchProvider, Long>(deadlines);
+	}
+
+	long startedAt = System.nanoTime();
+	Map<String, String> failedProviders = new LinkedHashMap<String, String>();
+	Map<SearchProvider, Future<SearchResult>> pending = new LinkedHashMap<SearchProvider, Future<SearchResult>>();
+	for (final SearchProvider provider : providers.keySet()) {
+	    try {
+		pending.put(provider, executor.submit(() -> searchWith(provider, query)));
+	    } catch (RejectedExecutionException e) {
+		failedProviders.put(provider.getName(), e.toString());
+		logger.warn("No thread free to search {} for query '{}'", provider.getName(), query);
+	    }
+	}
+
+	List<SearchResult> results = new ArrayList<SearchResult>();
+	List<String> timedOutProviders = new ArrayList<String>();
+	for (Map.Entry<SearchProvider, Future<SearchResult>> each : pending.entrySet()) {
+	    String name = each.getKey().getName();
+	    long remainingNanos = TimeUnit.MILLISECONDS.toNanos(providers.get(each.getKey()))
+		    - (System.nanoTime() - startedAt);
+	    try {
+		results.add(each.getValue().get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS));
+	    } catch (TimeoutException e) {
+		each.getValue().cancel(true);
+		timedOutProviders.add(name);
+		logger.warn("Provider {} missed its deadline for query '{}'", name, query);
+	    } catch (ExecutionException e) {
+		Throwable cause = e.getCause();
+		failedProviders.put(name, String.valueOf(cause));
+		logger.warn("Provider {} failed for query '{}': {}", new Object[] { name, query, cause });
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		cancelAll(pending);
+		failedProviders.put(name, e.toString());
+		break;
+	    }
+	}
+
+	long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+	return new UnifiedSearchResult(query, results, timedOutProviders, failedProviders, elapsedMillis);
+    }
+
+    private SearchResult searchWith(SearchProvider provider, String query) throws IOException {
+	long startedAt = System.nanoTime();
+	List<SearchHit> hits = provider.search(query);
+	return new SearchResult(provider.getName(), query, hits,
+		TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    private void cancelAll(Map<SearchProvider, Future<SearchResult>> pending) {
+	for (Future<SearchResult> each : pending.values()) {
+	    each.cancel(true);
+	}
+    }
+
+    private static final class DefaultExecutorHolder {
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+	private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(DEFAULT_MAX_SEARCHING,
+		DEFAULT_MAX_SEARCHING, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+		new LinkedBlockingQueue<Runnable>(DEFAULT_QUEUED_SEARCHES), new ThreadFactory() {
+		    @Override
+		    public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "unified-search-" + THREAD_COUNTER.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		    }
+		}, new ThreadPoolExecutor.AbortPolicy());
+
+	static {
+	    EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+    }
+
+}
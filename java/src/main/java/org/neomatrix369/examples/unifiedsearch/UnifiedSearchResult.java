@@ -0,0 +1,89 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.unifiedsearch;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The merged answers of all providers to a query, possibly partial: providers
+ * which missed their deadline or failed are listed instead.
+ */
+public final class UnifiedSearchResult {
+
+    private final String query;
+    private final List<SearchResult> results;
+    private final List<String> timedOutProviders;
+    private final Map<String, String> failedProviders;
+    private final long elapsedMillis;
+
+    public UnifiedSearchResult(String query, List<SearchResult> results, List<String> timedOutProviders,
+	    Map<String, String> failedProviders, long elapsedMillis) {
+	this.query = query;
+	this.results = Collections.unmodifiableList(results);
+	this.timedOutProviders = Collections.unmodifiableList(timedOutProviders);
+	this.failedProviders = Collections.unmodifiableMap(failedProviders);
+	this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getQuery() {
+	return query;
+    }
+
+    /**
+     * The answers in the order the providers were registered in.
+     */
+    public List<SearchResult> getResults() {
+	return results;
+    }
+
+    public List<String> getTimedOutProviders() {
+	return timedOutProviders;
+    }
+
+    /**
+     * The providers which failed, with the reason why.
+     */
+    public Map<String, String> getFailedProviders() {
+	return failedProviders;
+    }
+
+    public long getElapsedMillis() {
+	return elapsedMillis;
+    }
+
+    /**
+     * Whether every provider answered.
+     */
+    public boolean isComplete() {
+	return timedOutProviders.isEmpty() && failedProviders.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+	return String.format("[query: %s; results: %s; timed out: %s; failed: %s; elapsed: %d ms]", query, results,
+		timedOutProviders, failedProviders.keySet(), elapsedMillis);
+    }
+
+}
@@ -0,0 +1,64 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.unifiedsearch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neomatrix369.apiworld.json.JsonBinding;
+import org.neomatrix369.examples.yql.Yql;
+
+/**
+ * Searches the web through YQL, each page found is a hit.
+ */
+public class YqlSearchProvider implements SearchProvider {
+
+    private static final String NAME = "yql";
+    private static final String STATEMENT = "select * from search.web where query=\"%s\"";
+
+    static final JsonBinding<List<SearchHit>> PAGES = JsonBinding.<List<SearchHit>> of(ArrayList::new)
+	    .bindEach("query.results.result", JsonBinding.of(Page::new)
+		    .bindString("title", (page, title) -> page.title = title)
+		    .bindString("url", (page, url) -> page.url = url)
+		    .bindString("abstract", (page, summary) -> page.summary = summary),
+		    (hits, page) -> hits.add(new SearchHit(NAME, page.title, page.url, page.summary)));
+
+    @Override
+    public String getName() {
+	return NAME;
+    }
+
+    @Override
+    public List<SearchHit> search(String query) throws IOException {
+	return new Yql().withStatement(String.format(STATEMENT, query.replace("\"", "\\\""))).withFormat("json")
+		.buildUrl().executeUrl(PAGES);
+    }
+
+    private static final class Page {
+	private String title;
+	private String url;
+	private String summary;
+    }
+
+}
@@ -29,6 +29,7 @@ import java.util.Map;
 import org.neomatrix369.apiworld.APIReader;
 import org.neomatrix369.apiworld.UriBuilder;
 import org.neomatrix369.apiworld.exception.APIKeyNotAssignedException;
+import org.neomatrix369.apiworld.json.JsonBinding;
 import org.neomatrix369.apiworld.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,6 +61,18 @@ public class Yql {
 	return apiReader.executeGetUrl();
     }
 
+    /**
+     * Binds a JSON response into a typed result while it is read from the
+     * connection, the format has to be json.
+     * 
+     * @param binding
+     * @return the bound result
+     * @throws IOException
+     */
+    public <T> T executeUrl(JsonBinding<T> binding) throws IOException {
+	return apiReader.executeGetUrl(null, binding.handler());
+    }
+
     protected void buildAPIReadyToExecute(Map<String, String> parameters) {
 
 	UriBuilder uriBuilder = new UriBuilder(baseURL).setCommand("public/yql").setNoAPIKeyRequired();
@@ -27,17 +27,48 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.neomatrix369.apiworld.cache.CacheMode;
+import org.neomatrix369.apiworld.cache.ResponseCache;
+import org.neomatrix369.apiworld.cache.SingleFlight;
+import org.neomatrix369.apiworld.exception.CircuitOpenException;
+import org.neomatrix369.apiworld.exception.DeadlineExceededException;
+import org.neomatrix369.apiworld.exception.HttpStatusException;
+import org.neomatrix369.apiworld.exception.JsonBindingException;
+import org.neomatrix369.apiworld.exception.RateLimitExceededException;
+import org.neomatrix369.apiworld.json.JsonBinding;
+import org.neomatrix369.apiworld.ratelimit.RateLimiter;
+import org.neomatrix369.apiworld.resilience.CircuitBreaker;
+import org.neomatrix369.apiworld.resilience.ProviderIsolation;
+import org.neomatrix369.apiworld.resilience.ResiliencePolicy;
+import org.neomatrix369.apiworld.transport.HttpTransport;
+import org.neomatrix369.apiworld.transport.TransferMeter;
+import org.neomatrix369.apiworld.transport.TransferStats;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.net.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.zip.GZIPOutputStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.fail;
+import static org.mockito.AdditionalMatchers.not;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -99,13 +130,34 @@ public class APIReaderTest {
     }
 
     @Test
-    public void should_Return_Response_Without_Delimiters_To_Http_Get_Request() throws Exception {
+    public void should_Return_Json_Array_Response_With_Its_Delimiters_To_Http_Get_Request() throws Exception {
         //Given
-        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("[[response]]"));
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("[[\"response\"]]"));
         //When
         String response = apiReader.executeGetUrl();
         //Then
-        assertThat(response, is("response"));
+        assertThat(response, is("[[\"response\"]]"));
+    }
+
+    @Test
+    public void should_Return_Multi_Line_Json_Response_Verbatim_To_Http_Get_Request() throws Exception {
+        //Given
+        String body = "{\n  \"items\": [\n    \"response\"\n  ]\n}\n";
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream(body));
+        //When
+        String response = apiReader.executeGetUrl();
+        //Then
+        assertThat(response, is(body));
+    }
+
+    @Test
+    public void should_Return_Multi_Line_Response_As_Comma_Separated_Lines_To_Http_Get_Request() throws Exception {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("line 1\nline 2\n"));
+        //When
+        String response = apiReader.executeGetUrl();
+        //Then
+        assertThat(response, is("line 1, line 2"));
     }
 
     @Test
@@ -128,7 +180,7 @@ public class APIReaderTest {
         //When
         apiReader.executeGetUrl(properties);
         //Then
-        verify(mockConnection, never()).setRequestProperty(anyString(), anyString());
+        verify(mockConnection, never()).setRequestProperty(not(eq("Accept-Encoding")), anyString());
     }
 
     @Test
@@ -156,6 +208,38 @@ public class APIReaderTest {
         }
     }
 
+    @Test
+    public void should_Hand_Fully_Read_Connection_Back_To_The_Transport() throws IOException {
+        //Given
+        HttpTransport mockTransport = mock(HttpTransport.class);
+        when(mockTransport.open(url)).thenReturn(mockConnection);
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response"));
+        apiReader.setTransport(mockTransport);
+        //When
+        apiReader.executeGetUrl();
+        //Then
+        verify(mockTransport).release(mockConnection, true);
+        verify(mockConnection, never()).disconnect();
+    }
+
+    @Test
+    public void should_Hand_Failed_Connection_Back_To_The_Transport_As_Not_Reusable() throws IOException {
+        //Given
+        HttpTransport mockTransport = mock(HttpTransport.class);
+        when(mockTransport.open(url)).thenReturn(mockConnection);
+        when(mockConnection.getInputStream()).thenThrow(IOException.class);
+        apiReader.setTransport(mockTransport);
+        //When
+        try {
+            apiReader.executeGetUrl();
+        } catch (IOException e) {
+            //IOException should be thrown
+        } finally {
+            //Then
+            verify(mockTransport).release(mockConnection, false);
+        }
+    }
+
     @Test(expected = IOException.class)
     public void should_Throw_Exception_When_Connection_Error_On_Get_Request() throws Exception {
         //Given
@@ -195,13 +279,23 @@ public class APIReaderTest {
     }
 
     @Test
-    public void should_Return_Response_Without_Delimiters_To_Http_Post_Request() throws Exception {
+    public void should_Return_Json_Array_Response_With_Its_Delimiters_To_Http_Post_Request() throws Exception {
         //Given
-        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("[[response]]"));
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("[[\"response\"]]"));
         //When
         String response = apiReader.executePostUrl();
         //Then
-        assertThat(response, is("response"));
+        assertThat(response, is("[[\"response\"]]"));
+    }
+
+    @Test
+    public void should_Return_Multi_Line_Response_As_Comma_Separated_Lines_To_Http_Post_Request() throws Exception {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("line 1\nline 2\n"));
+        //When
+        String response = apiReader.executePostUrl();
+        //Then
+        assertThat(response, is("line 1, line 2"));
     }
 
     @Test
@@ -291,6 +385,422 @@ public class APIReaderTest {
         assertThat(response, is("response 2"));
     }
 
+    @Test
+    public void should_Return_Response_To_Async_Http_Get_Request() throws Exception {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response"));
+        //When
+        CompletableFuture<String> response = apiReader.executeGetAsync();
+        //Then
+        assertThat(response.get(), is("response"));
+        verify(mockConnection).setRequestMethod(GET_REQUEST_METHOD);
+    }
+
+    @Test
+    public void should_Return_Response_To_Async_Http_Post_Request() throws Exception {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response"));
+        //When
+        CompletableFuture<String> response = apiReader.executePostAsync();
+        //Then
+        assertThat(response.get(), is("response"));
+        verify(mockConnection).setRequestMethod(POST_REQUEST_METHOD);
+    }
+
+    @Test
+    public void should_Return_Raw_Bytes_To_Async_Http_Get_Request() throws Exception {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("[response]"));
+        //When
+        CompletableFuture<byte[]> response = apiReader.executeGetBytesAsync(null);
+        //Then
+        assertThat(new String(response.get(), "UTF-8"), is("[response]"));
+    }
+
+    @Test
+    public void should_Run_Async_Requests_On_The_Configured_Executor() throws Exception {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response"));
+        Executor mockExecutor = mock(Executor.class);
+        apiReader.setExecutor(mockExecutor);
+        //When
+        CompletableFuture<String> response = apiReader.executeGetAsync();
+        //Then
+        verify(mockExecutor).execute(any(Runnable.class));
+        assertThat(response.isDone(), is(false));
+    }
+
+    @Test
+    public void should_Complete_Exceptionally_When_Connection_Error_On_Async_Request() throws Exception {
+        //Given
+        when(mockConnection.getInputStream()).thenThrow(IOException.class);
+        apiReader.setExecutor(Runnable::run);
+        //When
+        CompletableFuture<String> response = apiReader.executeGetAsync();
+        //Then
+        try {
+            response.get();
+        } catch (ExecutionException exception) {
+            assertThat(exception.getCause(), instanceOf(IOException.class));
+        }
+        assertThat(response.isCompletedExceptionally(), is(true));
+        verify(mockConnection).disconnect();
+    }
+
+    @Test
+    public void should_Stream_Response_Body_Of_Http_Get_Request_To_Handler() throws Exception {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("[line 1]\nline 2"));
+        //When
+        String response = apiReader.executeGetUrl(null, new ResponseHandler<String>() {
+            @Override
+            public String handle(InputStream body, Charset charset) throws IOException {
+                return IOUtils.toString(body);
+            }
+        });
+        //Then
+        assertThat(response, is("[line 1]\nline 2"));
+    }
+
+    @Test
+    public void should_Stream_Response_Body_Of_Http_Post_Request_In_Chunks() throws Exception {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("line 1\nline 2"));
+        final StringBuilder chunks = new StringBuilder();
+        //When
+        apiReader.executePostUrl(null, ResponseHandlers.chunks(new ChunkListener() {
+            @Override
+            public void onChunk(char[] chunk, int length) {
+                chunks.append(chunk, 0, length);
+            }
+        }));
+        //Then
+        assertThat(chunks.toString(), is("line 1\nline 2"));
+    }
+
+    @Test
+    public void should_Hand_Partially_Read_Connection_Back_To_The_Transport_As_Not_Reusable() throws IOException {
+        //Given
+        HttpTransport mockTransport = mock(HttpTransport.class);
+        when(mockTransport.open(url)).thenReturn(mockConnection);
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response"));
+        apiReader.setTransport(mockTransport);
+        //When
+        apiReader.executeGetUrl(null, new ResponseHandler<Integer>() {
+            @Override
+            public Integer handle(InputStream body, Charset charset) throws IOException {
+                return body.read();
+            }
+        });
+        //Then
+        verify(mockTransport).release(mockConnection, false);
+    }
+
+    @Test
+    public void should_Serve_Repeated_Http_Get_Request_From_The_Response_Cache() throws IOException {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response 1"),
+                IOUtils.toInputStream("response 2"));
+        ResponseCache responseCache = new ResponseCache(1024);
+        apiReader.setResponseCache(responseCache);
+        apiReader.executeGetUrl();
+        //When
+        String response = apiReader.executeGetUrl();
+        //Then
+        assertThat(response, is("response 1"));
+        verify(mockConnection, times(1)).getInputStream();
+        assertThat(responseCache.getStats().getHits(), is(1L));
+    }
+
+    @Test
+    public void should_Bypass_The_Response_Cache_When_Asked_To() throws IOException {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response 1"),
+                IOUtils.toInputStream("response 2"));
+        apiReader.setResponseCache(new ResponseCache(1024));
+        apiReader.executeGetUrl();
+        apiReader.setCacheMode(CacheMode.BYPASS);
+        //When
+        String response = apiReader.executeGetUrl();
+        //Then
+        assertThat(response, is("response 2"));
+    }
+
+    @Test
+    public void should_Revalidate_Expired_Cached_Response_With_Its_Validators() throws IOException {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response 1"),
+                IOUtils.toInputStream(""));
+        when(mockConnection.getHeaderField("ETag")).thenReturn("\"v1\"");
+        when(mockConnection.getHeaderField("Last-Modified")).thenReturn("Sat, 17 Oct 2026 10:00:00 GMT");
+        when(mockConnection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_NOT_MODIFIED);
+        ResponseCache responseCache = new ResponseCache(1024, 0);
+        apiReader.setResponseCache(responseCache);
+        apiReader.executeGetUrl();
+        //When
+        String response = apiReader.executeGetUrl();
+        //Then
+        assertThat(response, is("response 1"));
+        verify(mockConnection).setRequestProperty("If-None-Match", "\"v1\"");
+        verify(mockConnection).setRequestProperty("If-Modified-Since", "Sat, 17 Oct 2026 10:00:00 GMT");
+        assertThat(responseCache.getStats().getRevalidations(), is(1L));
+        assertThat(responseCache.getStats().getBytesSaved(), is(10L));
+    }
+
+    @Test
+    public void should_Revalidate_With_A_Bodiless_Not_Modified_Response_Labelled_As_Gzipped() throws IOException {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(
+                new ByteArrayInputStream(gzip("response 1".getBytes(StandardCharsets.UTF_8))),
+                new ByteArrayInputStream(new byte[0]));
+        when(mockConnection.getContentEncoding()).thenReturn("gzip");
+        when(mockConnection.getHeaderField("ETag")).thenReturn("\"v1\"");
+        when(mockConnection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_NOT_MODIFIED);
+        ResponseCache responseCache = new ResponseCache(1024, 0);
+        apiReader.setResponseCache(responseCache);
+        apiReader.executeGetUrl();
+        //When
+        String response = apiReader.executeGetUrl();
+        //Then
+        assertThat(response, is("response 1"));
+        assertThat(responseCache.getStats().getRevalidations(), is(1L));
+    }
+
+    @Test
+    public void should_Replace_Expired_Cached_Response_When_It_Was_Modified() throws IOException {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response 1"),
+                IOUtils.toInputStream("response 2"));
+        when(mockConnection.getHeaderField("ETag")).thenReturn("\"v1\"", "\"v2\"");
+        when(mockConnection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        ResponseCache responseCache = new ResponseCache(1024, 0);
+        apiReader.setResponseCache(responseCache);
+        apiReader.executeGetUrl();
+        //When
+        String response = apiReader.executeGetUrl();
+        //Then
+        assertThat(response, is("response 2"));
+        assertThat(responseCache.getStats().getRevalidations(), is(0L));
+    }
+
+    @Test
+    public void should_Ask_For_Compressed_Response() throws IOException {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response"));
+        //When
+        apiReader.executeGetUrl();
+        //Then
+        verify(mockConnection).setRequestProperty("Accept-Encoding", "gzip, deflate");
+    }
+
+    @Test
+    public void should_Decompress_Gzipped_Response_And_Decode_It_With_Its_Charset() throws IOException {
+        //Given
+        byte[] gzippedResponse = gzip("caf\u00e9 m\u00fcsli".getBytes(StandardCharsets.ISO_8859_1));
+        when(mockConnection.getInputStream()).thenReturn(new ByteArrayInputStream(gzippedResponse));
+        when(mockConnection.getContentEncoding()).thenReturn("gzip");
+        when(mockConnection.getContentType()).thenReturn("text/xml; charset=ISO-8859-1");
+        TransferMeter transferMeter = new TransferMeter();
+        apiReader.setTransferMeter(transferMeter);
+        //When
+        String response = apiReader.executeGetUrl();
+        //Then
+        assertThat(response, is("caf\u00e9 m\u00fcsli"));
+        TransferStats transferStats = transferMeter.getStats(url);
+        assertThat(transferStats.getRawBytes(), is((long) gzippedResponse.length));
+        assertThat(transferStats.getDecodedBytes(), is(10L));
+    }
+
+    @Test
+    public void should_Hand_Fully_Read_Gzipped_Connection_Back_To_The_Transport_As_Reusable() throws IOException {
+        //Given
+        HttpTransport mockTransport = mock(HttpTransport.class);
+        when(mockTransport.open(url)).thenReturn(mockConnection);
+        when(mockConnection.getInputStream()).thenReturn(new ByteArrayInputStream(gzip("response".getBytes(StandardCharsets.UTF_8))));
+        when(mockConnection.getContentEncoding()).thenReturn("gzip");
+        apiReader.setTransport(mockTransport);
+        //When
+        apiReader.executeGetUrl();
+        //Then
+        verify(mockTransport).release(mockConnection, true);
+    }
+
+    @Test
+    public void should_Apply_Timeouts_And_Retry_Failed_Http_Get_Request() throws IOException {
+        //Given
+        when(mockConnection.getInputStream()).thenThrow(new SocketTimeoutException("Read timed out"))
+                .thenReturn(IOUtils.toInputStream("response"));
+        ResiliencePolicy resiliencePolicy = new ResiliencePolicy().setConnectTimeout(2000).setReadTimeout(5000)
+                .setBackoff(1, 1);
+        apiReader.setResiliencePolicy(resiliencePolicy);
+        //When
+        String response = apiReader.executeGetUrl();
+        //Then
+        assertThat(response, is("response"));
+        verify(mockConnection, times(2)).setConnectTimeout(2000);
+        verify(mockConnection, times(2)).setReadTimeout(5000);
+        assertThat(resiliencePolicy.getMetrics().getRetries(), is(1L));
+    }
+
+    @Test
+    public void should_Cut_Off_A_Body_Still_Coming_In_When_The_Deadline_Passes() throws IOException {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(new InputStream() {
+            @Override
+            public int read() {
+                sleep(20);
+                return 'x';
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                // a byte at a time, as from a slow provider
+                buffer[offset] = (byte) read();
+                return 1;
+            }
+        });
+        apiReader.setResiliencePolicy(new ResiliencePolicy().setReadTimeout(5000).setDeadline(100).setBackoff(1, 1));
+        long startedAt = System.currentTimeMillis();
+        try {
+            //When
+            apiReader.executeGetUrl();
+            fail("Expected the deadline to cut off the body");
+        } catch (DeadlineExceededException expected) {
+            //Then
+            assertThat(System.currentTimeMillis() - startedAt, lessThan(1000L));
+            verify(mockConnection, times(1)).getInputStream();
+        }
+    }
+
+    @Test
+    public void should_Retry_Server_Error_Status_But_Not_Client_Error_Status() throws IOException {
+        //Given
+        when(mockConnection.getResponseCode()).thenReturn(503, 200, 403);
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response"));
+        apiReader.setResiliencePolicy(new ResiliencePolicy().setBackoff(1, 1));
+        //When
+        String response = apiReader.executeGetUrl();
+        //Then
+        assertThat(response, is("response"));
+        try {
+            apiReader.executeGetUrl();
+            fail("Expected the client error status");
+        } catch (HttpStatusException expected) {
+            assertThat(expected.getResponseCode(), is(403));
+            verify(mockConnection, times(3)).getResponseCode();
+            verify(mockConnection, times(1)).getInputStream();
+        }
+    }
+
+    @Test
+    public void should_Not_Retry_A_Response_Body_Which_Cannot_Be_Parsed() throws IOException {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("<html>maintenance</html>"));
+        apiReader.setResiliencePolicy(new ResiliencePolicy().setBackoff(1, 1));
+        try {
+            //When
+            apiReader.executeGetUrl(null, JsonBinding.of(HashMap::new).handler());
+            fail("Expected the body not to be JSON");
+        } catch (JsonBindingException expected) {
+            //Then
+            verify(mockConnection, times(1)).getInputStream();
+        }
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void should_Not_Retry_Failed_Http_Post_Request() throws IOException {
+        //Given
+        when(mockConnection.getInputStream()).thenThrow(new SocketTimeoutException("Read timed out"))
+                .thenReturn(IOUtils.toInputStream("response"));
+        apiReader.setResiliencePolicy(new ResiliencePolicy().setBackoff(1, 1));
+        //When
+        apiReader.executePostUrl();
+    }
+
+    @Test
+    public void should_Fail_Fast_Without_Connecting_Once_The_Circuit_Is_Open() throws IOException {
+        //Given
+        HttpTransport mockTransport = mock(HttpTransport.class);
+        when(mockTransport.open(url)).thenReturn(mockConnection);
+        when(mockConnection.getInputStream()).thenThrow(new IOException("Connection reset"));
+        apiReader.setTransport(mockTransport)
+                .setProviderIsolation(new ProviderIsolation(() -> new CircuitBreaker().setWindow(1, 1), 10, 0));
+        try {
+            apiReader.executeGetUrl();
+            fail("Expected the failure of the provider");
+        } catch (IOException expected) {
+            // the failure opens the circuit
+        }
+        //When
+        try {
+            apiReader.executeGetUrl();
+            fail("Expected the circuit to be open");
+        } catch (CircuitOpenException expected) {
+            //Then
+            verify(mockTransport, times(1)).open(url);
+        }
+    }
+
+    @Test
+    public void should_Refuse_Request_Once_The_Provider_Asks_To_Retry_Later() throws IOException {
+        //Given
+        HttpTransport mockTransport = mock(HttpTransport.class);
+        when(mockTransport.open(url)).thenReturn(mockConnection);
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response"));
+        when(mockConnection.getHeaderField("Retry-After")).thenReturn("60");
+        apiReader.setTransport(mockTransport)
+                .setRateLimiter(new RateLimiter(RateLimiter.Mode.FAIL_FAST, 0, 100, 10));
+        apiReader.executeGetUrl();
+        try {
+            //When
+            apiReader.executeGetUrl();
+            fail("Expected the provider quota to be exceeded");
+        } catch (RateLimitExceededException expected) {
+            //Then
+            verify(mockTransport, times(1)).open(url);
+        }
+    }
+
+    @Test
+    public void should_Share_One_Call_Between_Identical_Concurrent_Http_Get_Requests() throws Exception {
+        //Given
+        final CountDownLatch connected = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(mockConnection.getInputStream()).thenAnswer(invocation -> {
+            connected.countDown();
+            release.await();
+            return IOUtils.toInputStream("response");
+        });
+        SingleFlight singleFlight = new SingleFlight();
+        apiReader.setSingleFlight(singleFlight);
+        CompletableFuture<String> leader = apiReader.executeGetAsync();
+        connected.await();
+        CompletableFuture<String> follower = apiReader.executeGetAsync();
+        while (singleFlight.getWaiting() == 0) {
+            Thread.sleep(1);
+        }
+        //When
+        release.countDown();
+        //Then
+        assertThat(leader.get(), is("response"));
+        assertThat(follower.get(), is("response"));
+        verify(mockConnection, times(1)).getInputStream();
+        assertThat(singleFlight.getCoalesced(), is(1L));
+    }
+
+    @Test
+    public void should_Stream_Http_Get_Response_To_Its_Handler_Without_Sharing_It_When_Not_Cached() throws Exception {
+        //Given
+        when(mockConnection.getInputStream()).thenReturn(IOUtils.toInputStream("response"));
+        SingleFlight singleFlight = new SingleFlight();
+        apiReader.setSingleFlight(singleFlight);
+        //When
+        InputStream body = apiReader.executeGetUrl(null, (responseBody, charset) -> responseBody);
+        //Then
+        assertThat(body, is(instanceOf(ResponseBodyInputStream.class)));
+        assertThat(singleFlight.getExecuted(), is(0L));
+    }
+
     private Map<String, String> createProperties() {
         Map<String, String> properties = new HashMap<>();
         String propertyKey1 = "propertyKey1";
@@ -311,4 +821,20 @@ public class APIReaderTest {
         };
     }
 
-}
\ No newline at end of file
+    private byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream gzippedBody = new ByteArrayOutputStream();
+        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(gzippedBody);
+        gzipOutputStream.write(body);
+        gzipOutputStream.close();
+        return gzippedBody.toByteArray();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
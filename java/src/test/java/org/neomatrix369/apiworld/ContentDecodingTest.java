@@ -0,0 +1,109 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ContentDecodingTest {
+
+    private static final byte[] BODY = "<rss><channel><title>Muzu</title></channel></rss>".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void should_Leave_Uncompressed_Body_As_It_Is() throws IOException {
+        //Given
+        InputStream rawBody = new ByteArrayInputStream(BODY);
+        //When
+        InputStream decodedBody = ContentDecoding.decode(rawBody, null);
+        //Then
+        assertThat(decodedBody, is(sameInstance(rawBody)));
+        assertThat(ContentDecoding.decode(rawBody, "identity"), is(sameInstance(rawBody)));
+    }
+
+    @Test
+    public void should_Leave_Empty_Compressed_Body_Empty() throws IOException {
+        //When
+        InputStream gzippedBody = ContentDecoding.decode(new ByteArrayInputStream(new byte[0]), "gzip");
+        InputStream deflatedBody = ContentDecoding.decode(new ByteArrayInputStream(new byte[0]), "deflate");
+        //Then
+        assertThat(gzippedBody.read(), is(-1));
+        assertThat(deflatedBody.read(), is(-1));
+    }
+
+    @Test
+    public void should_Inflate_Zlib_Wrapped_Deflate_Body() throws IOException {
+        //Given
+        byte[] deflatedBody = deflate(BODY, false);
+        //When
+        InputStream decodedBody = ContentDecoding.decode(new ByteArrayInputStream(deflatedBody), "deflate");
+        //Then
+        assertThat(IOUtils.toByteArray(decodedBody), is(BODY));
+    }
+
+    @Test
+    public void should_Inflate_Raw_Deflate_Body() throws IOException {
+        //Given
+        byte[] deflatedBody = deflate(BODY, true);
+        //When
+        InputStream decodedBody = ContentDecoding.decode(new ByteArrayInputStream(deflatedBody), "Deflate");
+        //Then
+        assertThat(IOUtils.toByteArray(decodedBody), is(BODY));
+    }
+
+    @Test
+    public void should_Read_Charset_From_Content_Type() {
+        assertThat(ContentDecoding.declaredCharsetOf("text/xml; charset=ISO-8859-1"), is(StandardCharsets.ISO_8859_1));
+        assertThat(ContentDecoding.declaredCharsetOf("application/json;Charset=\"utf-16\";q=1"),
+                is(StandardCharsets.UTF_16));
+    }
+
+    @Test
+    public void should_Not_Declare_A_Charset_Without_A_Known_One() {
+        assertThat(ContentDecoding.declaredCharsetOf(null), is(nullValue()));
+        assertThat(ContentDecoding.declaredCharsetOf("application/json"), is(nullValue()));
+        assertThat(ContentDecoding.declaredCharsetOf("text/xml; charset=klingon"), is(nullValue()));
+    }
+
+    private byte[] deflate(byte[] body, boolean raw) throws IOException {
+        ByteArrayOutputStream deflatedBody = new ByteArrayOutputStream();
+        DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(deflatedBody,
+                new Deflater(Deflater.DEFAULT_COMPRESSION, raw));
+        deflaterOutputStream.write(body);
+        deflaterOutputStream.close();
+        return deflatedBody.toByteArray();
+    }
+
+}
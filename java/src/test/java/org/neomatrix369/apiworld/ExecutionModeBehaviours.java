@@ -0,0 +1,60 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.junit.Test;
+
+/**
+ * Queues a thousand calls blocked on a slow provider behind the bounded pool
+ * of {@link ExecutionMode#PLATFORM_THREADS}, too slow for the unit tests, see
+ * {@link ExecutionModeLoadTest}.
+ */
+public class ExecutionModeBehaviours {
+
+    private static final int PLATFORM_THREADS_CONCURRENT_CALLS = 1000;
+
+    @Test
+    public void should_Complete_Concurrent_Blocking_Calls_On_The_Bounded_Platform_Threads() throws Exception {
+        //Given
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        int threadsBefore = threads.getThreadCount();
+        // the calls run in waves of as many as the pool has threads
+        long waves = (PLATFORM_THREADS_CONCURRENT_CALLS + ExecutionMode.PLATFORM_THREADS_MAX - 1)
+                / ExecutionMode.PLATFORM_THREADS_MAX;
+        //When
+        long elapsedMillis = ExecutionModeLoadTest.runConcurrentCalls(ExecutionMode.PLATFORM_THREADS,
+                PLATFORM_THREADS_CONCURRENT_CALLS);
+        //Then
+        assertThat(elapsedMillis, lessThan(2 * waves * ExecutionModeLoadTest.PROVIDER_LATENCY_MILLIS));
+        assertThat(threads.getPeakThreadCount() - threadsBefore, lessThanOrEqualTo(ExecutionMode.PLATFORM_THREADS_MAX));
+    }
+
+}
@@ -0,0 +1,146 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.neomatrix369.apiworld.transport.HttpTransport;
+
+/**
+ * Load test for the execution modes: many calls blocked on slow providers at
+ * the same time, as when fanning out to every provider. The platform threads
+ * counterpart queues a thousand calls behind the bounded pool of
+ * {@link ExecutionMode#PLATFORM_THREADS} and runs with the behaviours, see
+ * {@link ExecutionModeBehaviours}.
+ */
+public class ExecutionModeLoadTest {
+
+    static final long PROVIDER_LATENCY_MILLIS = 200;
+    private static final int VIRTUAL_THREADS_CONCURRENT_CALLS = 20000;
+    private static final int MAX_PLATFORM_THREADS_STARTED = 1000;
+
+    @Test
+    public void should_Bound_The_Platform_Threads_And_Run_Calls_On_The_Caller_When_Saturated() {
+        //When
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ExecutionMode.PLATFORM_THREADS.executor();
+        //Then
+        assertThat(executor.getMaximumPoolSize(), is(ExecutionMode.PLATFORM_THREADS_MAX));
+        assertThat(executor.getQueue().size() + executor.getQueue().remainingCapacity(),
+                is(ExecutionMode.PLATFORM_THREADS_QUEUED_CALLS));
+        assertThat(executor.getRejectedExecutionHandler(), is(instanceOf(ThreadPoolExecutor.CallerRunsPolicy.class)));
+    }
+
+    @Test
+    public void should_Complete_Tens_Of_Thousands_Of_Concurrent_Blocking_Calls_On_Virtual_Threads() throws Exception {
+        //Given
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        int platformThreadsBefore = threads.getThreadCount();
+        //When
+        long elapsedMillis = runConcurrentCalls(ExecutionMode.VIRTUAL_THREADS, VIRTUAL_THREADS_CONCURRENT_CALLS);
+        //Then
+        assertThat(elapsedMillis, lessThan(TimeUnit.SECONDS.toMillis(30)));
+        assertThat(threads.getPeakThreadCount() - platformThreadsBefore, lessThan(MAX_PLATFORM_THREADS_STARTED));
+    }
+
+    static long runConcurrentCalls(ExecutionMode executionMode, int concurrentCalls) throws Exception {
+        APIReader apiReader = new APIReader(new URL("http://www.muzu.tv/api/search"))
+                .setTransport(new SlowProviderTransport())
+                .setExecutionMode(executionMode);
+
+        long startedAt = System.nanoTime();
+        List<CompletableFuture<String>> responses = new ArrayList<>(concurrentCalls);
+        for (int call = 0; call < concurrentCalls; call++) {
+            responses.add(apiReader.executeGetAsync());
+        }
+        for (CompletableFuture<String> each : responses) {
+            assertThat(each.get(1, TimeUnit.MINUTES), is("yello"));
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    private static class SlowProviderTransport implements HttpTransport {
+
+        @Override
+        public HttpURLConnection open(URL url) {
+            return new HttpURLConnection(url) {
+                @Override
+                public int getResponseCode() {
+                    return HTTP_OK;
+                }
+
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    try {
+                        Thread.sleep(PROVIDER_LATENCY_MILLIS);
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                    return new ByteArrayInputStream("yello".getBytes(StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public String getHeaderField(String name) {
+                    return null;
+                }
+
+                @Override
+                public void connect() {
+                }
+
+                @Override
+                public void disconnect() {
+                }
+
+                @Override
+                public boolean usingProxy() {
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public void release(HttpURLConnection connection, boolean reusable) {
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ResponseAssemblerTest {
+
+    @Test
+    public void should_Return_Empty_Response_For_Empty_Body() throws IOException {
+        assertThat(assemble(""), is(""));
+    }
+
+    @Test
+    public void should_Return_Single_Line_Body_As_Is() throws IOException {
+        assertThat(assemble("{\"stat\":\"ok\"}"), is("{\"stat\":\"ok\"}"));
+    }
+
+    @Test
+    public void should_Join_Lines_With_Comma_Separator() throws IOException {
+        assertThat(assemble("line 1\nline 2\nline 3"), is("line 1, line 2, line 3"));
+    }
+
+    @Test
+    public void should_Treat_Carriage_Return_And_Line_Feed_As_One_Line_Terminator() throws IOException {
+        assertThat(assemble("line 1\r\nline 2\rline 3"), is("line 1, line 2, line 3"));
+    }
+
+    @Test
+    public void should_Keep_Empty_Lines() throws IOException {
+        assertThat(assemble("\nline 1\n\r\n\nline 2"), is(", line 1, , , line 2"));
+    }
+
+    @Test
+    public void should_Drop_Trailing_Line_Terminator() throws IOException {
+        assertThat(assemble("line 1\nline 2\r\n"), is("line 1, line 2"));
+    }
+
+    @Test
+    public void should_Keep_Delimiters_Of_Nested_Json_Arrays() throws IOException {
+        assertThat(assemble("[[[1, 2], [3]]]"), is("[[[1, 2], [3]]]"));
+    }
+
+    @Test
+    public void should_Keep_Multi_Line_Json_Object_Verbatim() throws IOException {
+        String body = "{\n  \"stat\": \"ok\",\r\n  \"photos\": [\n    1,\n    2\n  ]\n}\n";
+        assertThat(assemble(body), is(body));
+    }
+
+    @Test
+    public void should_Keep_Multi_Line_Json_Array_After_Leading_Whitespace_Verbatim() throws IOException {
+        String body = "\n  [\n    \"line 1\",\n    \"line 2\"\n  ]";
+        assertThat(assemble(body), is(body));
+    }
+
+    @Test
+    public void should_Join_Lines_Spanning_Several_Buffers() throws IOException {
+        StringBuilder body = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int lineCounter = 0; lineCounter < 5000; lineCounter++) {
+            String line = "line " + lineCounter;
+            body.append(line).append("\r\n");
+            expected.append(lineCounter == 0 ? "" : ", ").append(line);
+        }
+        assertThat(assemble(body.toString()), is(expected.toString()));
+    }
+
+    private String assemble(String body) throws IOException {
+        return ResponseAssembler.assemble(new StringReader(body));
+    }
+
+}
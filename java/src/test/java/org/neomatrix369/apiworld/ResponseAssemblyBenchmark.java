@@ -0,0 +1,118 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import org.neomatrix369.apiworld.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single pass {@link ResponseAssembler} with the previous
+ * list-to-string and bracket stripping response assembly, for a 1 KB, 1 MB
+ * and 50 MB multi-line body wrapped in nested JSON arrays.
+ * <p/>
+ * Run from the IDE or with
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.neomatrix369.apiworld.ResponseAssemblyBenchmark</code>,
+ * add <code>-prof gc</code> to the JMH options to see the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ResponseAssemblyBenchmark {
+
+    private static final int NESTING_DEPTH = 8;
+    private static final String LINE = "{\"id\":\"12345678901\",\"title\":\"MUZU Music Videos\",\"stat\":\"ok\"},";
+
+    @Param({"1024", "1048576", "52428800"})
+    private int bodySize;
+
+    private String body;
+
+    @Setup
+    public void createBody() {
+        StringBuilder nestedArray = new StringBuilder(bodySize + LINE.length());
+        for (int depth = 0; depth < NESTING_DEPTH; depth++) {
+            nestedArray.append('[');
+        }
+        nestedArray.append('\n');
+        while (nestedArray.length() < bodySize - NESTING_DEPTH) {
+            nestedArray.append(LINE).append('\n');
+        }
+        for (int depth = 0; depth < NESTING_DEPTH; depth++) {
+            nestedArray.append(']');
+        }
+        body = nestedArray.toString();
+    }
+
+    @Benchmark
+    public String previousAssembly() throws IOException {
+        String result = readLines(new StringReader(body)).toString();
+        while (result.startsWith(Utils.OPENING_BOX_BRACKET) && result.endsWith(Utils.CLOSING_BOX_BRACKET)) {
+            result = Utils.dropStartAndEndDelimiters(result);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public String singlePassAssembly() throws IOException {
+        return ResponseAssembler.assemble(new StringReader(body));
+    }
+
+    private List<String> readLines(StringReader reader) throws IOException {
+        BufferedReader httpResponse = new BufferedReader(reader);
+        List<String> response = new ArrayList<String>();
+        String inputLine;
+        while ((inputLine = httpResponse.readLine()) != null) {
+            response.add(inputLine);
+        }
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResponseAssemblyBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
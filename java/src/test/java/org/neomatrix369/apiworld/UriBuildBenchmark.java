@@ -0,0 +1,92 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import org.neomatrix369.apiworld.exception.APIKeyNotAssignedException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building a Muzu browse URL with a fresh {@link UriBuilder} per call
+ * against expanding a {@link UriTemplate} compiled once.
+ * <p/>
+ * Run from the IDE or with
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.neomatrix369.apiworld.UriBuildBenchmark</code>;
+ * the gc profiler is enabled to report the bytes allocated per build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UriBuildBenchmark {
+
+    private static final String BASE_URL = "http://www.muzu.tv/api/";
+    private static final String GENRE = "pop";
+    private static final String ALPHA_FILTER = "b";
+    private static final String LENGTH = "1000";
+
+    private UriTemplate uriTemplate;
+
+    @Setup
+    public void compileTemplate() throws APIKeyNotAssignedException {
+        uriTemplate = new UriBuilder(BASE_URL).setCommand("browse").setAPIKey("muzuid", "ANY_KEY")
+                .compile("g", "af", "l");
+    }
+
+    @Benchmark
+    public String uriBuilder() throws APIKeyNotAssignedException {
+        UriBuilder uriBuilder = new UriBuilder(BASE_URL).setCommand("browse").setAPIKey("muzuid", "ANY_KEY");
+        uriBuilder.addUrlParameter("g", GENRE);
+        uriBuilder.addUrlParameter("af", ALPHA_FILTER);
+        uriBuilder.addUrlParameter("l", LENGTH);
+        uriBuilder.build();
+        return uriBuilder.getFinalURL();
+    }
+
+    @Benchmark
+    public String uriTemplate() {
+        return uriTemplate.expand(GENRE, ALPHA_FILTER, LENGTH);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UriBuildBenchmark.class.getSimpleName()).addProfiler("gc").build())
+                .run();
+    }
+
+}
@@ -127,6 +127,17 @@ public class UriBuilderTest {
         assertThat(actual, is(expected));
     }
 
+    @Test
+    public void should_Return_URL_Without_API_Key_When_No_API_Key_Required_Is_Set() throws APIKeyNotAssignedException {
+        uriBuilder.setCommand(API_BROWSE_COMMAND);
+        uriBuilder.setNoAPIKeyRequired();
+        uriBuilder.addUrlParameter("key1", "value1");
+        uriBuilder.build();
+        String actual = uriBuilder.getFinalURL();
+        String expected = "http://www.muzu.tv/api/browse?&key1=value1";
+        assertThat(actual, is(expected));
+    }
+
     @Test
     public void should_Return_URL_With_Encoded_Param() throws APIKeyNotAssignedException {
         uriBuilder.setCommand(API_BROWSE_COMMAND);
@@ -0,0 +1,95 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neomatrix369.apiworld.exception.APIKeyNotAssignedException;
+import org.neomatrix369.apiworld.util.PercentEncoder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class UriTemplateTest {
+    private static final String MUZU_URL_WITH_BROWSE_AND_MUZU_ID = "http://www.muzu.tv/api/browse?muzuid=ANY_KEY";
+
+    private UriBuilder uriBuilder;
+
+    @Before
+    public void setup() {
+        uriBuilder = new UriBuilder("http://www.muzu.tv/api/").setCommand("browse").setAPIKey("muzuid", "ANY_KEY");
+    }
+
+    @Test
+    public void should_Expand_Values_In_The_Order_Of_The_Parameter_Names() throws APIKeyNotAssignedException {
+        UriTemplate uriTemplate = uriBuilder.compile("g", "l");
+        assertThat(uriTemplate.expand("pop", "100"), is(MUZU_URL_WITH_BROWSE_AND_MUZU_ID + "&g=pop&l=100"));
+        assertThat(uriTemplate.expand("rock", "200"), is(MUZU_URL_WITH_BROWSE_AND_MUZU_ID + "&g=rock&l=200"));
+    }
+
+    @Test
+    public void should_Keep_Fixed_Parameters_Ahead_Of_Variable_Ones() throws APIKeyNotAssignedException {
+        uriBuilder.addUrlParameter("format", "rss");
+        UriTemplate uriTemplate = uriBuilder.compile("g");
+        assertThat(uriTemplate.expand("pop"), is(MUZU_URL_WITH_BROWSE_AND_MUZU_ID + "&format=rss&g=pop"));
+    }
+
+    @Test
+    public void should_Skip_Parameters_With_Null_Values() throws APIKeyNotAssignedException {
+        UriTemplate uriTemplate = uriBuilder.compile("g", "af", "l");
+        assertThat(uriTemplate.expand("pop", null, "100"), is(MUZU_URL_WITH_BROWSE_AND_MUZU_ID + "&g=pop&l=100"));
+    }
+
+    @Test
+    public void should_Expand_To_The_Same_URL_As_The_Builder() throws APIKeyNotAssignedException {
+        UriTemplate uriTemplate = uriBuilder.compile("key1", "key2");
+        uriBuilder.addUrlParameter("key1", "value1");
+        uriBuilder.addUrlParameter("key2", "value2");
+        uriBuilder.build();
+        assertThat(uriTemplate.expand("value1", "value2"), is(uriBuilder.getFinalURL()));
+    }
+
+    @Test
+    public void should_Encode_Values_While_Expanding() throws APIKeyNotAssignedException {
+        UriTemplate uriTemplate = uriBuilder.compile("mySearch");
+        assertThat(uriTemplate.expand(PercentEncoder.FORM, "the script & co"),
+                is(MUZU_URL_WITH_BROWSE_AND_MUZU_ID + "&mySearch=the+script+%26+co"));
+    }
+
+    @Test
+    public void should_Expose_Parameter_Names() throws APIKeyNotAssignedException {
+        assertThat(uriBuilder.compile("g", "l").getParameterNames(), contains("g", "l"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_Return_Exception_When_Number_Of_Values_Does_Not_Match() throws APIKeyNotAssignedException {
+        uriBuilder.compile("g", "l").expand("pop");
+    }
+
+    @Test(expected = APIKeyNotAssignedException.class)
+    public void should_Return_Exception_When_Compiled_Without_API_Key() throws APIKeyNotAssignedException {
+        new UriBuilder("http://www.muzu.tv/api/").setCommand("browse").compile("g");
+    }
+
+}
@@ -0,0 +1,189 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class DiskResponseCacheTest {
+
+    private static final Charset UTF_8 = StandardCharsets.UTF_8;
+    private static final String ARTIST_URL = "http://www.muzu.tv/api/artist/details/?aname=yello";
+    private static final String BROWSE_URL = "http://www.muzu.tv/api/browse?g=pop";
+    private static final long IN_AN_HOUR = System.currentTimeMillis() + 3600000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+    private DiskResponseCache diskCache;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = temporaryFolder.newFolder("cache");
+        diskCache = new DiskResponseCache(directory, 4, 64);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        diskCache.close();
+    }
+
+    @Test
+    public void should_Return_Cached_Response_After_Reopening_The_Cache() throws IOException {
+        //Given
+        diskCache.put(ARTIST_URL, response("yello", IN_AN_HOUR, "\"v1\""));
+        diskCache.close();
+        //When
+        diskCache = new DiskResponseCache(directory, 4, 64);
+        CachedResponse cachedResponse = diskCache.get(ARTIST_URL);
+        //Then
+        assertThat(new String(cachedResponse.getBody(), UTF_8), is("yello"));
+        assertThat(cachedResponse.getCharset(), is(UTF_8));
+        assertThat(cachedResponse.getExpiresAt(), is(IN_AN_HOUR));
+        assertThat(cachedResponse.getEntityTag(), is("\"v1\""));
+        assertThat(diskCache.get(BROWSE_URL), is(nullValue()));
+    }
+
+    @Test
+    public void should_Return_Latest_Response_And_Updated_Expiry() throws IOException {
+        //Given
+        diskCache.put(ARTIST_URL, response("yello 1", IN_AN_HOUR, null));
+        diskCache.put(ARTIST_URL, response("yello 2", IN_AN_HOUR, null));
+        //When
+        diskCache.updateExpiry(ARTIST_URL, IN_AN_HOUR + 1);
+        CachedResponse cachedResponse = diskCache.get(ARTIST_URL);
+        //Then
+        assertThat(new String(cachedResponse.getBody(), UTF_8), is("yello 2"));
+        assertThat(cachedResponse.getExpiresAt(), is(IN_AN_HOUR + 1));
+    }
+
+    @Test
+    public void should_Grow_The_Index_Beyond_Its_Initial_Capacity() throws IOException {
+        //Given
+        for (int i = 0; i < 50; i++) {
+            diskCache.put(BROWSE_URL + i, response("pop " + i, IN_AN_HOUR, null));
+        }
+        //When
+        diskCache.invalidate(BROWSE_URL + 7);
+        //Then
+        for (int i = 0; i < 50; i++) {
+            CachedResponse cachedResponse = diskCache.get(BROWSE_URL + i);
+            if (i == 7) {
+                assertThat(cachedResponse, is(nullValue()));
+            } else {
+                assertThat(new String(cachedResponse.getBody(), UTF_8), is("pop " + i));
+            }
+        }
+    }
+
+    @Test
+    public void should_Reclaim_Overwritten_And_Expired_Responses_On_Compaction() throws IOException {
+        //Given
+        for (int i = 0; i < 20; i++) {
+            diskCache.put(ARTIST_URL, response("yello " + i, IN_AN_HOUR, null));
+        }
+        diskCache.put(BROWSE_URL, response("pop", 0, null));
+        long sizeBeforeCompaction = diskCache.getSizeInBytes();
+        //When
+        diskCache.compact();
+        //Then
+        assertThat(diskCache.getSizeInBytes(), is(lessThan(sizeBeforeCompaction / 10)));
+        assertThat(new String(diskCache.get(ARTIST_URL).getBody(), UTF_8), is("yello 19"));
+        assertThat(diskCache.get(BROWSE_URL), is(nullValue()));
+    }
+
+    @Test
+    public void should_Keep_Expired_Response_With_Validators_On_Compaction() throws IOException {
+        //Given
+        diskCache.put(ARTIST_URL, response("yello", 0, "\"v1\""));
+        //When
+        diskCache.compact();
+        //Then
+        assertThat(diskCache.get(ARTIST_URL), is(notNullValue()));
+    }
+
+    @Test
+    public void should_Warm_Up_Response_Cache_From_Disk() throws IOException {
+        //Given
+        new ResponseCache(1024).setDiskCache(diskCache)
+                .put(ARTIST_URL, ARTIST_URL, "yello".getBytes(UTF_8), UTF_8, false);
+        ResponseCache restartedCache = new ResponseCache(1024).setDiskCache(diskCache);
+        //When
+        CachedResponse cachedResponse = restartedCache.get(ARTIST_URL);
+        //Then
+        assertThat(new String(cachedResponse.getBody(), UTF_8), is("yello"));
+        assertThat(restartedCache.getStats().getEntries(), is(1));
+    }
+
+    @Test
+    public void should_Keep_Compacting_After_A_Compaction_Fails() throws Exception {
+        //Given
+        diskCache.close();
+        final AtomicInteger compactions = new AtomicInteger();
+        final CountDownLatch secondCompaction = new CountDownLatch(1);
+        diskCache = new DiskResponseCache(directory, 4, 64) {
+            @Override
+            public synchronized void compact() throws IOException {
+                if (compactions.incrementAndGet() == 1) {
+                    throw new IOException("disk full");
+                }
+                super.compact();
+                secondCompaction.countDown();
+            }
+        };
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            //When
+            diskCache.scheduleCompaction(scheduler, 10, TimeUnit.MILLISECONDS);
+            //Then
+            assertThat(secondCompaction.await(5, TimeUnit.SECONDS), is(true));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private CachedResponse response(String body, long expiresAt, String entityTag) {
+        return new CachedResponse(body.getBytes(UTF_8), UTF_8, expiresAt, false, entityTag, null);
+    }
+
+}
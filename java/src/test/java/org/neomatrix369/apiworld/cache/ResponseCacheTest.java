@@ -0,0 +1,191 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ResponseCacheTest {
+
+    private static final Charset UTF_8 = StandardCharsets.UTF_8;
+    private static final int MAX_SIZE_IN_BYTES = 10;
+    private static final String ARTIST_URL = "http://www.muzu.tv/api/artist/details/?aname=yello";
+    private static final String BROWSE_URL = "http://www.muzu.tv/api/browse?g=pop";
+    private static final String SEARCH_URL = "http://www.muzu.tv/api/search?mySearch=beyonce";
+
+    private ResponseCache responseCache;
+
+    @Before
+    public void setUp() {
+        responseCache = new ResponseCache(MAX_SIZE_IN_BYTES);
+    }
+
+    @Test
+    public void should_Return_Fresh_Cached_Response_And_Count_Hits_And_Misses() {
+        //Given
+        assertThat(responseCache.get(ARTIST_URL), is(nullValue()));
+        responseCache.put(ARTIST_URL, ARTIST_URL, bytes("yello"), UTF_8, false);
+        //When
+        CachedResponse cachedResponse = responseCache.get(ARTIST_URL);
+        //Then
+        assertThat(new String(cachedResponse.getBody(), UTF_8), is("yello"));
+        assertThat(responseCache.getStats().getHits(), is(1L));
+        assertThat(responseCache.getStats().getMisses(), is(1L));
+    }
+
+    @Test
+    public void should_Not_Return_Expired_Response() {
+        //Given
+        responseCache.setTimeToLive("http://www.muzu.tv/api/artist/", 0);
+        responseCache.put(ARTIST_URL, ARTIST_URL, bytes("yello"), UTF_8, false);
+        //When
+        CachedResponse cachedResponse = responseCache.get(ARTIST_URL);
+        //Then
+        assertThat(cachedResponse, is(nullValue()));
+    }
+
+    @Test
+    public void should_Return_Expired_Response_With_Validators_For_Revalidation() {
+        //Given
+        responseCache.setTimeToLive("http://www.muzu.tv/api/", 0);
+        responseCache.put(ARTIST_URL, ARTIST_URL, bytes("yello"), UTF_8, false, "\"v1\"", null);
+        responseCache.put(BROWSE_URL, BROWSE_URL, bytes("pop"), UTF_8, false);
+        //When
+        CachedResponse staleResponse = responseCache.getForRevalidation(ARTIST_URL);
+        //Then
+        assertThat(staleResponse.getEntityTag(), is("\"v1\""));
+        assertThat(responseCache.getForRevalidation(BROWSE_URL), is(nullValue()));
+    }
+
+    @Test
+    public void should_Refresh_Revalidated_Response_And_Count_Bytes_Saved() {
+        //Given
+        responseCache.setTimeToLive("http://www.muzu.tv/api/", 0);
+        responseCache.put(ARTIST_URL, ARTIST_URL, bytes("yello"), UTF_8, false, null, "Sat, 17 Oct 2026 10:00:00 GMT");
+        CachedResponse staleResponse = responseCache.getForRevalidation(ARTIST_URL);
+        responseCache.setTimeToLive("http://www.muzu.tv/api/", 60000);
+        //When
+        responseCache.revalidated(ARTIST_URL, ARTIST_URL, staleResponse);
+        //Then
+        assertThat(new String(responseCache.get(ARTIST_URL).getBody(), UTF_8), is("yello"));
+        assertThat(responseCache.getStats().getRevalidations(), is(1L));
+        assertThat(responseCache.getStats().getBytesSaved(), is(5L));
+        assertThat(responseCache.getStats().getSizeInBytes(), is(5L));
+    }
+
+    @Test
+    public void should_Evict_To_Fit_A_Revalidated_Response_Evicted_Meanwhile() {
+        //Given
+        responseCache.setTimeToLive("http://www.muzu.tv/api/artist/", 0);
+        responseCache.put(ARTIST_URL, ARTIST_URL, bytes("yello"), UTF_8, false, "\"v1\"", null);
+        CachedResponse staleResponse = responseCache.getForRevalidation(ARTIST_URL);
+        responseCache.put(BROWSE_URL, BROWSE_URL, bytes("12345678"), UTF_8, false);
+        responseCache.setTimeToLive("http://www.muzu.tv/api/artist/", 60000);
+        //When
+        responseCache.revalidated(ARTIST_URL, ARTIST_URL, staleResponse);
+        //Then
+        assertThat(responseCache.get(ARTIST_URL), is(notNullValue()));
+        assertThat(responseCache.get(BROWSE_URL), is(nullValue()));
+        assertThat(responseCache.getStats().getSizeInBytes(), is(5L));
+    }
+
+    @Test
+    public void should_Use_Time_To_Live_Of_The_Longest_Matching_Endpoint() {
+        //Given
+        responseCache.setTimeToLive("http://www.muzu.tv/api/", 1000);
+        responseCache.setTimeToLive("http://www.muzu.tv/api/artist/", 2000);
+        //When / Then
+        assertThat(responseCache.timeToLiveFor(ARTIST_URL), is(2000L));
+        assertThat(responseCache.timeToLiveFor(BROWSE_URL), is(1000L));
+        assertThat(responseCache.timeToLiveFor("http://api.flickr.com/services/rest"),
+                is(ResponseCache.DEFAULT_TIME_TO_LIVE_MILLIS));
+    }
+
+    @Test
+    public void should_Evict_Least_Recently_Used_Response_When_Full() {
+        //Given
+        responseCache.put(ARTIST_URL, ARTIST_URL, bytes("1234"), UTF_8, false);
+        responseCache.put(BROWSE_URL, BROWSE_URL, bytes("1234"), UTF_8, false);
+        responseCache.get(ARTIST_URL);
+        //When
+        responseCache.put(SEARCH_URL, SEARCH_URL, bytes("1234"), UTF_8, false);
+        //Then
+        assertThat(responseCache.get(BROWSE_URL), is(nullValue()));
+        assertThat(responseCache.get(ARTIST_URL), is(notNullValue()));
+        assertThat(responseCache.getStats().getEvictions(), is(1L));
+        assertThat(responseCache.getStats().getSizeInBytes(), is(8L));
+    }
+
+    @Test
+    public void should_Not_Evict_Pinned_Response() {
+        //Given
+        responseCache.put(ARTIST_URL, ARTIST_URL, bytes("1234"), UTF_8, true);
+        responseCache.put(BROWSE_URL, BROWSE_URL, bytes("1234"), UTF_8, false);
+        //When
+        responseCache.put(SEARCH_URL, SEARCH_URL, bytes("1234"), UTF_8, false);
+        //Then
+        assertThat(responseCache.get(ARTIST_URL), is(notNullValue()));
+        assertThat(responseCache.get(BROWSE_URL), is(nullValue()));
+    }
+
+    @Test
+    public void should_Not_Cache_Response_Larger_Than_The_Cache() {
+        //Given
+        responseCache.put(ARTIST_URL, ARTIST_URL, bytes("12345678901"), UTF_8, false);
+        //When
+        CacheStats stats = responseCache.getStats();
+        //Then
+        assertThat(stats.getEntries(), is(0));
+        assertThat(stats.getSizeInBytes(), is(0L));
+    }
+
+    @Test
+    public void should_Build_The_Same_Key_Regardless_Of_Request_Property_Order() {
+        //Given
+        Map<String, String> someProperties = new LinkedHashMap<>();
+        someProperties.put("Accept", "application/json");
+        someProperties.put("Authorization", "Basic abc");
+        Map<String, String> sameProperties = new HashMap<>();
+        sameProperties.put("Authorization", "Basic abc");
+        sameProperties.put("Accept", "application/json");
+        //When / Then
+        assertThat(ResponseCache.keyFor(ARTIST_URL, someProperties), is(ResponseCache.keyFor(ARTIST_URL, sameProperties)));
+        assertThat(ResponseCache.keyFor(ARTIST_URL, null), is(ARTIST_URL));
+    }
+
+    private byte[] bytes(String body) {
+        return body.getBytes(UTF_8);
+    }
+
+}
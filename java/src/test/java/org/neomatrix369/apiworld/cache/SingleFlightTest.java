@@ -0,0 +1,239 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.cache;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    private static final String ARTIST_URL = "http://www.muzu.tv/api/artist/details/?aname=yello";
+    private static final int FOLLOWERS = 4;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void should_Share_The_Result_Of_The_Call_In_Flight() throws Exception {
+        //Given
+        SingleFlight singleFlight = new SingleFlight();
+        List<Future<String>> responses = startCalls(singleFlight, () -> {
+            calls.incrementAndGet();
+            awaitRelease();
+            return "yello";
+        });
+        //When
+        release.countDown();
+        //Then
+        for (Future<String> eachResponse : responses) {
+            assertThat(eachResponse.get(), is("yello"));
+        }
+        assertThat(calls.get(), is(1));
+        assertThat(singleFlight.getExecuted(), is(1L));
+        assertThat(singleFlight.getCoalesced(), is((long) FOLLOWERS));
+    }
+
+    @Test
+    public void should_Share_The_Failure_Of_The_Call_In_Flight() throws Exception {
+        //Given
+        SingleFlight singleFlight = new SingleFlight();
+        List<Future<String>> responses = startCalls(singleFlight, () -> {
+            calls.incrementAndGet();
+            awaitRelease();
+            throw new IOException("Connection reset");
+        });
+        //When
+        release.countDown();
+        //Then
+        for (Future<String> eachResponse : responses) {
+            try {
+                eachResponse.get();
+                fail("Expected the failure of the call");
+            } catch (ExecutionException expected) {
+                assertThat(expected.getCause(), is(instanceOf(IOException.class)));
+            }
+        }
+        assertThat(calls.get(), is(1));
+    }
+
+    @Test
+    public void should_Share_An_Error_Of_The_Call_In_Flight_And_Land_The_Flight() throws Exception {
+        //Given
+        SingleFlight singleFlight = new SingleFlight();
+        List<Future<String>> responses = startCalls(singleFlight, () -> {
+            calls.incrementAndGet();
+            awaitRelease();
+            throw new OutOfMemoryError("Java heap space");
+        });
+        //When
+        release.countDown();
+        //Then
+        for (Future<String> eachResponse : responses) {
+            try {
+                eachResponse.get();
+                fail("Expected the error of the call");
+            } catch (ExecutionException expected) {
+                assertThat(expected.getCause(), is(instanceOf(OutOfMemoryError.class)));
+            }
+        }
+        assertThat(singleFlight.execute(ARTIST_URL, () -> "next call"), is("next call"));
+        assertThat(singleFlight.getExecuted(), is(2L));
+    }
+
+    @Test
+    public void should_Share_A_Null_Result_Of_The_Call_In_Flight() throws Exception {
+        //Given
+        SingleFlight singleFlight = new SingleFlight();
+        List<Future<String>> responses = startCalls(singleFlight, () -> {
+            calls.incrementAndGet();
+            awaitRelease();
+            return null;
+        });
+        //When
+        release.countDown();
+        //Then
+        for (Future<String> eachResponse : responses) {
+            assertThat(eachResponse.get(), is(nullValue()));
+        }
+        assertThat(calls.get(), is(1));
+        assertThat(singleFlight.getCoalesced(), is((long) FOLLOWERS));
+    }
+
+    @Test
+    public void should_Make_Own_Call_When_The_Call_In_Flight_Is_Interrupted() throws Exception {
+        //Given
+        SingleFlight singleFlight = new SingleFlight();
+        Future<String> leader = executor.submit(() -> singleFlight.execute(ARTIST_URL, () -> {
+            calls.incrementAndGet();
+            awaitRelease();
+            return "yello";
+        }));
+        waitFor(() -> calls.get() == 1);
+        Future<String> follower = executor.submit(() -> singleFlight.execute(ARTIST_URL, () -> {
+            calls.incrementAndGet();
+            return "own call";
+        }));
+        waitFor(() -> singleFlight.getWaiting() == 1);
+        //When
+        leader.cancel(true);
+        //Then
+        assertThat(follower.get(), is("own call"));
+        assertThat(calls.get(), is(2));
+        assertThat(singleFlight.getOverflowed(), is(1L));
+    }
+
+    @Test
+    public void should_Make_Own_Call_Beyond_The_Maximum_Followers() throws Exception {
+        //Given
+        SingleFlight singleFlight = new SingleFlight(1, SingleFlight.DEFAULT_MAX_WAIT_MILLIS);
+        Future<String> leader = executor.submit(() -> singleFlight.execute(ARTIST_URL, () -> {
+            calls.incrementAndGet();
+            awaitRelease();
+            return "yello";
+        }));
+        waitFor(() -> calls.get() == 1);
+        Future<String> follower = executor.submit(() -> singleFlight.execute(ARTIST_URL, () -> "not shared"));
+        waitFor(() -> singleFlight.getWaiting() == 1);
+        //When
+        String response = singleFlight.execute(ARTIST_URL, () -> "own call");
+        release.countDown();
+        //Then
+        assertThat(response, is("own call"));
+        assertThat(leader.get(), is("yello"));
+        assertThat(follower.get(), is("yello"));
+        assertThat(singleFlight.getOverflowed(), is(1L));
+    }
+
+    @Test
+    public void should_Make_Own_Call_When_The_Flight_Takes_Too_Long() throws Exception {
+        //Given
+        SingleFlight singleFlight = new SingleFlight(10, 10);
+        executor.submit(() -> singleFlight.execute(ARTIST_URL, () -> {
+            calls.incrementAndGet();
+            awaitRelease();
+            return "yello";
+        }));
+        waitFor(() -> calls.get() == 1);
+        //When
+        String response = singleFlight.execute(ARTIST_URL, () -> "own call");
+        //Then
+        assertThat(response, is("own call"));
+        release.countDown();
+    }
+
+    private List<Future<String>> startCalls(final SingleFlight singleFlight, final SingleFlight.Call<String> call)
+            throws InterruptedException {
+        List<Future<String>> responses = new ArrayList<>();
+        responses.add(executor.submit(() -> singleFlight.execute(ARTIST_URL, call)));
+        waitFor(() -> calls.get() == 1);
+        for (int i = 0; i < FOLLOWERS; i++) {
+            responses.add(executor.submit(() -> singleFlight.execute(ARTIST_URL, call)));
+        }
+        waitFor(() -> singleFlight.getWaiting() == FOLLOWERS);
+        return responses;
+    }
+
+    private void awaitRelease() throws InterruptedIOException {
+        try {
+            release.await();
+        } catch (InterruptedException interruptedException) {
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static void waitFor(Condition condition) throws InterruptedException {
+        long giveUpAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.holds() && System.nanoTime() < giveUpAt) {
+            Thread.sleep(1);
+        }
+    }
+
+    private interface Condition {
+        boolean holds();
+    }
+
+}
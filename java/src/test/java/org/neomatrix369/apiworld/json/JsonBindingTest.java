@@ -0,0 +1,156 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.json;
+
+import org.junit.Test;
+import org.neomatrix369.apiworld.exception.JsonBindingException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class JsonBindingTest {
+
+    private static final String PHOTOS_RESPONSE = "{\"photos\":{\"page\":1,\"pages\":\"3\",\"total\":\"120\","
+            + "\"photo\":[{\"id\":\"1\",\"title\":\"yello\",\"ispublic\":1,\"tags\":[\"a\",{\"b\":[]}]},"
+            + "{\"id\":\"2\",\"title\":null}]},\"stat\":\"ok\"}";
+
+    private static final JsonBinding<Photos> PHOTOS = JsonBinding.of(Photos::new)
+            .bindString("stat", (photos, stat) -> photos.stat = stat)
+            .bindLong("photos.page", (photos, page) -> photos.page = page)
+            .bindLong("photos.total", (photos, total) -> photos.total = total)
+            .bindEach("photos.photo", JsonBinding.of(Photo::new)
+                    .bindString("title", (photo, title) -> photo.title = title)
+                    .bindBoolean("ispublic", (photo, isPublic) -> photo.isPublic = isPublic),
+                    (photos, photo) -> photos.photos.add(photo));
+
+    @Test
+    public void should_Bind_Nested_Fields_And_Array_Elements_Into_Result_Object() throws Exception {
+        //When
+        Photos photos = PHOTOS.read(body(PHOTOS_RESPONSE), StandardCharsets.UTF_8);
+        //Then
+        assertThat(photos.stat, is("ok"));
+        assertThat(photos.page, is(1L));
+        assertThat(photos.total, is(120L));
+        assertThat(photos.photos.size(), is(2));
+        assertThat(photos.photos.get(0).title, is("yello"));
+        assertThat(photos.photos.get(0).isPublic, is(true));
+        assertThat(photos.photos.get(1).title, is(nullValue()));
+    }
+
+    @Test
+    public void should_Stop_Parsing_Once_Every_Bound_Field_Is_Read() throws Exception {
+        //Given
+        JsonBinding<Photos> statusOnly = JsonBinding.of(Photos::new).bindString("stat", (photos, stat) -> photos.stat = stat);
+        String truncatedResponse = "{\"stat\":\"ok\",\"photos\":{\"photo\":[{\"id\":";
+        //When
+        Photos photos = statusOnly.read(new StringReader(truncatedResponse));
+        //Then
+        assertThat(photos.stat, is("ok"));
+    }
+
+    @Test(expected = JsonBindingException.class)
+    public void should_Parse_The_Whole_Body_When_Reading_To_End() throws Exception {
+        //Given
+        JsonBinding<Photos> statusOnly = JsonBinding.of(Photos::new).bindString("stat", (photos, stat) -> photos.stat = stat)
+                .readToEnd();
+        //When
+        statusOnly.read(new StringReader("{\"stat\":\"ok\",\"photos\":{\"photo\":[{\"id\":"));
+    }
+
+    @Test
+    public void should_Skip_Fields_That_Are_Not_Bound() throws Exception {
+        //Given
+        JsonBinding<Photos> statusOnly = JsonBinding.of(Photos::new).bindString("stat", (photos, stat) -> photos.stat = stat)
+                .readToEnd();
+        //When
+        Photos photos = statusOnly.read(new StringReader(PHOTOS_RESPONSE));
+        //Then
+        assertThat(photos.stat, is("ok"));
+        assertThat(photos.photos.isEmpty(), is(true));
+    }
+
+    @Test
+    public void should_Hand_Over_Array_Elements_In_Order() throws Exception {
+        //Given
+        List<String> ids = new ArrayList<>();
+        JsonBinding<Photos> photoIds = JsonBinding.of(Photos::new).bindEach("photos.photo",
+                JsonBinding.of(Photo::new).bindString("id", (photo, id) -> ids.add(id)), (photos, photo) -> { });
+        //When
+        photoIds.read(new StringReader(PHOTOS_RESPONSE));
+        //Then
+        assertThat(ids, contains("1", "2"));
+    }
+
+    @Test(expected = JsonBindingException.class)
+    public void should_Fail_When_A_Bound_Field_Has_An_Unexpected_Type() throws Exception {
+        //Given
+        JsonBinding<Photos> statusAsNumber = JsonBinding.of(Photos::new).bindLong("stat", (photos, stat) -> photos.page = stat);
+        //When
+        statusAsNumber.read(new StringReader("{\"stat\":\"ok\"}"));
+    }
+
+    @Test(expected = JsonBindingException.class)
+    public void should_Fail_When_Body_Is_Not_A_Json_Object() throws Exception {
+        //When
+        PHOTOS.read(new StringReader("[1, 2]"));
+    }
+
+    @Test(expected = InterruptedIOException.class)
+    public void should_Pass_On_The_Failure_Reading_The_Body_Rather_Than_A_Binding_Failure() throws Exception {
+        //When
+        PHOTOS.read(new SequenceInputStream(body("{\"stat\":"), new InputStream() {
+            @Override
+            public int read() throws InterruptedIOException {
+                throw new InterruptedIOException("Interrupted while reading the response body");
+            }
+        }), StandardCharsets.UTF_8);
+    }
+
+    private InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class Photos {
+        private String stat;
+        private Long page;
+        private Long total;
+        private List<Photo> photos = new ArrayList<>();
+    }
+
+    private static class Photo {
+        private String title;
+        private Boolean isPublic;
+    }
+
+}
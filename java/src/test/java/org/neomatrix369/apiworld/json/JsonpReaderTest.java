@@ -0,0 +1,105 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.json;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class JsonpReaderTest {
+
+    @Test
+    public void should_Strip_The_Callback_Wrapper() throws Exception {
+        //Given
+        JsonpReader reader = new JsonpReader(new StringReader("jsonFlickrApi({\"stat\":\"ok\"})"));
+        //When
+        String json = readFully(reader, 64);
+        //Then
+        assertThat(json, is("{\"stat\":\"ok\"}"));
+        assertThat(reader.isWrapped(), is(true));
+    }
+
+    @Test
+    public void should_Strip_Trailing_Semicolon_And_Whitespace() throws Exception {
+        //When / Then
+        assertThat(readFully(new JsonpReader(new StringReader(" callback ( [1, 2] );\n")), 64), is(" [1, 2] "));
+    }
+
+    @Test
+    public void should_Keep_Parentheses_Inside_The_Json() throws Exception {
+        //Given
+        String json = "{\"title\":\"yello (live) ;)\",\"tags\":[\")\"]}";
+        //When / Then
+        assertThat(readFully(new JsonpReader(new StringReader("jsonFlickrApi(" + json + ")")), 1), is(json));
+    }
+
+    @Test
+    public void should_Pass_Plain_Json_Through() throws Exception {
+        //Given
+        JsonpReader reader = new JsonpReader(new StringReader("{\"status\":\"OK\"}"));
+        //When
+        String json = readFully(reader, 3);
+        //Then
+        assertThat(json, is("{\"status\":\"OK\"}"));
+        assertThat(reader.isWrapped(), is(false));
+    }
+
+    @Test(expected = IOException.class)
+    public void should_Fail_When_The_Callback_Is_Not_Closed() throws Exception {
+        //When
+        readFully(new JsonpReader(new StringReader("jsonFlickrApi({\"stat\":\"ok\"}")), 64);
+    }
+
+    @Test(expected = IOException.class)
+    public void should_Fail_When_The_Response_Is_Neither_Json_Nor_Jsonp() throws Exception {
+        //When
+        readFully(new JsonpReader(new StringReader("<html>Service unavailable</html>")), 64);
+    }
+
+    @Test
+    public void should_Feed_Unwrapped_Json_Straight_To_A_Binding() throws Exception {
+        //Given
+        JsonBinding<StringBuilder> stat = JsonBinding.of(StringBuilder::new).bindString("stat", StringBuilder::append)
+                .readToEnd();
+        //When
+        StringBuilder result = stat.read(new JsonpReader(new StringReader("jsonFlickrApi({\"photos\":{},\"stat\":\"ok\"})")));
+        //Then
+        assertThat(result.toString(), is("ok"));
+    }
+
+    private String readFully(Reader reader, int chunkSize) throws IOException {
+        StringBuilder result = new StringBuilder();
+        char[] chunk = new char[chunkSize];
+        int read;
+        while ((read = reader.read(chunk, 0, chunkSize)) != -1) {
+            result.append(chunk, 0, read);
+        }
+        return result.toString();
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.projection;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ProjectionTest {
+
+    private static final String TWITTER_RESPONSE = "{\"completed_in\":0.02,\"results\":["
+            + "{\"from_user_name\":\"yello\",\"text\":\"The Race\",\"metadata\":{\"result_type\":\"recent\",\"tags\":[1,2]}},"
+            + "{\"from_user_name\":\"muzu\",\"text\":null,\"entities\":{\"urls\":[]}}],\"max_id\":250126199840518145}";
+
+    private static final String FLICKR_RESPONSE = "jsonFlickrApi({\"photos\":{\"page\":1,\"photo\":["
+            + "{\"id\":\"8156\",\"title\":\"yello\",\"ispublic\":1},{\"id\":\"8157\",\"title\":\"pop\",\"ispublic\":0}]},"
+            + "\"stat\":\"ok\"})";
+
+    private static final String RSS_RESPONSE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><rss version=\"2.0\"><channel>"
+            + "<title>MUZU</title><item><title> Crazy In Love </title><guid>1</guid><description>long</description></item>"
+            + "<item><title><![CDATA[Halo & more]]></title><guid>2</guid></item></channel></rss>";
+
+    @Test
+    public void should_Project_Fields_Of_Every_Array_Element() throws Exception {
+        //Given
+        Projection projection = Projection.json("results[].from_user_name", "results[].text", "max_id");
+        //When
+        ProjectedResponse response = projection.read(body(TWITTER_RESPONSE), StandardCharsets.UTF_8);
+        //Then
+        List<ProjectedValue> names = response.getAll("results[].from_user_name");
+        assertThat(names.size(), is(2));
+        assertThat(names.get(0).asString(), is("yello"));
+        assertThat(names.get(1).asString(), is("muzu"));
+        assertThat(response.getAll("results[].text").get(1).isNull(), is(true));
+        assertThat(response.get("max_id").asLong(), is(250126199840518145L));
+    }
+
+    @Test
+    public void should_Hold_Only_The_Projected_Text() throws Exception {
+        //Given
+        Projection projection = Projection.json("results[].from_user_name");
+        //When
+        ProjectedResponse response = projection.read(body(TWITTER_RESPONSE), StandardCharsets.UTF_8);
+        //Then
+        assertThat(response.getProjectedLength(), is("yellomuzu".length()));
+        assertThat(response.contains("results[].text"), is(false));
+    }
+
+    @Test
+    public void should_Project_Jsonp_Response() throws Exception {
+        //Given
+        Projection projection = Projection.json("stat", "photos.photo[].id", "photos.photo[].ispublic");
+        //When
+        ProjectedResponse response = projection.read(body(FLICKR_RESPONSE), StandardCharsets.UTF_8);
+        //Then
+        assertThat(response.get("stat").contentEquals("ok"), is(true));
+        assertThat(response.getAll("photos.photo[].id").get(1).asLong(), is(8157L));
+        assertThat(response.getAll("photos.photo[].ispublic").get(0).asBoolean(), is(true));
+        assertThat(response.getAll("photos.photo[].ispublic").get(1).asBoolean(), is(false));
+    }
+
+    @Test
+    public void should_Stop_Once_Every_Single_Valued_Path_Is_Read() throws Exception {
+        //Given
+        Projection projection = Projection.json("stat");
+        //When
+        ProjectedResponse response = projection.read(body("{\"stat\":\"ok\",\"photos\":{\"photo\":[{\"id\":"),
+                StandardCharsets.UTF_8);
+        //Then
+        assertThat(response.get("stat").asString(), is("ok"));
+    }
+
+    @Test
+    public void should_Project_Xml_Elements_And_Attributes() throws Exception {
+        //Given
+        Projection projection = Projection.xml("rss/channel/item/title", "rss/channel/item/guid", "rss/@version");
+        //When
+        ProjectedResponse response = projection.read(body(RSS_RESPONSE), StandardCharsets.UTF_8);
+        //Then
+        List<ProjectedValue> titles = response.getAll("rss/channel/item/title");
+        assertThat(titles.size(), is(2));
+        assertThat(titles.get(0).asString(), is("Crazy In Love"));
+        assertThat(titles.get(1).asString(), is("Halo & more"));
+        assertThat(response.getAll("rss/channel/item/guid").get(1).asLong(), is(2L));
+        assertThat(response.get("rss/@version").asString(), is("2.0"));
+        assertThat(response.get("rss/channel/title"), is(nullValue()));
+    }
+
+    @Test
+    public void should_Read_The_Xml_Encoding_From_The_Body_When_The_Response_Declared_No_Charset() throws Exception {
+        //Given
+        byte[] latin1Response = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?><rss><channel><item><title>Beyoncé</title>"
+                .concat("</item></channel></rss>").getBytes(StandardCharsets.ISO_8859_1);
+        //When
+        ProjectedResponse response = Projection.xml("rss/channel/item/title").handler()
+                .handle(new ByteArrayInputStream(latin1Response), StandardCharsets.UTF_8, false);
+        //Then
+        assertThat(response.get("rss/channel/item/title").asString(), is("Beyoncé"));
+    }
+
+    @Test(expected = IOException.class)
+    public void should_Fail_On_Malformed_Json() throws Exception {
+        //When
+        Projection.json("results[].text").read(body("{\"results\":[{\"text\":}]}"), StandardCharsets.UTF_8);
+    }
+
+    @Test(expected = InterruptedIOException.class)
+    public void should_Pass_On_The_Failure_Reading_The_Body_Rather_Than_A_Malformed_Json_Failure() throws Exception {
+        //When
+        Projection.json("results[].text").read(new SequenceInputStream(body("{\"results\":[{\"text\":"),
+                new InputStream() {
+                    @Override
+                    public int read() throws InterruptedIOException {
+                        throw new InterruptedIOException("Interrupted while reading the response body");
+                    }
+                }), StandardCharsets.UTF_8);
+    }
+
+    private InputStream body(String response) {
+        return new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.ratelimit;
+
+import org.junit.Test;
+import org.neomatrix369.apiworld.exception.RateLimitExceededException;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.fail;
+
+public class RateLimiterTest {
+
+    private static final String MUZU = "http://www.muzu.tv:80";
+
+    private final Map<String, String> headers = new HashMap<>();
+
+    @Test
+    public void should_Allow_A_Burst_And_Then_Fail_Fast() throws IOException {
+        //Given
+        RateLimiter rateLimiter = new RateLimiter(RateLimiter.Mode.FAIL_FAST, 0, 1, 3);
+        rateLimiter.acquire(MUZU);
+        rateLimiter.acquire(MUZU);
+        rateLimiter.acquire(MUZU);
+        try {
+            //When
+            rateLimiter.acquire(MUZU);
+            fail("Expected the quota to be exceeded");
+        } catch (RateLimitExceededException expected) {
+            //Then
+            assertThat(expected.getRetryAfterMillis(), is(allOf(greaterThan(0L), lessThanOrEqualTo(1000L))));
+        }
+    }
+
+    @Test
+    public void should_Wait_For_A_Token_In_Blocking_Mode() throws IOException {
+        //Given
+        RateLimiter rateLimiter = new RateLimiter(RateLimiter.Mode.BLOCKING, 1000, 20, 1);
+        rateLimiter.acquire(MUZU);
+        long startedAt = System.nanoTime();
+        //When
+        rateLimiter.acquire(MUZU);
+        //Then
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), is(greaterThanOrEqualTo(40L)));
+    }
+
+    @Test
+    public void should_Keep_A_Quota_Per_Key() throws IOException {
+        //Given
+        RateLimiter rateLimiter = new RateLimiter(RateLimiter.Mode.FAIL_FAST, 0, 1, 1);
+        URL flickrUrl = new URL("http://api.flickr.com/services/rest/?method=flickr.photos.search");
+        rateLimiter.acquire(RateLimiter.keyFor(flickrUrl, "key-1"));
+        //When
+        rateLimiter.acquire(RateLimiter.keyFor(flickrUrl, "key-2"));
+        //Then
+        assertThat(RateLimiter.keyFor(flickrUrl), is("http://api.flickr.com:80"));
+    }
+
+    @Test(expected = RateLimitExceededException.class)
+    public void should_Pause_For_Retry_After() throws IOException {
+        //Given
+        RateLimiter rateLimiter = new RateLimiter(RateLimiter.Mode.BLOCKING, 100, 100, 10);
+        headers.put("Retry-After", "120");
+        //When
+        rateLimiter.onResponse(MUZU, headers::get);
+        //Then
+        rateLimiter.acquire(MUZU);
+    }
+
+    @Test(expected = RateLimitExceededException.class)
+    public void should_Pause_Until_Reset_When_No_Requests_Remain() throws IOException {
+        //Given
+        RateLimiter rateLimiter = new RateLimiter(RateLimiter.Mode.FAIL_FAST, 0, 100, 10);
+        headers.put("X-RateLimit-Remaining", "0");
+        headers.put("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 60));
+        //When
+        rateLimiter.onResponse(MUZU, headers::get);
+        //Then
+        rateLimiter.acquire(MUZU);
+    }
+
+    @Test
+    public void should_Spread_Remaining_Requests_Until_Reset() {
+        //Given
+        RateLimiter rateLimiter = new RateLimiter(RateLimiter.Mode.FAIL_FAST, 0, 1, 1);
+        headers.put("X-RateLimit-Remaining", "600");
+        headers.put("X-RateLimit-Reset", "60");
+        //When
+        rateLimiter.onResponse(MUZU, headers::get);
+        //Then
+        assertThat(rateLimiter.getBucket(MUZU).getRate(), is(closeTo(10, 0.01)));
+    }
+
+    @Test
+    public void should_Read_Retry_After_As_Seconds_Or_Http_Date() {
+        String inAMinute = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(1));
+        assertThat(RateLimiter.retryAfterMillis("30"), is(30000L));
+        assertThat(RateLimiter.retryAfterMillis(inAMinute), is(allOf(greaterThan(58000L), lessThanOrEqualTo(60000L))));
+        assertThat(RateLimiter.retryAfterMillis("soon"), is(0L));
+    }
+
+}
@@ -0,0 +1,130 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.resilience;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    private CircuitBreaker circuitBreaker;
+
+    @Before
+    public void setUp() {
+        circuitBreaker = new CircuitBreaker().setWindow(4, 4).setFailureRateThreshold(50)
+                .setSlowCallRateThreshold(75, 1000).setOpenDuration(20, 2);
+    }
+
+    @Test
+    public void should_Stay_Closed_Until_The_Minimum_Number_Of_Calls() {
+        //When
+        circuitBreaker.onFailure(FAST);
+        circuitBreaker.onFailure(FAST);
+        circuitBreaker.onFailure(FAST);
+        //Then
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+        assertThat(circuitBreaker.tryAcquirePermission(), is(true));
+    }
+
+    @Test
+    public void should_Open_When_The_Failure_Rate_Reaches_The_Threshold() {
+        //Given
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onFailure(FAST);
+        //When
+        circuitBreaker.onFailure(FAST);
+        //Then
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(circuitBreaker.tryAcquirePermission(), is(false));
+    }
+
+    @Test
+    public void should_Open_When_The_Slow_Call_Rate_Reaches_The_Threshold() {
+        //Given
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(SLOW);
+        circuitBreaker.onSuccess(SLOW);
+        //When
+        circuitBreaker.onSuccess(SLOW);
+        //Then
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    public void should_Only_Count_The_Calls_In_The_Window() {
+        //Given
+        circuitBreaker.onFailure(FAST);
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+        //When
+        circuitBreaker.onSuccess(FAST);
+        //Then
+        assertThat(circuitBreaker.getFailureRate(), is(0));
+    }
+
+    @Test
+    public void should_Close_Again_When_Trial_Calls_Succeed() throws InterruptedException {
+        //Given
+        openCircuit();
+        Thread.sleep(30);
+        //When
+        assertThat(circuitBreaker.tryAcquirePermission(), is(true));
+        assertThat(circuitBreaker.tryAcquirePermission(), is(true));
+        assertThat(circuitBreaker.tryAcquirePermission(), is(false));
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+        //Then
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void should_Open_Again_When_Trial_Calls_Fail() throws InterruptedException {
+        //Given
+        openCircuit();
+        Thread.sleep(30);
+        circuitBreaker.tryAcquirePermission();
+        circuitBreaker.tryAcquirePermission();
+        //When
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onFailure(FAST);
+        //Then
+        assertThat(circuitBreaker.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onFailure(FAST);
+        }
+    }
+
+}
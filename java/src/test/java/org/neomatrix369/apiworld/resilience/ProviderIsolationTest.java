@@ -0,0 +1,144 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.resilience;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neomatrix369.apiworld.exception.BulkheadFullException;
+import org.neomatrix369.apiworld.exception.CircuitOpenException;
+import org.neomatrix369.apiworld.exception.HttpStatusException;
+import org.neomatrix369.apiworld.exception.JsonBindingException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class ProviderIsolationTest {
+
+    private URL flickrUrl;
+    private URL muzuUrl;
+    private ProviderIsolation providerIsolation;
+    private AtomicInteger calls;
+
+    @Before
+    public void setUp() throws IOException {
+        flickrUrl = new URL("http://api.flickr.com/services/rest/?method=flickr.photos.search");
+        muzuUrl = new URL("http://www.muzu.tv/api/browse?g=pop");
+        providerIsolation = new ProviderIsolation(() -> new CircuitBreaker().setWindow(2, 2), 1, 0);
+        calls = new AtomicInteger();
+    }
+
+    @Test
+    public void should_Fail_Fast_Once_The_Circuit_Of_The_Provider_Is_Open() throws IOException {
+        //Given
+        failCall(flickrUrl, new IOException("Connection reset"));
+        failCall(flickrUrl, new IOException("Connection reset"));
+        try {
+            //When
+            providerIsolation.execute(flickrUrl, this::countCall);
+            fail("Expected the circuit of the provider to be open");
+        } catch (CircuitOpenException expected) {
+            //Then
+            assertThat(calls.get(), is(2));
+        }
+        assertThat(providerIsolation.execute(muzuUrl, this::countCall), is("response"));
+    }
+
+    @Test
+    public void should_Not_Count_Not_Found_Against_The_Provider() throws IOException {
+        //Given
+        failCall(flickrUrl, new FileNotFoundException("http://api.flickr.com/services/rest/"));
+        failCall(flickrUrl, new FileNotFoundException("http://api.flickr.com/services/rest/"));
+        //When
+        CircuitBreaker.State state = providerIsolation.getCircuitBreaker(flickrUrl).getState();
+        //Then
+        assertThat(state, is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void should_Not_Count_Client_Errors_Or_Unparseable_Bodies_Against_The_Provider() throws IOException {
+        //Given
+        failCall(flickrUrl, new HttpStatusException(403, flickrUrl.toString()));
+        failCall(flickrUrl, new JsonBindingException("Not a JSON or JSONP response"));
+        //When
+        CircuitBreaker.State state = providerIsolation.getCircuitBreaker(flickrUrl).getState();
+        //Then
+        assertThat(state, is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void should_Count_An_Error_Thrown_By_A_Half_Open_Call_Against_The_Provider() throws IOException {
+        //Given
+        providerIsolation = new ProviderIsolation(() -> new CircuitBreaker().setWindow(1, 1).setOpenDuration(0, 1), 1, 0);
+        failCall(flickrUrl, new HttpStatusException(503, flickrUrl.toString()));
+        try {
+            //When
+            providerIsolation.execute(flickrUrl, () -> {
+                throw new StackOverflowError();
+            });
+            fail("Expected the error of the call");
+        } catch (StackOverflowError expected) {
+            //Then
+            assertThat(providerIsolation.getCircuitBreaker(flickrUrl).getState(), is(CircuitBreaker.State.OPEN));
+        }
+    }
+
+    @Test
+    public void should_Refuse_Calls_Beyond_The_Bulkhead_Of_The_Provider() throws IOException {
+        //When
+        String response = providerIsolation.execute(flickrUrl, () -> {
+            try {
+                providerIsolation.execute(flickrUrl, this::countCall);
+                fail("Expected the bulkhead of the provider to be full");
+            } catch (BulkheadFullException expected) {
+                assertThat(providerIsolation.execute(muzuUrl, this::countCall), is("response"));
+            }
+            return "outer response";
+        });
+        //Then
+        assertThat(response, is("outer response"));
+        assertThat(providerIsolation.getBulkhead(flickrUrl).getCallsInFlight(), is(0));
+    }
+
+    private String countCall() {
+        calls.incrementAndGet();
+        return "response";
+    }
+
+    private void failCall(URL url, final IOException failure) {
+        try {
+            providerIsolation.execute(url, () -> {
+                calls.incrementAndGet();
+                throw failure;
+            });
+        } catch (IOException expected) {
+            // the failure of the call itself
+        }
+    }
+
+}
@@ -0,0 +1,236 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.resilience;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neomatrix369.apiworld.exception.DeadlineExceededException;
+import org.neomatrix369.apiworld.exception.HttpStatusException;
+import org.neomatrix369.apiworld.exception.JsonBindingException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+public class ResiliencePolicyTest {
+
+    private static final String FLICKR_URL = "http://api.flickr.com/";
+
+    private ResiliencePolicy resiliencePolicy;
+    private List<Integer> readTimeouts;
+
+    @Before
+    public void setUp() {
+        resiliencePolicy = new ResiliencePolicy().setBackoff(1, 2);
+        readTimeouts = new ArrayList<>();
+    }
+
+    @Test
+    public void should_Retry_Idempotent_Request_Until_It_Succeeds() throws IOException {
+        //Given
+        resiliencePolicy.setReadTimeout(1000);
+        //When
+        String response = resiliencePolicy.execute(true, failingTimes(2));
+        //Then
+        assertThat(response, is("response"));
+        assertThat(readTimeouts, contains(1000, 1000, 1000));
+        assertThat(resiliencePolicy.getMetrics().getAttempts(), is(3L));
+        assertThat(resiliencePolicy.getMetrics().getRetries(), is(2L));
+        assertThat(resiliencePolicy.getMetrics().getTimeouts(), is(2L));
+    }
+
+    @Test
+    public void should_Not_Retry_Non_Idempotent_Request() throws IOException {
+        try {
+            //When
+            resiliencePolicy.execute(false, failingTimes(1));
+            fail("Expected the failure of the first attempt");
+        } catch (SocketTimeoutException expected) {
+            //Then
+            assertThat(readTimeouts.size(), is(1));
+        }
+    }
+
+    @Test
+    public void should_Retry_Non_Idempotent_Request_When_Allowed_To() throws IOException {
+        //Given
+        resiliencePolicy.setRetryNonIdempotent(true);
+        //When
+        String response = resiliencePolicy.execute(false, failingTimes(1));
+        //Then
+        assertThat(response, is("response"));
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void should_Not_Retry_Not_Found() throws IOException {
+        resiliencePolicy.execute(true, (connectTimeoutMillis, readTimeoutMillis, deadlineNanos) -> {
+            readTimeouts.add(readTimeoutMillis);
+            if (readTimeouts.size() == 1) {
+                throw new FileNotFoundException("http://www.muzu.tv/api/unknown");
+            }
+            return "response";
+        });
+    }
+
+    @Test
+    public void should_Not_Retry_Client_Errors() throws IOException {
+        try {
+            //When
+            resiliencePolicy.execute(true, failingWith(new HttpStatusException(403, FLICKR_URL)));
+            fail("Expected the failure of the first attempt");
+        } catch (IOException expected) {
+            //Then
+            assertThat(readTimeouts.size(), is(1));
+        }
+    }
+
+    @Test
+    public void should_Retry_Server_Errors_Request_Timeouts_And_Too_Many_Requests() throws IOException {
+        //Given
+        resiliencePolicy.setMaxAttempts(4);
+        //When
+        String response = resiliencePolicy.execute(true, failingWith(new HttpStatusException(503, FLICKR_URL),
+                new HttpStatusException(408, FLICKR_URL), new HttpStatusException(429, FLICKR_URL)));
+        //Then
+        assertThat(response, is("response"));
+        assertThat(readTimeouts.size(), is(4));
+    }
+
+    @Test
+    public void should_Not_Retry_Response_Bodies_Which_Cannot_Be_Parsed() throws IOException {
+        try {
+            //When
+            resiliencePolicy.execute(true, failingWith(new JsonBindingException("Not a JSON or JSONP response")));
+            fail("Expected the failure of the first attempt");
+        } catch (JsonBindingException expected) {
+            //Then
+            assertThat(readTimeouts.size(), is(1));
+            assertThat(resiliencePolicy.getMetrics().getRetries(), is(0L));
+        }
+    }
+
+    @Test
+    public void should_Hand_The_Deadline_To_Every_Attempt() throws IOException {
+        //Given
+        final List<Long> deadlines = new ArrayList<>();
+        ResiliencePolicy.Attempt<String> attempt = (connectTimeoutMillis, readTimeoutMillis, deadlineNanos) -> {
+            deadlines.add(deadlineNanos);
+            return "response";
+        };
+        long startedAt = System.nanoTime();
+        //When
+        resiliencePolicy.execute(true, attempt);
+        resiliencePolicy.setDeadline(500).execute(true, attempt);
+        //Then
+        assertThat(deadlines.get(0), is(ResiliencePolicy.NO_DEADLINE));
+        assertThat(deadlines.get(1) - startedAt > 0, is(true));
+        assertThat(deadlines.get(1) - startedAt <= TimeUnit.MILLISECONDS.toNanos(500) + (System.nanoTime() - startedAt), is(true));
+    }
+
+    @Test
+    public void should_Stop_Retrying_When_The_Retry_Budget_Is_Exhausted() throws IOException {
+        //Given
+        resiliencePolicy.setMaxAttempts(10).setRetryBudget(new RetryBudget(0, 2));
+        try {
+            //When
+            resiliencePolicy.execute(true, failingTimes(5));
+            fail("Expected the failure of the last attempt");
+        } catch (SocketTimeoutException expected) {
+            //Then
+            assertThat(readTimeouts.size(), is(3));
+            assertThat(resiliencePolicy.getMetrics().getRetriesDenied(), is(1L));
+        }
+    }
+
+    @Test
+    public void should_Cap_Timeouts_By_The_Deadline() throws IOException {
+        //Given
+        resiliencePolicy.setReadTimeout(60000).setDeadline(500);
+        //When
+        resiliencePolicy.execute(true, failingTimes(0));
+        //Then
+        assertThat(readTimeouts.get(0) <= 500, is(true));
+    }
+
+    @Test(expected = DeadlineExceededException.class)
+    public void should_Fail_Once_The_Deadline_Has_Passed() throws IOException {
+        //Given
+        resiliencePolicy.setDeadline(1).setBackoff(0, 0).setMaxAttempts(Integer.MAX_VALUE);
+        //When
+        resiliencePolicy.execute(true, (connectTimeoutMillis, readTimeoutMillis, deadlineNanos) -> {
+            sleep(2);
+            throw new SocketTimeoutException("Read timed out");
+        });
+    }
+
+    @Test
+    public void should_Allow_Retries_In_Proportion_To_Requests() {
+        //Given
+        RetryBudget retryBudget = new RetryBudget(0.5, 1);
+        assertThat(retryBudget.tryAcquireRetry(), is(true));
+        assertThat(retryBudget.tryAcquireRetry(), is(false));
+        //When
+        retryBudget.recordRequest();
+        retryBudget.recordRequest();
+        //Then
+        assertThat(retryBudget.tryAcquireRetry(), is(true));
+        assertThat(retryBudget.tryAcquireRetry(), is(false));
+    }
+
+    private ResiliencePolicy.Attempt<String> failingTimes(final int failures) {
+        return (connectTimeoutMillis, readTimeoutMillis, deadlineNanos) -> {
+            readTimeouts.add(readTimeoutMillis);
+            if (readTimeouts.size() <= failures) {
+                throw new SocketTimeoutException("Read timed out");
+            }
+            return "response";
+        };
+    }
+
+    private ResiliencePolicy.Attempt<String> failingWith(final IOException... failures) {
+        return (connectTimeoutMillis, readTimeoutMillis, deadlineNanos) -> {
+            readTimeouts.add(readTimeoutMillis);
+            if (readTimeouts.size() <= failures.length) {
+                throw failures[readTimeouts.size() - 1];
+            }
+            return "response";
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.transport;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.neomatrix369.apiworld.exception.ConnectionPoolTimeoutException;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+public class PooledHttpTransportTest {
+
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 2;
+    private static final long LEASE_TIMEOUT_MILLIS = 10;
+
+    private PooledHttpTransport transport;
+    private URL url;
+    private URLStreamHandler urlStreamHandler = new URLStreamHandler() {
+        @Override
+        protected URLConnection openConnection(URL url) throws IOException {
+            return mock(HttpURLConnection.class);
+        }
+    };
+
+    @Before
+    public void setUp() throws MalformedURLException {
+        url = new URL("http", "restapiunifier.com", 80, "/", urlStreamHandler);
+        transport = new PooledHttpTransport(MAX_CONNECTIONS_PER_ROUTE, LEASE_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    public void should_Keep_A_Fully_Read_Connection_Alive() throws IOException {
+        //Given
+        HttpURLConnection connection = transport.open(url);
+        //When
+        transport.release(connection, true);
+        //Then
+        verify(connection, never()).disconnect();
+        assertThat(transport.getStats(url).getKeptAlive(), is(1L));
+        assertThat(transport.getStats(url).getLeased(), is(0));
+    }
+
+    @Test
+    public void should_Disconnect_A_Connection_That_Was_Not_Fully_Read() throws IOException {
+        //Given
+        HttpURLConnection connection = transport.open(url);
+        //When
+        transport.release(connection, false);
+        //Then
+        verify(connection).disconnect();
+        assertThat(transport.getStats(url).getKeptAlive(), is(0L));
+        assertThat(transport.getStats(url).getDisconnected(), is(1L));
+    }
+
+    @Test
+    public void should_Disconnect_When_The_Server_Closes_The_Connection() throws IOException {
+        //Given
+        HttpURLConnection connection = transport.open(url);
+        when(connection.getHeaderField("Connection")).thenReturn("close");
+        //When
+        transport.release(connection, true);
+        //Then
+        verify(connection).disconnect();
+        assertThat(transport.getStats(url).getKeptAlive(), is(0L));
+        assertThat(transport.getStats(url).getDisconnected(), is(1L));
+    }
+
+    @Test
+    public void should_Free_The_Lease_Of_A_Released_Connection_For_The_Next_Caller() throws IOException {
+        //Given
+        for (int leaseCounter = 0; leaseCounter < MAX_CONNECTIONS_PER_ROUTE; leaseCounter++) {
+            transport.release(transport.open(url), true);
+        }
+        //When
+        HttpURLConnection connection = transport.open(url);
+        //Then
+        PoolStats stats = transport.getStats(url);
+        assertThat(stats.getKeptAlive(), is((long) MAX_CONNECTIONS_PER_ROUTE));
+        assertThat(stats.getLeased(), is(1));
+        assertThat(stats.getPending(), is(0));
+        transport.release(connection, true);
+    }
+
+    @Test
+    public void should_Count_Leased_Connections_Across_Routes() throws IOException {
+        //Given
+        URL otherRoute = new URL("https", "api.flickr.com", 443, "/", urlStreamHandler);
+        //When
+        transport.open(url);
+        transport.open(otherRoute);
+        //Then
+        assertThat(transport.getStats().getLeased(), is(2));
+        assertThat(transport.getStats(otherRoute).getLeased(), is(1));
+    }
+
+    @Test(expected = ConnectionPoolTimeoutException.class)
+    public void should_Time_Out_When_All_Connections_Of_A_Route_Are_Leased() throws IOException {
+        //Given
+        for (int leaseCounter = 0; leaseCounter < MAX_CONNECTIONS_PER_ROUTE; leaseCounter++) {
+            transport.open(url);
+        }
+        //When
+        transport.open(url);
+        //Then
+        //Exception should be thrown
+    }
+
+}
@@ -0,0 +1,140 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.apiworld.util;
+
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Property based checks of {@link PercentEncoder} against {@link URLEncoder},
+ * over randomly generated tokens mixing ASCII, reserved characters, accented
+ * letters, CJK, emoji (surrogate pairs) and lone surrogates.
+ */
+public class PercentEncoderTest {
+
+    private static final long SEED = 20131017L;
+    private static final int NUMBER_OF_TOKENS = 20000;
+    private static final int MAX_TOKEN_LENGTH = 24;
+    private static final String UTF_8 = "UTF-8";
+
+    private final Random random = new Random(SEED);
+
+    @Test
+    public void should_Encode_Form_Tokens_Identical_To_URLEncoder() throws UnsupportedEncodingException {
+        for (int tokenCounter = 0; tokenCounter < NUMBER_OF_TOKENS; tokenCounter++) {
+            String token = randomToken();
+            assertThat(token, PercentEncoder.FORM.encode(token), is(URLEncoder.encode(token, UTF_8)));
+        }
+    }
+
+    @Test
+    public void should_Encode_Form_Tokens_Into_A_StringBuilder_Identical_To_URLEncoder()
+            throws UnsupportedEncodingException {
+        for (int tokenCounter = 0; tokenCounter < NUMBER_OF_TOKENS; tokenCounter++) {
+            String token = randomToken();
+            StringBuilder target = new StringBuilder("prefix=");
+            PercentEncoder.FORM.encodeTo(token, target);
+            assertThat(token, target.toString(), is("prefix=" + URLEncoder.encode(token, UTF_8)));
+        }
+    }
+
+    @Test
+    public void should_Encode_Form_Tokens_Into_A_ByteBuffer_Byte_Identical_To_URLEncoder()
+            throws UnsupportedEncodingException {
+        for (int tokenCounter = 0; tokenCounter < NUMBER_OF_TOKENS; tokenCounter++) {
+            String token = randomToken();
+            ByteBuffer target = ByteBuffer.allocate(MAX_TOKEN_LENGTH * 12);
+            PercentEncoder.FORM.encodeTo(token, target);
+            byte[] expected = URLEncoder.encode(token, UTF_8).getBytes(StandardCharsets.US_ASCII);
+            assertThat(token, target.flip(), is(ByteBuffer.wrap(expected)));
+        }
+    }
+
+    @Test
+    public void should_Encode_RFC_3986_Tokens_As_URLEncoder_With_Unreserved_Characters_Fixed_Up()
+            throws UnsupportedEncodingException {
+        for (int tokenCounter = 0; tokenCounter < NUMBER_OF_TOKENS; tokenCounter++) {
+            String token = randomToken();
+            String expected = URLEncoder.encode(token, UTF_8).replace("+", "%20").replace("*", "%2A")
+                    .replace("%7E", "~");
+            assertThat(token, PercentEncoder.RFC_3986.encode(token), is(expected));
+        }
+    }
+
+    @Test
+    public void should_Return_The_Same_Token_When_Nothing_Needs_Escaping() {
+        String token = "Beyonce-2013_live.mp4";
+        assertThat(PercentEncoder.FORM.encode(token), is(sameInstance(token)));
+        assertThat(PercentEncoder.RFC_3986.encode(token), is(sameInstance(token)));
+    }
+
+    @Test
+    public void should_Encode_Space_Per_Mode() {
+        assertThat(PercentEncoder.FORM.encode("the script"), is("the+script"));
+        assertThat(PercentEncoder.RFC_3986.encode("the script"), is("the%20script"));
+    }
+
+    private String randomToken() {
+        int length = random.nextInt(MAX_TOKEN_LENGTH + 1);
+        StringBuilder token = new StringBuilder(length * 2);
+        for (int charCounter = 0; charCounter < length; charCounter++) {
+            switch (random.nextInt(8)) {
+                case 0:
+                    token.append((char) ('a' + random.nextInt(26)));
+                    break;
+                case 1:
+                    token.append((char) ('0' + random.nextInt(10)));
+                    break;
+                case 2:
+                    token.append((char) random.nextInt(0x80));
+                    break;
+                case 3:
+                    token.append(" !\"#$%&'()*+,/:;<=>?@[\\]^`{|}~-._".charAt(random.nextInt(33)));
+                    break;
+                case 4:
+                    token.append((char) (0x80 + random.nextInt(0x780)));
+                    break;
+                case 5:
+                    token.append((char) (0x3000 + random.nextInt(0x6000)));
+                    break;
+                case 6:
+                    token.appendCodePoint(0x1F300 + random.nextInt(0x300));
+                    break;
+                default:
+                    token.append((char) (Character.MIN_SURROGATE + random.nextInt(0x800)));
+                    break;
+            }
+        }
+        return token.toString();
+    }
+
+}
@@ -36,6 +36,14 @@ public class FlickrTest {
 	assertThat(aFlickrRestApi().extractJson(flickrResponse), is(jsonResponse));
     }
 
+    @Test
+    public void should_tell_successful_from_failed_response_by_its_stat() {
+	String okResponse = "jsonFlickrApi({\"method\":{\"_content\":\"flickr.test.echo\"}, \"stat\":\"ok\"})";
+	String failedResponse = "jsonFlickrApi({\"stat\":\"fail\", \"code\":100, \"message\":\"Invalid API Key\"})";
+	assertThat(aFlickrRestApi().isSuccessfulResponse(okResponse), is(true));
+	assertThat(aFlickrRestApi().isSuccessfulResponse(failedResponse), is(false));
+    }
+
     private BaseFlickr aFlickrRestApi() {
 	return new BaseFlickr();
     }
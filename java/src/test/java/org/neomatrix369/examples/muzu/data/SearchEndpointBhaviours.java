@@ -23,14 +23,22 @@
 package org.neomatrix369.examples.muzu.data;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.startsWith;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.neomatrix369.examples.muzu.VideoBaseFixture;
 import org.neomatrix369.examples.muzutv.BaseMuzu;
 import org.neomatrix369.examples.muzutv.data.Format;
 import org.neomatrix369.examples.muzutv.data.Search;
+import org.neomatrix369.examples.muzutv.feed.ArtistRecord;
+import org.neomatrix369.examples.muzutv.feed.MuzuRecordListener;
+import org.neomatrix369.examples.muzutv.feed.VideoRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,4 +72,22 @@ public class SearchEndpointBhaviours extends VideoBaseFixture {
 	assertThat(response, startsWith(xmlResponseBeginning));
     }
 
+    @Test
+    public void search_should_stream_video_records() throws Exception {
+
+	final List<VideoRecord> videos = new ArrayList<VideoRecord>();
+	int records = aSearchForArtist().buildUrl().executeUrl(new MuzuRecordListener() {
+	    @Override
+	    public void onArtist(ArtistRecord artist) {
+	    }
+
+	    @Override
+	    public void onVideo(VideoRecord video) {
+		videos.add(video);
+	    }
+	});
+	assertThat(records, is(1));
+	assertThat(videos.get(0).getTitle(), is(notNullValue()));
+    }
+
 }
\ No newline at end of file
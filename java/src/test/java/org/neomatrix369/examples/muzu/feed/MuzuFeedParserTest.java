@@ -0,0 +1,198 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.muzu.feed;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+import org.junit.Test;
+import org.neomatrix369.examples.muzutv.feed.ArtistRecord;
+import org.neomatrix369.examples.muzutv.feed.MuzuFeedParser;
+import org.neomatrix369.examples.muzutv.feed.MuzuRecordListener;
+import org.neomatrix369.examples.muzutv.feed.VideoRecord;
+
+public class MuzuFeedParserTest {
+
+    private static final String RSS_RESPONSE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+	    + "<rss version=\"2.0\" xmlns:media=\"http://search.yahoo.com/mrss/\"><channel>"
+	    + "<title>MUZU</title><description>MUZU Music Videos</description>"
+	    + "<item><title>Crazy In Love</title><link>http://www.muzu.tv/beyonce/crazy-in-love/1</link>"
+	    + "<description><![CDATA[Beyoncé & Jay-Z]]></description><guid>1</guid>"
+	    + "<media:thumbnail url=\"http://static.muzu.tv/1.jpg\"/></item>"
+	    + "<item><title>Halo</title><guid>2</guid></item>" + "</channel></rss>";
+
+    private static final String XML_ARTIST_RESPONSE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+	    + "<artist id=\"42\" vanityname=\"yello\"><name>Yello</name><videos>"
+	    + "<video id=\"7\" artistname=\"Yello\"><title>The Race</title></video>"
+	    + "<video id=\"8\" artistname=\"Yello\"><title>Oh Yeah</title></video>" + "</videos></artist>";
+
+    @Test
+    public void should_stream_video_records_from_rss_response() throws Exception {
+	RecordingListener listener = new RecordingListener();
+
+	int records = MuzuFeedParser.parse(body(RSS_RESPONSE), StandardCharsets.UTF_8, listener);
+
+	assertThat(records, is(2));
+	assertThat(listener.videos.get(0).getId(), is("1"));
+	assertThat(listener.videos.get(0).getTitle(), is("Crazy In Love"));
+	assertThat(listener.videos.get(0).getDescription(), is("Beyoncé & Jay-Z"));
+	assertThat(listener.videos.get(0).getThumbnailUrl(), is("http://static.muzu.tv/1.jpg"));
+	assertThat(listener.videos.get(1).getTitle(), is("Halo"));
+    }
+
+    @Test
+    public void should_stream_artist_before_its_videos_from_xml_response() throws Exception {
+	RecordingListener listener = new RecordingListener();
+
+	MuzuFeedParser.parse(body(XML_ARTIST_RESPONSE), StandardCharsets.UTF_8, listener);
+
+	assertThat(listener.artists.size(), is(1));
+	assertThat(listener.artists.get(0).getVanityName(), is("yello"));
+	assertThat(listener.artists.get(0).getName(), is("Yello"));
+	assertThat(listener.videos.size(), is(2));
+	assertThat(listener.videos.get(1).getId(), is("8"));
+	assertThat(listener.videos.get(1).getArtistName(), is("Yello"));
+	assertThat(listener.videos.get(1).getTitle(), is("Oh Yeah"));
+    }
+
+    @Test
+    public void should_throw_muzu_error_from_xml_response() throws Exception {
+	try {
+	    MuzuFeedParser.parse(body("<?xml version=\"1.0\"?><error code=\"404\">Artist not found</error>"),
+		    StandardCharsets.UTF_8, new RecordingListener());
+	    throw new AssertionError("Expected an IOException");
+	} catch (IOException e) {
+	    assertThat(e.getMessage(), containsString("404: Artist not found"));
+	}
+    }
+
+    @Test
+    public void should_read_the_encoding_from_the_xml_declaration_when_the_response_declared_no_charset()
+	    throws Exception {
+	RecordingListener listener = new RecordingListener();
+	byte[] latin1Response = RSS_RESPONSE.replace("encoding=\"UTF-8\"", "encoding=\"ISO-8859-1\"")
+		.getBytes(StandardCharsets.ISO_8859_1);
+
+	MuzuFeedParser.handler(listener).handle(new ByteArrayInputStream(latin1Response), StandardCharsets.UTF_8,
+		false);
+
+	assertThat(listener.videos.get(0).getDescription(), is("Beyoncé & Jay-Z"));
+    }
+
+    @Test
+    public void should_hand_over_first_video_before_the_whole_feed_is_read() throws Exception {
+	final CountingFeed feed = new CountingFeed(1000);
+	final List<Long> bytesReadAtEachVideo = new ArrayList<Long>();
+
+	int records = MuzuFeedParser.parse(feed, StandardCharsets.UTF_8, new RecordingListener() {
+	    @Override
+	    public void onVideo(VideoRecord video) {
+		bytesReadAtEachVideo.add(feed.bytesRead);
+	    }
+	});
+
+	assertThat(records, is(1000));
+	assertThat(bytesReadAtEachVideo.get(0), lessThan(feed.bytesRead / 10));
+    }
+
+    private InputStream body(String response) {
+	return new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class RecordingListener implements MuzuRecordListener {
+	final List<ArtistRecord> artists = new ArrayList<ArtistRecord>();
+	final List<VideoRecord> videos = new ArrayList<VideoRecord>();
+
+	@Override
+	public void onArtist(ArtistRecord artist) {
+	    artists.add(artist);
+	}
+
+	@Override
+	public void onVideo(VideoRecord video) {
+	    videos.add(video);
+	}
+    }
+
+    /**
+     * An RSS feed generated item by item as it is read, counting the bytes read.
+     */
+    private static class CountingFeed extends SequenceInputStream {
+	long bytesRead;
+
+	CountingFeed(final int items) {
+	    super(new Enumeration<InputStream>() {
+		private int item = -1;
+
+		@Override
+		public boolean hasMoreElements() {
+		    return item <= items;
+		}
+
+		@Override
+		public InputStream nextElement() {
+		    String part;
+		    if (item == -1) {
+			part = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><rss version=\"2.0\"><channel>";
+		    } else if (item == items) {
+			part = "</channel></rss>";
+		    } else {
+			part = "<item><title>Video " + item + "</title><guid>" + item + "</guid></item>";
+		    }
+		    item++;
+		    return new ByteArrayInputStream(part.getBytes(StandardCharsets.UTF_8));
+		}
+	    });
+	}
+
+	@Override
+	public int read() throws IOException {
+	    int read = super.read();
+	    if (read != -1) {
+		bytesRead++;
+	    }
+	    return read;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+	    int read = super.read(buffer, offset, length);
+	    if (read > 0) {
+		bytesRead += read;
+	    }
+	    return read;
+	}
+    }
+
+}
@@ -0,0 +1,200 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.polling;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PollingSchedulerTest {
+
+    private final PollingScheduler pollingScheduler = new PollingScheduler(4);
+
+    @After
+    public void tearDown() throws InterruptedException {
+	pollingScheduler.shutdown(1000);
+    }
+
+    @Test
+    public void should_keep_polling_after_a_run_fails() throws InterruptedException {
+	// Given
+	final CountDownLatch runs = new CountDownLatch(3);
+	pollingScheduler.schedule("failing", 10, 0, OverrunPolicy.SKIP, new PollingTask() {
+	    @Override
+	    public void poll() throws IOException {
+		runs.countDown();
+		throw new IOException("search unavailable");
+	    }
+	});
+
+	// When
+	boolean ranAgain = runs.await(2, TimeUnit.SECONDS);
+
+	// Then
+	assertThat(ranAgain, is(true));
+	PollingJobMetrics metrics = pollingScheduler.getMetrics("failing");
+	assertThat(metrics.getFailures(), greaterThanOrEqualTo(2L));
+	assertThat(metrics.getLastFailure(), is("search unavailable"));
+    }
+
+    @Test
+    public void should_keep_polling_after_a_run_throws_an_error() throws InterruptedException {
+	// Given
+	final CountDownLatch runs = new CountDownLatch(3);
+	pollingScheduler.schedule("erroneous", 10, 0, OverrunPolicy.SKIP, new PollingTask() {
+	    @Override
+	    public void poll() {
+		runs.countDown();
+		throw new Error("search crashed");
+	    }
+	});
+
+	// When
+	boolean ranAgain = runs.await(2, TimeUnit.SECONDS);
+
+	// Then
+	assertThat(ranAgain, is(true));
+    }
+
+    @Test
+    public void should_skip_runs_due_while_the_previous_one_is_still_going() throws InterruptedException {
+	// Given
+	final AtomicInteger concurrentRuns = new AtomicInteger();
+	final AtomicInteger maxConcurrentRuns = new AtomicInteger();
+	pollingScheduler.schedule("slow", 10, 0, OverrunPolicy.SKIP, new PollingTask() {
+	    @Override
+	    public void poll() throws InterruptedException {
+		maxConcurrentRuns.set(Math.max(maxConcurrentRuns.get(), concurrentRuns.incrementAndGet()));
+		Thread.sleep(100);
+		concurrentRuns.decrementAndGet();
+	    }
+	});
+
+	// When
+	PollingJobMetrics metrics = awaitMetrics("slow", m -> m.getRuns() >= 3);
+
+	// Then
+	assertThat(maxConcurrentRuns.get(), is(1));
+	assertThat(metrics.getSkippedRuns(), greaterThan(metrics.getRuns()));
+	assertThat(metrics.getMaxLatencyMillis(), greaterThanOrEqualTo(100L));
+    }
+
+    @Test
+    public void should_coalesce_runs_due_while_the_previous_one_is_still_going_into_one() throws InterruptedException {
+	// Given
+	final CountDownLatch firstRunStarted = new CountDownLatch(1);
+	final CountDownLatch releaseFirstRun = new CountDownLatch(1);
+	final AtomicInteger runs = new AtomicInteger();
+	pollingScheduler.schedule("coalescing", 10, 0, OverrunPolicy.COALESCE, new PollingTask() {
+	    @Override
+	    public void poll() throws InterruptedException {
+		if (runs.incrementAndGet() == 1) {
+		    firstRunStarted.countDown();
+		    releaseFirstRun.await();
+		}
+	    }
+	});
+	assertThat(firstRunStarted.await(1, TimeUnit.SECONDS), is(true));
+	// six ticks at 10ms put the first coalesced one at least 50ms in the past
+	PollingJobMetrics whileRunning = awaitMetrics("coalescing", m -> m.getCoalescedRuns() > 5);
+
+	// When
+	releaseFirstRun.countDown();
+	PollingJobMetrics afterRelease = awaitMetrics("coalescing", m -> m.getRuns() >= 2);
+
+	// Then
+	assertThat(whileRunning.getRuns(), is(0L));
+	assertThat(runs.get(), greaterThanOrEqualTo(2));
+	assertThat(afterRelease.getMaxLagMillis(), greaterThanOrEqualTo(50L));
+    }
+
+    @Test
+    public void should_run_jobs_on_separate_workers_so_a_slow_one_does_not_delay_the_others()
+	    throws InterruptedException {
+	// Given
+	final CountDownLatch fastRuns = new CountDownLatch(5);
+	pollingScheduler.schedule("slow", 1000, 0, OverrunPolicy.SKIP, new PollingTask() {
+	    @Override
+	    public void poll() throws InterruptedException {
+		Thread.sleep(2000);
+	    }
+	});
+	pollingScheduler.schedule("fast", 10, 0.5, OverrunPolicy.SKIP, new PollingTask() {
+	    @Override
+	    public void poll() {
+		fastRuns.countDown();
+	    }
+	});
+
+	// When
+	boolean fastJobKeptRunning = fastRuns.await(1, TimeUnit.SECONDS);
+
+	// Then
+	assertThat(fastJobKeptRunning, is(true));
+	assertThat(pollingScheduler.getMetrics("fast").getMaxLagMillis(), lessThan(500L));
+    }
+
+    @Test
+    public void should_stop_running_cancelled_jobs() throws InterruptedException {
+	// Given
+	pollingScheduler.schedule("cancelled", 10, new PollingTask() {
+	    @Override
+	    public void poll() {
+	    }
+	});
+
+	// When
+	boolean cancelled = pollingScheduler.cancel("cancelled");
+
+	// Then
+	assertThat(cancelled, is(true));
+	assertThat(pollingScheduler.getMetrics("cancelled"), is(nullValue()));
+	assertThat(pollingScheduler.cancel("cancelled"), is(false));
+    }
+
+    private PollingJobMetrics awaitMetrics(String name, Predicate<PollingJobMetrics> condition)
+	    throws InterruptedException {
+	long deadline = System.currentTimeMillis() + 5000;
+	PollingJobMetrics metrics = pollingScheduler.getMetrics(name);
+	while (!condition.test(metrics)) {
+	    if (System.currentTimeMillis() > deadline) {
+		throw new AssertionError("Metrics of " + name + " not as expected in time: " + metrics);
+	    }
+	    Thread.sleep(5);
+	    metrics = pollingScheduler.getMetrics(name);
+	}
+	return metrics;
+    }
+}
@@ -24,6 +24,10 @@ package org.neomatrix369.examples.twitter;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.neomatrix369.examples.twitter.search.TweetsDataStorage;
@@ -38,6 +42,12 @@ public class SearchTermFilterTest {
 		storage.saveTweetMessage(tweetMessageWritten);		
 	}
 			
+	@After
+	public void tearDown() throws IOException {
+		storage.close();
+		FileUtils.deleteDirectory(storage.getLogDirectory());
+	}
+
 	// - test for term in name 
 	@Test
 	public void shouldFindTermInTheUserID() {
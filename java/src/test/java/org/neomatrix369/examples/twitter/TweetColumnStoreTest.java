@@ -0,0 +1,165 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.twitter;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neomatrix369.examples.twitter.search.TweetColumnStore;
+
+public class TweetColumnStoreTest {
+    private static final String TEXT = "text";
+    private static final String FROM_USER_NAME = "from_user_name";
+    private static final String FROM_USER_ID = "from_user_id";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldFindSubstringsIgnoringCase() throws Exception {
+	TweetColumnStore store = newStore();
+
+	store.append(Arrays.asList(
+		new JSONObject("{'from_user_name':'Mani Sarkar', 'from_user_id':1234, 'text':'Hello #JavaOne, see you'}"),
+		new JSONObject("{'from_user_name':'neomatrix369', 'text':'Hacking on RESTAPIUnifier'}")));
+
+	assertThat(store.contains(TEXT, "LO #JAVA"), is(true));
+	assertThat(store.contains(TEXT, "api"), is(true));
+	assertThat(store.contains(FROM_USER_NAME, "i s"), is(true));
+	assertThat(store.contains(FROM_USER_ID, "23"), is(true));
+	assertThat(store.contains(TEXT, "javaone hacking"), is(false));
+	store.close();
+    }
+
+    @Test
+    public void shouldOnlyReadTheRowsPickedOut() throws Exception {
+	TweetColumnStore store = newStore();
+	List<JSONObject> tweets = new ArrayList<JSONObject>();
+	for (int counter = 0; counter < 10000; counter++) {
+	    tweets.add(new JSONObject().put(TEXT, "Tweet " + counter + " about Java"));
+	}
+	store.append(tweets);
+	BitSet rows = new BitSet();
+	rows.set(5000);
+	rows.set(9999);
+
+	assertThat(store.contains(TEXT, "tweet 9999 about", rows), is(true));
+	assertThat(store.contains(TEXT, "tweet 42 about", rows), is(false));
+	assertThat(store.contains(TEXT, "about java", new BitSet()), is(false));
+	store.close();
+    }
+
+    @Test
+    public void shouldMatchNonAsciiTermsIgnoringCase() throws Exception {
+	TweetColumnStore store = newStore();
+
+	store.append(Arrays.asList(new JSONObject("{'text':'Grüße aus MÜNCHEN'}")));
+
+	assertThat(store.contains(TEXT, "münchen"), is(true));
+	assertThat(store.contains(TEXT, "GRÜSSE"), is(false));
+	store.close();
+    }
+
+    @Test
+    public void shouldScanRowsInParallelAndReturnEveryMatch() throws Exception {
+	TweetColumnStore store = newStore();
+	List<JSONObject> tweets = new ArrayList<JSONObject>();
+	for (int counter = 0; counter < 20000; counter++) {
+	    tweets.add(new JSONObject().put(TEXT, counter % 7 == 0 ? "Tweet " + counter + " about Java" : "Tweet "
+		    + counter));
+	}
+
+	store.append(tweets);
+	BitSet rows = store.scan(TEXT, "about java");
+
+	assertThat(rows.cardinality(), is(2858));
+	assertThat(rows.get(0), is(true));
+	assertThat(rows.get(19998), is(false));
+	assertThat(rows.get(19999), is(true));
+	store.close();
+    }
+
+    @Test
+    public void shouldSkipRowsWithoutTheColumn() throws Exception {
+	TweetColumnStore store = newStore();
+
+	store.append(Arrays.asList(new JSONObject("{'text':'no user'}"), new JSONObject("{'from_user_name':'text'}")));
+
+	assertThat(store.scan(FROM_USER_NAME, "").cardinality(), is(1));
+	assertThat(store.scan(FROM_USER_NAME, "").get(1), is(true));
+	store.close();
+    }
+
+    @Test
+    public void shouldReopenAndCutBackUnevenColumns() throws Exception {
+	TweetColumnStore store = newStore();
+	store.append(Arrays.asList(new JSONObject("{'text':'first'}"), new JSONObject("{'text':'second'}")));
+	store.close();
+	File offsets = new File(temporaryFolder.getRoot(), TEXT + ".off");
+	RandomAccessFile file = new RandomAccessFile(offsets, "rw");
+	file.setLength(file.length() - 12);
+	file.close();
+
+	TweetColumnStore reopened = newStore();
+
+	assertThat(reopened.rowCount(), is(1));
+	assertThat(reopened.contains(TEXT, "first"), is(true));
+	assertThat(reopened.contains(TEXT, "second"), is(false));
+	reopened.close();
+    }
+
+    @Test
+    public void shouldFindValuesAcrossTheWindowsOfTheDataFile() throws Exception {
+	TweetColumnStore store = new TweetColumnStore(temporaryFolder.getRoot(), 16, TEXT);
+	List<JSONObject> tweets = new ArrayList<JSONObject>();
+	for (int counter = 0; counter < 100; counter++) {
+	    tweets.add(new JSONObject().put(TEXT, counter == 37 ? "a tweet long enough to span windows" : "tweet "
+		    + counter));
+	}
+	tweets.add(new JSONObject().put(TEXT, ""));
+
+	store.append(tweets);
+
+	assertThat(store.contains(TEXT, "SPAN WINDOWS"), is(true));
+	assertThat(store.scan(TEXT, "tweet 99").cardinality(), is(1));
+	assertThat(store.scan(TEXT, "tweet 99").get(99), is(true));
+	assertThat(store.scan(TEXT, "long enough").get(37), is(true));
+	assertThat(store.scan(TEXT, "").cardinality(), is(101));
+	store.close();
+    }
+
+    private TweetColumnStore newStore() throws Exception {
+	return new TweetColumnStore(temporaryFolder.getRoot(), TEXT, FROM_USER_NAME, FROM_USER_ID);
+    }
+}
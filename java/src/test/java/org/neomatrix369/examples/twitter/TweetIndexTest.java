@@ -0,0 +1,106 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.twitter;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.BitSet;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.neomatrix369.examples.twitter.search.TweetIndex;
+
+public class TweetIndexTest {
+    private static final String TEXT = "text";
+    private static final String FROM_USER_NAME = "from_user_name";
+    private static final String FROM_USER_ID = "from_user_id";
+
+    TweetIndex index;
+
+    @Before
+    public void setup() throws JSONException {
+	index = new TweetIndex(TEXT, FROM_USER_NAME, FROM_USER_ID);
+	index.add(new JSONObject("{'from_user_name':'Mani Sarkar', 'from_user_id':1234, 'text':'Hello #JavaOne, see you at the Hackergarten'}"));
+	index.add(new JSONObject("{'from_user_name':'neomatrix369', 'text':'Hacking on RESTAPIUnifier'}"));
+	index.add(new JSONObject("{'from_user_name':'someUserName', 'text':'Body of the twitter message'}"));
+    }
+
+    @Test
+    public void shouldFindTermInsideATokenIgnoringCase() {
+	assertThat(index.contains(TEXT, "ACKER"), is(true));
+	assertThat(index.contains(FROM_USER_NAME, "matrix"), is(true));
+	assertThat(index.contains(TEXT, "unknown"), is(false));
+    }
+
+    @Test
+    public void shouldNarrowDownTermsSpanningSeveralTokens() {
+	assertThat(index.candidates(TEXT, "ody of THE twit").toString(), is("{2}"));
+	assertThat(index.candidates(TEXT, "#javaone").toString(), is("{0}"));
+	assertThat(index.candidates(TEXT, "body of teh").isEmpty(), is(true));
+	assertThat(index.candidates(TEXT, "hacking on restapi").toString(), is("{1}"));
+	assertThat(index.candidates(TEXT, ", ").cardinality(), is(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldLeaveTermsSpanningSeveralTokensToTheCandidates() {
+	index.contains(TEXT, "body of the");
+    }
+
+    @Test
+    public void shouldFindShortTermsInsideTokens() {
+	assertThat(index.find(TEXT, "ck").toString(), is("{0, 1}"));
+	assertThat(index.contains(FROM_USER_NAME, "q"), is(false));
+    }
+
+    @Test
+    public void shouldFindTweetsByTokenPrefix() {
+	BitSet tweets = index.findByPrefix(TEXT, "hack");
+	assertThat(tweets.get(0), is(true));
+	assertThat(tweets.get(1), is(true));
+	assertThat(tweets.get(2), is(false));
+	assertThat(index.findByPrefix(TEXT, "ackergarten").isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldIndexNumericFieldsAndSkipMissingOnes() {
+	assertThat(index.contains(FROM_USER_ID, "23"), is(true));
+	assertThat(index.find(FROM_USER_ID, "1").cardinality(), is(1));
+    }
+
+    @Test
+    public void shouldFindEveryTweetWithTheTerm() {
+	BitSet tweets = index.find(TEXT, "e");
+	assertThat(tweets.cardinality(), is(3));
+	assertThat(index.size(), is(3));
+    }
+
+    @Test
+    public void shouldForgetTweetsWhenCleared() {
+	index.clear();
+	assertThat(index.contains(TEXT, "hello"), is(false));
+	assertThat(index.size(), is(0));
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.twitter;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neomatrix369.examples.twitter.search.TweetLog;
+
+public class TweetLogTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldAppendOnlyTweetsNotInTheLogYet() throws Exception {
+	TweetLog log = new TweetLog(temporaryFolder.getRoot());
+
+	log.append(Arrays.asList(tweet(1, "first"), tweet(2, "second")));
+	List<JSONObject> appended = log.append(Arrays.asList(tweet(2, "second, edited"), tweet(3, "third")));
+
+	assertThat(appended.size(), is(1));
+	assertThat(appended.get(0).getString("text"), is("third"));
+	assertThat(textsOf(log), is(Arrays.asList("first", "second", "third")));
+	log.close();
+    }
+
+    @Test
+    public void shouldDeduplicateTweetsWithoutIdByContent() throws Exception {
+	TweetLog log = new TweetLog(temporaryFolder.getRoot());
+
+	log.append(Arrays.asList(new JSONObject("{'text':'no id', 'from_user_name':'someUser'}")));
+	log.append(Arrays.asList(new JSONObject("{'from_user_name':'someUser', 'text':'no id'}")));
+
+	assertThat(log.size(), is(1));
+	log.close();
+    }
+
+    @Test
+    public void shouldKeepTweetsAcrossRestarts() throws Exception {
+	TweetLog log = new TweetLog(temporaryFolder.getRoot());
+	log.append(Arrays.asList(tweet(1, "first")));
+	log.close();
+
+	TweetLog reopenedLog = new TweetLog(temporaryFolder.getRoot());
+	reopenedLog.append(Arrays.asList(tweet(1, "first"), tweet(2, "second")));
+
+	assertThat(textsOf(reopenedLog), is(Arrays.asList("first", "second")));
+	reopenedLog.close();
+    }
+
+    @Test
+    public void shouldRollSegmentsWithoutMergingThem() throws Exception {
+	TweetLog log = new TweetLog(temporaryFolder.getRoot(), 64);
+	for (int id = 0; id < 10; id++) {
+	    log.append(Arrays.asList(tweet(id, "tweet " + id)));
+	}
+
+	log.compact();
+
+	assertThat(segmentsIn(temporaryFolder.getRoot()), is(6));
+	assertThat(textsOf(log).size(), is(10));
+	assertThat(textsOf(log).get(9), is("tweet 9"));
+	log.close();
+    }
+
+    @Test
+    public void shouldSkipDuplicateRecordsAndCompactThemOnceTheirSegmentIsSealed() throws Exception {
+	TweetLog log = new TweetLog(temporaryFolder.getRoot(), 64);
+	log.append(Arrays.asList(tweet(1, "first tweet")));
+	log.append(Arrays.asList(tweet(2, "second tweet")));
+	log.close();
+	Files.copy(segmentFile(0).toPath(), segmentFile(1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+	TweetLog reopenedLog = new TweetLog(temporaryFolder.getRoot(), 64);
+	assertThat(reopenedLog.size(), is(2));
+	assertThat(textsOf(reopenedLog), is(Arrays.asList("first tweet", "second tweet")));
+	reopenedLog.append(Arrays.asList(tweet(3, "third tweet")));
+	reopenedLog.compact();
+
+	assertThat(segmentFile(1).length(), is(8L + tweet(3, "third tweet").toString()
+		.getBytes(StandardCharsets.UTF_8).length));
+	assertThat(textsOf(reopenedLog), is(Arrays.asList("first tweet", "second tweet", "third tweet")));
+	reopenedLog.close();
+    }
+
+    @Test
+    public void shouldRefuseToOpenALogThatIsAlreadyOpen() throws Exception {
+	TweetLog log = new TweetLog(temporaryFolder.getRoot());
+	try {
+	    new TweetLog(temporaryFolder.getRoot());
+	    throw new AssertionError("Expected an IOException");
+	} catch (IOException expected) {
+	    assertThat(expected.getMessage().startsWith("Tweet log is already open"), is(true));
+	}
+	log.close();
+
+	new TweetLog(temporaryFolder.getRoot()).close();
+    }
+
+    @Test
+    public void shouldTruncateTornRecordAtTheEndOfTheLog() throws Exception {
+	TweetLog log = new TweetLog(temporaryFolder.getRoot());
+	log.append(Arrays.asList(tweet(1, "first"), tweet(2, "second")));
+	log.close();
+	File segment = segmentFile(0);
+	try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+	    file.setLength(file.length() - 3);
+	}
+
+	TweetLog recoveredLog = new TweetLog(temporaryFolder.getRoot());
+	recoveredLog.append(Arrays.asList(tweet(3, "third")));
+
+	assertThat(textsOf(recoveredLog), is(Arrays.asList("first", "third")));
+	recoveredLog.close();
+    }
+
+    private JSONObject tweet(long id, String text) throws JSONException {
+	return new JSONObject().put("id", id).put("text", text);
+    }
+
+    private List<String> textsOf(TweetLog log) throws IOException {
+	final List<String> texts = new ArrayList<String>();
+	log.forEach(new TweetLog.TweetConsumer() {
+	    @Override
+	    public void accept(JSONObject tweet) {
+		texts.add(tweet.optString("text"));
+	    }
+	});
+	return texts;
+    }
+
+    private int segmentsIn(File directory) {
+	int segments = 0;
+	for (String each : directory.list()) {
+	    if (each.startsWith("segment-")) {
+		segments++;
+	    }
+	}
+	return segments;
+    }
+
+    private File segmentFile(long segment) {
+	return new File(temporaryFolder.getRoot(), String.format("segment-%010d.log", segment));
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.twitter;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neomatrix369.examples.twitter.search.TweetPoller;
+import org.neomatrix369.examples.twitter.search.TweetsDataStorage;
+import org.neomatrix369.examples.twitter.search.TwitterInterfaceEngine;
+
+public class TweetPollerTest {
+    private static final String TERM = "openjdk";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private StubTwitterSearch twitterSearch;
+    private String storageFile;
+    private TweetsDataStorage storage;
+
+    @Before
+    public void setup() {
+	twitterSearch = new StubTwitterSearch();
+	storageFile = new File(temporaryFolder.getRoot(), "polledTweets.json").getPath();
+	storage = new TweetsDataStorage(storageFile);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+	storage.close();
+    }
+
+    @Test
+    public void shouldAskOnlyForTweetsNewerThanTheLastPoll() throws Exception {
+	TweetPoller poller = new TweetPoller(twitterSearch, storage);
+	twitterSearch.respond("{max_id_str:'102', results: [{id_str:'101', text:'first'}, {id_str:'102', text:'second'}]}");
+	twitterSearch.respond("{max_id_str:'103', results: [{id_str:'103', text:'third'}]}");
+
+	assertThat(poller.poll(TERM), is(2));
+	assertThat(poller.poll(TERM), is(1));
+
+	assertThat(twitterSearch.sinceIds.get(0), is(nullValue()));
+	assertThat(twitterSearch.sinceIds.get(1), is("102"));
+	assertThat(poller.getSinceId(TERM), is("103"));
+    }
+
+    @Test
+    public void shouldSaveOnlyTweetsNotSeenBefore() throws Exception {
+	TweetPoller poller = new TweetPoller(twitterSearch, storage);
+	twitterSearch.respond("{results: [{id_str:'101', text:'first'}, {id_str:'102', text:'second'}]}");
+	twitterSearch.respond("{results: [{id_str:'102', text:'second'}, {id_str:'103', text:'third'}]}");
+
+	poller.poll(TERM);
+	int savedTweets = poller.poll(TERM);
+
+	assertThat(savedTweets, is(1));
+	assertThat(storage.loadTweetMessage().length(), is(3));
+    }
+
+    @Test
+    public void shouldResumeFromTheSavedSinceIdAndSeenTweets() throws Exception {
+	new TweetPoller(twitterSearch, storage).poll(TERM);
+	storage.close();
+	twitterSearch.respond("{results: [{id_str:'101', text:'first'}]}");
+	new TweetPoller(twitterSearch, storage).poll(TERM);
+	storage.close();
+	TweetPoller restartedPoller = new TweetPoller(twitterSearch, storage);
+	twitterSearch.respond("{results: [{id_str:'101', text:'first'}, {id_str:'104', text:'fourth'}]}");
+
+	assertThat(restartedPoller.getSinceId(TERM), is("101"));
+	assertThat(restartedPoller.poll(TERM), is(1));
+	assertThat(twitterSearch.sinceIds.get(twitterSearch.sinceIds.size() - 1), is("101"));
+    }
+
+    @Test
+    public void shouldPageBackToTheSinceId() throws Exception {
+	TweetPoller poller = new TweetPoller(twitterSearch, storage);
+	twitterSearch.respond("{max_id_str:'105', next_page:'?page=2&max_id=105&q=openjdk', "
+		+ "results: [{id_str:'105', text:'fifth'}, {id_str:'104', text:'fourth'}]}");
+	twitterSearch.respond("{max_id_str:'103', results: [{id_str:'103', text:'third'}]}");
+
+	assertThat(poller.poll(TERM), is(3));
+
+	assertThat(twitterSearch.maxIds.get(0), is(nullValue()));
+	assertThat(twitterSearch.maxIds.get(1), is("103"));
+	assertThat(poller.getSinceId(TERM), is("105"));
+    }
+
+    @Test
+    public void shouldKeepTheSinceIdWhenPagingStopsShortOfIt() throws Exception {
+	TweetPoller poller = new TweetPoller(twitterSearch, storage);
+	twitterSearch.respond("{max_id_str:'105', next_page:'?page=2&max_id=105&q=openjdk', "
+		+ "results: [{id_str:'105', text:'fifth'}]}");
+
+	assertThat(poller.poll(TERM), is(1));
+
+	assertThat(poller.getSinceId(TERM), is(nullValue()));
+    }
+
+    @Test
+    public void shouldAdvanceToTheNewestTweetWhenThereAreMorePagesThanPolled() throws Exception {
+	TweetPoller poller = new TweetPoller(twitterSearch, storage);
+	for (int page = 0; page < TweetPoller.MAX_PAGES; page++) {
+	    int id = 1000 - page;
+	    twitterSearch.respond("{next_page:'?page=" + (page + 2) + "&q=openjdk', results: [{id_str:'" + id
+		    + "', text:'tweet " + id + "'}]}");
+	}
+	twitterSearch.respond("{results: [{id_str:'900', text:'never fetched'}]}");
+
+	assertThat(poller.poll(TERM), is(TweetPoller.MAX_PAGES));
+
+	assertThat(poller.getSinceId(TERM), is("1000"));
+	assertThat(twitterSearch.maxIds.size(), is(TweetPoller.MAX_PAGES));
+	assertThat(twitterSearch.maxIds.get(TweetPoller.MAX_PAGES - 1), is("986"));
+    }
+
+    @Test
+    public void shouldNotAdvanceWhenTheTweetsCannotBeSaved() throws Exception {
+	FailingTweetsDataStorage failingStorage = new FailingTweetsDataStorage(storageFile);
+	storage = failingStorage;
+	TweetPoller poller = new TweetPoller(twitterSearch, failingStorage);
+	twitterSearch.respond("{max_id_str:'102', results: [{id_str:'101', text:'first'}, {id_str:'102', text:'second'}]}");
+	twitterSearch.respond("{max_id_str:'102', results: [{id_str:'101', text:'first'}, {id_str:'102', text:'second'}]}");
+
+	try {
+	    poller.poll(TERM);
+	    throw new AssertionError("Expected an IOException");
+	} catch (IOException expected) {
+	    assertThat(poller.getSinceId(TERM), is(nullValue()));
+	}
+	failingStorage.failing = false;
+
+	assertThat(poller.poll(TERM), is(2));
+	assertThat(poller.getSinceId(TERM), is("102"));
+    }
+
+    private static class StubTwitterSearch extends TwitterInterfaceEngine {
+	private final LinkedList<String> responses = new LinkedList<String>();
+	private final List<String> sinceIds = new ArrayList<String>();
+	private final List<String> maxIds = new ArrayList<String>();
+
+	void respond(String response) {
+	    responses.add(response);
+	}
+
+	@Override
+	public String searchTweetsBetween(String usingSearchTerms, String sinceId, String maxId) {
+	    sinceIds.add(sinceId);
+	    maxIds.add(maxId);
+	    return responses.isEmpty() ? "" : responses.removeFirst();
+	}
+    }
+
+    private static class FailingTweetsDataStorage extends TweetsDataStorage {
+	private boolean failing = true;
+
+	FailingTweetsDataStorage(String localStorageFile) {
+	    super(localStorageFile);
+	}
+
+	@Override
+	public synchronized int saveTweetMessages(JSONArray receivedTweetMessages) {
+	    return failing ? -1 : super.saveTweetMessages(receivedTweetMessages);
+	}
+    }
+}
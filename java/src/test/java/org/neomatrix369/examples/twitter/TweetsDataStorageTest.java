@@ -25,10 +25,20 @@ package org.neomatrix369.examples.twitter;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.neomatrix369.examples.twitter.search.TweetColumnStore;
+import org.neomatrix369.examples.twitter.search.TweetLog;
 import org.neomatrix369.examples.twitter.search.TweetsDataStorage;
 
 public class TweetsDataStorageTest {
@@ -41,6 +51,12 @@ public class TweetsDataStorageTest {
 	storage = new TweetsDataStorage(TWEETS_FILENAME);
     }
 
+    @After
+    public void tearDown() throws IOException {
+	storage.close();
+	FileUtils.deleteDirectory(storage.getLogDirectory());
+    }
+
     @Test
     public void shouldBeAbleToWriteAndReadBackMessages() throws JSONException {
 	String arrayPartOfTweetAsString = "[{'from_user_name':'someUser', 'from_user_id':'‏@someonesTwitterHandle', 'text':'Body of the twitter message #hashtag1 #hashtag2 #hashtag3'}]";
@@ -53,4 +69,87 @@ public class TweetsDataStorageTest {
 	assertThat(READ_WRITE_MISMATCH_ERROR_MESSAGE, tweetMessageRead.toString(),
 		is(tweetMessageWrittenAsArray.toString()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldAppendOnlyTheTweetsNotSavedYet() throws JSONException, IOException {
+	storage.saveTweetMessage("{results: [{'id':1, 'text':'first'}, {'id':2, 'text':'second'}]}");
+	storage.saveTweetMessage("{results: [{'id':2, 'text':'second'}, {'id':3, 'text':'third'}]}");
+	storage.close();
+
+	try (TweetsDataStorage reopenedStorage = new TweetsDataStorage(TWEETS_FILENAME)) {
+	    final JSONArray tweetMessageRead = reopenedStorage.loadTweetMessage();
+
+	    assertThat(tweetMessageRead.length(), is(3));
+	    assertThat(tweetMessageRead.getJSONObject(2).getString("text"), is("third"));
+	}
+    }
+
+    @Test
+    public void shouldStreamTheSavedTweetsAfterTheStorageWasClosed() throws IOException {
+	storage.saveTweetMessage("{results: [{'id':1, 'text':'first'}, {'id':2, 'text':'second'}]}");
+	storage.close();
+
+	final List<String> texts = new ArrayList<String>();
+	try (TweetsDataStorage reopenedStorage = new TweetsDataStorage(TWEETS_FILENAME)) {
+	    reopenedStorage.forEachTweetMessage(new TweetLog.TweetConsumer() {
+		@Override
+		public void accept(JSONObject tweet) {
+		    texts.add(tweet.optString("text"));
+		}
+	    });
+	}
+
+	assertThat(texts.toString(), is("[first, second]"));
+    }
+
+    @Test
+    public void shouldFindSubstringsSpanningWordsInTheSavedTweets() throws IOException {
+	storage.saveTweetMessage("{results: [{'id':1, 'text':'Hello #JavaOne, see you', 'from_user_name':'Mani Sarkar'}]}");
+	storage.close();
+
+	try (TweetsDataStorage reopenedStorage = new TweetsDataStorage(TWEETS_FILENAME)) {
+	    assertThat(reopenedStorage.searchTermInBodyOfTheTweetMessage("LO #JAVAONE, S"), is(true));
+	    assertThat(reopenedStorage.searchTermInUserNameInTweetMessage("ani sar"), is(true));
+	    assertThat(reopenedStorage.searchTermInBodyOfTheTweetMessage("you see"), is(false));
+	}
+    }
+
+    @Test
+    public void shouldKeepTweetsSavedToTheLogWhenTheColumnStoreFails() throws IOException, JSONException {
+	storage.close();
+	try (FailingColumnsTweetsDataStorage failingStorage = new FailingColumnsTweetsDataStorage(TWEETS_FILENAME)) {
+	    failingStorage.saveTweetMessage("{results: [{'id':1, 'text':'Hello #JavaOne'}]}");
+	    assertThat(failingStorage.searchTermInBodyOfTheTweetMessage("javaone"), is(true));
+	    failingStorage.failing = true;
+
+	    int savedTweets = failingStorage.saveTweetMessages(new JSONArray(
+		    "[{'id':2, 'text':'See you at the Hackergarten'}]"));
+
+	    assertThat(savedTweets, is(1));
+	    assertThat(failingStorage.searchTermInBodyOfTheTweetMessage("hackergarten"), is(true));
+	    assertThat(failingStorage.searchTermInBodyOfTheTweetMessage("at the hacker"), is(true));
+	}
+    }
+
+    private static class FailingColumnsTweetsDataStorage extends TweetsDataStorage {
+	private boolean failing;
+
+	FailingColumnsTweetsDataStorage(String localStorageFile) {
+	    super(localStorageFile);
+	}
+
+	@Override
+	protected TweetColumnStore createTweetColumns(File directory, String... columnNames) throws IOException {
+	    return new TweetColumnStore(directory, columnNames) {
+		@Override
+		public synchronized void append(List<JSONObject> tweets) throws IOException {
+		    if (failing) {
+			failing = false;
+			throw new IOException("No space left on device");
+		    }
+		    super.append(tweets);
+		}
+	    };
+	}
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.unifiedsearch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+import org.neomatrix369.apiworld.json.JsonpReader;
+
+public class SearchHitMappingTest {
+
+    @Test
+    public void should_map_flickr_photos_to_hits_linking_to_their_page() throws IOException {
+	// Given
+	String response = "jsonFlickrApi({\"photos\":{\"page\":1,\"photo\":[{\"id\":\"8562\",\"owner\":\"93@N02\","
+		+ "\"title\":\"Yello live\"}]},\"stat\":\"ok\"})";
+
+	// When
+	List<SearchHit> hits = FlickrSearchProvider.PHOTOS.read(new JsonpReader(new StringReader(response))).hits();
+
+	// Then
+	assertThat(hits.size(), is(1));
+	assertThat(hits.get(0).getProvider(), is("flickr"));
+	assertThat(hits.get(0).getTitle(), is("Yello live"));
+	assertThat(hits.get(0).getLink(), is("http://www.flickr.com/photos/93@N02/8562"));
+    }
+
+    @Test(expected = IOException.class)
+    public void should_fail_when_flickr_reports_a_failure() throws IOException {
+	// Given
+	String response = "jsonFlickrApi({\"stat\":\"fail\",\"code\":100,\"message\":\"Invalid API Key\"})";
+
+	// When
+	FlickrSearchProvider.PHOTOS.read(new JsonpReader(new StringReader(response))).hits();
+    }
+
+    @Test
+    public void should_map_tweets_to_hits_by_their_author() throws IOException {
+	// Given
+	String response = "{\"results\":[{\"id_str\":\"3000000000000000001\",\"from_user\":\"yello\","
+		+ "\"text\":\"Oh yeah\"}],\"max_id_str\":\"3000000000000000001\"}";
+
+	// When
+	List<SearchHit> hits = TwitterSearchProvider.TWEETS.read(new StringReader(response));
+
+	// Then
+	assertThat(hits.size(), is(1));
+	assertThat(hits.get(0).getTitle(), is("Oh yeah"));
+	assertThat(hits.get(0).getSummary(), is("yello"));
+	assertThat(hits.get(0).getLink(), is("http://twitter.com/yello/status/3000000000000000001"));
+    }
+
+    @Test
+    public void should_map_yql_web_results_to_hits() throws IOException {
+	// Given
+	String response = "{\"query\":{\"count\":1,\"results\":{\"result\":[{\"title\":\"Yello\","
+		+ "\"url\":\"http://www.yello.com/\",\"abstract\":\"Official site\"}]}}}";
+
+	// When
+	List<SearchHit> hits = YqlSearchProvider.PAGES.read(new StringReader(response));
+
+	// Then
+	assertThat(hits.size(), is(1));
+	assertThat(hits.get(0).getProvider(), is("yql"));
+	assertThat(hits.get(0).getLink(), is("http://www.yello.com/"));
+	assertThat(hits.get(0).getSummary(), is("Official site"));
+    }
+
+    @Test
+    public void should_map_no_hits_when_yql_found_nothing() throws IOException {
+	// Given
+	String response = "{\"query\":{\"count\":0,\"results\":null}}";
+
+	// When
+	List<SearchHit> hits = YqlSearchProvider.PAGES.read(new StringReader(response));
+
+	// Then
+	assertThat(hits.isEmpty(), is(true));
+    }
+
+}
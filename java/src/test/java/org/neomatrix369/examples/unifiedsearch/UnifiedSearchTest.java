@@ -0,0 +1,161 @@
+/**
+ *
+ *  Copyright (c) 2013. All rights reserved.
+ *
+ *  DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *  This code is free software; you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License version 2 only, as
+ *  published by the Free Software Foundation.  Oracle designates this
+ *  particular file as subject to the "Classpath" exception as provided
+ *  by Oracle in the LICENSE file that accompanied this code.
+ *
+ *  This code is distributed in the hope that it will be useful, but WITHOUT
+ *  ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ *  version 2 for more details (a copy is included in the LICENSE file that
+ *  accompanied this code).
+ *
+ *  You should have received a copy of the GNU General Public License version
+ *  2 along with this work; if not, write to the Free Software Foundation,
+ *  Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package org.neomatrix369.examples.unifiedsearch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.neomatrix369.apiworld.exception.HttpStatusException;
+
+public class UnifiedSearchTest {
+
+    @Test
+    public void should_return_partial_results_when_providers_fail_or_miss_their_deadline() {
+	// Given
+	UnifiedSearch unifiedSearch = new UnifiedSearch()
+		.register(new FakeProvider("fast", 10, false))
+		.register(new FakeProvider("slow", 5000, false), 200)
+		.register(new FakeProvider("broken", 10, true));
+
+	// When
+	UnifiedSearchResult result = unifiedSearch.search("yello");
+
+	// Then
+	assertThat(result.getResults().size(), is(1));
+	assertThat(result.getResults().get(0).getProvider(), is("fast"));
+	assertThat(result.getResults().get(0).getHits().get(0).getTitle(), is("fast:yello"));
+	assertThat(result.getTimedOutProviders(), contains("slow"));
+	assertThat(result.getFailedProviders().keySet(), contains("broken"));
+	assertThat(result.isComplete(), is(false));
+	assertThat(result.getElapsedMillis(), lessThan(1000L));
+    }
+
+    @Test
+    public void should_take_about_as_long_as_the_slowest_provider_rather_than_all_of_them() {
+	// Given
+	UnifiedSearch unifiedSearch = new UnifiedSearch();
+	for (int provider = 0; provider < 5; provider++) {
+	    unifiedSearch.register(new FakeProvider("provider" + provider, 200, false));
+	}
+
+	// When
+	UnifiedSearchResult result = unifiedSearch.search("yello");
+
+	// Then
+	assertThat(result.isComplete(), is(true));
+	assertThat(result.getResults().size(), is(5));
+	assertThat(result.getResults().get(4).getProvider(), is("provider4"));
+	assertThat(result.getElapsedMillis(), lessThan(800L));
+    }
+
+    @Test
+    public void should_interrupt_a_provider_which_missed_its_deadline() throws Exception {
+	// Given
+	final CountDownLatch interrupted = new CountDownLatch(1);
+	ExecutorService executor = Executors.newCachedThreadPool();
+	UnifiedSearch unifiedSearch = new UnifiedSearch(executor).register(new FakeProvider("slow", 5000, false) {
+	    @Override
+	    public List<SearchHit> search(String query) throws IOException {
+		try {
+		    return super.search(query);
+		} catch (InterruptedIOException e) {
+		    interrupted.countDown();
+		    throw e;
+		}
+	    }
+	}, 100);
+
+	// When
+	UnifiedSearchResult result = unifiedSearch.search("yello");
+
+	// Then
+	assertThat(result.getTimedOutProviders(), contains("slow"));
+	assertThat(interrupted.await(1, TimeUnit.SECONDS), is(true));
+	executor.shutdownNow();
+    }
+
+    @Test
+    public void should_report_a_provider_as_failed_when_no_thread_is_free_for_it() {
+	// Given
+	ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+		new SynchronousQueue<Runnable>(), new ThreadPoolExecutor.AbortPolicy());
+	UnifiedSearch unifiedSearch = new UnifiedSearch(executor)
+		.register(new FakeProvider("first", 10, false))
+		.register(new FakeProvider("second", 10, false));
+
+	// When
+	UnifiedSearchResult result = unifiedSearch.search("yello");
+
+	// Then
+	assertThat(result.getResults().size(), is(1));
+	assertThat(result.getResults().get(0).getProvider(), is("first"));
+	assertThat(result.getFailedProviders().keySet(), contains("second"));
+	executor.shutdownNow();
+    }
+
+    private static class FakeProvider implements SearchProvider {
+
+	private final String name;
+	private final long latencyMillis;
+	private final boolean broken;
+
+	FakeProvider(String name, long latencyMillis, boolean broken) {
+	    this.name = name;
+	    this.latencyMillis = latencyMillis;
+	    this.broken = broken;
+	}
+
+	@Override
+	public String getName() {
+	    return name;
+	}
+
+	@Override
+	public List<SearchHit> search(String query) throws IOException {
+	    try {
+		Thread.sleep(latencyMillis);
+	    } catch (InterruptedException e) {
+		throw new InterruptedIOException();
+	    }
+	    if (broken) {
+		throw new HttpStatusException(500, name);
+	    }
+	    return Collections.singletonList(new SearchHit(name, name + ":" + query, null, null));
+	}
+    }
+
+}